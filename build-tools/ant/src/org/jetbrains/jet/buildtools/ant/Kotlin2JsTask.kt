@@ -33,6 +33,7 @@ public class Kotlin2JsTask : KotlinCompilerBaseTask<K2JSCompilerArguments>() {
     public var outputPrefix: File? = null
     public var outputPostfix: File? = null
     public var sourceMap: Boolean = false
+    public var metaInfo: File? = null
 
     /**
      * {@link K2JsArgumentConstants.CALL} (default) if need generate a main function call (main function will be auto detected)
@@ -66,5 +67,6 @@ public class Kotlin2JsTask : KotlinCompilerBaseTask<K2JSCompilerArguments>() {
 
         arguments.main = main
         arguments.sourceMap = sourceMap
+        arguments.metaInfo = metaInfo?.canonicalPath
     }
 }
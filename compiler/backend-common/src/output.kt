@@ -37,6 +37,10 @@ public trait OutputFile {
     override fun toString() = "$relativePath (compiled from $sourceFiles)"
 }
 
+public trait OutputFileConsumer {
+    public fun consume(file: OutputFile)
+}
+
 class SimpleOutputFile(
         override val sourceFiles: List<File>,
         override val relativePath: String,
@@ -26,13 +26,20 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.jet.OutputFile;
 import org.jetbrains.jet.OutputFileCollection;
+import org.jetbrains.jet.OutputFileConsumer;
 import org.jetbrains.jet.codegen.state.GenerationState;
+import org.jetbrains.jet.lang.descriptors.DeclarationDescriptor;
+import org.jetbrains.jet.lang.descriptors.SimpleFunctionDescriptor;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.java.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.org.objectweb.asm.ClassReader;
 import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.util.TraceClassVisitor;
 
 import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.*;
 
 public class ClassFileFactory implements OutputFileCollection {
@@ -40,8 +47,10 @@ public class ClassFileFactory implements OutputFileCollection {
     private final ClassBuilderFactory builderFactory;
     private final Map<FqName, PackageCodegen> package2codegen = new HashMap<FqName, PackageCodegen>();
     private final Map<String, ClassBuilderAndSourceFileList> generators = new LinkedHashMap<String, ClassBuilderAndSourceFileList>();
+    private final Set<String> flushedFiles = new HashSet<String>();
 
     private boolean isDone = false;
+    private OutputFileConsumer outputFileConsumer = null;
 
     public ClassFileFactory(@NotNull GenerationState state, @NotNull ClassBuilderFactory builderFactory) {
         this.state = state;
@@ -65,8 +74,70 @@ public class ClassFileFactory implements OutputFileCollection {
         List<File> ioSourceFiles = toIoFilesIgnoringNonPhysical(sourceFiles);
         state.getProgress().reportOutput(ioSourceFiles, new File(outputFilePath));
         ClassBuilder answer = builderFactory.newClassBuilder(origin);
-        generators.put(outputFilePath, new ClassBuilderAndSourceFileList(answer, ioSourceFiles));
-        return answer;
+        if (outputFileConsumer == null || mayBeNeededForInlining(origin)) {
+            generators.put(outputFilePath, new ClassBuilderAndSourceFileList(answer, ioSourceFiles, false));
+            return answer;
+        }
+
+        final ClassBuilderAndSourceFileList record = new ClassBuilderAndSourceFileList(answer, ioSourceFiles, true);
+        generators.put(outputFilePath, record);
+        return new DelegatingClassBuilder() {
+            @NotNull
+            @Override
+            protected ClassBuilder getDelegate() {
+                return record.classBuilder;
+            }
+
+            @Override
+            public void done() {
+                super.done();
+                record.isDone = true;
+            }
+        };
+    }
+
+    /**
+     * Makes this factory hand finished classes over to the given consumer on each {@link #flush()} instead of keeping them until
+     * the end of code generation. Classes which can be read back by the inliner stay in the factory and are returned by {@link #asList()}
+     */
+    public void setOutputFileConsumer(@Nullable OutputFileConsumer consumer) {
+        assert generators.isEmpty() : "Output file consumer should be set before code generation";
+        outputFileConsumer = consumer;
+    }
+
+    // Classes generated inside inline functions (and classes with unknown origin) can be read back by the inliner
+    // at a call site in another package, so they are never flushed
+    private static boolean mayBeNeededForInlining(@NotNull JvmDeclarationOrigin origin) {
+        DeclarationDescriptor descriptor = origin.getDescriptor();
+        if (descriptor == null) return true;
+
+        for (DeclarationDescriptor current = descriptor; current != null; current = current.getContainingDeclaration()) {
+            if (current instanceof SimpleFunctionDescriptor && ((SimpleFunctionDescriptor) current).getInlineStrategy().isInline()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes all finished classes which can't be needed by the inliner anymore to the output file consumer and forgets them.
+     * Should only be called between packages, because classes inlined into a call site are removed from the factory
+     * during the code generation of the package which contains that call site
+     */
+    void flush() {
+        if (outputFileConsumer == null) return;
+
+        for (Iterator<Map.Entry<String, ClassBuilderAndSourceFileList>> iterator = generators.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, ClassBuilderAndSourceFileList> entry = iterator.next();
+            ClassBuilderAndSourceFileList record = entry.getValue();
+            if (!record.isFlushable || !record.isDone) continue;
+
+            String relativePath = entry.getKey();
+            if (flushedFiles.add(relativePath)) {
+                outputFileConsumer.consume(new FlushedClassFile(relativePath, record.sourceFiles, builderFactory.asBytes(record.classBuilder)));
+            }
+            iterator.remove();
+        }
     }
 
     void done() {
@@ -178,13 +249,60 @@ public class ClassFileFactory implements OutputFileCollection {
         }
     }
 
+    private static class FlushedClassFile implements OutputFile {
+        private final String relativeClassFilePath;
+        private final List<File> sourceFiles;
+        private final byte[] bytes;
+
+        public FlushedClassFile(String relativeClassFilePath, List<File> sourceFiles, byte[] bytes) {
+            this.relativeClassFilePath = relativeClassFilePath;
+            this.sourceFiles = sourceFiles;
+            this.bytes = bytes;
+        }
+
+        @NotNull
+        @Override
+        public String getRelativePath() {
+            return relativeClassFilePath;
+        }
+
+        @NotNull
+        @Override
+        public List<File> getSourceFiles() {
+            return sourceFiles;
+        }
+
+        @NotNull
+        @Override
+        public byte[] asByteArray() {
+            return bytes;
+        }
+
+        @NotNull
+        @Override
+        public String asText() {
+            StringWriter writer = new StringWriter();
+            new ClassReader(bytes).accept(new TraceClassVisitor(new PrintWriter(writer)), 0);
+            return writer.toString();
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return getRelativePath() + " (compiled from " + getSourceFiles() + ")";
+        }
+    }
+
     private static final class ClassBuilderAndSourceFileList {
         private final ClassBuilder classBuilder;
         private final List<File> sourceFiles;
+        private final boolean isFlushable;
+        private boolean isDone = false;
 
-        private ClassBuilderAndSourceFileList(ClassBuilder classBuilder, List<File> sourceFiles) {
+        private ClassBuilderAndSourceFileList(ClassBuilder classBuilder, List<File> sourceFiles, boolean isFlushable) {
             this.classBuilder = classBuilder;
             this.sourceFiles = sourceFiles;
+            this.isFlushable = isFlushable;
         }
     }
 
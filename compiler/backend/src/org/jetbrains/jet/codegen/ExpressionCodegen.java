@@ -519,13 +519,38 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         if (binaryCall != null) {
             ResolvedCall<?> resolvedCall = getResolvedCall(binaryCall.op, bindingContext);
             if (resolvedCall != null) {
-                if (RangeCodegenUtil.isOptimizableRangeTo(resolvedCall.getResultingDescriptor())) {
-                    generateForLoop(new ForInRangeLiteralLoopGenerator(forExpression, binaryCall));
+                CallableDescriptor rangeCallDescriptor = resolvedCall.getResultingDescriptor();
+                if (RangeCodegenUtil.isOptimizableRangeTo(rangeCallDescriptor)) {
+                    generateForLoop(new ForInRangeLiteralLoopGenerator(forExpression, binaryCall, 1));
+                    return StackValue.none();
+                }
+
+                // Is it a "2 downTo 1" or so
+                if (RangeCodegenUtil.isOptimizableDownTo(rangeCallDescriptor)) {
+                    generateForLoop(new ForInRangeLiteralLoopGenerator(forExpression, binaryCall, -1));
+                    return StackValue.none();
+                }
+
+                // Is it a "1..2 step 3" or so
+                if (RangeCodegenUtil.isOptimizableStep(rangeCallDescriptor)) {
+                    generateForLoop(new ForInStepLoopGenerator(forExpression, binaryCall));
                     return StackValue.none();
                 }
             }
         }
 
+        // Is it an "array.indices" or "collection.indices"
+        JetExpression deparenthesizedLoopRange = JetPsiUtil.deparenthesize(forExpression.getLoopRange());
+        if (deparenthesizedLoopRange instanceof JetDotQualifiedExpression) {
+            JetDotQualifiedExpression qualifiedExpression = (JetDotQualifiedExpression) deparenthesizedLoopRange;
+            ResolvedCall<?> resolvedCall = getResolvedCall(qualifiedExpression.getSelectorExpression(), bindingContext);
+            if (resolvedCall != null && RangeCodegenUtil.isOptimizableIndices(resolvedCall.getResultingDescriptor())) {
+                generateForLoop(new ForInIndicesLoopGenerator(forExpression, qualifiedExpression.getReceiverExpression(),
+                                                              getExtensionReceiverType(resolvedCall)));
+                return StackValue.none();
+            }
+        }
+
         JetExpression loopRange = forExpression.getLoopRange();
         JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, loopRange);
         assert loopRangeType != null;
@@ -929,8 +954,13 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
     }
 
     private abstract class AbstractForInRangeLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
-        private AbstractForInRangeLoopGenerator(@NotNull JetForExpression forExpression) {
+        // Either 1 for ranges or -1 for "downTo" progressions, which are iterated from start down to end
+        private final int increment;
+
+        private AbstractForInRangeLoopGenerator(@NotNull JetForExpression forExpression, int increment) {
             super(forExpression);
+            assert increment == 1 || increment == -1 : "Unexpected increment: " + increment;
+            this.increment = increment;
         }
 
         @Override
@@ -954,8 +984,14 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             v.load(loopParameterVar, asmElementType);
             v.load(endVar, asmElementType);
 
-            v.cmpg(asmElementType);
-            v.ifgt(loopExit);
+            if (increment > 0) {
+                v.cmpg(asmElementType);
+                v.ifgt(loopExit);
+            }
+            else {
+                v.cmpl(asmElementType);
+                v.iflt(loopExit);
+            }
         }
 
         @Override
@@ -966,10 +1002,20 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             v.load(endVar, asmElementType);
             if (asmElementType.getSort() == Type.LONG) {
                 v.lcmp();
-                v.ifgt(loopExit);
+                if (increment > 0) {
+                    v.ifgt(loopExit);
+                }
+                else {
+                    v.iflt(loopExit);
+                }
             }
             else {
-                v.ificmpgt(loopExit);
+                if (increment > 0) {
+                    v.ificmpgt(loopExit);
+                }
+                else {
+                    v.ificmplt(loopExit);
+                }
             }
         }
 
@@ -984,11 +1030,11 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             }
 
             if (asmElementType == Type.INT_TYPE) {
-                v.iinc(loopParameterVar, 1);
+                v.iinc(loopParameterVar, increment);
             }
             else {
                 v.load(loopParameterVar, asmElementType);
-                genIncrement(asmElementType, 1, v);
+                genIncrement(asmElementType, increment, v);
                 v.store(loopParameterVar, asmElementType);
             }
         }
@@ -999,9 +1045,10 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
         private ForInRangeLiteralLoopGenerator(
                 @NotNull JetForExpression forExpression,
-                @NotNull RangeCodegenUtil.BinaryCall rangeCall
+                @NotNull RangeCodegenUtil.BinaryCall rangeCall,
+                int increment
         ) {
-            super(forExpression);
+            super(forExpression, increment);
             this.rangeCall = rangeCall;
         }
 
@@ -1017,7 +1064,7 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
     private class ForInRangeInstanceLoopGenerator extends AbstractForInRangeLoopGenerator {
         private ForInRangeInstanceLoopGenerator(@NotNull JetForExpression forExpression) {
-            super(forExpression);
+            super(forExpression, 1);
         }
 
         @Override
@@ -1033,13 +1080,47 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
-    private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
-        private int incrementVar;
-        private Type incrementType;
+    private class ForInIndicesLoopGenerator extends AbstractForInRangeLoopGenerator {
+        private final JetExpression receiver;
+        private final JetType receiverType;
+
+        private ForInIndicesLoopGenerator(
+                @NotNull JetForExpression forExpression,
+                @NotNull JetExpression receiver,
+                @NotNull JetType receiverType
+        ) {
+            super(forExpression, 1);
+            this.receiver = receiver;
+            this.receiverType = receiverType;
+        }
+
+        @Override
+        protected void storeRangeStartAndEnd() {
+            // Loop parameter goes from 0 to size - 1 inclusive, which is an empty range for empty arrays and collections
+            v.iconst(0);
+            v.store(loopParameterVar, Type.INT_TYPE);
+
+            Type asmReceiverType = asmType(receiverType);
+            gen(receiver, asmReceiverType);
+            if (asmReceiverType.getSort() == Type.ARRAY) {
+                v.arraylength();
+            }
+            else {
+                v.invokeinterface("java/util/Collection", "size", "()I");
+            }
+            v.iconst(1);
+            v.sub(Type.INT_TYPE);
+            v.store(endVar, Type.INT_TYPE);
+        }
+    }
+
+    private abstract class AbstractForInProgressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
+        protected int incrementVar;
+        protected Type incrementType;
 
         private int finalVar;
 
-        private ForInProgressionExpressionLoopGenerator(@NotNull JetForExpression forExpression) {
+        private AbstractForInProgressionLoopGenerator(@NotNull JetForExpression forExpression) {
             super(forExpression);
         }
 
@@ -1054,25 +1135,14 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
             incrementVar = createLoopTempVariable(asmElementType);
 
-            JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, forExpression.getLoopRange());
-            assert loopRangeType != null;
-            Type asmLoopRangeType = asmType(loopRangeType);
-
-            Collection<VariableDescriptor> incrementProp = loopRangeType.getMemberScope().getProperties(Name.identifier("increment"));
-            assert incrementProp.size() == 1 : loopRangeType + " " + incrementProp.size();
-            incrementType = asmType(incrementProp.iterator().next().getType());
-
-            gen(forExpression.getLoopRange(), asmLoopRangeType);
-            v.dup();
-            v.dup();
-
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getIncrement", incrementType, incrementVar);
+            storeProgressionStartEndAndIncrement();
 
             storeFinalVar();
         }
 
+        // Should initialize incrementType and store start, end and increment of the progression to the corresponding variables
+        protected abstract void storeProgressionStartEndAndIncrement();
+
         private void storeFinalVar() {
             if (!isIntegerProgression) {
                 finalVar = -1;
@@ -1186,6 +1256,142 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
+    private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionLoopGenerator {
+        private ForInProgressionExpressionLoopGenerator(@NotNull JetForExpression forExpression) {
+            super(forExpression);
+        }
+
+        @Override
+        protected void storeProgressionStartEndAndIncrement() {
+            JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, forExpression.getLoopRange());
+            assert loopRangeType != null;
+            Type asmLoopRangeType = asmType(loopRangeType);
+
+            Collection<VariableDescriptor> incrementProp = loopRangeType.getMemberScope().getProperties(Name.identifier("increment"));
+            assert incrementProp.size() == 1 : loopRangeType + " " + incrementProp.size();
+            incrementType = asmType(incrementProp.iterator().next().getType());
+
+            gen(forExpression.getLoopRange(), asmLoopRangeType);
+            v.dup();
+            v.dup();
+
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getIncrement", incrementType, incrementVar);
+        }
+    }
+
+    // for (i in a..b step c), for (i in a downTo b step c), for (i in progression step c)
+    // Neither the progression nor its iterator are created, the semantics of step() (including the exception) is inlined
+    private class ForInStepLoopGenerator extends AbstractForInProgressionLoopGenerator {
+        private final RangeCodegenUtil.BinaryCall stepCall;
+
+        private ForInStepLoopGenerator(@NotNull JetForExpression forExpression, @NotNull RangeCodegenUtil.BinaryCall stepCall) {
+            super(forExpression);
+            this.stepCall = stepCall;
+        }
+
+        @Override
+        protected void storeProgressionStartEndAndIncrement() {
+            incrementType = asmElementType.getSort() == Type.LONG ? Type.LONG_TYPE : Type.INT_TYPE;
+
+            ResolvedCall<?> resolvedStepCall = getResolvedCall(stepCall.op, bindingContext);
+            assert resolvedStepCall != null : "No resolved call for step: " + stepCall.op.getText();
+            storeReceiverStartEndAndIncrement(stepCall.left, getExtensionReceiverType(resolvedStepCall));
+
+            int stepVar = createLoopTempVariable(incrementType);
+            gen(stepCall.right, incrementType);
+            v.store(stepVar, incrementType);
+
+            // if (step <= 0) throw IllegalArgumentException("Step must be positive, was: $step")
+            Label stepIsPositive = new Label();
+            v.load(stepVar, incrementType);
+            ifPositive(incrementType, stepIsPositive);
+            v.anew(Type.getObjectType("java/lang/IllegalArgumentException"));
+            v.dup();
+            genStringBuilderConstructor(v);
+            v.aconst("Step must be positive, was: ");
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.load(stepVar, incrementType);
+            genInvokeAppendMethod(v, incrementType);
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+            v.invokespecial("java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+            v.athrow();
+            v.mark(stepIsPositive);
+
+            // increment = if (increment > 0) step else -step
+            Label positiveIncrement = new Label();
+            Label afterIf = new Label();
+            v.load(incrementVar, incrementType);
+            ifPositive(incrementType, positiveIncrement);
+            v.load(stepVar, incrementType);
+            v.neg(incrementType);
+            v.goTo(afterIf);
+            v.mark(positiveIncrement);
+            v.load(stepVar, incrementType);
+            v.mark(afterIf);
+            v.store(incrementVar, incrementType);
+        }
+
+        // Consumes a value of the given type from the stack and jumps if it's positive
+        private void ifPositive(@NotNull Type type, @NotNull Label label) {
+            if (type.getSort() == Type.LONG) {
+                v.lconst(0L);
+                v.lcmp();
+            }
+            v.ifgt(label);
+        }
+
+        private void storeReceiverStartEndAndIncrement(@NotNull JetExpression receiver, @NotNull JetType receiverType) {
+            RangeCodegenUtil.BinaryCall binaryCall = RangeCodegenUtil.getBinaryCall(receiver);
+            if (binaryCall != null) {
+                ResolvedCall<?> resolvedCall = getResolvedCall(binaryCall.op, bindingContext);
+                if (resolvedCall != null) {
+                    CallableDescriptor descriptor = resolvedCall.getResultingDescriptor();
+                    boolean isRangeTo = RangeCodegenUtil.isOptimizableRangeTo(descriptor);
+                    if (isRangeTo || RangeCodegenUtil.isOptimizableDownTo(descriptor)) {
+                        gen(binaryCall.left, asmElementType);
+                        v.store(loopParameterVar, asmElementType);
+
+                        gen(binaryCall.right, asmElementType);
+                        v.store(endVar, asmElementType);
+
+                        StackValue.constant(isRangeTo ? 1 : -1, Type.INT_TYPE).put(incrementType, v);
+                        v.store(incrementVar, incrementType);
+                        return;
+                    }
+                }
+            }
+
+            Type asmReceiverType = asmType(receiverType);
+            boolean isRange = RangeCodegenUtil.isRange(receiverType);
+
+            gen(receiver, asmReceiverType);
+            v.dup();
+            if (!isRange) {
+                v.dup();
+            }
+
+            generateRangeOrProgressionProperty(asmReceiverType, "getStart", asmElementType, loopParameterVar);
+            generateRangeOrProgressionProperty(asmReceiverType, "getEnd", asmElementType, endVar);
+            if (isRange) {
+                StackValue.constant(1, Type.INT_TYPE).put(incrementType, v);
+                v.store(incrementVar, incrementType);
+            }
+            else {
+                generateRangeOrProgressionProperty(asmReceiverType, "getIncrement", incrementType, incrementVar);
+            }
+        }
+    }
+
+
+    // The receiver expression may be smart cast, and its own type is not the type the call is made on
+    @NotNull
+    private static JetType getExtensionReceiverType(@NotNull ResolvedCall<?> resolvedCall) {
+        ReceiverParameterDescriptor receiverParameter = resolvedCall.getResultingDescriptor().getExtensionReceiverParameter();
+        assert receiverParameter != null : "Extension receiver expected: " + resolvedCall.getResultingDescriptor();
+        return receiverParameter.getType();
+    }
 
     @Override
     public StackValue visitBreakExpression(@NotNull JetBreakExpression expression, StackValue receiver) {
@@ -2392,9 +2598,21 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
                 }
                 else {
                     Type currentScriptType = asmTypeForScriptDescriptor(bindingContext, scriptContext.getScriptDescriptor());
-                    Type classType = asmTypeForScriptDescriptor(bindingContext, receiver.getDeclarationDescriptor());
-                    String fieldName = scriptContext.getScriptFieldName(receiver.getDeclarationDescriptor());
-                    return StackValue.field(classType, currentScriptType, fieldName, false, result);
+                    final Type classType = asmTypeForScriptDescriptor(bindingContext, receiver.getDeclarationDescriptor());
+                    final int index = scriptContext.getEarlierScriptIndex(receiver.getDeclarationDescriptor());
+                    final StackValue earlierScripts = StackValue.field(
+                            ScriptCodegen.EARLIER_SCRIPTS_TYPE, currentScriptType, ScriptCodegen.EARLIER_SCRIPTS_FIELD_NAME, false, result
+                    );
+                    return StackValue.operation(classType, new Function1<InstructionAdapter, Unit>() {
+                        @Override
+                        public Unit invoke(InstructionAdapter v) {
+                            earlierScripts.put(ScriptCodegen.EARLIER_SCRIPTS_TYPE, v);
+                            v.iconst(index);
+                            v.invokeinterface(ScriptCodegen.EARLIER_SCRIPTS_TYPE.getInternalName(), "get", "(I)Ljava/lang/Object;");
+                            v.checkcast(classType);
+                            return Unit.INSTANCE$;
+                        }
+                    });
                 }
             }
 
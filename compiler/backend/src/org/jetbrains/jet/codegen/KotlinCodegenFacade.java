@@ -65,6 +65,7 @@ public class KotlinCodegenFacade {
         Set<FqName> removedPackageFiles = new HashSet<FqName>(state.getPackagesWithRemovedFiles());
         for (FqName fqName : Sets.union(removedPackageFiles, packageFqNameToFiles.keySet())) {
             generatePackage(state, fqName, packageFqNameToFiles.get(fqName), errorHandler);
+            state.getFactory().flush();
         }
 
         state.getFactory().done();
@@ -238,6 +238,12 @@ public abstract class MemberCodegen<T extends JetElement/* TODO: & JetDeclaratio
         JetExpression initializer = property.getDelegateExpressionOrInitializer();
         assert initializer != null : "shouldInitializeProperty must return false if initializer is null";
 
+        StdlibPropertyDelegate stdlibDelegate = StdlibPropertyDelegate.recognize(property, propertyDescriptor, bindingContext);
+        if (stdlibDelegate != null) {
+            stdlibDelegate.generateInitializer(codegen);
+            return;
+        }
+
         StackValue.Property propValue = codegen.intermediateValueForProperty(propertyDescriptor, true, null, MethodKind.INITIALIZER,
                                                                              StackValue.LOCAL_0);
 
@@ -194,7 +194,15 @@ public class PropertyCodegen {
             generateBackingFieldAccess(p, descriptor);
         }
         else if (p instanceof JetProperty && ((JetProperty) p).hasDelegate()) {
-            generatePropertyDelegateAccess((JetProperty) p, descriptor);
+            StdlibPropertyDelegate stdlibDelegate = StdlibPropertyDelegate.recognize((JetProperty) p, descriptor, bindingContext);
+            if (stdlibDelegate != null) {
+                Pair<Type, String> field = stdlibDelegate.generateFields(v, context, typeMapper, (JetProperty) p,
+                                                                         getDeprecatedAccessFlag(descriptor));
+                v.getSerializationBindings().put(FIELD_FOR_PROPERTY, descriptor, field);
+            }
+            else {
+                generatePropertyDelegateAccess((JetProperty) p, descriptor);
+            }
         }
         else {
             return false;
@@ -332,7 +340,16 @@ public class PropertyCodegen {
         FunctionGenerationStrategy strategy;
         if (accessor == null || !accessor.hasBody()) {
             if (p instanceof JetProperty && ((JetProperty) p).hasDelegate()) {
-                strategy = new DelegatedPropertyAccessorStrategy(state, accessorDescriptor, indexOfDelegatedProperty((JetProperty) p));
+                JetProperty property = (JetProperty) p;
+                StdlibPropertyDelegate stdlibDelegate =
+                        StdlibPropertyDelegate.recognize(property, accessorDescriptor.getCorrespondingProperty(), bindingContext);
+                if (stdlibDelegate != null) {
+                    strategy = new StdlibDelegatedPropertyAccessorStrategy(state, accessorDescriptor, stdlibDelegate,
+                                                                           indexOfDelegatedProperty(property));
+                }
+                else {
+                    strategy = new DelegatedPropertyAccessorStrategy(state, accessorDescriptor, indexOfDelegatedProperty(property));
+                }
             }
             else {
                 strategy = new DefaultPropertyAccessorStrategy(state, accessorDescriptor);
@@ -466,6 +483,40 @@ public class PropertyCodegen {
         }
     }
 
+    private static class StdlibDelegatedPropertyAccessorStrategy extends FunctionGenerationStrategy.CodegenBased<PropertyAccessorDescriptor> {
+        private final StdlibPropertyDelegate delegate;
+        private final int index;
+
+        public StdlibDelegatedPropertyAccessorStrategy(
+                @NotNull GenerationState state,
+                @NotNull PropertyAccessorDescriptor descriptor,
+                @NotNull StdlibPropertyDelegate delegate,
+                int index
+        ) {
+            super(state, descriptor);
+            this.delegate = delegate;
+            this.index = index;
+        }
+
+        @Override
+        public void doGenerateBody(@NotNull ExpressionCodegen codegen, @NotNull JvmMethodSignature signature) {
+            if (callableDescriptor instanceof PropertyGetterDescriptor) {
+                delegate.generateGetter(codegen, signature.getReturnType());
+            }
+            else if (callableDescriptor instanceof PropertySetterDescriptor) {
+                List<ValueParameterDescriptor> valueParameters = callableDescriptor.getValueParameters();
+                assert valueParameters.size() == 1 : "Property setter should have only one value parameter but has " + callableDescriptor;
+                int parameterIndex = codegen.lookupLocalIndex(valueParameters.get(0));
+                assert parameterIndex >= 0 : "Local index for setter parameter should be positive or zero: " + callableDescriptor;
+                Type type = codegen.typeMapper.mapType(callableDescriptor.getCorrespondingProperty());
+                delegate.generateSetter(codegen, StackValue.local(parameterIndex, type), index);
+            }
+            else {
+                throw new IllegalStateException("Unknown property accessor: " + callableDescriptor);
+            }
+        }
+    }
+
     @NotNull
     public static String getterName(Name propertyName) {
         return JvmAbi.GETTER_PREFIX + StringUtil.capitalizeWithJavaBeanConvention(propertyName.asString());
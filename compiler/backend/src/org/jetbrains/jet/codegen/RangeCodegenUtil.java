@@ -19,8 +19,7 @@ package org.jetbrains.jet.codegen;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.jet.lang.descriptors.CallableDescriptor;
-import org.jetbrains.jet.lang.descriptors.ClassifierDescriptor;
+import org.jetbrains.jet.lang.descriptors.*;
 import org.jetbrains.jet.lang.psi.*;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
 import org.jetbrains.jet.lang.resolve.name.FqName;
@@ -29,7 +28,9 @@ import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 import org.jetbrains.jet.lang.types.lang.PrimitiveType;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.jetbrains.jet.codegen.AsmUtil.isPrimitiveNumberClassDescriptor;
 import static org.jetbrains.jet.lang.types.lang.KotlinBuiltIns.BUILT_INS_PACKAGE_FQ_NAME;
@@ -38,6 +39,10 @@ public class RangeCodegenUtil {
     private static final ImmutableMap<FqName, PrimitiveType> RANGE_TO_ELEMENT_TYPE;
     private static final ImmutableMap<FqName, PrimitiveType> PROGRESSION_TO_ELEMENT_TYPE;
 
+    // Progressions of these types always contain their final element, so loops over them can be checked for exit with ==
+    private static final Set<PrimitiveType> INTEGER_ELEMENT_TYPES =
+            EnumSet.of(PrimitiveType.CHAR, PrimitiveType.BYTE, PrimitiveType.SHORT, PrimitiveType.INT, PrimitiveType.LONG);
+
     static {
         ImmutableMap.Builder<FqName, PrimitiveType> rangeBuilder = ImmutableMap.builder();
         ImmutableMap.Builder<FqName, PrimitiveType> progressionBuilder = ImmutableMap.builder();
@@ -67,7 +72,12 @@ public class RangeCodegenUtil {
         // Other binary operations will succeed too, but will be filtered out later (by examining a resolvedCall)
         JetExpression rangeExpression = forExpression.getLoopRange();
         assert rangeExpression != null;
-        JetExpression loopRange = JetPsiUtil.deparenthesize(rangeExpression);
+        return getBinaryCall(rangeExpression);
+    }
+
+    @Nullable
+    public static BinaryCall getBinaryCall(@NotNull JetExpression expression) {
+        JetExpression loopRange = JetPsiUtil.deparenthesize(expression);
         if (loopRange instanceof JetQualifiedExpression) {
             // a.rangeTo(b)
             JetQualifiedExpression qualifiedExpression = (JetQualifiedExpression) loopRange;
@@ -134,6 +144,57 @@ public class RangeCodegenUtil {
         return false;
     }
 
+    // Int.downTo(Int) and the like, with integer element types only
+    public static boolean isOptimizableDownTo(@NotNull CallableDescriptor downTo) {
+        if (!isTopLevelInBuiltInsPackage(downTo, "downTo")) return false;
+
+        JetType returnType = downTo.getReturnType();
+        return returnType != null && isIntegerProgressionType(returnType);
+    }
+
+    // IntRange.step(Int), IntProgression.step(Int) and the like, with integer element types only
+    public static boolean isOptimizableStep(@NotNull CallableDescriptor step) {
+        if (!isTopLevelInBuiltInsPackage(step, "step")) return false;
+
+        ReceiverParameterDescriptor receiver = step.getExtensionReceiverParameter();
+        JetType returnType = step.getReturnType();
+        return receiver != null && returnType != null &&
+               (isIntegerRangeType(receiver.getType()) || isIntegerProgressionType(receiver.getType())) &&
+               isIntegerProgressionType(returnType);
+    }
+
+    // Array<T>.indices, IntArray.indices and the like, and Collection<*>.indices
+    public static boolean isOptimizableIndices(@NotNull CallableDescriptor indices) {
+        if (!(indices instanceof PropertyDescriptor) || !isTopLevelInBuiltInsPackage(indices, "indices")) return false;
+
+        ReceiverParameterDescriptor receiver = indices.getExtensionReceiverParameter();
+        if (receiver == null) return false;
+
+        JetType receiverType = receiver.getType();
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        return builtIns.isArray(receiverType) ||
+               builtIns.isPrimitiveArray(receiverType) ||
+               builtIns.getCollection().equals(receiverType.getConstructor().getDeclarationDescriptor());
+    }
+
+    public static boolean isIntegerRangeType(@NotNull JetType rangeType) {
+        PrimitiveType elementType = isRange(rangeType) ? getPrimitiveRangeElementType(rangeType) : null;
+        return elementType != null && INTEGER_ELEMENT_TYPES.contains(elementType);
+    }
+
+    public static boolean isIntegerProgressionType(@NotNull JetType progressionType) {
+        PrimitiveType elementType = isProgression(progressionType) ? getPrimitiveProgressionElementType(progressionType) : null;
+        return elementType != null && INTEGER_ELEMENT_TYPES.contains(elementType);
+    }
+
+    private static boolean isTopLevelInBuiltInsPackage(@NotNull CallableDescriptor descriptor, @NotNull String name) {
+        if (!name.equals(descriptor.getName().asString())) return false;
+
+        DeclarationDescriptor containingDeclaration = descriptor.getContainingDeclaration();
+        return containingDeclaration instanceof PackageFragmentDescriptor &&
+               BUILT_INS_PACKAGE_FQ_NAME.equals(((PackageFragmentDescriptor) containingDeclaration).getFqName());
+    }
+
     public static class BinaryCall {
         public final JetExpression left;
         public final JetExpression op;
@@ -35,8 +35,6 @@ import org.jetbrains.org.objectweb.asm.MethodVisitor;
 import org.jetbrains.org.objectweb.asm.Type;
 import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
 
-import java.util.Collections;
-import java.util.List;
 
 import static org.jetbrains.jet.codegen.AsmUtil.method;
 import static org.jetbrains.jet.codegen.binding.CodegenBinding.CLASS_FOR_SCRIPT;
@@ -48,6 +46,13 @@ import static org.jetbrains.org.objectweb.asm.Opcodes.*;
 
 // SCRIPT: script code generator
 public class ScriptCodegen extends MemberCodegen<JetScript> {
+    /**
+     * A REPL line receives instances of the earlier lines as a single {@link java.util.List} shared by all lines of the session,
+     * the instance of the line N is at index N - 1. This keeps the constructor signature and the number of fields constant
+     * regardless of the number of earlier lines.
+     */
+    public static final String EARLIER_SCRIPTS_FIELD_NAME = "earlierScripts$";
+    public static final Type EARLIER_SCRIPTS_TYPE = Type.getObjectType("java/util/List");
 
     public static ScriptCodegen createScriptCodegen(
             @NotNull JetScript declaration,
@@ -65,12 +70,7 @@ public class ScriptCodegen extends MemberCodegen<JetScript> {
 
         ClassBuilder builder = state.getFactory().newVisitor(OtherOrigin(declaration, classDescriptorForScript),
                                                              classType, declaration.getContainingFile());
-        List<ScriptDescriptor> earlierScripts = state.getEarlierScriptsForReplInterpreter();
-        ScriptContext scriptContext = parentContext.intoScript(
-                scriptDescriptor,
-                earlierScripts == null ? Collections.<ScriptDescriptor>emptyList() : earlierScripts,
-                classDescriptorForScript
-        );
+        ScriptContext scriptContext = parentContext.intoScript(scriptDescriptor, state.isGeneratingReplLine(), classDescriptorForScript);
         return new ScriptCodegen(declaration, state, scriptContext, builder);
     }
 
@@ -133,7 +133,7 @@ public class ScriptCodegen extends MemberCodegen<JetScript> {
                               ACC_PUBLIC | ACC_FINAL, scriptResultProperty.getName().asString(),
                               blockType.getDescriptor(), null, null);
 
-        JvmMethodSignature jvmSignature = typeMapper.mapScriptSignature(scriptDescriptor, context.getEarlierScripts());
+        JvmMethodSignature jvmSignature = typeMapper.mapScriptSignature(scriptDescriptor, context.isReplLine());
 
         MethodVisitor mv = classBuilder.newMethod(
                 OtherOrigin(scriptDeclaration, scriptDescriptor.getClassDescriptor().getUnsubstitutedPrimaryConstructor()),
@@ -154,12 +154,13 @@ public class ScriptCodegen extends MemberCodegen<JetScript> {
         final FrameMap frameMap = new FrameMap();
         frameMap.enterTemp(OBJECT_TYPE);
 
-        for (ScriptDescriptor importedScript : context.getEarlierScripts()) {
-            frameMap.enter(importedScript, OBJECT_TYPE);
+        int add = 0;
+        if (context.isReplLine()) {
+            frameMap.enterTemp(EARLIER_SCRIPTS_TYPE);
+            add = 1;
         }
 
         Type[] argTypes = jvmSignature.getAsmMethod().getArgumentTypes();
-        int add = 0;
 
         for (int i = 0; i < scriptDescriptor.getScriptCodeDescriptor().getValueParameters().size(); i++) {
             ValueParameterDescriptor parameter = scriptDescriptor.getScriptCodeDescriptor().getValueParameters().get(i);
@@ -175,12 +176,11 @@ public class ScriptCodegen extends MemberCodegen<JetScript> {
 
         int offset = 1;
 
-        for (ScriptDescriptor earlierScript : context.getEarlierScripts()) {
-            Type earlierClassType = asmTypeForScriptDescriptor(bindingContext, earlierScript);
+        if (context.isReplLine()) {
             iv.load(0, classType);
-            iv.load(offset, earlierClassType);
-            offset += earlierClassType.getSize();
-            iv.putfield(classType.getInternalName(), context.getScriptFieldName(earlierScript), earlierClassType.getDescriptor());
+            iv.load(offset, EARLIER_SCRIPTS_TYPE);
+            offset += EARLIER_SCRIPTS_TYPE.getSize();
+            iv.putfield(classType.getInternalName(), EARLIER_SCRIPTS_FIELD_NAME, EARLIER_SCRIPTS_TYPE.getDescriptor());
         }
 
         for (ValueParameterDescriptor parameter : scriptDescriptor.getScriptCodeDescriptor().getValueParameters()) {
@@ -207,10 +207,9 @@ public class ScriptCodegen extends MemberCodegen<JetScript> {
     }
 
     private void genFieldsForParameters(@NotNull ScriptDescriptor script, @NotNull ClassBuilder classBuilder) {
-        for (ScriptDescriptor earlierScript : context.getEarlierScripts()) {
-            Type earlierClassName = asmTypeForScriptDescriptor(bindingContext, earlierScript);
+        if (context.isReplLine()) {
             int access = ACC_PRIVATE | ACC_FINAL;
-            classBuilder.newField(NO_ORIGIN, access, context.getScriptFieldName(earlierScript), earlierClassName.getDescriptor(), null, null);
+            classBuilder.newField(NO_ORIGIN, access, EARLIER_SCRIPTS_FIELD_NAME, EARLIER_SCRIPTS_TYPE.getDescriptor(), null, null);
         }
 
         for (ValueParameterDescriptor parameter : script.getScriptCodeDescriptor().getValueParameters()) {
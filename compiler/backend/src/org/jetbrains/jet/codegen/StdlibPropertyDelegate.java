@@ -0,0 +1,442 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen;
+
+import com.intellij.openapi.util.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.codegen.context.FieldOwnerContext;
+import org.jetbrains.jet.codegen.state.JetTypeMapper;
+import org.jetbrains.jet.lang.descriptors.*;
+import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.lang.resolve.calls.model.DefaultValueArgument;
+import org.jetbrains.jet.lang.resolve.calls.model.ExpressionValueArgument;
+import org.jetbrains.jet.lang.resolve.calls.model.ResolvedCall;
+import org.jetbrains.jet.lang.resolve.calls.model.ResolvedValueArgument;
+import org.jetbrains.jet.lang.resolve.java.JvmAbi;
+import org.jetbrains.jet.lang.resolve.name.FqNameUnsafe;
+import org.jetbrains.jet.lang.resolve.scopes.receivers.ExpressionReceiver;
+import org.jetbrains.jet.lang.resolve.scopes.receivers.ReceiverValue;
+import org.jetbrains.org.objectweb.asm.FieldVisitor;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+
+import java.util.List;
+
+import static org.jetbrains.jet.codegen.AsmUtil.*;
+import static org.jetbrains.jet.lang.resolve.DescriptorUtils.getFqName;
+import static org.jetbrains.jet.lang.resolve.DescriptorUtils.isClassObject;
+import static org.jetbrains.jet.lang.resolve.calls.callUtil.CallUtilPackage.getResolvedCall;
+import static org.jetbrains.jet.lang.resolve.java.AsmTypeConstants.OBJECT_TYPE;
+import static org.jetbrains.jet.lang.resolve.java.AsmTypeConstants.PROPERTY_METADATA_TYPE;
+import static org.jetbrains.jet.lang.resolve.java.diagnostics.DiagnosticsPackage.OtherOrigin;
+import static org.jetbrains.jet.lang.types.lang.KotlinBuiltIns.BUILT_INS_PACKAGE_FQ_NAME;
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Member properties delegated to {@code kotlin.properties.Delegates.lazy}, {@code blockingLazy}, {@code notNull} or {@code observable}
+ * keep the state of the delegate in fields of the owning class instead of allocating the delegate object.
+ * The accessors replicate the behaviour of the corresponding classes from kotlin/properties/Delegation.kt.
+ *
+ * Every such property {@code x} has a field {@code x} of type Object which holds the (boxed) value of the property,
+ * and all kinds except {@code notNull} also have a field {@code x$delegate} for the function passed to the delegate factory:
+ * the initializer of a lazy property, which is cleared when the value is computed, or the listener of an observable property.
+ * A {@code blockingLazy} property also has a field {@code x$delegate$lock} with the lock passed to the factory,
+ * or a new object if no lock is passed
+ */
+public class StdlibPropertyDelegate {
+    private static final FqNameUnsafe DELEGATES_FQ_NAME = new FqNameUnsafe("kotlin.properties.Delegates");
+
+    private static final Type FUNCTION0_TYPE = Type.getObjectType(BUILT_INS_PACKAGE_FQ_NAME + "/Function0");
+    private static final Type FUNCTION3_TYPE = Type.getObjectType(BUILT_INS_PACKAGE_FQ_NAME + "/Function3");
+
+    private static final String LOCK_FIELD_SUFFIX = "$lock";
+
+    private enum Kind {
+        LAZY("lazy", FUNCTION0_TYPE),
+        BLOCKING_LAZY("blockingLazy", FUNCTION0_TYPE),
+        NOT_NULL("notNull", null),
+        OBSERVABLE("observable", FUNCTION3_TYPE);
+
+        private final String functionName;
+        private final Type delegateFieldType;
+
+        Kind(@NotNull String functionName, @Nullable Type delegateFieldType) {
+            this.functionName = functionName;
+            this.delegateFieldType = delegateFieldType;
+        }
+
+        @Nullable
+        public static Kind byFunctionName(@NotNull String name) {
+            for (Kind kind : values()) {
+                if (kind.functionName.equals(name)) return kind;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return null if the property is not a member property delegated to one of the supported factory methods of Delegates,
+     * or if its delegate expression is not a plain call which could be compiled out
+     */
+    @Nullable
+    public static StdlibPropertyDelegate recognize(
+            @NotNull JetProperty property,
+            @NotNull PropertyDescriptor descriptor,
+            @NotNull BindingContext bindingContext
+    ) {
+        JetExpression delegateExpression = property.getDelegateExpression();
+        if (delegateExpression == null) return null;
+
+        DeclarationDescriptor container = descriptor.getContainingDeclaration();
+        if (!(container instanceof ClassDescriptor) || isClassObject(container) || isInstancePropertyWithStaticBackingField(descriptor)) {
+            return null;
+        }
+        if (descriptor.getExtensionReceiverParameter() != null) return null;
+
+        if (bindingContext.get(BindingContext.DELEGATED_PROPERTY_PD_RESOLVED_CALL, descriptor) != null) return null;
+
+        JetExpression callExpression = delegateExpression instanceof JetDotQualifiedExpression
+                                       ? ((JetDotQualifiedExpression) delegateExpression).getSelectorExpression()
+                                       : delegateExpression;
+        if (!(callExpression instanceof JetCallExpression)) return null;
+
+        ResolvedCall<?> resolvedCall = getResolvedCall(delegateExpression, bindingContext);
+        if (resolvedCall == null || resolvedCall.getCall().getCallElement() != callExpression) return null;
+
+        CallableDescriptor function = resolvedCall.getResultingDescriptor().getOriginal();
+        if (!(function instanceof FunctionDescriptor) || !(function.getContainingDeclaration() instanceof ClassDescriptor)) return null;
+        if (!DELEGATES_FQ_NAME.equals(getFqName(function.getContainingDeclaration()))) return null;
+
+        Kind kind = Kind.byFunctionName(function.getName().asString());
+        if (kind == null) return null;
+
+        if (!isObjectReference(resolvedCall.getCall().getExplicitReceiver(), bindingContext)) return null;
+
+        // Named arguments may be evaluated in an order different from the order of parameters
+        for (ValueArgument argument : resolvedCall.getCall().getValueArguments()) {
+            if (argument.isNamed()) return null;
+        }
+        for (ResolvedValueArgument argument : resolvedCall.getValueArgumentsByIndex()) {
+            if (!(argument instanceof ExpressionValueArgument) && !(argument instanceof DefaultValueArgument)) return null;
+        }
+
+        return new StdlibPropertyDelegate(kind, descriptor, resolvedCall);
+    }
+
+    // The receiver of the call (if any) is evaluated to the Delegates object and can be skipped as it has no side effects
+    private static boolean isObjectReference(@NotNull ReceiverValue receiver, @NotNull BindingContext bindingContext) {
+        if (!receiver.exists()) return true;
+        if (!(receiver instanceof ExpressionReceiver)) return false;
+
+        JetExpression expression = ((ExpressionReceiver) receiver).getExpression();
+        if (expression instanceof JetDotQualifiedExpression) {
+            expression = ((JetDotQualifiedExpression) expression).getSelectorExpression();
+        }
+        return expression instanceof JetSimpleNameExpression &&
+               bindingContext.get(BindingContext.REFERENCE_TARGET, (JetSimpleNameExpression) expression) instanceof ClassDescriptor;
+    }
+
+    private final Kind kind;
+    private final PropertyDescriptor property;
+    private final ResolvedCall<?> resolvedCall;
+
+    private StdlibPropertyDelegate(@NotNull Kind kind, @NotNull PropertyDescriptor property, @NotNull ResolvedCall<?> resolvedCall) {
+        this.kind = kind;
+        this.property = property;
+        this.resolvedCall = resolvedCall;
+    }
+
+    /**
+     * @return the type and the name of the field to be recorded as the field of the property
+     */
+    @NotNull
+    public Pair<Type, String> generateFields(
+            @NotNull ClassBuilder v,
+            @NotNull FieldOwnerContext context,
+            @NotNull JetTypeMapper typeMapper,
+            @NotNull JetProperty element,
+            int modifiers
+    ) {
+        String valueFieldName = context.getFieldName(property, false);
+        FieldVisitor valueField = v.newField(OtherOrigin(element, property), modifiers | ACC_PRIVATE, valueFieldName,
+                                             OBJECT_TYPE.getDescriptor(), null, null);
+
+        if (kind.delegateFieldType == null) {
+            AnnotationCodegen.forField(valueField, typeMapper).genAnnotations(property, OBJECT_TYPE);
+            return Pair.create(OBJECT_TYPE, valueFieldName);
+        }
+
+        String delegateFieldName = context.getFieldName(property, true);
+        int delegateFieldModifiers = ACC_PRIVATE;
+        if (kind == Kind.OBSERVABLE) {
+            delegateFieldModifiers |= ACC_FINAL;
+        }
+        else if (kind == Kind.BLOCKING_LAZY) {
+            delegateFieldModifiers |= ACC_VOLATILE;
+        }
+        FieldVisitor delegateField = v.newField(OtherOrigin(element, property), delegateFieldModifiers, delegateFieldName,
+                                                kind.delegateFieldType.getDescriptor(), null, null);
+        AnnotationCodegen.forField(delegateField, typeMapper).genAnnotations(property, kind.delegateFieldType);
+
+        if (kind == Kind.BLOCKING_LAZY) {
+            v.newField(OtherOrigin(element, property), ACC_PRIVATE | ACC_FINAL | ACC_SYNTHETIC, delegateFieldName + LOCK_FIELD_SUFFIX,
+                       OBJECT_TYPE.getDescriptor(), null, null);
+        }
+
+        return Pair.create(kind.delegateFieldType, delegateFieldName);
+    }
+
+    private boolean hasExplicitLock() {
+        return kind == Kind.BLOCKING_LAZY && getArgumentExpression(0) != null && getArgumentExpression(1) != null;
+    }
+
+    @Nullable
+    private JetExpression getArgumentExpression(int index) {
+        List<ResolvedValueArgument> arguments = resolvedCall.getValueArgumentsByIndex();
+        if (index >= arguments.size()) return null;
+        ResolvedValueArgument argument = arguments.get(index);
+        if (!(argument instanceof ExpressionValueArgument)) return null;
+        ValueArgument valueArgument = ((ExpressionValueArgument) argument).getValueArgument();
+        return valueArgument != null ? valueArgument.getArgumentExpression() : null;
+    }
+
+    private void genArgumentToField(@NotNull ExpressionCodegen codegen, int index, @NotNull String fieldName, @NotNull Type fieldType) {
+        JetExpression expression = getArgumentExpression(index);
+        assert expression != null : "Argument " + index + " of delegate call should be present: " + resolvedCall.getCall().getCallElement().getText();
+
+        ValueParameterDescriptor parameter = resolvedCall.getResultingDescriptor().getValueParameters().get(index);
+        Type parameterType = codegen.typeMapper.mapType(parameter.getType());
+
+        InstructionAdapter v = codegen.v;
+        v.load(0, OBJECT_TYPE);
+        codegen.gen(expression, parameterType);
+        StackValue.coerce(parameterType, fieldType, v);
+        v.putfield(getOwner(codegen).getInternalName(), fieldName, fieldType.getDescriptor());
+    }
+
+    public void generateInitializer(@NotNull ExpressionCodegen codegen) {
+        FieldOwnerContext context = getFieldOwnerContext(codegen);
+        switch (kind) {
+            case LAZY:
+                genArgumentToField(codegen, 0, context.getFieldName(property, true), FUNCTION0_TYPE);
+                break;
+            case BLOCKING_LAZY:
+                String delegateFieldName = context.getFieldName(property, true);
+                if (hasExplicitLock()) {
+                    genArgumentToField(codegen, 0, delegateFieldName + LOCK_FIELD_SUFFIX, OBJECT_TYPE);
+                    genDefaultLockIfNull(codegen.v, getOwner(codegen).getInternalName(), delegateFieldName + LOCK_FIELD_SUFFIX);
+                    genArgumentToField(codegen, 1, delegateFieldName, FUNCTION0_TYPE);
+                }
+                else {
+                    genNewLock(codegen.v);
+                    codegen.v.putfield(getOwner(codegen).getInternalName(), delegateFieldName + LOCK_FIELD_SUFFIX,
+                                       OBJECT_TYPE.getDescriptor());
+                    genArgumentToField(codegen, resolvedCall.getValueArgumentsByIndex().size() - 1, delegateFieldName, FUNCTION0_TYPE);
+                }
+                break;
+            case NOT_NULL:
+                break;
+            case OBSERVABLE:
+                genArgumentToField(codegen, 0, context.getFieldName(property, false), OBJECT_TYPE);
+                genArgumentToField(codegen, 1, context.getFieldName(property, true), FUNCTION3_TYPE);
+                break;
+            default:
+                throw new IllegalStateException("Unknown delegate kind: " + kind);
+        }
+    }
+
+    // Every instance gets its own lock, like every delegate object is the lock of its own in BlockingLazyVal
+    private static void genNewLock(@NotNull InstructionAdapter v) {
+        v.load(0, OBJECT_TYPE);
+        v.anew(OBJECT_TYPE);
+        v.dup();
+        v.invokespecial(OBJECT_TYPE.getInternalName(), "<init>", "()V");
+    }
+
+    private static void genDefaultLockIfNull(@NotNull InstructionAdapter v, @NotNull String owner, @NotNull String lockFieldName) {
+        Label lockPassed = new Label();
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, lockFieldName, OBJECT_TYPE.getDescriptor());
+        v.ifnonnull(lockPassed);
+        genNewLock(v);
+        v.putfield(owner, lockFieldName, OBJECT_TYPE.getDescriptor());
+        v.mark(lockPassed);
+    }
+
+    public void generateGetter(@NotNull ExpressionCodegen codegen, @NotNull Type returnType) {
+        InstructionAdapter v = codegen.v;
+        String owner = getOwner(codegen).getInternalName();
+        FieldOwnerContext context = getFieldOwnerContext(codegen);
+        String valueFieldName = context.getFieldName(property, false);
+
+        switch (kind) {
+            case LAZY:
+                genLazyInitialization(v, owner, context.getFieldName(property, true), valueFieldName);
+                break;
+            case BLOCKING_LAZY:
+                genBlockingLazyInitialization(codegen, owner, context.getFieldName(property, true), valueFieldName);
+                break;
+            case NOT_NULL:
+                Label initialized = new Label();
+                v.load(0, OBJECT_TYPE);
+                v.getfield(owner, valueFieldName, OBJECT_TYPE.getDescriptor());
+                v.ifnonnull(initialized);
+                genThrow(v, "java/lang/IllegalStateException", "Property " + property.getName() + " should be initialized before get");
+                v.mark(initialized);
+                break;
+            case OBSERVABLE:
+                break;
+            default:
+                throw new IllegalStateException("Unknown delegate kind: " + kind);
+        }
+
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, valueFieldName, OBJECT_TYPE.getDescriptor());
+        StackValue.coerce(OBJECT_TYPE, returnType, v);
+        v.areturn(returnType);
+    }
+
+    private static void genLazyInitialization(
+            @NotNull InstructionAdapter v,
+            @NotNull String owner,
+            @NotNull String initializerFieldName,
+            @NotNull String valueFieldName
+    ) {
+        Label initialized = new Label();
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, initializerFieldName, FUNCTION0_TYPE.getDescriptor());
+        v.ifnull(initialized);
+        genInvokeInitializer(v, owner, initializerFieldName, valueFieldName);
+        v.mark(initialized);
+    }
+
+    /**
+     * Double-checked locking: the volatile initializer field is cleared after the value is written, so a thread which sees it
+     * cleared also sees the value. The lock field is written in the constructor before the initializer field,
+     * so it's never seen uninitialized here. The initializer function can't be used as a lock, because instances of a class
+     * share the same function object when it captures nothing
+     */
+    private void genBlockingLazyInitialization(
+            @NotNull ExpressionCodegen codegen,
+            @NotNull String owner,
+            @NotNull String initializerFieldName,
+            @NotNull String valueFieldName
+    ) {
+        InstructionAdapter v = codegen.v;
+        FrameMap frameMap = codegen.getFrameMap();
+        int lockIndex = frameMap.enterTemp(OBJECT_TYPE);
+
+        Label initialized = new Label();
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, initializerFieldName, FUNCTION0_TYPE.getDescriptor());
+        v.ifnull(initialized);
+
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, initializerFieldName + LOCK_FIELD_SUFFIX, OBJECT_TYPE.getDescriptor());
+        v.dup();
+        v.store(lockIndex, OBJECT_TYPE);
+        v.monitorenter();
+
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        v.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+
+        v.mark(tryStart);
+        genLazyInitialization(v, owner, initializerFieldName, valueFieldName);
+        v.load(lockIndex, OBJECT_TYPE);
+        v.monitorexit();
+        v.mark(tryEnd);
+        v.goTo(initialized);
+
+        v.mark(handler);
+        v.load(lockIndex, OBJECT_TYPE);
+        v.monitorexit();
+        v.athrow();
+
+        v.mark(initialized);
+
+        frameMap.leaveTemp(OBJECT_TYPE);
+    }
+
+    private static void genInvokeInitializer(
+            @NotNull InstructionAdapter v,
+            @NotNull String owner,
+            @NotNull String initializerFieldName,
+            @NotNull String valueFieldName
+    ) {
+        v.load(0, OBJECT_TYPE);
+        v.load(0, OBJECT_TYPE);
+        v.getfield(owner, initializerFieldName, FUNCTION0_TYPE.getDescriptor());
+        v.invokeinterface(FUNCTION0_TYPE.getInternalName(), "invoke", "()" + OBJECT_TYPE.getDescriptor());
+        v.putfield(owner, valueFieldName, OBJECT_TYPE.getDescriptor());
+
+        // The initializer is not needed anymore, and a cleared field indicates that the value is computed
+        v.load(0, OBJECT_TYPE);
+        v.aconst(null);
+        v.putfield(owner, initializerFieldName, FUNCTION0_TYPE.getDescriptor());
+    }
+
+    public void generateSetter(
+            @NotNull ExpressionCodegen codegen,
+            @NotNull StackValue newValue,
+            int indexInPropertyMetadataArray
+    ) {
+        InstructionAdapter v = codegen.v;
+        Type ownerType = getOwner(codegen);
+        String owner = ownerType.getInternalName();
+        FieldOwnerContext context = getFieldOwnerContext(codegen);
+        String valueFieldName = context.getFieldName(property, false);
+
+        switch (kind) {
+            case NOT_NULL:
+                break;
+            case OBSERVABLE:
+                v.load(0, OBJECT_TYPE);
+                v.getfield(owner, context.getFieldName(property, true), FUNCTION3_TYPE.getDescriptor());
+                v.getstatic(owner, JvmAbi.PROPERTY_METADATA_ARRAY_NAME, "[" + PROPERTY_METADATA_TYPE);
+                v.iconst(indexInPropertyMetadataArray);
+                v.aload(PROPERTY_METADATA_TYPE);
+                v.load(0, OBJECT_TYPE);
+                v.getfield(owner, valueFieldName, OBJECT_TYPE.getDescriptor());
+                newValue.put(OBJECT_TYPE, v);
+                v.invokeinterface(FUNCTION3_TYPE.getInternalName(), "invoke", "(" + OBJECT_TYPE + OBJECT_TYPE + OBJECT_TYPE + ")" + OBJECT_TYPE);
+                v.pop();
+                break;
+            default:
+                throw new IllegalStateException("Delegate of kind " + kind + " has no setter: " + property);
+        }
+
+        v.load(0, OBJECT_TYPE);
+        newValue.put(OBJECT_TYPE, v);
+        v.putfield(owner, valueFieldName, OBJECT_TYPE.getDescriptor());
+        v.visitInsn(RETURN);
+    }
+
+    @NotNull
+    private Type getOwner(@NotNull ExpressionCodegen codegen) {
+        return codegen.typeMapper.mapClass((ClassDescriptor) property.getContainingDeclaration());
+    }
+
+    @NotNull
+    private static FieldOwnerContext getFieldOwnerContext(@NotNull ExpressionCodegen codegen) {
+        return (FieldOwnerContext) codegen.getContext().getClassOrPackageParentContext();
+    }
+}
@@ -23,16 +23,14 @@ import org.jetbrains.jet.codegen.binding.MutableClosure;
 import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
 import org.jetbrains.jet.lang.descriptors.ScriptDescriptor;
 
-import java.util.List;
-
 // SCRIPT: script as field owner context
 public class ScriptContext extends FieldOwnerContext<ClassDescriptor> {
     private final ScriptDescriptor scriptDescriptor;
-    private final List<ScriptDescriptor> earlierScripts;
+    private final boolean isReplLine;
 
     public ScriptContext(
             @NotNull ScriptDescriptor scriptDescriptor,
-            @NotNull List<ScriptDescriptor> earlierScripts,
+            boolean isReplLine,
             @NotNull ClassDescriptor contextDescriptor,
             @NotNull OwnerKind contextKind,
             @Nullable CodegenContext parentContext,
@@ -40,7 +38,7 @@ public class ScriptContext extends FieldOwnerContext<ClassDescriptor> {
     ) {
         super(contextDescriptor, contextKind, parentContext, closure, contextDescriptor, null);
         this.scriptDescriptor = scriptDescriptor;
-        this.earlierScripts = earlierScripts;
+        this.isReplLine = isReplLine;
     }
 
     @NotNull
@@ -48,18 +46,21 @@ public class ScriptContext extends FieldOwnerContext<ClassDescriptor> {
         return scriptDescriptor;
     }
 
-    @NotNull
-    public List<ScriptDescriptor> getEarlierScripts() {
-        return earlierScripts;
+    /**
+     * REPL lines get instances of all earlier lines through a single list shared by the whole session, see ScriptCodegen
+     */
+    public boolean isReplLine() {
+        return isReplLine;
     }
 
-    @NotNull
-    public String getScriptFieldName(@NotNull ScriptDescriptor scriptDescriptor) {
-        int index = earlierScripts.indexOf(scriptDescriptor);
-        if (index < 0) {
-            throw new IllegalStateException("Unregistered script: " + scriptDescriptor);
+    /**
+     * @return index of the instance of the given earlier REPL line in the list of earlier lines
+     */
+    public int getEarlierScriptIndex(@NotNull ScriptDescriptor earlierScript) {
+        if (!isReplLine || earlierScript.getPriority() <= 0 || earlierScript.getPriority() >= scriptDescriptor.getPriority()) {
+            throw new IllegalStateException("Unregistered script: " + earlierScript);
         }
-        return "script$" + (index + 1);
+        return earlierScript.getPriority() - 1;
     }
 
     @Override
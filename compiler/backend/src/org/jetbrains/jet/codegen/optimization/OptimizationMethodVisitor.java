@@ -35,6 +35,7 @@ import java.util.List;
 public class OptimizationMethodVisitor extends MethodVisitor {
     private static final int MEMORY_LIMIT_BY_METHOD_MB = 50;
     private static final MethodTransformer[] TRANSFORMERS = new MethodTransformer[]{
+            new RedundantRefMethodTransformer(),
             new RedundantNullCheckMethodTransformer(), new RedundantBoxingMethodTransformer(),
             new RedundantGotoMethodTransformer(), new StoreStackBeforeInlineMethodTransformer()
     };
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen.optimization
+
+import org.jetbrains.jet.codegen.StackValue
+import org.jetbrains.jet.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.jet.codegen.optimization.transformer.MethodTransformer
+
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.Analyzer
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+import org.jetbrains.org.objectweb.asm.tree.analysis.Interpreter
+import java.util.LinkedHashSet
+
+private val REF_ELEMENT_FIELD_NAME = "element"
+
+// Internal names of kotlin.jvm.internal.Ref$*Ref classes -> types of their 'element' fields
+private val REF_ELEMENT_TYPES: Map<String, Type> = listOf(
+        Type.BOOLEAN_TYPE, Type.CHAR_TYPE, Type.BYTE_TYPE, Type.SHORT_TYPE, Type.INT_TYPE,
+        Type.FLOAT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE, Type.getObjectType("java/lang/Object")
+).map { StackValue.sharedTypeForType(it).getInternalName() to StackValue.refType(it) }.toMap()
+
+public class RedundantRefMethodTransformer : MethodTransformer() {
+    /**
+     * Replaces Ref objects created for captured local variables with plain local variables if they don't escape the method,
+     * which is the case when all lambdas capturing the variable were inlined
+     */
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (methodNode.instructions.toArray().none { it.isRefCreation() }) return
+
+        val interpreter = RefInterpreter()
+        val frames = MethodTransformer.runAnalyzer(RefAnalyzer(interpreter), internalClassName, methodNode)
+        val insns = methodNode.instructions.toArray()
+
+        val refsToRemove = LinkedHashSet<TypeInsnNode>()
+        for (i in insns.indices) {
+            val insn = insns[i]
+            if (insn.isRefCreation() && frames[i] != null) {
+                refsToRemove.add(insn as TypeInsnNode)
+            }
+            else if (insn.getOpcode() == Opcodes.POP2) {
+                frames[i]?.let { frame ->
+                    interpreter.markEscaping(frame.getStackFromTop(0))
+                    if (frame.getStackSize() > 1) interpreter.markEscaping(frame.getStackFromTop(1))
+                }
+            }
+        }
+        refsToRemove.removeAll(interpreter.escapingRefs)
+        if (refsToRemove.isEmpty()) return
+
+        val newVariables = hashMapOf<TypeInsnNode, Int>()
+        for (ref in refsToRemove) {
+            newVariables[ref] = methodNode.maxLocals
+            methodNode.maxLocals += ref.elementType.getSize()
+        }
+
+        adaptLocalVariableTable(methodNode, insns, frames, newVariables)
+
+        for (i in insns.indices) {
+            val frame = frames[i] ?: continue
+            val insn = insns[i]
+
+            // Value of the Ref object affected by the instruction, if any
+            val refValue = when (insn.getOpcode()) {
+                Opcodes.NEW -> if (newVariables.containsKey(insn)) RefValue(insn as TypeInsnNode) else null
+                Opcodes.ALOAD -> frame.getLocal((insn as VarInsnNode).`var`)
+                Opcodes.ASTORE, Opcodes.DUP, Opcodes.POP, Opcodes.INVOKESPECIAL, Opcodes.GETFIELD -> frame.getStackFromTop(0)
+                Opcodes.PUTFIELD -> frame.getStackFromTop(1)
+                else -> null
+            }
+            if (refValue !is RefValue) continue
+            val ref = refValue.newInsn
+            val variable = newVariables[ref] ?: continue
+            val elementType = ref.elementType
+
+            when (insn.getOpcode()) {
+                Opcodes.NEW -> {
+                    methodNode.instructions.insertBefore(insn, defaultValueInsn(elementType))
+                    methodNode.instructions.set(insn, VarInsnNode(elementType.getOpcode(Opcodes.ISTORE), variable))
+                }
+                Opcodes.GETFIELD -> methodNode.instructions.set(insn, VarInsnNode(elementType.getOpcode(Opcodes.ILOAD), variable))
+                Opcodes.PUTFIELD -> methodNode.instructions.set(insn, VarInsnNode(elementType.getOpcode(Opcodes.ISTORE), variable))
+                else -> methodNode.instructions.remove(insn)
+            }
+        }
+    }
+}
+
+private fun adaptLocalVariableTable(
+        node: MethodNode,
+        insns: Array<AbstractInsnNode>,
+        frames: Array<Frame<BasicValue>?>,
+        newVariables: Map<TypeInsnNode, Int>
+) {
+    for (localVariable in node.localVariables) {
+        if (!REF_ELEMENT_TYPES.containsKey(Type.getType(localVariable.desc).getInternalName())) continue
+
+        val from = node.instructions.indexOf(localVariable.start)
+        val to = node.instructions.indexOf(localVariable.end)
+        for (i in from..to - 1) {
+            val insn = insns[i]
+            val frame = frames[i] ?: continue
+            if (insn !is VarInsnNode || insn.`var` != localVariable.index) continue
+
+            val value = when (insn.getOpcode()) {
+                Opcodes.ALOAD -> frame.getLocal(insn.`var`)
+                Opcodes.ASTORE -> frame.getStackFromTop(0)
+                else -> null
+            }
+            if (value is RefValue) {
+                val variable = newVariables[value.newInsn] ?: continue
+                localVariable.index = variable
+                localVariable.desc = value.newInsn.elementType.getDescriptor()
+                break
+            }
+        }
+    }
+}
+
+private fun defaultValueInsn(type: Type): AbstractInsnNode =
+        InsnNode(when (type.getSort()) {
+            Type.LONG -> Opcodes.LCONST_0
+            Type.FLOAT -> Opcodes.FCONST_0
+            Type.DOUBLE -> Opcodes.DCONST_0
+            Type.OBJECT, Type.ARRAY -> Opcodes.ACONST_NULL
+            else -> Opcodes.ICONST_0
+        })
+
+private fun AbstractInsnNode.isRefCreation(): Boolean =
+        getOpcode() == Opcodes.NEW && REF_ELEMENT_TYPES.containsKey((this as TypeInsnNode).desc)
+
+private val TypeInsnNode.elementType: Type
+    get() = REF_ELEMENT_TYPES[desc]!!
+
+private fun Frame<BasicValue>.getStackFromTop(index: Int): BasicValue? =
+        if (getStackSize() > index) getStack(getStackSize() - index - 1) else null
+
+// A Ref object created by the given NEW instruction
+private class RefValue(val newInsn: TypeInsnNode) : BasicValue(Type.getObjectType(newInsn.desc)) {
+    override fun equals(other: Any?): Boolean = other is RefValue && other.newInsn == newInsn
+
+    override fun hashCode(): Int = newInsn.hashCode()
+}
+
+// A value which can be one of several Ref objects or something else, e.g. after a merge of two control flow paths,
+// or an older instance of a Ref object created by the same instruction. Any usage of it prevents the optimization of all these Refs
+private class MixedRefValue(val newInsns: Set<TypeInsnNode>) : BasicValue(null) {
+    override fun equals(other: Any?): Boolean = other is MixedRefValue && other.newInsns == newInsns
+
+    override fun hashCode(): Int = newInsns.hashCode()
+}
+
+private class RefInterpreter : OptimizationBasicInterpreter() {
+    val escapingRefs = hashSetOf<TypeInsnNode>()
+
+    fun markEscaping(value: BasicValue?) {
+        when (value) {
+            is RefValue -> escapingRefs.add(value.newInsn)
+            is MixedRefValue -> escapingRefs.addAll(value.newInsns)
+        }
+    }
+
+    override fun newOperation(insn: AbstractInsnNode): BasicValue? =
+            if (insn.isRefCreation()) RefValue(insn as TypeInsnNode) else super.newOperation(insn)
+
+    override fun copyOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+        // Loads, stores and DUP's are the only copy operations which are easy to get rid of
+        val opcode = insn.getOpcode()
+        if (value is MixedRefValue || (opcode != Opcodes.ALOAD && opcode != Opcodes.ASTORE && opcode != Opcodes.DUP)) {
+            markEscaping(value)
+        }
+        return if (value is RefValue) value else super.copyOperation(insn, value)
+    }
+
+    override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+        if (!(value is RefValue && insn.getOpcode() == Opcodes.GETFIELD && isElementField(insn, value))) {
+            markEscaping(value)
+        }
+        return super.unaryOperation(insn, value)
+    }
+
+    override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+        if (!(value1 is RefValue && insn.getOpcode() == Opcodes.PUTFIELD && isElementField(insn, value1))) {
+            markEscaping(value1)
+        }
+        markEscaping(value2)
+        return super.binaryOperation(insn, value1, value2)
+    }
+
+    override fun ternaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue, value3: BasicValue): BasicValue? {
+        markEscaping(value1)
+        markEscaping(value2)
+        markEscaping(value3)
+        return super.ternaryOperation(insn, value1, value2, value3)
+    }
+
+    override fun naryOperation(insn: AbstractInsnNode, values: List<BasicValue>): BasicValue? {
+        val isRefConstructorCall = insn.getOpcode() == Opcodes.INVOKESPECIAL &&
+                                   values.size() == 1 &&
+                                   values[0] is RefValue &&
+                                   (insn as MethodInsnNode).name == "<init>" &&
+                                   insn.owner == (values[0] as RefValue).newInsn.desc
+        if (!isRefConstructorCall) {
+            values.forEach { markEscaping(it) }
+        }
+        return super.naryOperation(insn, values)
+    }
+
+    override fun returnOperation(insn: AbstractInsnNode, value: BasicValue, expected: BasicValue) {
+        markEscaping(value)
+        super.returnOperation(insn, value, expected)
+    }
+
+    override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+        if (v == w) return v
+
+        if (v is RefValue || v is MixedRefValue || w is RefValue || w is MixedRefValue) {
+            val refs = hashSetOf<TypeInsnNode>()
+            refs.addAll(v.getRefs())
+            refs.addAll(w.getRefs())
+            return MixedRefValue(refs)
+        }
+
+        return super.merge(v, w)
+    }
+
+    private fun BasicValue.getRefs(): Set<TypeInsnNode> =
+            when (this) {
+                is RefValue -> setOf(newInsn)
+                is MixedRefValue -> newInsns
+                else -> setOf<TypeInsnNode>()
+            }
+
+    private fun isElementField(insn: AbstractInsnNode, value: RefValue): Boolean =
+            (insn as FieldInsnNode).owner == value.newInsn.desc && insn.name == REF_ELEMENT_FIELD_NAME
+}
+
+private class RefAnalyzer(interpreter: RefInterpreter) : Analyzer<BasicValue>(interpreter) {
+    override fun newFrame(nLocals: Int, nStack: Int): Frame<BasicValue> = RefFrame(nLocals, nStack)
+
+    override fun newFrame(src: Frame<out BasicValue>): Frame<BasicValue> = RefFrame(src.getLocals(), src.getMaxStackSize()).init(src)
+}
+
+private class RefFrame(nLocals: Int, nStack: Int) : Frame<BasicValue>(nLocals, nStack) {
+    override fun execute(insn: AbstractInsnNode, interpreter: Interpreter<BasicValue>) {
+        if (insn.isRefCreation()) {
+            // Instances created by this instruction on previous iterations of a loop can't be distinguished from the new one,
+            // so they can't be used after this point without preventing the optimization
+            val ref = RefValue(insn as TypeInsnNode)
+            for (i in 0..getLocals() - 1) {
+                if (getLocal(i) == ref) {
+                    setLocal(i, MixedRefValue(setOf(insn)))
+                }
+            }
+            for (i in 0..getStackSize() - 1) {
+                if (getStack(i) == ref) {
+                    (interpreter as RefInterpreter).markEscaping(ref)
+                }
+            }
+        }
+
+        // These instructions move values below the top of the stack without passing them to the interpreter, so Refs among them
+        // can't be removed: the stack would be shuffled differently without them. Values of size 2 occupy a single slot here,
+        // so a value under the affected ones may be marked too, which only makes the optimization more conservative
+        val movedValues = when (insn.getOpcode()) {
+            Opcodes.SWAP, Opcodes.DUP_X1, Opcodes.DUP2 -> 2
+            Opcodes.DUP_X2, Opcodes.DUP2_X1 -> 3
+            Opcodes.DUP2_X2 -> 4
+            else -> 0
+        }
+        for (i in 0..movedValues - 1) {
+            (interpreter as RefInterpreter).markEscaping(getStackFromTop(i))
+        }
+
+        super.execute(insn, interpreter)
+    }
+}
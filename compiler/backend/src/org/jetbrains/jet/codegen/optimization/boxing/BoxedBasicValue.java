@@ -31,6 +31,7 @@ import java.util.Set;
 
 public class BoxedBasicValue extends BasicValue {
     private final Set<AbstractInsnNode> associatedInsns = new HashSet<AbstractInsnNode>();
+    private final Set<AbstractInsnNode> comparisonInsns = new HashSet<AbstractInsnNode>();
     private final Set<Pair<AbstractInsnNode, Type>> unboxingWithCastInsns = new HashSet<Pair<AbstractInsnNode, Type>>();
     private final AbstractInsnNode boxingInsn;
     private final Set<Integer> associatedVariables = new HashSet<Integer>();
@@ -76,6 +77,15 @@ public class BoxedBasicValue extends BasicValue {
         associatedInsns.add(insnNode);
     }
 
+    public void addComparisonInsn(@NotNull AbstractInsnNode insn) {
+        comparisonInsns.add(insn);
+    }
+
+    @NotNull
+    public Set<AbstractInsnNode> getComparisonInsns() {
+        return comparisonInsns;
+    }
+
     public void addVariableIndex(int index) {
         associatedVariables.add(index);
     }
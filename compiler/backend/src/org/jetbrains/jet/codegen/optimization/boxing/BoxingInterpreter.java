@@ -47,6 +47,8 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
     }
 
 
+    private static final String INTRINSICS_CLASS_NAME = "kotlin/jvm/internal/Intrinsics";
+
     private final Map<Integer, BoxedBasicValue> boxingPlaces = new HashMap<Integer, BoxedBasicValue>();
     private final InsnList insnList;
 
@@ -90,6 +92,9 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                     getValuesTypeOfProgressionClass(firstArg.getType().getInternalName())
             );
         }
+        else if (isComparisonOfSameTypedBoxedValues(insn, values)) {
+            onComparison(insn, (BoxedBasicValue) firstArg, (BoxedBasicValue) values.get(1));
+        }
         else if (isNextMethodCallOfProgressionIterator(insn, values)) {
             assert firstArg instanceof ProgressionIteratorBasicValue : "firstArg should be progression iterator";
 
@@ -153,6 +158,54 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                ).equals(node.desc);
     }
 
+    /**
+     * Intrinsics.areEqual(x, y) and x.compareTo(y), where x and y are boxed values of the same primitive type
+     * for which there's a primitive counterpart of the operation with exactly the same semantics
+     */
+    private static boolean isComparisonOfSameTypedBoxedValues(
+            @NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values
+    ) {
+        if (values.size() != 2 ||
+            !(values.get(0) instanceof BoxedBasicValue) ||
+            !((BoxedBasicValue) values.get(0)).typeEquals(values.get(1))) {
+            return false;
+        }
+
+        int sort = ((BoxedBasicValue) values.get(0)).getPrimitiveType().getSort();
+        if (isAreEqualIntrinsic(insn)) {
+            // Float.equals and Double.equals compare bits, which differs from primitive comparison
+            return sort != Type.FLOAT && sort != Type.DOUBLE;
+        }
+        if (isCompareTo(insn)) {
+            return sort != Type.BOOLEAN;
+        }
+        return false;
+    }
+
+    public static boolean isAreEqualIntrinsic(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKESTATIC) return false;
+
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+
+        return methodInsn.owner.equals(INTRINSICS_CLASS_NAME) && methodInsn.name.equals("areEqual") &&
+               methodInsn.desc.equals("(Ljava/lang/Object;Ljava/lang/Object;)Z");
+    }
+
+    public static boolean isCompareTo(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKEINTERFACE && insn.getOpcode() != Opcodes.INVOKEVIRTUAL) return false;
+
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        if (!methodInsn.name.equals("compareTo")) return false;
+
+        if (insn.getOpcode() == Opcodes.INVOKEINTERFACE) {
+            return methodInsn.owner.equals("java/lang/Comparable") && methodInsn.desc.equals("(Ljava/lang/Object;)I");
+        }
+
+        return isWrapperClassName(methodInsn.owner) &&
+               (methodInsn.desc.equals("(Ljava/lang/Object;)I") ||
+                methodInsn.desc.equals("(L" + methodInsn.owner + ";)I"));
+    }
+
     private static boolean isNextMethodCallOfProgressionIterator(
             @NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values
     ) {
@@ -238,6 +291,10 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
 
     }
 
+    protected void onComparison(@NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue value1, @NotNull BoxedBasicValue value2) {
+
+    }
+
     protected void onMergeFail(@NotNull BoxedBasicValue value) {
 
     }
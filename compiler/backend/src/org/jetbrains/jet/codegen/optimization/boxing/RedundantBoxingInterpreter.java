@@ -91,6 +91,9 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
     private static boolean isSafeCast(@NotNull BoxedBasicValue value, @NotNull String targetInternalName) {
         if (targetInternalName.equals(Type.getInternalName(Object.class))) return true;
 
+        // all wrapper classes implement Comparable
+        if (targetInternalName.equals(Type.getInternalName(Comparable.class))) return true;
+
         if (targetInternalName.equals(Type.getInternalName(Number.class))) {
             return PRIMITIVE_TYPES_SORTS_WITH_WRAPPER_EXTENDS_NUMBER.contains(
                     value.getPrimitiveType().getSort()
@@ -138,6 +141,19 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
         markValueAsDirty(value);
     }
 
+    @Override
+    protected void onComparison(
+            @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue value1, @NotNull BoxedBasicValue value2
+    ) {
+        // operands of the same comparison can only be unboxed together
+        values.merge(value1, value2);
+
+        if (value1.isSafeToRemove()) {
+            value1.addComparisonInsn(insn);
+            value2.addComparisonInsn(insn);
+        }
+    }
+
     @Override
     protected void onMergeFail(@NotNull BoxedBasicValue v) {
         markValueAsDirty(v);
@@ -21,6 +21,7 @@ import com.google.common.collect.Collections2;
 import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.codegen.optimization.transformer.MethodTransformer;
+import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.Opcodes;
 import org.jetbrains.org.objectweb.asm.Type;
 import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
@@ -222,8 +223,19 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
             @NotNull MethodNode node,
             @NotNull RedundantBoxedValuesCollection values
     ) {
+        // comparison is shared by both of its operands, so it should be adapted only once
+        Map<AbstractInsnNode, Type> comparisons = new LinkedHashMap<AbstractInsnNode, Type>();
+
         for (BoxedBasicValue value : values) {
             adaptInstructionsForBoxedValue(node, value);
+
+            for (AbstractInsnNode insn : value.getComparisonInsns()) {
+                comparisons.put(insn, value.getPrimitiveType());
+            }
+        }
+
+        for (Map.Entry<AbstractInsnNode, Type> comparison : comparisons.entrySet()) {
+            adaptComparisonInstruction(node, comparison.getKey(), comparison.getValue());
         }
     }
 
@@ -283,6 +295,58 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
         node.instructions.remove(castInsn);
     }
 
+    private static void adaptComparisonInstruction(
+            @NotNull MethodNode node, @NotNull AbstractInsnNode insn, @NotNull Type primitiveType
+    ) {
+        MethodNode comparisonInsnsListener = new MethodNode(Opcodes.ASM5);
+        InstructionAdapter iv = new InstructionAdapter(comparisonInsnsListener);
+
+        if (BoxingInterpreter.isAreEqualIntrinsic(insn)) {
+            Label notEqual = new Label();
+            Label end = new Label();
+
+            if (primitiveType.getSort() == Type.LONG) {
+                iv.lcmp();
+                iv.ifne(notEqual);
+            }
+            else {
+                iv.ificmpne(notEqual);
+            }
+            iv.iconst(1);
+            iv.goTo(end);
+            iv.mark(notEqual);
+            iv.iconst(0);
+            iv.mark(end);
+        }
+        else {
+            assert BoxingInterpreter.isCompareTo(insn) : "Unexpected comparison instruction: " + insn;
+
+            switch (primitiveType.getSort()) {
+                case Type.INT:
+                    iv.invokestatic("kotlin/jvm/internal/Intrinsics", "compare", "(II)I", false);
+                    break;
+                case Type.LONG:
+                    iv.invokestatic("kotlin/jvm/internal/Intrinsics", "compare", "(JJ)I", false);
+                    break;
+                case Type.FLOAT:
+                    iv.invokestatic("java/lang/Float", "compare", "(FF)I", false);
+                    break;
+                case Type.DOUBLE:
+                    iv.invokestatic("java/lang/Double", "compare", "(DD)I", false);
+                    break;
+                default:
+                    // Character, Short and Byte compareTo return the difference of values
+                    iv.sub(Type.INT_TYPE);
+            }
+        }
+
+        for (AbstractInsnNode comparisonInsn : comparisonInsnsListener.instructions.toArray()) {
+            node.instructions.insertBefore(insn, comparisonInsn);
+        }
+
+        node.instructions.remove(insn);
+    }
+
     private static void adaptInstruction(
             @NotNull MethodNode node, @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue value
     ) {
@@ -25,7 +25,6 @@ import org.jetbrains.jet.codegen.intrinsics.IntrinsicMethods;
 import org.jetbrains.jet.codegen.optimization.OptimizationClassBuilderFactory;
 import org.jetbrains.jet.codegen.when.MappingsClassesForWhenByEnum;
 import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
-import org.jetbrains.jet.lang.descriptors.ScriptDescriptor;
 import org.jetbrains.jet.lang.diagnostics.DiagnosticSink;
 import org.jetbrains.jet.lang.psi.JetClassOrObject;
 import org.jetbrains.jet.lang.psi.JetFile;
@@ -95,8 +94,7 @@ public class GenerationState {
 
     private final boolean disableInline;
 
-    @Nullable
-    private List<ScriptDescriptor> earlierScriptsForReplInterpreter;
+    private boolean generatingReplLine;
 
     private final JvmRuntimeTypes runtimeTypes;
 
@@ -265,13 +263,12 @@ public class GenerationState {
     public void destroy() {
     }
 
-    @Nullable
-    public List<ScriptDescriptor> getEarlierScriptsForReplInterpreter() {
-        return earlierScriptsForReplInterpreter;
+    public boolean isGeneratingReplLine() {
+        return generatingReplLine;
     }
 
-    public void setEarlierScriptsForReplInterpreter(@Nullable List<ScriptDescriptor> earlierScriptsForReplInterpreter) {
-        this.earlierScriptsForReplInterpreter = earlierScriptsForReplInterpreter;
+    public void setGeneratingReplLine(boolean generatingReplLine) {
+        this.generatingReplLine = generatingReplLine;
     }
 
     @NotNull
@@ -55,6 +55,10 @@ public class K2JSCompilerArguments extends CommonCompilerArguments {
     @ValueDescription("<path>")
     public String outputPostfix;
 
+    @Argument(value = "meta-info", description = "Path to directory where serialized descriptors of the module will be written")
+    @ValueDescription("<path>")
+    public String metaInfo;
+
     @Override
     @NotNull
     public String executableScriptFileName() {
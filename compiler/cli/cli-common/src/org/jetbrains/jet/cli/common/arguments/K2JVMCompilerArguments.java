@@ -66,6 +66,9 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xno-optimize", description = "Disable optimizations")
     public boolean noOptimize;
 
+    @Argument(value = "Xjar-uncompressed", description = "Store entries of the resulting .jar uncompressed")
+    public boolean jarUncompressed;
+
     @Override
     @NotNull
     public String executableScriptFileName() {
@@ -21,6 +21,7 @@ import com.google.common.base.Predicates;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.util.Consumer;
@@ -28,9 +29,10 @@ import com.intellij.util.Function;
 import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import kotlin.Function0;
+import kotlin.Function2;
+import kotlin.Unit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.jet.OutputFileCollection;
 import org.jetbrains.jet.analyzer.AnalysisResult;
 import org.jetbrains.jet.cli.common.CLICompiler;
 import org.jetbrains.jet.cli.common.CLIConfigurationKeys;
@@ -41,20 +43,31 @@ import org.jetbrains.jet.cli.common.messages.AnalyzerWithCompilerReport;
 import org.jetbrains.jet.cli.common.messages.CompilerMessageLocation;
 import org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity;
 import org.jetbrains.jet.cli.common.messages.MessageCollector;
-import org.jetbrains.jet.cli.common.output.outputUtils.OutputUtilsPackage;
+import org.jetbrains.jet.cli.common.messages.OutputMessageUtil;
 import org.jetbrains.jet.cli.jvm.compiler.CompileEnvironmentUtil;
 import org.jetbrains.jet.cli.jvm.compiler.EnvironmentConfigFiles;
 import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
 import org.jetbrains.jet.config.CompilerConfiguration;
 import org.jetbrains.jet.config.Services;
+import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
+import org.jetbrains.jet.lang.descriptors.PackageFragmentDescriptor;
 import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.utils.PathUtil;
+import org.jetbrains.jet.utils.UtilsPackage;
+import org.jetbrains.js.compiler.sourcemap.SourceMap3Builder;
 import org.jetbrains.k2js.analyze.TopDownAnalyzerFacadeForJS;
 import org.jetbrains.k2js.config.*;
+import org.jetbrains.k2js.facade.K2JSTranslator;
 import org.jetbrains.k2js.facade.MainCallParameters;
+import org.jetbrains.k2js.serialization.KotlinJavascriptPackageFragmentProvider;
+import org.jetbrains.k2js.serialization.KotlinJavascriptSerializationUtil;
 
-import java.io.File;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.jetbrains.jet.cli.common.ExitCode.COMPILATION_ERROR;
 import static org.jetbrains.jet.cli.common.ExitCode.OK;
@@ -113,7 +126,8 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
         File outputFile = new File(arguments.outputFile);
 
         Config config = getConfig(arguments, project);
-        if (analyzeAndReportErrors(messageCollector, sourcesFiles, config)) {
+        AnalyzerWithCompilerReport analyzerWithCompilerReport = analyzeAndReportErrors(messageCollector, sourcesFiles, config);
+        if (analyzerWithCompilerReport.hasErrors()) {
             return COMPILATION_ERROR;
         }
 
@@ -141,17 +155,52 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
 
         MainCallParameters mainCallParameters = createMainCallParameters(arguments.main);
 
-        OutputFileCollection outputFiles = translate(mainCallParameters, config, sourcesFiles, outputFile, outputPrefixFile, outputPostfixFile);
+        translate(mainCallParameters, config, sourcesFiles, outputFile, outputPrefixFile, outputPostfixFile, messageCollector);
 
-        File outputDir = outputFile.getParentFile();
-        if (outputDir == null) {
-            outputDir = outputFile.getAbsoluteFile().getParentFile();
+        if (arguments.metaInfo != null) {
+            AnalysisResult analysisResult = analyzerWithCompilerReport.getAnalysisResult();
+            assert analysisResult != null : "Analysis result should be present after successful analysis";
+            writeMetaInfo(config.getModuleId(), analysisResult.getModuleDescriptor(), sourcesFiles, new File(arguments.metaInfo));
         }
-        OutputUtilsPackage.writeAll(outputFiles, outputDir, messageCollector);
 
         return OK;
     }
 
+    private static void writeMetaInfo(
+            @NotNull String moduleId,
+            @NotNull ModuleDescriptor module,
+            @NotNull List<JetFile> sourceFiles,
+            @NotNull final File metaInfoDir
+    ) {
+        Set<FqName> packages = new LinkedHashSet<FqName>();
+        for (JetFile file : sourceFiles) {
+            packages.add(file.getPackageFqName());
+        }
+
+        List<PackageFragmentDescriptor> fragments = new ArrayList<PackageFragmentDescriptor>();
+        for (FqName fqName : packages) {
+            for (PackageFragmentDescriptor fragment : module.getPackageFragmentProvider().getPackageFragments(fqName)) {
+                // descriptors of libraries are in the same module, but shouldn't be written again
+                if (!(fragment instanceof KotlinJavascriptPackageFragmentProvider.KotlinJavascriptPackageFragment)) {
+                    fragments.add(fragment);
+                }
+            }
+        }
+
+        KotlinJavascriptSerializationUtil.serializeModule(moduleId, fragments, new Function2<String, byte[], Unit>() {
+            @Override
+            public Unit invoke(String path, byte[] bytes) {
+                try {
+                    FileUtil.writeToFile(new File(metaInfoDir, path), bytes);
+                }
+                catch (IOException e) {
+                    throw UtilsPackage.rethrow(e);
+                }
+                return Unit.INSTANCE$;
+            }
+        });
+    }
+
     private static void reportCompiledSourcesList(@NotNull MessageCollector messageCollector, @NotNull List<JetFile> sourceFiles) {
         Iterable<String> fileNames = ContainerUtil.map(sourceFiles, new Function<JetFile, String>() {
             @Override
@@ -168,24 +217,78 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
                                 CompilerMessageLocation.NO_LOCATION);
     }
 
-    private static OutputFileCollection translate(
+    private static void translate(
             @NotNull MainCallParameters mainCall,
             @NotNull Config config,
             @NotNull List<JetFile> sourceFiles,
             @NotNull File outputFile,
             @Nullable File outputPrefix,
-            @Nullable File outputPostfix
+            @Nullable File outputPostfix,
+            @NotNull MessageCollector messageCollector
     ) {
+        if (outputFile.getParentFile() == null) {
+            outputFile = outputFile.getAbsoluteFile();
+        }
+        File sourceMapFile = config.isSourcemap() ? SourceMap3Builder.getSourceMapFile(outputFile) : null;
+
+        List<File> sources = K2JSTranslator.getSourceIoFiles(sourceFiles);
+        reportOutput(messageCollector, sources, outputFile);
+        if (sourceMapFile != null) {
+            reportOutput(messageCollector, sources, sourceMapFile);
+        }
+
+        // The code is written to the files as it is generated, so the whole output is never kept in memory
+        boolean success = false;
+        Writer jsWriter = null;
+        Writer sourceMapWriter = null;
         try {
+            jsWriter = createWriter(outputFile);
+            sourceMapWriter = sourceMapFile != null ? createWriter(sourceMapFile) : null;
             //noinspection unchecked
-            return translateWithMainCallParameters(mainCall, sourceFiles, outputFile, outputPrefix, outputPostfix, config, Consumer.EMPTY_CONSUMER);
+            translateWithMainCallParameters(mainCall, sourceFiles, outputFile, outputPrefix, outputPostfix, config,
+                                            jsWriter, sourceMapWriter, Consumer.EMPTY_CONSUMER);
+            jsWriter.close();
+            if (sourceMapWriter != null) {
+                sourceMapWriter.close();
+            }
+            success = true;
         }
         catch (Exception e) {
             throw new RuntimeException(e);
         }
+        finally {
+            closeQuietly(jsWriter);
+            closeQuietly(sourceMapWriter);
+            if (!success) {
+                FileUtil.delete(outputFile);
+                if (sourceMapFile != null) {
+                    FileUtil.delete(sourceMapFile);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static Writer createWriter(@NotNull File file) throws IOException {
+        FileUtil.createParentDirs(file);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), CharsetToolkit.UTF8_CHARSET));
     }
 
-    private static boolean analyzeAndReportErrors(@NotNull MessageCollector messageCollector,
+    private static void closeQuietly(@Nullable Writer writer) {
+        if (writer == null) return;
+        try {
+            writer.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    private static void reportOutput(@NotNull MessageCollector messageCollector, @NotNull List<File> sources, @NotNull File output) {
+        messageCollector.report(CompilerMessageSeverity.OUTPUT, OutputMessageUtil.formatOutputMessage(sources, output), NO_LOCATION);
+    }
+
+    @NotNull
+    private static AnalyzerWithCompilerReport analyzeAndReportErrors(@NotNull MessageCollector messageCollector,
             @NotNull final List<JetFile> sources, @NotNull final Config config) {
         AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(messageCollector);
         analyzerWithCompilerReport.analyzeAndReport(sources, new Function0<AnalysisResult>() {
@@ -194,7 +297,7 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
                 return TopDownAnalyzerFacadeForJS.analyzeFiles(sources, Predicates.<PsiFile>alwaysTrue(), config);
             }
         });
-        return analyzerWithCompilerReport.hasErrors();
+        return analyzerWithCompilerReport;
     }
 
     @NotNull
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.JavaClassFileFinder;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+public class CliJavaClassFileFinder implements JavaClassFileFinder {
+    private final ClassPath classPath;
+    private final CoreExternalAnnotationsManager annotationsManager;
+
+    public CliJavaClassFileFinder(@NotNull ClassPath classPath, @NotNull CoreExternalAnnotationsManager annotationsManager) {
+        this.classPath = classPath;
+        this.annotationsManager = annotationsManager;
+    }
+
+    @Nullable
+    @Override
+    public VirtualFile findClassFile(@NotNull ClassId classId) {
+        FqName packageFqName = classId.getPackageFqName();
+        String relativeClassName = classId.getRelativeClassName().asString();
+        String topLevelName = classId.getRelativeClassName().pathSegments().get(0).asString();
+
+        // External annotations are read from PSI, so classes they are applied to are loaded through PSI as well
+        if (annotationsManager.hasAnnotationsForClass(packageFqName.child(Name.identifier(topLevelName)))) return null;
+
+        // Roots are looked through in the same order as PSI does it, so that the same class is found if it's declared several times
+        for (VirtualFile root : classPath) {
+            VirtualFile packageDir = packageFqName.isRoot() ? root : root.findFileByRelativePath(packageFqName.asString().replace('.', '/'));
+            if (packageDir == null) continue;
+
+            if (packageDir.findChild(topLevelName + ".class") != null) {
+                VirtualFile classFile = packageDir.findChild(relativeClassName.replace('.', '$') + ".class");
+                return classFile != null && classFile.isValid() ? classFile : null;
+            }
+
+            if (packageDir.findChild(topLevelName + ".java") != null) {
+                // Classes declared in Java sources are loaded through PSI
+                return null;
+            }
+        }
+
+        return null;
+    }
+}
@@ -43,7 +43,6 @@ import org.jetbrains.jet.cli.common.messages.MessageCollector;
 import org.jetbrains.jet.cli.common.messages.OutputMessageUtil;
 import org.jetbrains.jet.cli.common.modules.ModuleScriptData;
 import org.jetbrains.jet.cli.common.modules.ModuleXmlParser;
-import org.jetbrains.jet.cli.common.output.outputUtils.OutputUtilsPackage;
 import org.jetbrains.jet.cli.jvm.JVMConfigurationKeys;
 import org.jetbrains.jet.codegen.ClassFileFactory;
 import org.jetbrains.jet.codegen.GeneratedClassLoader;
@@ -56,7 +55,6 @@ import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.plugin.JetFileType;
 import org.jetbrains.jet.utils.KotlinPaths;
 import org.jetbrains.jet.utils.PathUtil;
-import org.jetbrains.jet.utils.UtilsPackage;
 
 import java.io.*;
 import java.lang.reflect.Method;
@@ -175,71 +173,42 @@ public class CompileEnvironmentUtil {
     }
 
     // TODO: includeRuntime should be not a flag but a path to runtime
-    private static void doWriteToJar(ClassFileFactory outputFiles, OutputStream fos, @Nullable FqName mainClass, boolean includeRuntime) {
-        try {
-            Manifest manifest = new Manifest();
-            Attributes mainAttributes = manifest.getMainAttributes();
-            mainAttributes.putValue("Manifest-Version", "1.0");
-            mainAttributes.putValue("Created-By", "JetBrains Kotlin");
-            if (mainClass != null) {
-                mainAttributes.putValue("Main-Class", mainClass.asString());
-            }
-            JarOutputStream stream = new JarOutputStream(fos, manifest);
-            for (OutputFile outputFile : outputFiles.asList()) {
-                stream.putNextEntry(new JarEntry(outputFile.getRelativePath()));
-                stream.write(outputFile.asByteArray());
-            }
-            if (includeRuntime) {
-                writeRuntimeToJar(stream);
-            }
-            stream.finish();
+    @NotNull
+    static OutputJarWriter createJarWriter(@NotNull File jarPath, boolean includeRuntime, @Nullable FqName mainClass, boolean uncompressed) {
+        Manifest manifest = new Manifest();
+        Attributes mainAttributes = manifest.getMainAttributes();
+        mainAttributes.putValue("Manifest-Version", "1.0");
+        mainAttributes.putValue("Created-By", "JetBrains Kotlin");
+        if (mainClass != null) {
+            mainAttributes.putValue("Main-Class", mainClass.asString());
         }
-        catch (IOException e) {
-            throw new CompileEnvironmentException("Failed to generate jar file", e);
+
+        File runtimeJarPath = null;
+        if (includeRuntime) {
+            runtimeJarPath = getRuntimeJarPath();
+            if (runtimeJarPath == null) {
+                throw new CompileEnvironmentException("Couldn't find runtime library");
+            }
         }
+
+        return new OutputJarWriter(jarPath, manifest, runtimeJarPath, uncompressed);
     }
 
     public static void writeToJar(File jarPath, boolean jarRuntime, FqName mainClass, ClassFileFactory outputFiles) {
-        FileOutputStream outputStream = null;
+        OutputJarWriter writer = createJarWriter(jarPath, jarRuntime, mainClass, false);
+        boolean success = false;
         try {
-            outputStream = new FileOutputStream(jarPath);
-            doWriteToJar(outputFiles, outputStream, mainClass, jarRuntime);
-            outputStream.close();
-        }
-        catch (FileNotFoundException e) {
-            throw new CompileEnvironmentException("Invalid jar path " + jarPath, e);
-        }
-        catch (IOException e) {
-            throw UtilsPackage.rethrow(e);
+            for (OutputFile outputFile : outputFiles.asList()) {
+                writer.consume(outputFile);
+            }
+            writer.finish();
+            success = true;
         }
         finally {
-            UtilsPackage.closeQuietly(outputStream);
-        }
-    }
-
-    private static void writeRuntimeToJar(JarOutputStream stream) throws IOException {
-        File runtimeJarPath = getRuntimeJarPath();
-        if (runtimeJarPath != null) {
-            JarInputStream jis = new JarInputStream(new FileInputStream(runtimeJarPath));
-            try {
-                while (true) {
-                    JarEntry e = jis.getNextJarEntry();
-                    if (e == null) {
-                        break;
-                    }
-                    if (FileUtilRt.extensionEquals(e.getName(), "class")) {
-                        stream.putNextEntry(e);
-                        FileUtil.copy(jis, stream);
-                    }
-                }
-            }
-            finally {
-                jis.close();
+            if (!success) {
+                writer.abort();
             }
         }
-        else {
-            throw new CompileEnvironmentException("Couldn't find runtime library");
-        }
     }
 
     // Used for debug output only
@@ -252,22 +221,6 @@ public class CompileEnvironmentUtil {
         }
     }
 
-    static void writeOutputToDirOrJar(
-            @Nullable File jar,
-            @Nullable File outputDir,
-            boolean includeRuntime,
-            @Nullable FqName mainClass,
-            @NotNull ClassFileFactory outputFiles,
-            @NotNull MessageCollector messageCollector
-    ) {
-        if (jar != null) {
-            writeToJar(jar, includeRuntime, mainClass, outputFiles);
-        }
-        else {
-            OutputUtilsPackage.writeAll(outputFiles, outputDir == null ? new File(".") : outputDir, messageCollector);
-        }
-    }
-
     @NotNull
     public static List<JetFile> getJetFiles(
             @NotNull final Project project,
@@ -19,11 +19,15 @@ package org.jetbrains.jet.cli.jvm.compiler;
 import com.intellij.codeInsight.BaseExternalAnnotationsManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiFormatUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.name.FqName;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CoreExternalAnnotationsManager extends BaseExternalAnnotationsManager {
     static {
@@ -32,13 +36,88 @@ public class CoreExternalAnnotationsManager extends BaseExternalAnnotationsManag
     }
 
     private final List<VirtualFile> externalAnnotationsRoots = new ArrayList<VirtualFile>();
+    private final Map<FqName, Boolean> packagesWithAnnotations = new HashMap<FqName, Boolean>();
+    private final List<ExternalAnnotationsIndex> indices = new ArrayList<ExternalAnnotationsIndex>();
+    private boolean allRootsIndexed = true;
 
     public CoreExternalAnnotationsManager(@NotNull PsiManager psiManager) {
         super(psiManager);
     }
 
     public void addExternalAnnotationsRoot(VirtualFile externalAnnotationsRoot) {
+        addExternalAnnotationsRoot(externalAnnotationsRoot, null);
+    }
+
+    /**
+     * @param index index of the root; if there's none, annotations.xml files of all roots are always looked through
+     */
+    public void addExternalAnnotationsRoot(VirtualFile externalAnnotationsRoot, @Nullable ExternalAnnotationsIndex index) {
         externalAnnotationsRoots.add(externalAnnotationsRoot);
+        packagesWithAnnotations.clear();
+        if (index != null) {
+            indices.add(index);
+        }
+        else {
+            allRootsIndexed = false;
+        }
+    }
+
+    /**
+     * @return true if the given top level class, its members or nested classes may have external annotations in any of the roots
+     */
+    public boolean hasAnnotationsForClass(@NotNull FqName classFqName) {
+        if (!allRootsIndexed) return hasAnnotationsForPackage(classFqName.parent());
+
+        for (ExternalAnnotationsIndex index : indices) {
+            if (index.hasAnnotationsForClass(classFqName.asString())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if any of the roots contains annotations.xml for the given package
+     */
+    public boolean hasAnnotationsForPackage(@NotNull FqName packageFqName) {
+        Boolean result = packagesWithAnnotations.get(packageFqName);
+        if (result == null) {
+            result = false;
+            String path = packageFqName.isRoot() ? "annotations.xml" : packageFqName.asString().replace('.', '/') + "/annotations.xml";
+            for (VirtualFile root : externalAnnotationsRoots) {
+                if (root.findFileByRelativePath(path) != null) {
+                    result = true;
+                    break;
+                }
+            }
+            packagesWithAnnotations.put(packageFqName, result);
+        }
+        return result;
+    }
+
+    @Nullable
+    @Override
+    public PsiAnnotation findExternalAnnotation(@NotNull PsiModifierListOwner listOwner, @NotNull String annotationFQN) {
+        if (!mayHaveAnnotation(listOwner, annotationFQN)) return null;
+        return super.findExternalAnnotation(listOwner, annotationFQN);
+    }
+
+    @Nullable
+    @Override
+    public PsiAnnotation[] findExternalAnnotations(@NotNull PsiModifierListOwner listOwner) {
+        if (!mayHaveAnnotation(listOwner, null)) return null;
+        return super.findExternalAnnotations(listOwner);
+    }
+
+    // Most of the elements have no external annotations, and the indices tell that without parsing annotations.xml files to PSI
+    private boolean mayHaveAnnotation(@NotNull PsiModifierListOwner listOwner, @Nullable String annotationFQN) {
+        if (!allRootsIndexed) return true;
+
+        String externalName = PsiFormatUtil.getExternalName(listOwner, false, Integer.MAX_VALUE);
+        if (externalName == null) return true;
+
+        for (ExternalAnnotationsIndex index : indices) {
+            if (annotationFQN == null ? index.hasAnnotations(externalName) : index.hasAnnotation(externalName, annotationFQN)) return true;
+        }
+        return false;
     }
 
     @Override
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Binary index of an external annotations root (a jar or a directory): external names of annotated elements mapped to FQ names of
+ * their annotations. It lets the compiler find out that an element has no external annotations without parsing annotations.xml files.
+ *
+ * The index is built once per version of the root and stored in the temporary directory, where it is memory-mapped from.
+ * Keys are sorted and looked up by binary search right in the buffer.
+ *
+ * Loaded indices are cached by the path of the root, and an entry is replaced when the root changes. Directory roots are walked
+ * only when they are indexed or when one of their directories is modified, otherwise only timestamps of known files are checked.
+ */
+public final class ExternalAnnotationsIndex {
+    private static final int MAGIC = 0x4B454149;
+    private static final int VERSION = 1;
+
+    private static final String ANNOTATIONS_FILE_NAME = "annotations.xml";
+
+    private static final Map<String, CachedIndex> indexCache = new HashMap<String, CachedIndex>();
+
+    private final ByteBuffer buffer;
+    private final String[] annotationNames;
+    private final int itemCount;
+    private final int offsetsStart;
+
+    private ExternalAnnotationsIndex(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        int position = 4 + 4 + 8;
+        position += 2 + (buffer.getShort(position) & 0xFFFF);
+
+        annotationNames = new String[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < annotationNames.length; i++) {
+            annotationNames[i] = readString(position);
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+        }
+
+        itemCount = buffer.getInt(position);
+        offsetsStart = position + 4;
+    }
+
+    /**
+     * @return null if the root can't be indexed, in which case annotations should be looked up in annotations.xml files directly
+     */
+    @Nullable
+    public static ExternalAnnotationsIndex forRoot(@NotNull File root) {
+        try {
+            String path = root.getAbsolutePath();
+
+            synchronized (indexCache) {
+                CachedIndex cached = indexCache.get(path);
+                if (cached != null && cached.isUpToDate(root)) return cached.index;
+
+                RootContents contents = root.isFile() ? null : RootContents.collect(root);
+                long stamp = root.isFile() ? computeJarStamp(root) : contents.computeStamp();
+
+                // Only the timestamp of a directory may have changed, but not the annotation files in it
+                ExternalAnnotationsIndex index = cached != null && cached.stamp == stamp
+                                                 ? cached.index
+                                                 : new ExternalAnnotationsIndex(loadOrBuild(root, path, stamp, contents));
+                indexCache.put(path, new CachedIndex(index, stamp, contents));
+                return index;
+            }
+        }
+        catch (IOException e) {
+            return null;
+        }
+        catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param externalName name of an element as written in annotations.xml, see {@link com.intellij.psi.util.PsiFormatUtil#getExternalName}
+     */
+    public boolean hasAnnotations(@NotNull String externalName) {
+        return findItem(normalize(externalName)) >= 0;
+    }
+
+    public boolean hasAnnotation(@NotNull String externalName, @NotNull String annotationFqName) {
+        int item = findItem(normalize(externalName));
+        if (item < 0) return false;
+
+        int position = buffer.getInt(offsetsStart + 4 * item);
+        position += 2 + (buffer.getShort(position) & 0xFFFF);
+        int count = buffer.getShort(position) & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            if (annotationNames[buffer.getShort(position + 2 + 2 * i) & 0xFFFF].equals(annotationFqName)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the class, any of its members or any of its nested classes has external annotations
+     */
+    public boolean hasAnnotationsForClass(@NotNull String classFqName) {
+        if (findItem(classFqName) >= 0) return true;
+        return hasItemWithPrefix(classFqName + " ") || hasItemWithPrefix(classFqName + ".");
+    }
+
+    private int findItem(@NotNull String externalName) {
+        int index = lowerBound(externalName);
+        return index < itemCount && getItemName(index).equals(externalName) ? index : -1;
+    }
+
+    private boolean hasItemWithPrefix(@NotNull String prefix) {
+        int index = lowerBound(prefix);
+        return index < itemCount && getItemName(index).startsWith(prefix);
+    }
+
+    private int lowerBound(@NotNull String key) {
+        int low = 0;
+        int high = itemCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getItemName(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @NotNull
+    private String getItemName(int index) {
+        return readString(buffer.getInt(offsetsStart + 4 * index));
+    }
+
+    @NotNull
+    private String readString(int position) {
+        byte[] bytes = new byte[buffer.getShort(position) & 0xFFFF];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 2);
+        view.get(bytes);
+        return new String(bytes, CharsetToolkit.UTF8_CHARSET);
+    }
+
+    @NotNull
+    private static String normalize(@NotNull String externalName) {
+        return externalName.trim().replaceAll("\\s+", " ");
+    }
+
+    private static long computeJarStamp(@NotNull File root) {
+        return root.lastModified() * 31 + root.length();
+    }
+
+    private static final class CachedIndex {
+        private final ExternalAnnotationsIndex index;
+        private final long stamp;
+        // null for jars
+        private final RootContents contents;
+
+        private CachedIndex(@NotNull ExternalAnnotationsIndex index, long stamp, @Nullable RootContents contents) {
+            this.index = index;
+            this.stamp = stamp;
+            this.contents = contents;
+        }
+
+        private boolean isUpToDate(@NotNull File root) {
+            if (contents == null) return root.isFile() && computeJarStamp(root) == stamp;
+            return root.isDirectory() && contents.isUpToDate();
+        }
+    }
+
+    /**
+     * Directories of a directory root and annotations.xml files in them, with the timestamps they had when the root was walked.
+     * Adding or removing a file changes the timestamp of its directory, so the root has to be walked again only when one of these
+     * timestamps changes
+     */
+    private static final class RootContents {
+        private final List<File> annotationFiles = new ArrayList<File>();
+        private final Map<File, Long> timestamps = new LinkedHashMap<File, Long>();
+
+        @NotNull
+        private static RootContents collect(@NotNull File root) {
+            RootContents contents = new RootContents();
+            contents.walk(root);
+            return contents;
+        }
+
+        private void walk(@NotNull File dir) {
+            timestamps.put(dir, dir.lastModified());
+
+            File[] children = dir.listFiles();
+            if (children == null) return;
+
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    walk(child);
+                }
+                else if (child.getName().equals(ANNOTATIONS_FILE_NAME)) {
+                    annotationFiles.add(child);
+                    timestamps.put(child, child.lastModified());
+                }
+            }
+        }
+
+        private boolean isUpToDate() {
+            for (Map.Entry<File, Long> entry : timestamps.entrySet()) {
+                if (entry.getKey().lastModified() != entry.getValue()) return false;
+            }
+            return true;
+        }
+
+        private long computeStamp() {
+            long stamp = 0;
+            for (File file : annotationFiles) {
+                stamp = stamp * 31 + file.getPath().hashCode();
+                stamp = stamp * 31 + timestamps.get(file);
+            }
+            return stamp;
+        }
+    }
+
+    @NotNull
+    private static ByteBuffer loadOrBuild(@NotNull File root, @NotNull String path, long stamp, @Nullable RootContents contents)
+            throws IOException, XMLStreamException {
+        File cacheDir = new File(FileUtil.getTempDirectory(), "kotlin-external-annotations");
+        File cacheFile = new File(cacheDir, Integer.toHexString(path.hashCode()) + "-" + Long.toHexString(stamp) + ".index");
+
+        if (cacheFile.isFile()) {
+            ByteBuffer mapped = map(cacheFile);
+            if (isIndexOf(mapped, path, stamp)) return mapped;
+        }
+
+        byte[] bytes = build(root, path, stamp, contents);
+
+        // The index is still usable from memory if it can't be cached on disk
+        try {
+            FileUtil.createDirectory(cacheDir);
+            File tempFile = FileUtil.createTempFile(cacheDir, cacheFile.getName(), ".tmp", true, false);
+            FileUtil.writeToFile(tempFile, bytes);
+            if (!tempFile.renameTo(cacheFile)) {
+                FileUtil.delete(tempFile);
+            }
+        }
+        catch (IOException ignored) {
+        }
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @NotNull
+    private static ByteBuffer map(@NotNull File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static boolean isIndexOf(@NotNull ByteBuffer buffer, @NotNull String path, long stamp) {
+        if (buffer.limit() < 4 + 4 + 8 + 2) return false;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != stamp) return false;
+
+        int pathLength = buffer.getShort(16) & 0xFFFF;
+        if (buffer.limit() < 18 + pathLength) return false;
+
+        byte[] bytes = new byte[pathLength];
+        ByteBuffer view = buffer.duplicate();
+        view.position(18);
+        view.get(bytes);
+        return path.equals(new String(bytes, CharsetToolkit.UTF8_CHARSET));
+    }
+
+    @NotNull
+    private static byte[] build(@NotNull File root, @NotNull String path, long stamp, @Nullable RootContents contents)
+            throws IOException, XMLStreamException {
+        SortedMap<String, Set<String>> items = new TreeMap<String, Set<String>>();
+
+        if (contents == null) {
+            ZipFile zipFile = new ZipFile(root);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(ANNOTATIONS_FILE_NAME)) {
+                        readAnnotationsFile(zipFile.getInputStream(entry), items);
+                    }
+                }
+            }
+            finally {
+                zipFile.close();
+            }
+        }
+        else {
+            for (File file : contents.annotationFiles) {
+                readAnnotationsFile(new FileInputStream(file), items);
+            }
+        }
+
+        return write(items, path, stamp);
+    }
+
+    private static void readAnnotationsFile(@NotNull InputStream stream, @NotNull Map<String, Set<String>> items)
+            throws IOException, XMLStreamException {
+        try {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            try {
+                Set<String> annotations = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getAttributeValue(null, "name");
+                        if (name == null) continue;
+
+                        if ("item".equals(reader.getLocalName())) {
+                            String itemName = normalize(name);
+                            annotations = items.get(itemName);
+                            if (annotations == null) {
+                                annotations = new LinkedHashSet<String>();
+                                items.put(itemName, annotations);
+                            }
+                        }
+                        else if ("annotation".equals(reader.getLocalName()) && annotations != null) {
+                            annotations.add(name);
+                        }
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT && "item".equals(reader.getLocalName())) {
+                        annotations = null;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    @NotNull
+    private static byte[] write(@NotNull SortedMap<String, Set<String>> items, @NotNull String path, long stamp) throws IOException {
+        Map<String, Integer> annotationIds = new LinkedHashMap<String, Integer>();
+        for (Set<String> annotations : items.values()) {
+            for (String annotation : annotations) {
+                if (!annotationIds.containsKey(annotation)) {
+                    annotationIds.put(annotation, annotationIds.size());
+                }
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOutput = new DataOutputStream(header);
+        headerOutput.writeInt(MAGIC);
+        headerOutput.writeInt(VERSION);
+        headerOutput.writeLong(stamp);
+        writeString(headerOutput, path);
+        headerOutput.writeInt(annotationIds.size());
+        for (String annotation : annotationIds.keySet()) {
+            writeString(headerOutput, annotation);
+        }
+        headerOutput.writeInt(items.size());
+
+        int entriesStart = header.size() + 4 * items.size();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream entriesOutput = new DataOutputStream(entries);
+        for (Map.Entry<String, Set<String>> item : items.entrySet()) {
+            headerOutput.writeInt(entriesStart + entries.size());
+
+            writeString(entriesOutput, item.getKey());
+            entriesOutput.writeShort(item.getValue().size());
+            for (String annotation : item.getValue()) {
+                entriesOutput.writeShort(annotationIds.get(annotation));
+            }
+        }
+
+        headerOutput.close();
+        entriesOutput.close();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(header.size() + entries.size());
+        header.writeTo(result);
+        entries.writeTo(result);
+        return result.toByteArray();
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String string) throws IOException {
+        byte[] bytes = string.getBytes(CharsetToolkit.UTF8_CHARSET);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String is too long for the external annotations index: " + string.substring(0, 100) + "...");
+        }
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -56,6 +56,7 @@ import org.jetbrains.jet.lang.parsing.JetParserDefinition;
 import org.jetbrains.jet.lang.parsing.JetScriptDefinitionProvider;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.CodeAnalyzerInitializer;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.JavaClassFileFinder;
 import org.jetbrains.jet.lang.resolve.kotlin.KotlinBinaryClassCache;
 import org.jetbrains.jet.lang.resolve.kotlin.VirtualFileFinderFactory;
 import org.jetbrains.jet.lang.resolve.lazy.declarations.CliDeclarationProviderFactoryService;
@@ -66,7 +67,9 @@ import org.jetbrains.jet.utils.PathUtil;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.ERROR;
 import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.WARNING;
@@ -76,7 +79,11 @@ public class JetCoreEnvironment {
 
     private static final Object APPLICATION_LOCK = new Object();
     private static JavaCoreApplicationEnvironment ourApplicationEnvironment;
+    private static List<String> ourApplicationConfigFilePaths;
     private static int ourProjectCount = 0;
+    private static int ourSessionCount = 0;
+    // Jar file system never re-reads jars it has once opened, so the environment shouldn't be reused if any of them has changed since
+    private static final Map<File, Long> ourOpenedJarStamps = new HashMap<File, Long>();
 
     @NotNull
     public static JetCoreEnvironment createForProduction(
@@ -90,7 +97,7 @@ public class JetCoreEnvironment {
             @Override
             public void dispose() {
                 synchronized (APPLICATION_LOCK) {
-                    if (--ourProjectCount <= 0) {
+                    if (--ourProjectCount <= 0 && ourSessionCount <= 0) {
                         disposeApplicationEnvironment();
                     }
                 }
@@ -105,6 +112,28 @@ public class JetCoreEnvironment {
         return environment;
     }
 
+    /**
+     * Keeps the application environment shared by production environments alive until the returned disposable is disposed,
+     * so that consecutive compilations in the same JVM (e.g. compile tasks of all modules of a Gradle or Maven build) don't re-create it
+     * and don't re-open the same jars
+     */
+    @NotNull
+    public static Disposable startCompilerSession() {
+        synchronized (APPLICATION_LOCK) {
+            ourSessionCount++;
+        }
+        return new Disposable() {
+            @Override
+            public void dispose() {
+                synchronized (APPLICATION_LOCK) {
+                    if (--ourSessionCount <= 0 && ourProjectCount <= 0) {
+                        disposeApplicationEnvironment();
+                    }
+                }
+            }
+        };
+    }
+
     @TestOnly
     @NotNull
     public static JetCoreEnvironment createForTests(
@@ -119,16 +148,24 @@ public class JetCoreEnvironment {
     @NotNull
     private static JavaCoreApplicationEnvironment getOrCreateApplicationEnvironmentForProduction(@NotNull List<String> configFilePaths) {
         synchronized (APPLICATION_LOCK) {
-            if (ourApplicationEnvironment != null) return ourApplicationEnvironment;
+            if (ourApplicationEnvironment != null) {
+                // An environment kept alive by a compiler session is re-created for compilations of another kind or with changed jars
+                if (ourProjectCount > 0 || (ourApplicationConfigFilePaths.equals(configFilePaths) && !hasOpenedJarsChanged())) {
+                    return ourApplicationEnvironment;
+                }
+                disposeApplicationEnvironment();
+            }
 
             Disposable parentDisposable = Disposer.newDisposable();
             ourApplicationEnvironment = createApplicationEnvironment(parentDisposable, configFilePaths);
+            ourApplicationConfigFilePaths = configFilePaths;
             ourProjectCount = 0;
             Disposer.register(parentDisposable, new Disposable() {
                 @Override
                 public void dispose() {
                     synchronized (APPLICATION_LOCK) {
                         ourApplicationEnvironment = null;
+                        ourOpenedJarStamps.clear();
                     }
                 }
             });
@@ -145,6 +182,21 @@ public class JetCoreEnvironment {
         }
     }
 
+    private static boolean hasOpenedJarsChanged() {
+        for (Map.Entry<File, Long> entry : ourOpenedJarStamps.entrySet()) {
+            if (entry.getKey().lastModified() != entry.getValue()) return true;
+        }
+        return false;
+    }
+
+    private static void rememberOpenedJar(@NotNull File jar) {
+        synchronized (APPLICATION_LOCK) {
+            if (!ourOpenedJarStamps.containsKey(jar)) {
+                ourOpenedJarStamps.put(jar, jar.lastModified());
+            }
+        }
+    }
+
     @NotNull
     private static JavaCoreApplicationEnvironment createApplicationEnvironment(
             @NotNull Disposable parentDisposable,
@@ -243,6 +295,7 @@ public class JetCoreEnvironment {
                 configuration.getList(CommonConfigurationKeys.SCRIPT_DEFINITIONS_KEY));
 
         project.registerService(VirtualFileFinderFactory.class, new CliVirtualFileFinderFactory(classPath));
+        project.registerService(JavaClassFileFinder.class, new CliJavaClassFileFinder(classPath, annotationsManager));
     }
 
     // made public for Upsource
@@ -290,7 +343,10 @@ public class JetCoreEnvironment {
             report(WARNING, "Annotations path entry points to a non-existent location: " + path);
             return;
         }
-        annotationsManager.addExternalAnnotationsRoot(PathUtil.jarFileOrDirectoryToVirtualFile(path));
+        if (path.isFile()) {
+            rememberOpenedJar(path);
+        }
+        annotationsManager.addExternalAnnotationsRoot(PathUtil.jarFileOrDirectoryToVirtualFile(path), ExternalAnnotationsIndex.forRoot(path));
     }
 
     private void addToClasspath(File path) {
@@ -300,6 +356,7 @@ public class JetCoreEnvironment {
                 report(WARNING, "Classpath entry points to a file that is not a JAR archive: " + path);
                 return;
             }
+            rememberOpenedJar(path);
             projectEnvironment.addJarToClassPath(path);
             classPath.add(jarFile);
         }
@@ -30,6 +30,8 @@ import kotlin.modules.AllModules;
 import kotlin.modules.Module;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.OutputFile;
+import org.jetbrains.jet.OutputFileConsumer;
 import org.jetbrains.jet.analyzer.AnalysisResult;
 import org.jetbrains.jet.asJava.FilteredJvmDiagnostics;
 import org.jetbrains.jet.cli.common.CLIConfigurationKeys;
@@ -48,6 +50,7 @@ import org.jetbrains.jet.lang.parsing.JetScriptDefinition;
 import org.jetbrains.jet.lang.parsing.JetScriptDefinitionProvider;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.AnalyzerScriptParameter;
+import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.BindingTrace;
 import org.jetbrains.jet.lang.resolve.BindingTraceContext;
 import org.jetbrains.jet.lang.resolve.ScriptNameUtil;
@@ -91,16 +94,29 @@ public class KotlinToJVMBytecodeCompiler {
         return result;
     }
 
-    private static void writeOutput(
+    private static void writeOutput(@NotNull ClassFileFactory outputFiles, @NotNull OutputWriter outputWriter) {
+        // Files which were not flushed during code generation
+        for (OutputFile outputFile : outputFiles.asList()) {
+            outputWriter.consume(outputFile);
+        }
+        outputWriter.finish();
+    }
+
+    @NotNull
+    private static OutputWriter createOutputWriter(
             @NotNull CompilerConfiguration configuration,
-            @NotNull ClassFileFactory outputFiles,
             @Nullable File outputDir,
             @Nullable File jarPath,
             boolean jarRuntime,
             @Nullable FqName mainClass
     ) {
+        if (jarPath != null) {
+            return CompileEnvironmentUtil.createJarWriter(
+                    jarPath, jarRuntime, mainClass, configuration.get(JVMConfigurationKeys.UNCOMPRESSED_JAR, false));
+        }
+
         MessageCollector messageCollector = configuration.get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, MessageCollector.NONE);
-        CompileEnvironmentUtil.writeOutputToDirOrJar(jarPath, outputDir, jarRuntime, mainClass, outputFiles, messageCollector);
+        return new OutputDirectoryWriter(outputDir == null ? new File(".") : outputDir, messageCollector);
     }
 
     public static boolean compileModules(
@@ -111,46 +127,62 @@ public class KotlinToJVMBytecodeCompiler {
             boolean jarRuntime
     ) {
         Map<Module, ClassFileFactory> outputFiles = Maps.newHashMap();
+        Map<Module, OutputWriter> outputWriters = Maps.newHashMap();
 
         CompilerConfiguration compilerConfiguration = createCompilerConfiguration(configuration, chunk, directory);
 
-        Disposable parentDisposable = Disposer.newDisposable();
-        JetCoreEnvironment environment = null;
+        boolean success = false;
         try {
-            environment = JetCoreEnvironment
-                    .createForProduction(parentDisposable, compilerConfiguration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+            Disposable parentDisposable = Disposer.newDisposable();
+            JetCoreEnvironment environment = null;
+            try {
+                environment = JetCoreEnvironment
+                        .createForProduction(parentDisposable, compilerConfiguration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+
+                AnalysisResult result = analyze(environment);
+                if (result == null) {
+                    return false;
+                }
 
-            AnalysisResult result = analyze(environment);
-            if (result == null) {
-                return false;
-            }
+                result.throwIfError();
 
-            result.throwIfError();
+                for (Module module : chunk) {
+                    List<JetFile> jetFiles = CompileEnvironmentUtil.getJetFiles(
+                            environment.getProject(), getAbsolutePaths(directory, module), new Function1<String, Unit>() {
+                                @Override
+                                public Unit invoke(String s) {
+                                    throw new IllegalStateException("Should have been checked before: " + s);
+                                }
+                            }
+                    );
+                    File outputDir = new File(module.getOutputDirectory());
+                    OutputWriter outputWriter = createOutputWriter(configuration, outputDir, jarPath, jarRuntime, null);
+                    outputWriters.put(module, outputWriter);
+                    GenerationState generationState =
+                            generate(environment, result, jetFiles, module.getModuleName(), outputDir, outputWriter);
+                    outputFiles.put(module, generationState.getFactory());
+                }
+            }
+            finally {
+                if (environment != null) {
+                    Disposer.dispose(parentDisposable);
+                }
+            }
 
             for (Module module : chunk) {
-                List<JetFile> jetFiles = CompileEnvironmentUtil.getJetFiles(
-                        environment.getProject(), getAbsolutePaths(directory, module), new Function1<String, Unit>() {
-                            @Override
-                            public Unit invoke(String s) {
-                                throw new IllegalStateException("Should have been checked before: " + s);
-                            }
-                        }
-                );
-                GenerationState generationState =
-                        generate(environment, result, jetFiles, module.getModuleName(), new File(module.getOutputDirectory()));
-                outputFiles.put(module, generationState.getFactory());
+                writeOutput(outputFiles.get(module), outputWriters.get(module));
             }
+            success = true;
+            return true;
         }
         finally {
-            if (environment != null) {
-                Disposer.dispose(parentDisposable);
+            if (!success) {
+                // Modules of a chunk depend on each other, so output of the whole chunk is deleted, including the finished modules
+                for (OutputWriter outputWriter : outputWriters.values()) {
+                    outputWriter.abort();
+                }
             }
         }
-
-        for (Module module : chunk) {
-            writeOutput(configuration, outputFiles.get(module), new File(module.getOutputDirectory()), jarPath, jarRuntime, null);
-        }
-        return true;
     }
 
     @NotNull
@@ -183,8 +215,8 @@ public class KotlinToJVMBytecodeCompiler {
     }
 
     @Nullable
-    private static FqName findMainClass(@NotNull GenerationState generationState, @NotNull List<JetFile> files) {
-        MainFunctionDetector mainFunctionDetector = new MainFunctionDetector(generationState.getBindingContext());
+    private static FqName findMainClass(@NotNull BindingContext bindingContext, @NotNull List<JetFile> files) {
+        MainFunctionDetector mainFunctionDetector = new MainFunctionDetector(bindingContext);
         FqName mainClass = null;
         for (JetFile file : files) {
             if (mainFunctionDetector.hasMain(file.getDeclarations())) {
@@ -206,19 +238,31 @@ public class KotlinToJVMBytecodeCompiler {
             boolean includeRuntime
     ) {
 
-        GenerationState generationState = analyzeAndGenerate(environment);
-        if (generationState == null) {
+        AnalysisResult result = analyze(environment);
+        if (result == null) {
             return false;
         }
 
-        FqName mainClass = findMainClass(generationState, environment.getSourceFiles());
+        result.throwIfError();
 
+        FqName mainClass = findMainClass(result.getBindingContext(), environment.getSourceFiles());
+        OutputWriter outputWriter = createOutputWriter(environment.getConfiguration(), outputDir, jar, includeRuntime, mainClass);
+        boolean success = false;
         try {
-            writeOutput(environment.getConfiguration(), generationState.getFactory(), outputDir, jar, includeRuntime, mainClass);
-            return true;
+            GenerationState generationState = generate(environment, result, environment.getSourceFiles(), null, null, outputWriter);
+            try {
+                writeOutput(generationState.getFactory(), outputWriter);
+                success = true;
+                return true;
+            }
+            finally {
+                generationState.destroy();
+            }
         }
         finally {
-            generationState.destroy();
+            if (!success) {
+                outputWriter.abort();
+            }
         }
     }
 
@@ -281,7 +325,7 @@ public class KotlinToJVMBytecodeCompiler {
 
         result.throwIfError();
 
-        return generate(environment, result, environment.getSourceFiles(), null, null);
+        return generate(environment, result, environment.getSourceFiles(), null, null, null);
     }
 
     @Nullable
@@ -330,7 +374,8 @@ public class KotlinToJVMBytecodeCompiler {
             @NotNull AnalysisResult result,
             @NotNull List<JetFile> sourceFiles,
             @Nullable String moduleId,
-            File outputDirectory
+            File outputDirectory,
+            @Nullable OutputFileConsumer outputFileConsumer
     ) {
         CompilerConfiguration configuration = environment.getConfiguration();
         IncrementalCacheProvider incrementalCacheProvider = configuration.get(JVMConfigurationKeys.INCREMENTAL_CACHE_PROVIDER);
@@ -361,6 +406,7 @@ public class KotlinToJVMBytecodeCompiler {
                 diagnosticHolder,
                 outputDirectory
         );
+        generationState.getFactory().setOutputFileConsumer(outputFileConsumer);
         KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION);
         AnalyzerWithCompilerReport.reportDiagnostics(
                 new FilteredJvmDiagnostics(
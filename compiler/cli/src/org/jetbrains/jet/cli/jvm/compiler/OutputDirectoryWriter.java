@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.OutputFile;
+import org.jetbrains.jet.cli.common.messages.MessageCollector;
+import org.jetbrains.jet.cli.common.messages.OutputMessageUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.jetbrains.jet.cli.common.messages.CompilerMessageLocation.NO_LOCATION;
+import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.OUTPUT;
+
+final class OutputDirectoryWriter extends OutputWriter {
+    private final MessageCollector messageCollector;
+    // Only files that didn't exist before this build: outputs of a previous build which got overwritten are left in place on abort
+    private final Queue<File> createdFiles = new ConcurrentLinkedQueue<File>();
+
+    OutputDirectoryWriter(@NotNull File outputDir, @NotNull MessageCollector messageCollector) {
+        super(outputDir);
+        this.messageCollector = messageCollector;
+    }
+
+    @Override
+    public void consume(@NotNull OutputFile file) {
+        File output = new File(destination, file.getRelativePath());
+        messageCollector.report(OUTPUT, OutputMessageUtil.formatOutputMessage(file.getSourceFiles(), output), NO_LOCATION);
+        super.consume(file);
+    }
+
+    @Override
+    protected void write(@NotNull String relativePath, @NotNull byte[] bytes) throws IOException {
+        File file = new File(destination, relativePath);
+        File parent = file.getParentFile();
+        // Another thread may be creating the same directory at the moment
+        if (!parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Couldn't create directory " + parent);
+        }
+
+        boolean existed = file.exists();
+        FileOutputStream stream = new FileOutputStream(file);
+        if (!existed) {
+            createdFiles.add(file);
+        }
+        try {
+            FileChannel channel = stream.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    @Override
+    protected void abortWriting() {
+        for (File file : createdFiles) {
+            file.delete();
+        }
+        createdFiles.clear();
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes class files to a jar. Files are compressed on writer threads as soon as they are generated and appended to a temporary
+ * file next to the jar, so that only their names and checksums stay in memory. When everything is generated, the jar is assembled
+ * by copying the prepared entries in the order of their names after the manifest.
+ * All entries have the same timestamp, so the same classes always produce the same jar.
+ */
+final class OutputJarWriter extends OutputWriter {
+    // 1980-01-01 00:00 in the MS-DOS format used by ZIP
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (1 << 5) | 1;
+
+    private static final int UTF8_NAMES_FLAG = 1 << 11;
+    private static final int ZIP_VERSION = 20;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private final Manifest manifest;
+    @Nullable private final File runtimeJar;
+    private final boolean uncompressed;
+
+    private final File tempFile;
+    private final RandomAccessFile temp;
+    private long tempSize = 0;
+    private boolean tempClosed = false;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private volatile boolean jarStarted = false;
+
+    OutputJarWriter(@NotNull File jar, @NotNull Manifest manifest, @Nullable File runtimeJar, boolean uncompressed) {
+        super(jar);
+        this.manifest = manifest;
+        this.runtimeJar = runtimeJar;
+        this.uncompressed = uncompressed;
+
+        try {
+            tempFile = File.createTempFile(jar.getName(), ".tmp", jar.getAbsoluteFile().getParentFile());
+        }
+        catch (IOException e) {
+            throw new CompileEnvironmentException("Invalid jar path " + jar, e);
+        }
+        try {
+            temp = new RandomAccessFile(tempFile, "rw");
+        }
+        catch (IOException e) {
+            FileUtil.delete(tempFile);
+            throw new CompileEnvironmentException("Invalid jar path " + jar, e);
+        }
+    }
+
+    @Override
+    protected void write(@NotNull String relativePath, @NotNull byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        byte[] data = uncompressed ? bytes : deflate(bytes);
+
+        synchronized (entries) {
+            if (entries.containsKey(relativePath)) {
+                throw new IOException("Duplicate jar entry: " + relativePath);
+            }
+            entries.put(relativePath, new Entry(relativePath, crc.getValue(), bytes.length, data.length, tempSize));
+
+            FileChannel channel = temp.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, tempSize + buffer.position());
+            }
+            tempSize += data.length;
+        }
+    }
+
+    @Override
+    protected void finishWriting() throws IOException {
+        try {
+            if (runtimeJar != null) {
+                writeRuntime(runtimeJar);
+            }
+
+            if (entries.size() + 1 > MAX_ENTRIES || tempSize > MAX_SIZE) {
+                throw new IOException("Too many classes to be written to a jar: ZIP64 format is not supported");
+            }
+
+            ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+            manifest.write(manifestBytes);
+            byte[] manifestData = manifestBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(manifestData);
+            Entry manifestEntry = new Entry(JarFile.MANIFEST_NAME, crc.getValue(), manifestData.length, manifestData.length, -1);
+
+            List<Entry> sorted = new ArrayList<Entry>(entries.values());
+            Collections.sort(sorted, new Comparator<Entry>() {
+                @Override
+                public int compare(@NotNull Entry e1, @NotNull Entry e2) {
+                    return e1.name.compareTo(e2.name);
+                }
+            });
+
+            jarStarted = true;
+            FileOutputStream stream = new FileOutputStream(destination);
+            try {
+                FileChannel jar = stream.getChannel();
+                FileChannel source = temp.getChannel();
+
+                // Manifest goes first, otherwise JarInputStream doesn't find it
+                manifestEntry.offset = jar.position();
+                writeFully(jar, localHeader(manifestEntry, ZipEntry.STORED));
+                writeFully(jar, ByteBuffer.wrap(manifestData));
+
+                for (Entry entry : sorted) {
+                    long dataOffset = entry.offset;
+                    entry.offset = jar.position();
+                    writeFully(jar, localHeader(entry, getMethod()));
+                    for (long copied = 0; copied < entry.compressedSize; ) {
+                        copied += source.transferTo(dataOffset + copied, entry.compressedSize - copied, jar);
+                    }
+                }
+
+                long centralDirectoryOffset = jar.position();
+                writeFully(jar, centralHeader(manifestEntry, ZipEntry.STORED));
+                for (Entry entry : sorted) {
+                    writeFully(jar, centralHeader(entry, getMethod()));
+                }
+                long centralDirectorySize = jar.position() - centralDirectoryOffset;
+
+                if (centralDirectoryOffset > MAX_SIZE) {
+                    throw new IOException("Jar is too large: ZIP64 format is not supported");
+                }
+                writeFully(jar, endOfCentralDirectory(sorted.size() + 1, centralDirectorySize, centralDirectoryOffset));
+            }
+            finally {
+                stream.close();
+            }
+        }
+        finally {
+            closeTemp();
+        }
+    }
+
+    @Override
+    protected void abortWriting() {
+        closeTemp();
+        if (jarStarted) {
+            FileUtil.delete(destination);
+        }
+    }
+
+    private void closeTemp() {
+        synchronized (entries) {
+            if (tempClosed) return;
+            tempClosed = true;
+            try {
+                temp.close();
+            }
+            catch (IOException ignored) {
+                // The file is deleted anyway
+            }
+            FileUtil.delete(tempFile);
+        }
+    }
+
+    private void writeRuntime(@NotNull File runtimeJar) throws IOException {
+        JarInputStream stream = new JarInputStream(new FileInputStream(runtimeJar));
+        try {
+            while (true) {
+                JarEntry entry = stream.getNextJarEntry();
+                if (entry == null) break;
+                if (FileUtilRt.extensionEquals(entry.getName(), "class")) {
+                    write(entry.getName(), FileUtil.loadBytes(stream));
+                }
+            }
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    private int getMethod() {
+        return uncompressed ? ZipEntry.STORED : ZipEntry.DEFLATED;
+    }
+
+    @NotNull
+    private static byte[] deflate(@NotNull byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(bytes.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                result.write(buffer, 0, length);
+            }
+            return result.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    @NotNull
+    private static ByteBuffer localHeader(@NotNull Entry entry, int method) {
+        byte[] name = entry.name.getBytes(CharsetToolkit.UTF8_CHARSET);
+        ByteBuffer buffer = ByteBuffer.allocate(30 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x04034b50);
+        buffer.putShort((short) ZIP_VERSION);
+        buffer.putShort((short) UTF8_NAMES_FLAG);
+        buffer.putShort((short) method);
+        buffer.putShort((short) DOS_TIME);
+        buffer.putShort((short) DOS_DATE);
+        buffer.putInt((int) entry.crc);
+        buffer.putInt((int) entry.compressedSize);
+        buffer.putInt((int) entry.size);
+        buffer.putShort((short) name.length);
+        buffer.putShort((short) 0);
+        buffer.put(name);
+        buffer.flip();
+        return buffer;
+    }
+
+    @NotNull
+    private static ByteBuffer centralHeader(@NotNull Entry entry, int method) {
+        byte[] name = entry.name.getBytes(CharsetToolkit.UTF8_CHARSET);
+        ByteBuffer buffer = ByteBuffer.allocate(46 + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x02014b50);
+        buffer.putShort((short) ZIP_VERSION);
+        buffer.putShort((short) ZIP_VERSION);
+        buffer.putShort((short) UTF8_NAMES_FLAG);
+        buffer.putShort((short) method);
+        buffer.putShort((short) DOS_TIME);
+        buffer.putShort((short) DOS_DATE);
+        buffer.putInt((int) entry.crc);
+        buffer.putInt((int) entry.compressedSize);
+        buffer.putInt((int) entry.size);
+        buffer.putShort((short) name.length);
+        buffer.putShort((short) 0); // extra field length
+        buffer.putShort((short) 0); // comment length
+        buffer.putShort((short) 0); // disk number
+        buffer.putShort((short) 0); // internal attributes
+        buffer.putInt(0); // external attributes
+        buffer.putInt((int) entry.offset);
+        buffer.put(name);
+        buffer.flip();
+        return buffer;
+    }
+
+    @NotNull
+    private static ByteBuffer endOfCentralDirectory(int entryCount, long size, long offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x06054b50);
+        buffer.putShort((short) 0); // this disk
+        buffer.putShort((short) 0); // disk with the central directory
+        buffer.putShort((short) entryCount);
+        buffer.putShort((short) entryCount);
+        buffer.putInt((int) size);
+        buffer.putInt((int) offset);
+        buffer.putShort((short) 0); // comment length
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+        // Offset of the data in the temporary file, then offset of the local header in the jar
+        private long offset;
+
+        private Entry(@NotNull String name, long crc, long size, long compressedSize, long offset) {
+            this.name = name;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.OutputFile;
+import org.jetbrains.jet.OutputFileConsumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Receives class files while code generation is still running and writes them to the compiler output on background threads.
+ * The number of files waiting to be written is bounded: when writing can't keep up, the code generation writes files itself
+ * instead of accumulating their bytes on heap.
+ *
+ * Each writer should be either finished with {@link #finish()} or discarded with {@link #abort()} if the compilation fails,
+ * so that no half-written output is left.
+ */
+abstract class OutputWriter implements OutputFileConsumer {
+    private static final int MAX_PENDING_FILES = 128;
+
+    protected final File destination;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    private volatile boolean aborted = false;
+
+    protected OutputWriter(@NotNull File destination) {
+        this.destination = destination;
+
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 1L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_PENDING_FILES),
+                new WriterThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        // Idle threads die by themselves, a writer which is never finished or aborted doesn't keep them
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Called on a writer thread for each consumed file, possibly concurrently
+     */
+    protected abstract void write(@NotNull String relativePath, @NotNull byte[] bytes) throws IOException;
+
+    /**
+     * Called once after all consumed files are written
+     */
+    protected void finishWriting() throws IOException {
+    }
+
+    /**
+     * Called once when the writer is aborted, after writer threads are stopped. Should delete the output created so far
+     */
+    protected void abortWriting() {
+    }
+
+    @Override
+    public void consume(@NotNull OutputFile file) {
+        rethrowIfFailed();
+
+        final String relativePath = file.getRelativePath();
+        final byte[] bytes = file.asByteArray();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (error.get() != null || aborted) return;
+                try {
+                    write(relativePath, bytes);
+                }
+                catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until everything passed to this writer is written and reports the first failure, if any.
+     * If writing fails, the writer is aborted
+     */
+    public void finish() {
+        boolean success = false;
+        try {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // wait for pending writes
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error.compareAndSet(null, e);
+            }
+            rethrowIfFailed();
+
+            try {
+                finishWriting();
+            }
+            catch (IOException e) {
+                throw new CompileEnvironmentException("Failed to write output to " + destination, e);
+            }
+            success = true;
+        }
+        finally {
+            if (!success) {
+                abort();
+            }
+        }
+    }
+
+    /**
+     * Stops writing and deletes the output created by this writer, even if it has been finished. Does nothing if already aborted
+     */
+    public void abort() {
+        if (aborted) return;
+        aborted = true;
+
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) break;
+            }
+            catch (InterruptedException e) {
+                // The files being written have to be deleted anyway
+                interrupted = true;
+            }
+        }
+        try {
+            abortWriting();
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void rethrowIfFailed() {
+        Throwable e = error.get();
+        if (e != null) {
+            throw new CompileEnvironmentException("Failed to write output to " + destination, e);
+        }
+    }
+
+    private static class WriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "Kotlin output writer " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.incremental
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.util.text.StringUtil
+import com.sampullara.cli.Argument
+import org.jetbrains.jet.cli.common.ExitCode
+import org.jetbrains.jet.cli.common.arguments.K2JVMCompilerArguments
+import org.jetbrains.jet.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.jet.cli.common.messages.MessageCollector
+import org.jetbrains.jet.cli.common.messages.OutputMessageUtil
+import org.jetbrains.jet.cli.common.modules.ModuleXmlParser.*
+import org.jetbrains.jet.cli.jvm.K2JVMCompiler
+import org.jetbrains.jet.config.Services
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl.RecompilationDecision
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.cache.IncrementalCache
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.cache.IncrementalCacheProvider
+import org.jetbrains.jet.utils.Printer
+import org.jetbrains.jet.utils.keysToMap
+import java.io.*
+import java.math.BigInteger
+import java.security.MessageDigest
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.LinkedHashSet
+
+/**
+ * Compiles sources of a single module to [outputDir] recompiling only the files changed since the previous build, for build tools
+ * other than JPS. [IncrementalCacheImpl] and hashes of the compiled sources are kept in [cacheDir] between builds.
+ * Other sources of the module are recompiled when the changes in compiled classes require it, as decided by [IncrementalCacheImpl].
+ * All sources are recompiled when compiler arguments or timestamps of classpath and external annotations roots change.
+ *
+ * Should be used only when [org.jetbrains.jet.config.IncrementalCompilation.ENABLED], because the compiler relies on it as well.
+ */
+public class IncrementalJvmCompiler(
+        private val moduleName: String,
+        private val cacheDir: File,
+        private val outputDir: File
+) {
+    class object {
+        private val SOURCE_STATES_FILE = "source-states.tab"
+        private val BUILD_CONFIGURATION_FILE = "build-configuration.txt"
+        private val MODULE_SCRIPT_FILE = "module.script.xml"
+
+        // Replaced with the module script, sources are tracked by their hashes
+        private val ARGUMENTS_NOT_AFFECTING_OUTPUT = setOf("module", "destination", "verbose")
+    }
+
+    private val deletedOutputs = ArrayList<File>()
+
+    /**
+     * Output files of previous builds deleted from [outputDir] because their sources were changed or removed
+     */
+    public fun getDeletedOutputs(): List<File> = deletedOutputs
+
+    /**
+     * [arguments] should be configured for a non-incremental compilation of [sourceFiles] into [outputDir],
+     * source files and destination in them are temporarily replaced with a module script
+     */
+    public fun compile(sourceFiles: Collection<File>, arguments: K2JVMCompilerArguments, messageCollector: MessageCollector): ExitCode {
+        cacheDir.mkdirs()
+        val cache = IncrementalCacheImpl(cacheDir)
+        try {
+            val allSources = sourceFiles.mapTo(LinkedHashSet<File>()) { it.getAbsoluteFile() }
+
+            val statesFile = File(cacheDir, SOURCE_STATES_FILE)
+            val configurationFile = File(cacheDir, BUILD_CONFIGURATION_FILE)
+            val configuration = computeBuildConfiguration(arguments, allSources)
+
+            val loadedStates = SourceFileStates.load(statesFile)
+            val rebuild = loadedStates == null || cache.isCacheVersionIncompatible() || !outputDir.exists() ||
+                          !configurationFile.exists() || configurationFile.readText() != configuration
+            if (rebuild) {
+                if (loadedStates != null) {
+                    messageCollector.report(CompilerMessageSeverity.LOGGING,
+                                            "Build configuration or caches of $moduleName have changed, all Kotlin sources will be recompiled",
+                                            CompilerMessageLocation.NO_LOCATION)
+                    for (source in loadedStates.getSourceFiles()) {
+                        deleteOutputs(loadedStates.remove(source))
+                    }
+                }
+                cache.clean()
+            }
+            val states = if (rebuild) SourceFileStates() else loadedStates!!
+
+            fun saveStates() {
+                states.save(statesFile)
+                configurationFile.writeText(configuration)
+            }
+
+            val hashes = allSources.keysToMap { computeHash(it) }
+
+            val removedSources = states.getSourceFiles().filter { it !in allSources }
+            var filesToCompile: Collection<File> = allSources.filter { states.getHash(it) != hashes[it] }
+
+            if (filesToCompile.isEmpty() && removedSources.isEmpty()) {
+                messageCollector.report(CompilerMessageSeverity.LOGGING, "Kotlin sources of $moduleName are up-to-date",
+                                        CompilerMessageLocation.NO_LOCATION)
+                return ExitCode.OK
+            }
+
+            for (source in removedSources) {
+                deleteOutputs(states.remove(source))
+            }
+
+            val compiledFiles = HashSet<File>()
+            var removedSourcesToProcess: Collection<File> = removedSources
+            while (true) {
+                for (source in filesToCompile) {
+                    deleteOutputs(states.remove(source))
+                }
+
+                messageCollector.report(CompilerMessageSeverity.LOGGING,
+                                        "Compiling ${filesToCompile.size()} of ${allSources.size()} Kotlin source files of $moduleName",
+                                        CompilerMessageLocation.NO_LOCATION)
+
+                val outputCollector = OutputCollectingMessageCollector(messageCollector)
+                val exitCode = compileFiles(filesToCompile, arguments, outputCollector, cache)
+                compiledFiles.addAll(filesToCompile)
+
+                cache.clearCacheForRemovedFiles(removedSourcesToProcess, outputDir, exitCode == ExitCode.OK)
+                removedSourcesToProcess = listOf()
+
+                var decision = RecompilationDecision.DO_NOTHING
+                for (output in outputCollector.outputs) {
+                    val outputFile = output.outputFile ?: continue
+                    decision = decision.merge(cache.saveFileToCache(output.sourceFiles, outputFile))
+                    for (source in output.sourceFiles) {
+                        states.addOutput(source.getAbsoluteFile(), outputFile)
+                    }
+                }
+
+                if (exitCode != ExitCode.OK) {
+                    saveStates()
+                    return exitCode
+                }
+
+                for (source in filesToCompile) {
+                    states.setHash(source, hashes[source]!!)
+                }
+
+                if (decision == RecompilationDecision.DO_NOTHING || compiledFiles.containsAll(allSources)) break
+
+                filesToCompile = if (decision == RecompilationDecision.RECOMPILE_ALL) allSources else allSources.filter { it !in compiledFiles }
+            }
+
+            saveStates()
+            cache.flush(false)
+            return ExitCode.OK
+        }
+        finally {
+            cache.close()
+        }
+    }
+
+    private fun compileFiles(
+            sourceFiles: Collection<File>,
+            arguments: K2JVMCompilerArguments,
+            messageCollector: MessageCollector,
+            cache: IncrementalCache
+    ): ExitCode {
+        val moduleScript = File(cacheDir, MODULE_SCRIPT_FILE)
+        FileUtil.writeToFile(moduleScript, createModuleScript(sourceFiles))
+
+        val cacheProvider = object : IncrementalCacheProvider {
+            override fun getIncrementalCache(moduleId: String): IncrementalCache = cache
+        }
+        val services = Services.Builder().register(javaClass<IncrementalCacheProvider>(), cacheProvider).build()
+
+        val oldModule = arguments.module
+        val oldFreeArgs = arguments.freeArgs
+        val oldDestination = arguments.destination
+        try {
+            arguments.module = moduleScript.getPath()
+            arguments.freeArgs = ArrayList()
+            arguments.destination = null
+            return K2JVMCompiler().exec(messageCollector, services, arguments)
+        }
+        finally {
+            arguments.module = oldModule
+            arguments.freeArgs = oldFreeArgs
+            arguments.destination = oldDestination
+            moduleScript.delete()
+        }
+    }
+
+    private fun createModuleScript(sourceFiles: Collection<File>): String {
+        val xml = StringBuilder()
+        val p = Printer(xml)
+        p.println("<", MODULES, ">")
+        p.pushIndent()
+        p.println("<", MODULE, " ", NAME, "=\"", StringUtil.escapeXml(moduleName), "\" ", OUTPUT_DIR, "=\"", escapePath(outputDir), "\">")
+        p.pushIndent()
+        for (sourceFile in sourceFiles) {
+            p.println("<", SOURCES, " ", PATH, "=\"", escapePath(sourceFile), "\"/>")
+        }
+        // Classes compiled by the previous builds are resolved from the output directory
+        p.println("<", CLASSPATH, " ", PATH, "=\"", escapePath(outputDir), "\"/>")
+        p.popIndent()
+        p.println("</", MODULE, ">")
+        p.popIndent()
+        p.println("</", MODULES, ">")
+        return xml.toString()
+    }
+
+    private fun escapePath(file: File): String = StringUtil.escapeXml(FileUtil.toSystemIndependentName(file.getAbsolutePath()))
+
+    private fun deleteOutputs(outputs: Collection<File>) {
+        for (output in outputs) {
+            if (output.delete()) {
+                deletedOutputs.add(output)
+            }
+        }
+    }
+
+    private fun computeHash(file: File): String = computeHash(file.readBytes())
+
+    private fun computeHash(bytes: ByteArray): String {
+        val digest = MessageDigest.getInstance("MD5").digest(bytes)!!
+        return BigInteger(1, digest).toString(16)
+    }
+
+    /**
+     * Arguments which affect the generated code and stamps of the roots of the classpath and external annotations, one per line.
+     * Kotlin sources of the module are left out of the stamps: build tools put source roots shared with Java on the classpath,
+     * and these sources are tracked by their hashes
+     */
+    private fun computeBuildConfiguration(arguments: K2JVMCompilerArguments, sourceFiles: Set<File>): String {
+        val result = StringBuilder()
+        for (field in arguments.javaClass.getFields().sortBy { it.getName() }) {
+            if (field.getAnnotation(javaClass<Argument>()) == null || field.getName() in ARGUMENTS_NOT_AFFECTING_OUTPUT) continue
+            result.append(field.getName()).append("=").append(field.get(arguments)).append("\n")
+        }
+
+        val roots = splitPaths(arguments.classpath) + splitPaths(arguments.annotations)
+        for (root in roots) {
+            // The output directory is changed by this compiler itself, its classes are tracked by the incremental cache
+            if (root.getAbsoluteFile() == outputDir.getAbsoluteFile()) continue
+            result.append(root.getPath()).append(" ").append(computeRootStamp(root, sourceFiles)).append("\n")
+        }
+        return result.toString()
+    }
+
+    private fun splitPaths(paths: String?): List<File> =
+            if (paths == null) listOf() else paths.split(File.pathSeparatorChar).filter { !it.isEmpty() }.map { File(it) }
+
+    private fun computeRootStamp(root: File, sourceFiles: Set<File>): String {
+        if (!root.isDirectory()) {
+            return "${root.length()} ${root.lastModified()}"
+        }
+
+        val fileStamps = ArrayList<String>()
+        root.recurse { file ->
+            if (file.isFile() && file.getAbsoluteFile() !in sourceFiles) {
+                fileStamps.add("${FileUtil.getRelativePath(root, file)} ${file.length()} ${file.lastModified()}")
+            }
+        }
+        return computeHash(fileStamps.sort().joinToString("\n").toByteArray())
+    }
+
+    private class OutputCollectingMessageCollector(private val delegate: MessageCollector) : MessageCollector {
+        val outputs = ArrayList<OutputMessageUtil.Output>()
+
+        override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+            if (severity == CompilerMessageSeverity.OUTPUT) {
+                val output = OutputMessageUtil.parseOutputMessage(message)
+                if (output != null) {
+                    outputs.add(output)
+                }
+            }
+            delegate.report(severity, message, location)
+        }
+    }
+
+    // Hashes of the compiled source files and output files generated from them
+    private class SourceFileStates {
+        private val hashes = HashMap<File, String>()
+        private val outputs = HashMap<File, MutableSet<File>>()
+
+        fun getSourceFiles(): Set<File> {
+            val result = HashSet(hashes.keySet())
+            result.addAll(outputs.keySet())
+            return result
+        }
+
+        fun getHash(source: File): String? = hashes[source]
+
+        fun setHash(source: File, hash: String) {
+            hashes[source] = hash
+        }
+
+        fun addOutput(source: File, output: File) {
+            outputs.getOrPut(source) { HashSet<File>() }.add(output)
+        }
+
+        fun remove(source: File): Collection<File> {
+            hashes.remove(source)
+            return outputs.remove(source) ?: listOf()
+        }
+
+        fun save(file: File) {
+            DataOutputStream(BufferedOutputStream(FileOutputStream(file))).use { out ->
+                val sources = getSourceFiles()
+                out.writeInt(sources.size())
+                for (source in sources) {
+                    out.writeUTF(source.getPath())
+                    out.writeUTF(hashes[source] ?: "")
+                    val sourceOutputs = outputs[source] ?: setOf<File>()
+                    out.writeInt(sourceOutputs.size())
+                    for (output in sourceOutputs) {
+                        out.writeUTF(output.getPath())
+                    }
+                }
+            }
+        }
+
+        class object {
+            fun load(file: File): SourceFileStates? {
+                if (!file.exists()) return null
+
+                try {
+                    return DataInputStream(BufferedInputStream(FileInputStream(file))).use { input ->
+                        val states = SourceFileStates()
+                        val sourceCount = input.readInt()
+                        for (i in sourceCount.indices) {
+                            val source = File(input.readUTF())
+                            val hash = input.readUTF()
+                            if (!hash.isEmpty()) {
+                                states.setHash(source, hash)
+                            }
+                            val outputCount = input.readInt()
+                            for (j in outputCount.indices) {
+                                states.addOutput(source, File(input.readUTF()))
+                            }
+                        }
+                        states
+                    }
+                }
+                catch (e: IOException) {
+                    return null
+                }
+            }
+        }
+    }
+}
@@ -21,9 +21,7 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.CharsetToolkit;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.impl.PsiFileFactoryImpl;
@@ -43,6 +41,7 @@ import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
 import org.jetbrains.jet.codegen.ClassBuilderFactories;
 import org.jetbrains.jet.codegen.CompilationErrorHandler;
 import org.jetbrains.jet.codegen.KotlinCodegenFacade;
+import org.jetbrains.jet.codegen.ScriptCodegen;
 import org.jetbrains.jet.codegen.state.GenerationState;
 import org.jetbrains.jet.config.CompilerConfiguration;
 import org.jetbrains.jet.context.ContextPackage;
@@ -82,14 +81,17 @@ import java.util.List;
 
 import static org.jetbrains.jet.codegen.AsmUtil.asmTypeByFqNameWithoutInnerClasses;
 import static org.jetbrains.jet.codegen.binding.CodegenBinding.registerClassNameForScript;
-import static org.jetbrains.jet.lang.resolve.DescriptorToSourceUtils.descriptorToDeclaration;
 
 public class ReplInterpreter {
     private int lineNumber = 0;
 
     @Nullable
     private JetScope lastLineScope;
-    private final List<EarlierLine> earlierLines = Lists.newArrayList();
+    /**
+     * Instances of evaluated lines, the instance of the line N is at index N - 1 (or null if that line has failed).
+     * The same list is passed to every line, see {@link ScriptCodegen#EARLIER_SCRIPTS_FIELD_NAME}
+     */
+    private final List<Object> earlierScriptInstances = new ArrayList<Object>();
     private final List<String> previousIncompleteLines = Lists.newArrayList();
     private final ReplClassLoader classLoader;
 
@@ -278,16 +280,14 @@ public class ReplInterpreter {
             return LineResult.error(errorCollector.getString());
         }
 
-        List<Pair<ScriptDescriptor, Type>> earlierScripts = Lists.newArrayList();
-
-        for (EarlierLine earlierLine : earlierLines) {
-            earlierScripts.add(Pair.create(earlierLine.getScriptDescriptor(), earlierLine.getClassType()));
-        }
+        // Class name is recorded to the shared trace, so that it's not registered again for each of the later lines
+        //noinspection ConstantConditions
+        registerClassNameForScript(trace, psiFile.getScript(), scriptClassType);
 
         GenerationState state = new GenerationState(psiFile.getProject(), ClassBuilderFactories.BINARIES,
                                                     module, trace.getBindingContext(), Collections.singletonList(psiFile));
 
-        compileScript(psiFile.getScript(), scriptClassType, earlierScripts, state, CompilationErrorHandler.THROW_EXCEPTION);
+        compileScript(psiFile.getScript(), state, CompilationErrorHandler.THROW_EXCEPTION);
 
         for (OutputFile outputFile : state.getFactory().asList()) {
             classLoader.addClass(JvmClassName.byInternalName(outputFile.getRelativePath().replaceFirst("\\.class$", "")), outputFile.asByteArray());
@@ -296,18 +296,14 @@ public class ReplInterpreter {
         try {
             Class<?> scriptClass = classLoader.loadClass(scriptFqName.asString());
 
-            Class<?>[] constructorParams = new Class<?>[earlierLines.size()];
-            Object[] constructorArgs = new Object[earlierLines.size()];
-
-            for (int i = 0; i < earlierLines.size(); ++i) {
-                constructorParams[i] = earlierLines.get(i).getScriptClass();
-                constructorArgs[i] = earlierLines.get(i).getScriptInstance();
+            while (earlierScriptInstances.size() < lineNumber - 1) {
+                earlierScriptInstances.add(null);
             }
 
-            Constructor<?> scriptInstanceConstructor = scriptClass.getConstructor(constructorParams);
+            Constructor<?> scriptInstanceConstructor = scriptClass.getConstructor(List.class);
             Object scriptInstance;
             try {
-                scriptInstance = scriptInstanceConstructor.newInstance(constructorArgs);
+                scriptInstance = scriptInstanceConstructor.newInstance(earlierScriptInstances);
             }
             catch (Throwable e) {
                 return LineResult.error(renderStackTrace(e.getCause()));
@@ -316,7 +312,7 @@ public class ReplInterpreter {
             rvField.setAccessible(true);
             Object rv = rvField.get(scriptInstance);
 
-            earlierLines.add(new EarlierLine(line, scriptDescriptor, scriptClass, scriptInstance, scriptClassType));
+            earlierScriptInstances.add(scriptInstance);
 
             JetType returnType = scriptDescriptor.getScriptCodeDescriptor().getReturnType();
             return LineResult.successful(rv, returnType != null && KotlinBuiltIns.getInstance().isUnit(returnType));
@@ -382,33 +378,12 @@ public class ReplInterpreter {
         classLoader.dumpClasses(out);
     }
 
-    private static void registerEarlierScripts(
-            @NotNull GenerationState state,
-            @NotNull List<Pair<ScriptDescriptor, Type>> earlierScripts
-    ) {
-        List<ScriptDescriptor> earlierScriptDescriptors = new ArrayList<ScriptDescriptor>(earlierScripts.size());
-        for (Pair<ScriptDescriptor, Type> pair : earlierScripts) {
-            ScriptDescriptor earlierDescriptor = pair.first;
-            Type earlierClassType = pair.second;
-
-            PsiElement jetScript = descriptorToDeclaration(earlierDescriptor);
-            if (jetScript != null) {
-                registerClassNameForScript(state.getBindingTrace(), (JetScript) jetScript, earlierClassType);
-                earlierScriptDescriptors.add(earlierDescriptor);
-            }
-        }
-        state.setEarlierScriptsForReplInterpreter(earlierScriptDescriptors);
-    }
-
     public static void compileScript(
             @NotNull JetScript script,
-            @NotNull Type classType,
-            @NotNull List<Pair<ScriptDescriptor, Type>> earlierScripts,
             @NotNull GenerationState state,
             @NotNull CompilationErrorHandler errorHandler
     ) {
-        registerEarlierScripts(state, earlierScripts);
-        registerClassNameForScript(state.getBindingTrace(), script, classType);
+        state.setGeneratingReplLine(true);
 
         state.beforeCompile();
         KotlinCodegenFacade.generatePackage(
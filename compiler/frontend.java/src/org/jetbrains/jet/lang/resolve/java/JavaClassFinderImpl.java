@@ -16,6 +16,7 @@
 
 package org.jetbrains.jet.lang.resolve.java;
 
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
@@ -28,6 +29,9 @@ import org.jetbrains.jet.lang.resolve.java.structure.JavaClass;
 import org.jetbrains.jet.lang.resolve.java.structure.JavaPackage;
 import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaClassImpl;
 import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaPackageImpl;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.BinaryJavaClass;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.ClassifierResolutionContext;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.JavaClassFileFinder;
 import org.jetbrains.jet.lang.resolve.name.ClassId;
 import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.lang.resolve.name.FqNameUnsafe;
@@ -43,6 +47,10 @@ public class JavaClassFinderImpl implements JavaClassFinder {
     private GlobalSearchScope javaSearchScope;
     private JavaPsiFacadeKotlinHacks javaFacade;
 
+    @Nullable
+    private JavaClassFileFinder classFileFinder;
+    private ClassifierResolutionContext classFileContext;
+
     @Inject
     public void setProject(@NotNull Project project) {
         this.project = project;
@@ -74,11 +82,16 @@ public class JavaClassFinderImpl implements JavaClassFinder {
             }
         };
         javaFacade = new JavaPsiFacadeKotlinHacks(project);
+        classFileFinder = ServiceManager.getService(project, JavaClassFileFinder.class);
+        classFileContext = new ClassifierResolutionContext(this);
     }
 
     @Nullable
     @Override
     public JavaClass findClass(@NotNull ClassId classId) {
+        BinaryJavaClass binaryClass = findBinaryClass(classId);
+        if (binaryClass != null) return binaryClass;
+
         FqNameUnsafe fqName = classId.asSingleFqName();
 
         PsiClass psiClass = javaFacade.findClass(fqName.asString(), javaSearchScope);
@@ -97,6 +110,16 @@ public class JavaClassFinderImpl implements JavaClassFinder {
         return javaClass;
     }
 
+    @Nullable
+    private BinaryJavaClass findBinaryClass(@NotNull ClassId classId) {
+        if (classFileFinder == null) return null;
+
+        VirtualFile file = classFileFinder.findClassFile(classId);
+        if (file == null || !javaSearchScope.contains(file)) return null;
+
+        return classFileContext.loadClass(file);
+    }
+
     @Nullable
     @Override
     public JavaPackage findPackage(@NotNull FqName fqName) {
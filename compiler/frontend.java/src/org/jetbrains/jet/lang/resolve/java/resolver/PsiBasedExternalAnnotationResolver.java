@@ -35,6 +35,9 @@ public class PsiBasedExternalAnnotationResolver implements ExternalAnnotationRes
     @Nullable
     @Override
     public JavaAnnotation findExternalAnnotation(@NotNull JavaAnnotationOwner owner, @NotNull FqName fqName) {
+        // Classes read from class files are only used where there are no external annotations for them
+        if (!(owner instanceof JavaAnnotationOwnerImpl)) return null;
+
         PsiAnnotation psiAnnotation = findExternalAnnotation(((JavaAnnotationOwnerImpl) owner).getPsi(), fqName);
         return psiAnnotation == null ? null : new JavaAnnotationImpl(psiAnnotation);
     }
@@ -42,6 +45,8 @@ public class PsiBasedExternalAnnotationResolver implements ExternalAnnotationRes
     @NotNull
     @Override
     public Collection<JavaAnnotation> findExternalAnnotations(@NotNull JavaAnnotationOwner owner) {
+        if (!(owner instanceof JavaAnnotationOwnerImpl)) return Collections.emptyList();
+
         PsiModifierListOwner psiOwner = ((JavaAnnotationOwnerImpl) owner).getPsi();
         PsiAnnotation[] annotations = ExternalAnnotationsManager.getInstance(psiOwner.getProject()).findExternalAnnotations(psiOwner);
         return annotations == null
@@ -171,6 +171,17 @@ public class PsiBasedMethodSignatureChecker implements MethodSignatureChecker {
         // This optimization speed things up because hasRawTypesInHierarchicalSignature() is very expensive
         if (superFunctions.isEmpty() && (signatureErrors.isEmpty() || !reportSignatureErrors)) return;
 
+        if (!(method instanceof JavaMethodImpl)) {
+            // Methods read from class files have no PSI to build the hierarchy of super methods from, so only their own signatures
+            // are checked for raw types, and overrides are not checked at all: it only results in warnings in the log anyway
+            if (!signatureErrors.isEmpty() && reportSignatureErrors &&
+                !RawTypesCheck.hasRawTypesInSignature(method) &&
+                !containsErrorType(superFunctions, descriptor)) {
+                externalSignatureResolver.reportSignatureErrors(descriptor, signatureErrors);
+            }
+            return;
+        }
+
         JavaMethodImpl methodWithPsi = (JavaMethodImpl) method;
         if (!RawTypesCheck.hasRawTypesInHierarchicalSignature(methodWithPsi) &&
             isMethodReturnTypeCompatible(methodWithPsi) &&
@@ -218,7 +229,7 @@ public class PsiBasedMethodSignatureChecker implements MethodSignatureChecker {
             }
         }
 
-        private static boolean hasRawTypesInSignature(@NotNull JavaMethod method) {
+        public static boolean hasRawTypesInSignature(@NotNull JavaMethod method) {
             JavaType returnType = method.getReturnType();
             if (returnType != null && isPartiallyRawType(returnType)) {
                 return true;
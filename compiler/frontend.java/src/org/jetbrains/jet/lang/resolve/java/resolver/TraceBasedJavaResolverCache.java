@@ -55,22 +55,27 @@ public class TraceBasedJavaResolverCache implements JavaResolverCache {
 
     @Override
     public void recordMethod(@NotNull JavaMethod method, @NotNull SimpleFunctionDescriptor descriptor) {
+        // There's no PSI for classes read from class files, so there's nothing to record for them
+        if (!(method instanceof JavaMethodImpl)) return;
         BindingContextUtils.recordFunctionDeclarationToDescriptor(trace, ((JavaMethodImpl) method).getPsi(), descriptor);
     }
 
     @Override
     public void recordConstructor(@NotNull JavaElement element, @NotNull ConstructorDescriptor descriptor) {
+        if (!(element instanceof JavaElementImpl)) return;
         trace.record(CONSTRUCTOR, ((JavaElementImpl) element).getPsi(), descriptor);
     }
 
     @Override
     public void recordField(@NotNull JavaField field, @NotNull PropertyDescriptor descriptor) {
+        if (!(field instanceof JavaFieldImpl)) return;
         PsiField psiField = ((JavaFieldImpl) field).getPsi();
         trace.record(VARIABLE, psiField, descriptor);
     }
 
     @Override
     public void recordClass(@NotNull JavaClass javaClass, @NotNull ClassDescriptor descriptor) {
+        if (!(javaClass instanceof JavaClassImpl)) return;
         trace.record(CLASS, ((JavaClassImpl) javaClass).getPsi(), descriptor);
     }
 }
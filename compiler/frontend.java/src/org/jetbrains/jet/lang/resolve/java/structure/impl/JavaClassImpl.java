@@ -18,6 +18,7 @@ package org.jetbrains.jet.lang.resolve.java.structure.impl;
 
 import com.intellij.psi.*;
 import com.intellij.psi.impl.PsiSubstitutorImpl;
+import com.intellij.psi.search.GlobalSearchScope;
 import kotlin.Function1;
 import kotlin.KotlinPackage;
 import org.jetbrains.annotations.NotNull;
@@ -180,18 +181,80 @@ public class JavaClassImpl extends JavaClassifierImpl<PsiClass> implements JavaC
     }
 
     @NotNull
-    private static PsiSubstitutor createPsiSubstitutor(@NotNull JavaTypeSubstitutor substitutor) {
+    private PsiSubstitutor createPsiSubstitutor(@NotNull JavaTypeSubstitutor substitutor) {
         Map<PsiTypeParameter, PsiType> substMap = new HashMap<PsiTypeParameter, PsiType>();
         for (Map.Entry<JavaTypeParameter, JavaType> entry : substitutor.getSubstitutionMap().entrySet()) {
+            // Type parameters of classes read from class files can't be used in PSI types
+            if (!(entry.getKey() instanceof JavaTypeParameterImpl)) continue;
+
             PsiTypeParameter key = ((JavaTypeParameterImpl) entry.getKey()).getPsi();
-            if (entry.getValue() == null) {
-                substMap.put(key, null);
+            JavaType value = entry.getValue();
+            substMap.put(key, value == null ? null : toPsiType(value));
+        }
+
+        return PsiSubstitutorImpl.createSubstitutor(substMap);
+    }
+
+    /**
+     * Types read from class files are converted to PSI by qualified names of their classes.
+     * Returns null only for types which can't be expressed in PSI, i.e. type parameters read from class files
+     */
+    @Nullable
+    private PsiType toPsiType(@NotNull JavaType type) {
+        if (type instanceof JavaTypeImpl) {
+            return ((JavaTypeImpl) type).getPsi();
+        }
+
+        PsiClass context = getPsi();
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(context.getProject());
+        if (type instanceof JavaPrimitiveType) {
+            return factory.createTypeFromText(((JavaPrimitiveType) type).getCanonicalText(), context);
+        }
+        if (type instanceof JavaArrayType) {
+            PsiType componentType = toPsiType(((JavaArrayType) type).getComponentType());
+            return componentType == null ? null : componentType.createArrayType();
+        }
+        if (type instanceof JavaWildcardType) {
+            JavaWildcardType wildcardType = (JavaWildcardType) type;
+            PsiManager manager = context.getManager();
+            JavaType bound = wildcardType.getBound();
+            if (bound == null) return PsiWildcardType.createUnbounded(manager);
+
+            PsiType psiBound = toPsiType(bound);
+            if (psiBound == null) return null;
+            return wildcardType.isExtends()
+                   ? PsiWildcardType.createExtends(manager, psiBound)
+                   : PsiWildcardType.createSuper(manager, psiBound);
+        }
+        if (type instanceof JavaClassifierType) {
+            JavaClassifierType classifierType = (JavaClassifierType) type;
+            JavaClassifier classifier = classifierType.getClassifier();
+            if (!(classifier instanceof JavaClass)) return null;
+            FqName fqName = ((JavaClass) classifier).getFqName();
+            if (fqName == null) return null;
+
+            GlobalSearchScope scope = context.getResolveScope();
+            PsiClass psiClass = JavaPsiFacade.getInstance(context.getProject()).findClass(fqName.asString(), scope);
+            if (psiClass == null) {
+                // Unresolved, as any reference to a missing class in a PSI type
+                return factory.createTypeByFQClassName(fqName.asString(), scope);
             }
-            else {
-                substMap.put(key, ((JavaTypeImpl) entry.getValue()).getPsi());
+
+            List<JavaType> arguments = classifierType.getTypeArguments();
+            if (classifierType.isRaw() || arguments.isEmpty()) {
+                return factory.createType(psiClass, factory.createRawSubstitutor(psiClass));
+            }
+
+            PsiType[] psiArguments = new PsiType[arguments.size()];
+            for (int i = 0; i < psiArguments.length; i++) {
+                psiArguments[i] = toPsiType(arguments.get(i));
+                if (psiArguments[i] == null) {
+                    return factory.createType(psiClass, factory.createRawSubstitutor(psiClass));
+                }
             }
+            return factory.createType(psiClass, psiArguments);
         }
 
-        return PsiSubstitutorImpl.createSubstitutor(substMap);
+        return null;
     }
 }
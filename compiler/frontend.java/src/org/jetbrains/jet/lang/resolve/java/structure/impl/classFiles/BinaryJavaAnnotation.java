@@ -0,0 +1,162 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaAnnotation;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaAnnotationArgument;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaClass;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.org.objectweb.asm.AnnotationVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.jetbrains.org.objectweb.asm.Opcodes.ASM5;
+
+public final class BinaryJavaAnnotation implements JavaAnnotation {
+    private final String desc;
+    private final ClassifierResolutionContext context;
+    private final InnerClassesInfo innerClasses;
+    private final List<JavaAnnotationArgument> arguments = new ArrayList<JavaAnnotationArgument>(1);
+
+    private BinaryJavaAnnotation(@NotNull String desc, @NotNull ClassifierResolutionContext context, @NotNull InnerClassesInfo innerClasses) {
+        this.desc = desc;
+        this.context = context;
+        this.innerClasses = innerClasses;
+    }
+
+    /**
+     * Creates an annotation, adds it to the given collection and returns a visitor which reads its arguments
+     */
+    @NotNull
+    /* package */ static AnnotationVisitor addAnnotation(
+            @NotNull Collection<JavaAnnotation> annotations,
+            @NotNull String desc,
+            @NotNull ClassifierResolutionContext context,
+            @NotNull InnerClassesInfo innerClasses
+    ) {
+        BinaryJavaAnnotation annotation = new BinaryJavaAnnotation(desc, context, innerClasses);
+        annotations.add(annotation);
+        return annotation.new ArgumentsVisitor(annotation.arguments);
+    }
+
+    @Nullable
+    /* package */ static JavaAnnotation findAnnotation(@NotNull Collection<JavaAnnotation> annotations, @NotNull FqName fqName) {
+        for (JavaAnnotation annotation : annotations) {
+            ClassId classId = annotation.getClassId();
+            if (classId != null && classId.asSingleFqName().equalsTo(fqName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public JavaAnnotationArgument findArgument(@NotNull Name name) {
+        for (JavaAnnotationArgument argument : arguments) {
+            if (name.equals(argument.getName())) {
+                return argument;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaAnnotationArgument> getArguments() {
+        return arguments;
+    }
+
+    @NotNull
+    @Override
+    public ClassId getClassId() {
+        // Inner classes are read after class annotations, so the class id can't be computed right away
+        return innerClasses.resolveByDesc(desc);
+    }
+
+    @Nullable
+    @Override
+    public JavaClass resolve() {
+        return context.resolveClass(getClassId());
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + desc;
+    }
+
+    private class ArgumentsVisitor extends AnnotationVisitor {
+        private final List<JavaAnnotationArgument> result;
+
+        public ArgumentsVisitor(@NotNull List<JavaAnnotationArgument> result) {
+            super(ASM5);
+            this.result = result;
+        }
+
+        @Override
+        public void visit(String name, @NotNull Object value) {
+            result.add(createArgument(name == null ? null : Name.identifier(name), value));
+        }
+
+        @NotNull
+        private JavaAnnotationArgument createArgument(@Nullable Name name, @NotNull Object value) {
+            if (value instanceof Type) {
+                SignatureParser parser = new SignatureParser(((Type) value).getDescriptor(), context, innerClasses, TypeParameterScope.EMPTY);
+                return new BinaryJavaClassObjectAnnotationArgument(name, parser.parseType());
+            }
+
+            if (value.getClass().isArray()) {
+                // Arrays of primitives are passed by ASM as a whole
+                int length = Array.getLength(value);
+                List<JavaAnnotationArgument> elements = new ArrayList<JavaAnnotationArgument>(length);
+                for (int i = 0; i < length; i++) {
+                    elements.add(new BinaryJavaLiteralAnnotationArgument(null, Array.get(value, i)));
+                }
+                return new BinaryJavaArrayAnnotationArgument(name, elements);
+            }
+
+            return new BinaryJavaLiteralAnnotationArgument(name, value);
+        }
+
+        @Override
+        public void visitEnum(String name, @NotNull String desc, @NotNull String value) {
+            result.add(new BinaryJavaEnumValueAnnotationArgument(
+                    name == null ? null : Name.identifier(name), innerClasses.resolveByDesc(desc), Name.identifier(value), context));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, @NotNull String desc) {
+            BinaryJavaAnnotation annotation = new BinaryJavaAnnotation(desc, context, innerClasses);
+            result.add(new BinaryJavaAnnotationAsAnnotationArgument(name == null ? null : Name.identifier(name), annotation));
+            return annotation.new ArgumentsVisitor(annotation.arguments);
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            List<JavaAnnotationArgument> elements = new ArrayList<JavaAnnotationArgument>();
+            result.add(new BinaryJavaArrayAnnotationArgument(name == null ? null : Name.identifier(name), elements));
+            return new ArgumentsVisitor(elements);
+        }
+    }
+}
@@ -0,0 +1,535 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.Visibilities;
+import org.jetbrains.jet.lang.descriptors.Visibility;
+import org.jetbrains.jet.lang.resolve.java.JavaVisibilities;
+import org.jetbrains.jet.lang.resolve.java.structure.*;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.org.objectweb.asm.*;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.jetbrains.org.objectweb.asm.ClassReader.*;
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Java class read directly from a class file, without building PSI for it. The class file is read once with the code skipped,
+ * signatures of the class and its members are parsed lazily on the first request
+ */
+public final class BinaryJavaClass implements JavaClass {
+    private static final Logger LOG = Logger.getInstance(BinaryJavaClass.class);
+
+    private final VirtualFile virtualFile;
+    private final ClassifierResolutionContext context;
+    private final InnerClassesInfo innerClasses = new InnerClassesInfo();
+
+    private String internalName;
+    private int access;
+    private String signature;
+    private String superName;
+    private String[] interfaces;
+
+    private final List<JavaAnnotation> annotations = new ArrayList<JavaAnnotation>(1);
+    private final List<JavaMethod> methods = new ArrayList<JavaMethod>();
+    private final List<JavaConstructor> constructors = new ArrayList<JavaConstructor>(1);
+    private final List<JavaField> fields = new ArrayList<JavaField>();
+
+    private ClassId classId;
+    private List<JavaTypeParameter> typeParameters;
+    private List<JavaClassifierType> supertypes;
+    private Collection<JavaClass> innerClassList;
+    private Map<String, String[]> parameterNamesFromDebugInfo;
+
+    private final TypeParameterScope typeParameterScope = new TypeParameterScope() {
+        @Nullable
+        @Override
+        public JavaTypeParameter findTypeParameter(@NotNull String name) {
+            for (JavaTypeParameter typeParameter : getTypeParameters()) {
+                if (typeParameter.getName().asString().equals(name)) return typeParameter;
+            }
+
+            if (!isInner()) return null;
+            JavaClass outerClass = getOuterClass();
+            return outerClass instanceof BinaryJavaClass
+                   ? ((BinaryJavaClass) outerClass).typeParameterScope.findTypeParameter(name)
+                   : null;
+        }
+    };
+
+    private BinaryJavaClass(@NotNull VirtualFile virtualFile, @NotNull ClassifierResolutionContext context) {
+        this.virtualFile = virtualFile;
+        this.context = context;
+    }
+
+    /**
+     * @return the class read from the given file, or null if the file can't be read or is not a class file
+     */
+    @Nullable
+    /* package */ static BinaryJavaClass read(@NotNull VirtualFile file, @NotNull ClassifierResolutionContext context) {
+        try {
+            BinaryJavaClass javaClass = new BinaryJavaClass(file, context);
+            new ClassReader(file.contentsToByteArray()).accept(javaClass.new Reader(), SKIP_CODE | SKIP_FRAMES);
+            if (javaClass.internalName == null) return null;
+
+            javaClass.classId = javaClass.innerClasses.resolveByInternalName(javaClass.internalName);
+            return javaClass;
+        }
+        catch (Throwable e) {
+            LOG.warn("Could not read class file: " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    @NotNull
+    public VirtualFile getVirtualFile() {
+        return virtualFile;
+    }
+
+    @NotNull
+    public ClassId getClassId() {
+        return classId;
+    }
+
+    @NotNull
+    @Override
+    public Name getName() {
+        return classId.getRelativeClassName().shortName();
+    }
+
+    @NotNull
+    @Override
+    public FqName getFqName() {
+        return classId.asSingleFqName().toSafe();
+    }
+
+    @Override
+    public boolean isInterface() {
+        return (access & ACC_INTERFACE) != 0;
+    }
+
+    @Override
+    public boolean isAnnotationType() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    @Override
+    public boolean isEnum() {
+        return (access & ACC_ENUM) != 0;
+    }
+
+    @Override
+    public boolean isAbstract() {
+        return (access & ACC_ABSTRACT) != 0;
+    }
+
+    @Override
+    public boolean isStatic() {
+        return (access & ACC_STATIC) != 0;
+    }
+
+    @Override
+    public boolean isFinal() {
+        return (access & ACC_FINAL) != 0;
+    }
+
+    /**
+     * @return true if this is a nested class which has a reference to an instance of its outer class
+     */
+    /* package */ boolean isInner() {
+        return innerClasses.get(internalName) != null && !isStatic();
+    }
+
+    @NotNull
+    @Override
+    public Visibility getVisibility() {
+        return getVisibility(access);
+    }
+
+    @NotNull
+    /* package */ static Visibility getVisibility(int access) {
+        if ((access & ACC_PUBLIC) != 0) {
+            return Visibilities.PUBLIC;
+        }
+        if ((access & ACC_PRIVATE) != 0) {
+            return Visibilities.PRIVATE;
+        }
+        if ((access & ACC_PROTECTED) != 0) {
+            return (access & ACC_STATIC) != 0 ? JavaVisibilities.PROTECTED_STATIC_VISIBILITY : JavaVisibilities.PROTECTED_AND_PACKAGE;
+        }
+        return JavaVisibilities.PACKAGE_VISIBILITY;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    @Nullable
+    @Override
+    public JavaAnnotation findAnnotation(@NotNull FqName fqName) {
+        return BinaryJavaAnnotation.findAnnotation(annotations, fqName);
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaClass> getInnerClasses() {
+        if (innerClassList == null) {
+            List<String> names = innerClasses.getNestedClassNames(internalName);
+            List<JavaClass> result = new ArrayList<JavaClass>(names.size());
+            for (String name : names) {
+                InnerClassesInfo.Entry entry = innerClasses.get(name);
+                if (entry == null || (entry.access & ACC_SYNTHETIC) != 0) continue;
+
+                BinaryJavaClass innerClass = context.loadNeighbourClass(virtualFile, name);
+                if (innerClass != null) {
+                    result.add(innerClass);
+                }
+            }
+            innerClassList = result;
+        }
+        return innerClassList;
+    }
+
+    @Nullable
+    @Override
+    public JavaClass getOuterClass() {
+        InnerClassesInfo.Entry entry = innerClasses.get(internalName);
+        return entry == null ? null : context.loadNeighbourClass(virtualFile, entry.outerInternalName);
+    }
+
+    @NotNull
+    @Override
+    public List<JavaTypeParameter> getTypeParameters() {
+        parseSignature();
+        return typeParameters;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaClassifierType> getSupertypes() {
+        parseSignature();
+        return supertypes;
+    }
+
+    private void parseSignature() {
+        if (supertypes != null) return;
+
+        List<JavaClassifierType> declared = new ArrayList<JavaClassifierType>(1 + interfaces.length);
+        if (signature != null) {
+            SignatureParser parser = createSignatureParser(signature, typeParameterScope);
+            typeParameters = parser.parseTypeParameters(this);
+            while (parser.hasMore()) {
+                declared.add((JavaClassifierType) parser.parseType());
+            }
+        }
+        else {
+            typeParameters = Collections.emptyList();
+            if (superName != null) {
+                declared.add(createClassType(superName));
+            }
+            for (String name : interfaces) {
+                declared.add(createClassType(name));
+            }
+        }
+
+        // The same supertypes as PSI has: none for java.lang.Object, java.lang.Object for interfaces without superinterfaces
+        if (superName == null || declared.isEmpty()) {
+            supertypes = Collections.emptyList();
+        }
+        else if (isInterface()) {
+            List<JavaClassifierType> superInterfaces = declared.subList(1, declared.size());
+            supertypes = superInterfaces.isEmpty()
+                         ? Collections.singletonList(context.createJavaLangObjectType())
+                         : new ArrayList<JavaClassifierType>(superInterfaces);
+        }
+        else {
+            supertypes = declared;
+        }
+    }
+
+    @NotNull
+    private JavaClassifierType createClassType(@NotNull String internalName) {
+        return BinaryJavaClassifierType.forClass(
+                context, innerClasses.resolveByInternalName(internalName), Collections.<JavaType>emptyList(), null
+        );
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaMethod> getMethods() {
+        return methods;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaField> getFields() {
+        return fields;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaConstructor> getConstructors() {
+        return constructors;
+    }
+
+    @NotNull
+    @Override
+    public JavaClassifierType getDefaultType() {
+        List<JavaTypeParameter> typeParameters = getTypeParameters();
+        List<JavaType> arguments = new ArrayList<JavaType>(typeParameters.size());
+        for (JavaTypeParameter typeParameter : typeParameters) {
+            arguments.add(typeParameter.getType());
+        }
+
+        BinaryJavaClassifierType outerType = null;
+        if (isInner()) {
+            JavaClass outerClass = getOuterClass();
+            if (outerClass instanceof BinaryJavaClass) {
+                outerType = (BinaryJavaClassifierType) outerClass.getDefaultType();
+            }
+        }
+
+        return BinaryJavaClassifierType.forClassifier(context, this, arguments, outerType);
+    }
+
+    @NotNull
+    @Override
+    public OriginKind getOriginKind() {
+        return OriginKind.COMPILED;
+    }
+
+    @NotNull
+    @Override
+    public JavaType createImmediateType(@NotNull JavaTypeSubstitutor substitutor) {
+        List<JavaTypeParameter> typeParameters = getTypeParameters();
+        List<JavaType> arguments = new ArrayList<JavaType>(typeParameters.size());
+        for (JavaTypeParameter typeParameter : typeParameters) {
+            JavaType argument = substitutor.substitute(typeParameter);
+            if (argument == null) {
+                // Some of the parameters are erased, so the whole type is raw
+                arguments = Collections.emptyList();
+                break;
+            }
+            arguments.add(argument);
+        }
+
+        BinaryJavaClassifierType outerType = null;
+        if (isInner()) {
+            JavaClass outerClass = getOuterClass();
+            if (outerClass instanceof BinaryJavaClass) {
+                outerType = (BinaryJavaClassifierType) outerClass.createImmediateType(substitutor);
+            }
+        }
+
+        return BinaryJavaClassifierType.forClassifier(context, this, arguments, outerType);
+    }
+
+    @NotNull
+    /* package */ TypeParameterScope getTypeParameterScope() {
+        return typeParameterScope;
+    }
+
+    @NotNull
+    /* package */ SignatureParser createSignatureParser(@NotNull String signature, @NotNull TypeParameterScope scope) {
+        return new SignatureParser(signature, context, innerClasses, scope);
+    }
+
+    @NotNull
+    /* package */ AnnotationVisitor addAnnotation(@NotNull Collection<JavaAnnotation> annotations, @NotNull String desc) {
+        return BinaryJavaAnnotation.addAnnotation(annotations, desc, context, innerClasses);
+    }
+
+    /**
+     * Names of parameters are only needed for the methods which are actually called from Kotlin, but reading the local variable
+     * tables requires visiting the code, so it's done once for the whole class when the first of them is requested
+     *
+     * @return names of parameters of the given method by their indices in the descriptor, some of which may be null
+     */
+    @Nullable
+    /* package */ String[] getParameterNamesFromDebugInfo(@NotNull String methodName, @NotNull String desc) {
+        if (parameterNamesFromDebugInfo == null) {
+            parameterNamesFromDebugInfo = readParameterNamesFromDebugInfo();
+        }
+        return parameterNamesFromDebugInfo.get(methodName + desc);
+    }
+
+    @NotNull
+    private Map<String, String[]> readParameterNamesFromDebugInfo() {
+        final Map<String, String[]> result = new HashMap<String, String[]>();
+
+        byte[] contents;
+        try {
+            contents = virtualFile.contentsToByteArray();
+        }
+        catch (IOException e) {
+            LOG.warn("Could not read class file: " + virtualFile.getPath(), e);
+            return result;
+        }
+
+        new ClassReader(contents).accept(new ClassVisitor(ASM5) {
+            @Override
+            public MethodVisitor visitMethod(int access, @NotNull String name, @NotNull String desc, String signature, String[] exceptions) {
+                if ((access & (ACC_SYNTHETIC | ACC_ABSTRACT | ACC_NATIVE)) != 0) return null;
+
+                Type[] argumentTypes = Type.getArgumentTypes(desc);
+                if (argumentTypes.length == 0) return null;
+
+                final String[] names = new String[argumentTypes.length];
+                result.put(name + desc, names);
+
+                // Parameters occupy the first local variable slots after 'this', longs and doubles take two slots
+                int slotCount = (access & ACC_STATIC) != 0 ? 0 : 1;
+                for (Type type : argumentTypes) {
+                    slotCount += type.getSize();
+                }
+
+                final int[] parameterBySlot = new int[slotCount];
+                Arrays.fill(parameterBySlot, -1);
+                for (int i = argumentTypes.length - 1; i >= 0; i--) {
+                    slotCount -= argumentTypes[i].getSize();
+                    parameterBySlot[slotCount] = i;
+                }
+
+                return new MethodVisitor(ASM5) {
+                    @Override
+                    public void visitLocalVariable(
+                            @NotNull String name, @NotNull String desc, String signature, Label start, Label end, int index
+                    ) {
+                        if (index < parameterBySlot.length && parameterBySlot[index] >= 0 && names[parameterBySlot[index]] == null) {
+                            names[parameterBySlot[index]] = name;
+                        }
+                    }
+                };
+            }
+        }, SKIP_FRAMES);
+
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return virtualFile.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof BinaryJavaClass && virtualFile.equals(((BinaryJavaClass) obj).virtualFile);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + getFqName();
+    }
+
+    private class Reader extends ClassVisitor {
+        public Reader() {
+            super(ASM5);
+        }
+
+        @Override
+        public void visit(int version, int access, @NotNull String name, String signature, String superName, String[] interfaces) {
+            internalName = name;
+            BinaryJavaClass.this.access = access;
+            BinaryJavaClass.this.signature = signature;
+            BinaryJavaClass.this.superName = superName;
+            BinaryJavaClass.this.interfaces = interfaces != null ? interfaces : new String[0];
+        }
+
+        @Override
+        public void visitInnerClass(@NotNull String name, String outerName, String innerName, int access) {
+            if (outerName == null || innerName == null) return;
+
+            innerClasses.add(name, outerName, innerName, access);
+            if (name.equals(internalName)) {
+                // Modifiers of a nested class, such as 'static' and 'protected', are only written to the InnerClasses attribute
+                BinaryJavaClass.this.access = access;
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(@NotNull String desc, boolean visible) {
+            return addAnnotation(annotations, desc);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, @NotNull String name, @NotNull String desc, String signature, Object value) {
+            if ((access & ACC_SYNTHETIC) != 0) return null;
+
+            final BinaryJavaField field =
+                    new BinaryJavaField(BinaryJavaClass.this, Name.identifier(name), access, desc, signature, value);
+            fields.add(field);
+
+            return new FieldVisitor(ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(@NotNull String desc, boolean visible) {
+                    return addAnnotation(field.annotations, desc);
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, @NotNull String name, @NotNull String desc, String signature, String[] exceptions) {
+            if ((access & ACC_SYNTHETIC) != 0 || name.equals("<clinit>")) return null;
+
+            final BinaryJavaMethodBase member;
+            if (name.equals("<init>")) {
+                member = new BinaryJavaConstructor(BinaryJavaClass.this, access, desc, signature);
+                constructors.add((JavaConstructor) member);
+            }
+            else {
+                member = new BinaryJavaMethod(BinaryJavaClass.this, Name.identifier(name), access, desc, signature);
+                methods.add((JavaMethod) member);
+            }
+
+            return new MethodVisitor(ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(@NotNull String desc, boolean visible) {
+                    return addAnnotation(member.annotations, desc);
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, @NotNull String desc, boolean visible) {
+                    // ASM marks parameters which javac doesn't write annotations for with this fake annotation
+                    if (desc.equals("Ljava/lang/Synthetic;")) return null;
+                    return member.addParameterAnnotation(parameter, desc);
+                }
+
+                @Override
+                public void visitParameter(String name, int access) {
+                    member.addParameterName(name);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotationDefault() {
+                    if (member instanceof BinaryJavaMethod) {
+                        ((BinaryJavaMethod) member).setHasAnnotationParameterDefaultValue();
+                    }
+                    return null;
+                }
+            };
+        }
+    }
+}
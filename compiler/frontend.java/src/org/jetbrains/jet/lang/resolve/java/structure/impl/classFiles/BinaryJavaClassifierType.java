@@ -0,0 +1,222 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.*;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaTypeSubstitutorImpl;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+
+import java.util.*;
+
+/**
+ * A reference to a class or a type variable from a class file signature. The classifier is resolved on the first request
+ */
+public final class BinaryJavaClassifierType extends BinaryJavaType implements JavaClassifierType {
+    private final ClassifierResolutionContext context;
+
+    // Exactly one of these is not null
+    private final ClassId classId;
+    private final String typeVariableName;
+    private final JavaClassifier knownClassifier;
+
+    private final TypeParameterScope scope;
+    private final List<JavaType> typeArguments;
+    private final BinaryJavaClassifierType outerType;
+
+    private JavaClassifier classifier;
+    private boolean isResolved;
+
+    private BinaryJavaClassifierType(
+            @NotNull ClassifierResolutionContext context,
+            @Nullable ClassId classId,
+            @Nullable String typeVariableName,
+            @Nullable JavaClassifier knownClassifier,
+            @NotNull TypeParameterScope scope,
+            @NotNull List<JavaType> typeArguments,
+            @Nullable BinaryJavaClassifierType outerType
+    ) {
+        this.context = context;
+        this.classId = classId;
+        this.typeVariableName = typeVariableName;
+        this.knownClassifier = knownClassifier;
+        this.scope = scope;
+        this.typeArguments = typeArguments;
+        this.outerType = outerType;
+    }
+
+    /**
+     * @param outerType the type of the outer class, if it was specified explicitly, as in {@code Outer<String>.Inner}
+     */
+    @NotNull
+    public static BinaryJavaClassifierType forClass(
+            @NotNull ClassifierResolutionContext context,
+            @NotNull ClassId classId,
+            @NotNull List<JavaType> typeArguments,
+            @Nullable BinaryJavaClassifierType outerType
+    ) {
+        return new BinaryJavaClassifierType(context, classId, null, null, TypeParameterScope.EMPTY, typeArguments, outerType);
+    }
+
+    @NotNull
+    /* package */ static BinaryJavaClassifierType forTypeVariable(
+            @NotNull ClassifierResolutionContext context,
+            @NotNull String name,
+            @NotNull TypeParameterScope scope
+    ) {
+        return new BinaryJavaClassifierType(context, null, name, null, scope, Collections.<JavaType>emptyList(), null);
+    }
+
+    @NotNull
+    public static BinaryJavaClassifierType forClassifier(
+            @NotNull ClassifierResolutionContext context,
+            @NotNull JavaClassifier classifier,
+            @NotNull List<JavaType> typeArguments,
+            @Nullable BinaryJavaClassifierType outerType
+    ) {
+        return new BinaryJavaClassifierType(context, null, null, classifier, TypeParameterScope.EMPTY, typeArguments, outerType);
+    }
+
+    /**
+     * @return the id of the referenced class if this is a class reference read from a signature, null otherwise
+     */
+    @Nullable
+    public ClassId getClassId() {
+        return classId;
+    }
+
+    @Nullable
+    @Override
+    public JavaClassifier getClassifier() {
+        if (!isResolved) {
+            if (knownClassifier != null) {
+                classifier = knownClassifier;
+            }
+            else if (classId != null) {
+                classifier = context.resolveClass(classId);
+            }
+            else {
+                classifier = scope.findTypeParameter(typeVariableName);
+            }
+            isResolved = true;
+        }
+        return classifier;
+    }
+
+    @NotNull
+    @Override
+    public JavaTypeSubstitutor getSubstitutor() {
+        JavaClassifier classifier = getClassifier();
+        if (!(classifier instanceof JavaClass)) return JavaTypeSubstitutor.EMPTY;
+
+        Map<JavaTypeParameter, JavaType> substitutionMap = new HashMap<JavaTypeParameter, JavaType>();
+        fillSubstitutionMap((JavaClass) classifier, this, substitutionMap);
+        return new JavaTypeSubstitutorImpl(substitutionMap);
+    }
+
+    private static void fillSubstitutionMap(
+            @NotNull JavaClass javaClass,
+            @Nullable BinaryJavaClassifierType type,
+            @NotNull Map<JavaTypeParameter, JavaType> substitutionMap
+    ) {
+        List<JavaTypeParameter> typeParameters = javaClass.getTypeParameters();
+
+        // PSI-based classes can only be substituted with PSI-based types, so binary type arguments are erased for them,
+        // as well as in case of raw types. Both ways, a type parameter is mapped to null
+        boolean substitute = type != null && javaClass instanceof BinaryJavaClass && type.typeArguments.size() == typeParameters.size();
+
+        for (int i = 0; i < typeParameters.size(); i++) {
+            substitutionMap.put(typeParameters.get(i), substitute ? type.typeArguments.get(i) : null);
+        }
+
+        if (!javaClass.isStatic()) {
+            JavaClass outerClass = javaClass.getOuterClass();
+            if (outerClass != null) {
+                fillSubstitutionMap(outerClass, type == null ? null : type.outerType, substitutionMap);
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public Collection<JavaClassifierType> getSupertypes() {
+        JavaClassifier classifier = getClassifier();
+        if (!(classifier instanceof JavaClass)) return Collections.emptyList();
+
+        Collection<JavaClassifierType> supertypes = ((JavaClass) classifier).getSupertypes();
+        if (supertypes.isEmpty()) return Collections.emptyList();
+
+        JavaTypeSubstitutor substitutor = getSubstitutor();
+        List<JavaClassifierType> result = new ArrayList<JavaClassifierType>(supertypes.size());
+        for (JavaClassifierType supertype : supertypes) {
+            JavaType substituted = substitutor.substitute(supertype);
+            result.add(substituted instanceof JavaClassifierType ? (JavaClassifierType) substituted : supertype);
+        }
+        return result;
+    }
+
+    @NotNull
+    @Override
+    public String getPresentableText() {
+        String name = getClassifierName();
+        if (typeArguments.isEmpty()) return name;
+
+        StringBuilder sb = new StringBuilder(name).append('<');
+        for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(getPresentableText(typeArguments.get(i)));
+        }
+        return sb.append('>').toString();
+    }
+
+    @NotNull
+    private String getClassifierName() {
+        if (classId != null) return classId.getRelativeClassName().shortName().asString();
+        if (typeVariableName != null) return typeVariableName;
+        return knownClassifier.getName().asString();
+    }
+
+    @Override
+    public boolean isRaw() {
+        if (!typeArguments.isEmpty()) return false;
+        JavaClassifier classifier = getClassifier();
+        return classifier instanceof JavaClass && !((JavaClass) classifier).getTypeParameters().isEmpty();
+    }
+
+    @NotNull
+    @Override
+    public List<JavaType> getTypeArguments() {
+        return typeArguments;
+    }
+
+    @Override
+    public int hashCode() {
+        return getClassifierName().hashCode() * 31 + typeArguments.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof BinaryJavaClassifierType)) return false;
+
+        BinaryJavaClassifierType other = (BinaryJavaClassifierType) obj;
+        if (!getClassifierName().equals(other.getClassifierName()) || !typeArguments.equals(other.typeArguments)) return false;
+
+        JavaClassifier classifier = getClassifier();
+        return classifier != null ? classifier.equals(other.getClassifier()) : classId != null && classId.equals(other.classId);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaConstructor;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+public final class BinaryJavaConstructor extends BinaryJavaMethodBase implements JavaConstructor {
+    /* package */ BinaryJavaConstructor(
+            @NotNull BinaryJavaClass containingClass,
+            int access,
+            @NotNull String desc,
+            @Nullable String signature
+    ) {
+        super(containingClass, Name.special("<init>"), access, desc, signature);
+    }
+
+    @NotNull
+    @Override
+    public Name getName() {
+        // Constructors are created while the class file is being read, when the name of the class is not known yet
+        return containingClass.getName();
+    }
+
+    @Override
+    protected int getSyntheticParameterCount() {
+        // Name and ordinal of an enum entry, or the outer instance of an inner class
+        if (containingClass.isEnum()) return 2;
+        if (containingClass.isInner()) return 1;
+        return 0;
+    }
+}
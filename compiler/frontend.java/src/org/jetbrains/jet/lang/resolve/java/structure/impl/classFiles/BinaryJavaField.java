@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaField;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaType;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+import static org.jetbrains.org.objectweb.asm.Opcodes.ACC_ENUM;
+
+public final class BinaryJavaField extends BinaryJavaMember implements JavaField {
+    private final String desc;
+    private final String signature;
+    private final Object constantValue;
+
+    private JavaType type;
+
+    /* package */ BinaryJavaField(
+            @NotNull BinaryJavaClass containingClass,
+            @NotNull Name name,
+            int access,
+            @NotNull String desc,
+            @Nullable String signature,
+            @Nullable Object constantValue
+    ) {
+        super(containingClass, name, access);
+        this.desc = desc;
+        this.signature = signature;
+        this.constantValue = constantValue;
+    }
+
+    @Override
+    public boolean isEnumEntry() {
+        return (access & ACC_ENUM) != 0;
+    }
+
+    @NotNull
+    @Override
+    public JavaType getType() {
+        if (type == null) {
+            type = containingClass.createSignatureParser(signature != null ? signature : desc, containingClass.getTypeParameterScope())
+                    .parseType();
+        }
+        return type;
+    }
+
+    /**
+     * @return the value of the ConstantValue attribute of this field, converted to the type of the field:
+     * the attribute stores booleans, chars, bytes and shorts as ints
+     */
+    @Nullable
+    public Object getConstantValue() {
+        if (constantValue instanceof Integer) {
+            int value = (Integer) constantValue;
+            switch (desc.charAt(0)) {
+                case 'Z': return value != 0;
+                case 'C': return (char) value;
+                case 'B': return (byte) value;
+                case 'S': return (short) value;
+            }
+        }
+        return constantValue;
+    }
+}
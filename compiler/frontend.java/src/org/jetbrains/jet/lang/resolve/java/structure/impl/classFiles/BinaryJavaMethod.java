@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaMethod;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaType;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+public final class BinaryJavaMethod extends BinaryJavaMethodBase implements JavaMethod {
+    private boolean hasAnnotationParameterDefaultValue = false;
+
+    /* package */ BinaryJavaMethod(
+            @NotNull BinaryJavaClass containingClass,
+            @NotNull Name name,
+            int access,
+            @NotNull String desc,
+            @Nullable String signature
+    ) {
+        super(containingClass, name, access, desc, signature);
+    }
+
+    @Override
+    protected int getSyntheticParameterCount() {
+        return 0;
+    }
+
+    /* package */ void setHasAnnotationParameterDefaultValue() {
+        hasAnnotationParameterDefaultValue = true;
+    }
+
+    @Override
+    public boolean hasAnnotationParameterDefaultValue() {
+        return hasAnnotationParameterDefaultValue;
+    }
+
+    @Nullable
+    @Override
+    public JavaType getReturnType() {
+        return getReturnTypeFromSignature();
+    }
+}
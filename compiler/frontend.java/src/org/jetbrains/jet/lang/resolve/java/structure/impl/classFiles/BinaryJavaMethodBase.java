@@ -0,0 +1,178 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.structure.*;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.org.objectweb.asm.AnnotationVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+
+import java.util.*;
+
+import static org.jetbrains.org.objectweb.asm.Opcodes.ACC_VARARGS;
+
+/**
+ * Common part of methods and constructors. Signatures are parsed on the first request of type parameters, value parameters
+ * or the return type, because most of the members of library classes are never looked at
+ */
+public abstract class BinaryJavaMethodBase extends BinaryJavaMember implements JavaTypeParameterListOwner {
+    private final String desc;
+    private final String signature;
+
+    private List<String> parameterNamesFromAttribute = null;
+    private Map<Integer, List<JavaAnnotation>> parameterAnnotations = null;
+
+    private List<JavaTypeParameter> typeParameters;
+    private List<JavaValueParameter> valueParameters;
+    private JavaType returnType;
+
+    private final TypeParameterScope scope = new TypeParameterScope() {
+        @Nullable
+        @Override
+        public JavaTypeParameter findTypeParameter(@NotNull String name) {
+            for (JavaTypeParameter typeParameter : getTypeParameters()) {
+                if (typeParameter.getName().asString().equals(name)) return typeParameter;
+            }
+            return containingClass.getTypeParameterScope().findTypeParameter(name);
+        }
+    };
+
+    protected BinaryJavaMethodBase(
+            @NotNull BinaryJavaClass containingClass,
+            @NotNull Name name,
+            int access,
+            @NotNull String desc,
+            @Nullable String signature
+    ) {
+        super(containingClass, name, access);
+        this.desc = desc;
+        this.signature = signature;
+    }
+
+    /**
+     * @return the number of leading parameters which are present in the descriptor but not in the source code
+     */
+    protected abstract int getSyntheticParameterCount();
+
+    /* package */ void addParameterName(@Nullable String name) {
+        if (parameterNamesFromAttribute == null) {
+            parameterNamesFromAttribute = new ArrayList<String>(Type.getArgumentTypes(desc).length);
+        }
+        parameterNamesFromAttribute.add(name);
+    }
+
+    /**
+     * @param parameter index of the parameter in the method descriptor
+     */
+    @NotNull
+    /* package */ AnnotationVisitor addParameterAnnotation(int parameter, @NotNull String annotationDesc) {
+        if (parameterAnnotations == null) {
+            parameterAnnotations = new HashMap<Integer, List<JavaAnnotation>>();
+        }
+        List<JavaAnnotation> annotations = parameterAnnotations.get(parameter);
+        if (annotations == null) {
+            annotations = new ArrayList<JavaAnnotation>(1);
+            parameterAnnotations.put(parameter, annotations);
+        }
+        return containingClass.addAnnotation(annotations, annotationDesc);
+    }
+
+    @NotNull
+    @Override
+    public List<JavaTypeParameter> getTypeParameters() {
+        parseSignature();
+        return typeParameters;
+    }
+
+    @NotNull
+    public List<JavaValueParameter> getValueParameters() {
+        parseSignature();
+        return valueParameters;
+    }
+
+    @Nullable
+    protected JavaType getReturnTypeFromSignature() {
+        parseSignature();
+        return returnType;
+    }
+
+    private void parseSignature() {
+        if (valueParameters != null) return;
+
+        int syntheticCount = getSyntheticParameterCount();
+        int descCount = Type.getArgumentTypes(desc).length;
+
+        List<JavaType> types = null;
+        if (signature != null) {
+            SignatureParser parser = containingClass.createSignatureParser(signature, scope);
+            // the scope of the method looks at the type parameters, so they should be known before any of the types is resolved
+            typeParameters = parser.parseTypeParameters(this);
+            List<JavaType> signatureTypes = parser.parseParameterTypes();
+            returnType = parser.parseType();
+
+            // javac omits synthetic parameters of constructors from the signature, but other compilers may not
+            if (signatureTypes.size() == descCount - syntheticCount) {
+                types = signatureTypes;
+            }
+            else if (signatureTypes.size() == descCount) {
+                types = signatureTypes.subList(syntheticCount, descCount);
+            }
+        }
+        else {
+            typeParameters = Collections.emptyList();
+        }
+
+        if (types == null) {
+            SignatureParser parser = containingClass.createSignatureParser(desc, scope);
+            List<JavaType> descTypes = parser.parseParameterTypes();
+            if (returnType == null) {
+                returnType = parser.parseType();
+            }
+            types = descTypes.subList(Math.min(syntheticCount, descTypes.size()), descTypes.size());
+        }
+
+        int offset = descCount - types.size();
+        boolean isVararg = (access & ACC_VARARGS) != 0;
+        List<JavaValueParameter> result = new ArrayList<JavaValueParameter>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            int index = offset + i;
+            List<JavaAnnotation> annotations = parameterAnnotations == null ? null : parameterAnnotations.get(index);
+            result.add(new BinaryJavaValueParameter(
+                    this, index, types.get(i),
+                    annotations != null ? annotations : Collections.<JavaAnnotation>emptyList(),
+                    isVararg && i == types.size() - 1
+            ));
+        }
+        valueParameters = result;
+    }
+
+    /**
+     * @param parameter index of the parameter in the method descriptor
+     * @return the name from the MethodParameters attribute, or from the local variable table if there's no such attribute,
+     * or null if the class file has neither of them
+     */
+    @Nullable
+    /* package */ String getParameterName(int parameter) {
+        if (parameterNamesFromAttribute != null) {
+            return parameter < parameterNamesFromAttribute.size() ? parameterNamesFromAttribute.get(parameter) : null;
+        }
+
+        String[] names = containingClass.getParameterNamesFromDebugInfo(name.asString(), desc);
+        return names != null && parameter < names.length ? names[parameter] : null;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaArrayType;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaClassifierType;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaType;
+
+public abstract class BinaryJavaType implements JavaType {
+    @NotNull
+    @Override
+    public JavaArrayType createArrayType() {
+        return new BinaryJavaArrayType(this);
+    }
+
+    /**
+     * @return the text of this type as it would be rendered by PSI, with short names of classes
+     */
+    @NotNull
+    public abstract String getPresentableText();
+
+    @NotNull
+    /* package */ static String getPresentableText(@NotNull JavaType type) {
+        if (type instanceof BinaryJavaType) {
+            return ((BinaryJavaType) type).getPresentableText();
+        }
+        if (type instanceof JavaClassifierType) {
+            return ((JavaClassifierType) type).getPresentableText();
+        }
+        return type.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + getPresentableText();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.java.JavaClassFinder;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaClass;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaClassifierType;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaType;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads class files into {@link BinaryJavaClass} instances and resolves class references in their signatures.
+ * Every class file is read at most once, so that the same class is always represented by the same object.
+ */
+public final class ClassifierResolutionContext {
+    private static final ClassId JAVA_LANG_OBJECT = ClassId.topLevel(new FqName("java.lang.Object"));
+
+    private final JavaClassFinder classFinder;
+    private final Map<VirtualFile, BinaryJavaClass> classes = new HashMap<VirtualFile, BinaryJavaClass>();
+
+    public ClassifierResolutionContext(@NotNull JavaClassFinder classFinder) {
+        this.classFinder = classFinder;
+    }
+
+    @Nullable
+    public BinaryJavaClass loadClass(@NotNull VirtualFile file) {
+        if (classes.containsKey(file)) {
+            return classes.get(file);
+        }
+
+        BinaryJavaClass javaClass = BinaryJavaClass.read(file, this);
+        classes.put(file, javaClass);
+        return javaClass;
+    }
+
+    /**
+     * Loads a class nested in or containing the class read from the given file: such classes are always located in the same directory
+     */
+    @Nullable
+    public BinaryJavaClass loadNeighbourClass(@NotNull VirtualFile file, @NotNull String internalName) {
+        VirtualFile directory = file.getParent();
+        if (directory == null) return null;
+
+        VirtualFile neighbour = directory.findChild(internalName.substring(internalName.lastIndexOf('/') + 1) + ".class");
+        return neighbour == null ? null : loadClass(neighbour);
+    }
+
+    /**
+     * Classes referenced from class files are looked up in the same way as all other Java classes,
+     * so they may turn out to be PSI-based if they are declared in sources or have external annotations
+     */
+    @Nullable
+    public JavaClass resolveClass(@NotNull ClassId classId) {
+        return classFinder.findClass(classId);
+    }
+
+    @NotNull
+    public JavaClassifierType createJavaLangObjectType() {
+        return BinaryJavaClassifierType.forClass(this, JAVA_LANG_OBJECT, Collections.<JavaType>emptyList(), null);
+    }
+}
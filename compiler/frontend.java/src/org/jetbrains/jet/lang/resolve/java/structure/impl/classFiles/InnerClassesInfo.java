@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.resolve.name.FqNameUnsafe;
+
+import java.util.*;
+
+/**
+ * Contents of the InnerClasses attribute of a class file, used to tell nested classes from top level classes with '$' in their names
+ */
+/* package */ final class InnerClassesInfo {
+    public static final class Entry {
+        public final String outerInternalName;
+        public final String innerSimpleName;
+        public final int access;
+
+        private Entry(@NotNull String outerInternalName, @NotNull String innerSimpleName, int access) {
+            this.outerInternalName = outerInternalName;
+            this.innerSimpleName = innerSimpleName;
+            this.access = access;
+        }
+    }
+
+    private Map<String, Entry> map = null;
+
+    public void add(@NotNull String name, @NotNull String outerName, @NotNull String innerName, int access) {
+        if (map == null) {
+            map = new LinkedHashMap<String, Entry>();
+        }
+        map.put(name, new Entry(outerName, innerName, access));
+    }
+
+    @Nullable
+    public Entry get(@NotNull String name) {
+        return map == null ? null : map.get(name);
+    }
+
+    @NotNull
+    public List<String> getNestedClassNames(@NotNull String outerInternalName) {
+        if (map == null) return Collections.emptyList();
+
+        List<String> result = new ArrayList<String>(0);
+        for (Map.Entry<String, Entry> entry : map.entrySet()) {
+            if (entry.getValue().outerInternalName.equals(outerInternalName)) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    public ClassId resolveByInternalName(@NotNull String name) {
+        List<String> classes = new ArrayList<String>(1);
+
+        while (true) {
+            Entry outer = get(name);
+            if (outer == null) break;
+            classes.add(outer.innerSimpleName);
+            name = outer.outerInternalName;
+        }
+
+        FqName outermostClassFqName = new FqName(name.replace('/', '.'));
+        classes.add(outermostClassFqName.shortName().asString());
+
+        Collections.reverse(classes);
+
+        return new ClassId(outermostClassFqName.parent(), FqNameUnsafe.fromSegments(classes));
+    }
+
+    @NotNull
+    public ClassId resolveByDesc(@NotNull String desc) {
+        assert desc.startsWith("L") && desc.endsWith(";") : "Not a JVM descriptor: " + desc;
+        return resolveByInternalName(desc.substring(1, desc.length() - 1));
+    }
+}
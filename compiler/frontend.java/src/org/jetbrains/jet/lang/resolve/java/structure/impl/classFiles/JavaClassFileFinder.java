@@ -0,0 +1,34 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+
+/**
+ * Locates class files which can be read by {@link BinaryJavaClass} directly, without building PSI for them.
+ * Is registered as a project service only in the command line compiler.
+ */
+public interface JavaClassFileFinder {
+    /**
+     * @return the class file of the given class, or null if the class should be loaded through PSI,
+     * e.g. because it's declared in Java sources or there are external annotations for its package
+     */
+    @Nullable
+    VirtualFile findClassFile(@NotNull ClassId classId);
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaClassifierType;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaType;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaTypeParameter;
+import org.jetbrains.jet.lang.resolve.java.structure.JavaTypeParameterListOwner;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses generic signatures (JVMS 4.3.4) and plain descriptors of classes, methods and fields into Java types.
+ * Type variables are resolved lazily in the given scope, which is why bounds of type parameters may refer to each other
+ */
+/* package */ final class SignatureParser {
+    private final String signature;
+    private final ClassifierResolutionContext context;
+    private final InnerClassesInfo innerClasses;
+    private final TypeParameterScope scope;
+
+    private int position = 0;
+
+    public SignatureParser(
+            @NotNull String signature,
+            @NotNull ClassifierResolutionContext context,
+            @NotNull InnerClassesInfo innerClasses,
+            @NotNull TypeParameterScope scope
+    ) {
+        this.signature = signature;
+        this.context = context;
+        this.innerClasses = innerClasses;
+        this.scope = scope;
+    }
+
+    public boolean hasMore() {
+        return position < signature.length();
+    }
+
+    /**
+     * Parses formal type parameters at the current position, if there are any
+     */
+    @NotNull
+    public List<JavaTypeParameter> parseTypeParameters(@NotNull JavaTypeParameterListOwner owner) {
+        if (peek() != '<') return Collections.emptyList();
+        position++;
+
+        List<JavaTypeParameter> result = new ArrayList<JavaTypeParameter>(1);
+        while (peek() != '>') {
+            int colon = signature.indexOf(':', position);
+            BinaryJavaTypeParameter typeParameter =
+                    new BinaryJavaTypeParameter(Name.identifier(signature.substring(position, colon)), result.size(), owner, context);
+            result.add(typeParameter);
+            position = colon;
+
+            while (hasMore() && peek() == ':') {
+                position++;
+                char c = peek();
+                if (c != 'L' && c != 'T' && c != '[') continue; // the class bound is empty, only interface bounds follow
+
+                JavaType bound = parseType();
+                // PSI omits java.lang.Object from the bounds, and so do we
+                if (bound instanceof JavaClassifierType && !isJavaLangObject(bound)) {
+                    typeParameter.addUpperBound((JavaClassifierType) bound);
+                }
+            }
+        }
+        position++;
+
+        return result;
+    }
+
+    /**
+     * Parses the parameter list of a method signature or descriptor and leaves the position at its return type
+     */
+    @NotNull
+    public List<JavaType> parseParameterTypes() {
+        expect('(');
+        List<JavaType> result = new ArrayList<JavaType>();
+        while (peek() != ')') {
+            result.add(parseType());
+        }
+        position++;
+        return result;
+    }
+
+    @NotNull
+    public JavaType parseType() {
+        char c = peek();
+        switch (c) {
+            case 'L':
+                return parseClassType();
+            case 'T':
+                int semicolon = signature.indexOf(';', position);
+                String name = signature.substring(position + 1, semicolon);
+                position = semicolon + 1;
+                return BinaryJavaClassifierType.forTypeVariable(context, name, scope);
+            case '[':
+                position++;
+                return new BinaryJavaArrayType(parseType());
+            default:
+                position++;
+                return new BinaryJavaPrimitiveType(getPrimitiveTypeName(c));
+        }
+    }
+
+    @NotNull
+    private JavaClassifierType parseClassType() {
+        expect('L');
+        String internalName = parseIdentifier();
+        ClassId classId = innerClasses.resolveByInternalName(internalName);
+        BinaryJavaClassifierType type = BinaryJavaClassifierType.forClass(context, classId, parseTypeArguments(), null);
+
+        while (peek() == '.') {
+            position++;
+            classId = classId.createNestedClassId(Name.identifier(parseIdentifier()));
+            type = BinaryJavaClassifierType.forClass(context, classId, parseTypeArguments(), type);
+        }
+
+        expect(';');
+        return type;
+    }
+
+    @NotNull
+    private List<JavaType> parseTypeArguments() {
+        if (peek() != '<') return Collections.emptyList();
+        position++;
+
+        List<JavaType> result = new ArrayList<JavaType>(1);
+        while (peek() != '>') {
+            char c = peek();
+            if (c == '*') {
+                position++;
+                result.add(new BinaryJavaWildcardType(null, false, context));
+            }
+            else if (c == '+' || c == '-') {
+                position++;
+                result.add(new BinaryJavaWildcardType(parseType(), c == '+', context));
+            }
+            else {
+                result.add(parseType());
+            }
+        }
+        position++;
+
+        return result;
+    }
+
+    @NotNull
+    private String parseIdentifier() {
+        int start = position;
+        while (true) {
+            char c = peek();
+            if (c == '<' || c == ';' || c == '.') break;
+            position++;
+        }
+        return signature.substring(start, position);
+    }
+
+    private char peek() {
+        if (position >= signature.length()) {
+            throw new IllegalStateException("Unexpected end of signature: " + signature);
+        }
+        return signature.charAt(position);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw new IllegalStateException("'" + c + "' expected at " + position + " in signature: " + signature);
+        }
+        position++;
+    }
+
+    private static boolean isJavaLangObject(@NotNull JavaType type) {
+        if (!(type instanceof BinaryJavaClassifierType)) return false;
+        ClassId classId = ((BinaryJavaClassifierType) type).getClassId();
+        return classId != null && classId.getPackageFqName().asString().equals("java.lang") &&
+               classId.getRelativeClassName().asString().equals("Object");
+    }
+
+    @NotNull
+    private String getPrimitiveTypeName(char c) {
+        switch (c) {
+            case 'B': return "byte";
+            case 'C': return "char";
+            case 'D': return "double";
+            case 'F': return "float";
+            case 'I': return "int";
+            case 'J': return "long";
+            case 'S': return "short";
+            case 'Z': return "boolean";
+            case 'V': return "void";
+            default:
+                throw new IllegalStateException("Unexpected type '" + c + "' at " + (position - 1) + " in signature: " + signature);
+        }
+    }
+}
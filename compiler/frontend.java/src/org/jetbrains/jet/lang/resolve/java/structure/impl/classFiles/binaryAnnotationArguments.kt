@@ -0,0 +1,58 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles
+
+import org.jetbrains.jet.lang.resolve.java.structure.*
+import org.jetbrains.jet.lang.resolve.name.ClassId
+import org.jetbrains.jet.lang.resolve.name.Name
+
+class BinaryJavaLiteralAnnotationArgument(
+        override val name: Name?,
+        override val value: Any?
+) : JavaLiteralAnnotationArgument
+
+class BinaryJavaArrayAnnotationArgument(
+        override val name: Name?,
+        private val elements: List<JavaAnnotationArgument>
+) : JavaArrayAnnotationArgument {
+    override fun getElements() = elements
+}
+
+class BinaryJavaEnumValueAnnotationArgument(
+        override val name: Name?,
+        private val enumClassId: ClassId,
+        private val entryName: Name,
+        private val context: ClassifierResolutionContext
+) : JavaEnumValueAnnotationArgument {
+    override fun resolve(): JavaField? {
+        val enumClass = context.resolveClass(enumClassId) ?: return null
+        return enumClass.getFields().firstOrNull { it.isEnumEntry() && it.getName() == entryName }
+    }
+}
+
+class BinaryJavaClassObjectAnnotationArgument(
+        override val name: Name?,
+        private val type: JavaType
+) : JavaClassObjectAnnotationArgument {
+    override fun getReferencedType() = type
+}
+
+class BinaryJavaAnnotationAsAnnotationArgument(
+        override val name: Name?,
+        private val annotation: JavaAnnotation
+) : JavaAnnotationAsAnnotationArgument {
+    override fun getAnnotation() = annotation
+}
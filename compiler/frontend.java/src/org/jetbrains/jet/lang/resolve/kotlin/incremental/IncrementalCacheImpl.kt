@@ -14,9 +14,9 @@
  * limitations under the License.
  */
 
-package org.jetbrains.jet.jps.incremental
+package org.jetbrains.jet.lang.resolve.kotlin.incremental
 
-import org.jetbrains.jet.jps.incremental.IncrementalCacheImpl.RecompilationDecision.*
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl.RecompilationDecision.*
 import java.io.File
 import com.intellij.util.io.PersistentHashMap
 import java.io.DataOutput
@@ -37,8 +37,6 @@ import java.util.HashMap
 import org.jetbrains.jet.lang.resolve.java.PackageClassUtils
 import com.intellij.openapi.util.io.FileUtil
 import java.security.MessageDigest
-import org.jetbrains.jps.incremental.storage.StorageOwner
-import org.jetbrains.jps.builders.storage.StorageProvider
 import java.io.IOException
 import java.util.Scanner
 import org.jetbrains.jet.lang.resolve.java.JvmAbi
@@ -47,7 +45,7 @@ import org.jetbrains.jet.lang.resolve.kotlin.header.isCompatibleClassKind
 
 val INLINE_ANNOTATION_DESC = "Lkotlin/inline;"
 
-public class IncrementalCacheImpl(val baseDir: File): StorageOwner, IncrementalCache {
+public open class IncrementalCacheImpl(val baseDir: File): IncrementalCache {
     class object {
         val DIRECTORY_NAME = "kotlin"
 
@@ -153,11 +151,11 @@ public class IncrementalCacheImpl(val baseDir: File): StorageOwner, IncrementalC
         return protoMap[JvmClassName.byFqNameWithoutInnerClasses(PackageClassUtils.getPackageClassFqName(FqName(fqName)))]
     }
 
-    override fun flush(memoryCachesOnly: Boolean) {
+    public fun flush(memoryCachesOnly: Boolean) {
         maps.forEach { it.flush(memoryCachesOnly) }
     }
 
-    public override fun clean() {
+    public fun clean() {
         maps.forEach { it.clean() }
         getFormatVersionFile().delete()
     }
@@ -502,12 +500,6 @@ public class IncrementalCacheImpl(val baseDir: File): StorageOwner, IncrementalC
     }
 }
 
-public object IncrementalCacheStorageProvider : StorageProvider<IncrementalCacheImpl>() {
-    override fun createStorage(targetDataDir: File?): IncrementalCacheImpl {
-        return IncrementalCacheImpl(File(targetDataDir, IncrementalCacheImpl.DIRECTORY_NAME))
-    }
-}
-
 private fun ByteArray.md5(): Long {
     val d = MessageDigest.getInstance("MD5").digest(this)!!
     return ((d[0].toLong() and 0xFFL)
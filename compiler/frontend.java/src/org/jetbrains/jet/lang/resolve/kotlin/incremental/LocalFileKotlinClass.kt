@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package org.jetbrains.jet.jps.incremental
+package org.jetbrains.jet.lang.resolve.kotlin.incremental
 
 import org.jetbrains.jet.lang.resolve.kotlin.FileBasedKotlinClass
 import org.jetbrains.jet.lang.resolve.kotlin.header.KotlinClassHeader
@@ -151,7 +151,8 @@ public class Renderers {
                 public String render(@NotNull Collection<? extends ResolvedCall<?>> argument) {
                     StringBuilder stringBuilder = new StringBuilder("\n");
                     for (ResolvedCall<?> call : argument) {
-                        stringBuilder.append(DescriptorRenderer.FQ_NAMES_IN_TYPES.render(call.getResultingDescriptor())).append("\n");
+                        DescriptorRenderer.FQ_NAMES_IN_TYPES.appendDescriptor(call.getResultingDescriptor(), stringBuilder);
+                        stringBuilder.append("\n");
                     }
                     return stringBuilder.toString();
                 }
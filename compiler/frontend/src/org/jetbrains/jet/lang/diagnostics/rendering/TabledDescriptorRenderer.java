@@ -173,7 +173,7 @@ public class TabledDescriptorRenderer {
                 renderText((TextRenderer) row, result);
             }
             if (row instanceof DescriptorRow) {
-                result.append(DescriptorRenderer.COMPACT.render(((DescriptorRow) row).descriptor));
+                DescriptorRenderer.COMPACT.appendDescriptor(((DescriptorRow) row).descriptor, result);
             }
             if (row instanceof FunctionArgumentsRow) {
                 FunctionArgumentsRow functionArgumentsRow = (FunctionArgumentsRow) row;
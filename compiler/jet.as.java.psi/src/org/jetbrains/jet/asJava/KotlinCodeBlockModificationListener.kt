@@ -17,6 +17,7 @@
 package org.jetbrains.jet.asJava
 
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.Key
 import com.intellij.psi.*
 import com.intellij.psi.impl.PsiModificationTrackerImpl
 import com.intellij.psi.impl.PsiTreeChangeEventImpl.PsiEventType.*
@@ -33,7 +34,8 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
     private val myModificationTracker = modificationTracker as PsiModificationTrackerImpl
 
     override fun treeChanged(event: PsiTreeChangeEventImpl) {
-        if (event.getFile() !is JetFile) return
+        val file = event.getFile()
+        if (file !is JetFile) return
 
         when (event.getCode()) {
             BEFORE_CHILDREN_CHANGE,
@@ -48,29 +50,29 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
             CHILD_ADDED,
             CHILD_REMOVED,
             CHILD_REPLACED -> {
-                processChange(event.getParent(), event.getOldChild(), event.getChild())
+                processChange(file, event.getParent(), event.getOldChild(), event.getChild())
             }
 
             CHILDREN_CHANGED -> {
                 if (!event.isGenericChange()) {
-                    processChange(event.getParent(), event.getParent(), null)
+                    processChange(file, event.getParent(), event.getParent(), null)
                 }
             }
 
             CHILD_MOVED,
             PROPERTY_CHANGED -> {
-                myModificationTracker.incCounter()
+                incOutOfBlockModificationCount(file)
             }
 
             else -> LOG.error("Unknown code:" + event.getCode())
         }
     }
 
-    private fun processChange(parent: PsiElement?, child1: PsiElement?, child2: PsiElement?) {
+    private fun processChange(file: JetFile, parent: PsiElement?, child1: PsiElement?, child2: PsiElement?) {
         try {
             if (!isInsideCodeBlock(parent)) {
                 if (parent != null && parent.getContainingFile() is JetFile) {
-                    myModificationTracker.incCounter()
+                    incOutOfBlockModificationCount(file)
                 }
                 else {
                     myModificationTracker.incOutOfCodeBlockModificationCounter()
@@ -79,17 +81,31 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
             }
 
             if (containsClassesInside(child1) || (child2 != child1 && containsClassesInside(child2))) {
-                myModificationTracker.incCounter()
+                incOutOfBlockModificationCount(file)
             }
         }
         catch (e: PsiInvalidElementAccessException) {
-            myModificationTracker.incCounter() // Shall not happen actually, just a pre-release paranoia
+            incOutOfBlockModificationCount(file) // Shall not happen actually, just a pre-release paranoia
         }
     }
 
+    private fun incOutOfBlockModificationCount(file: JetFile) {
+        myModificationTracker.incCounter()
+        file.putUserData(FILE_OUT_OF_BLOCK_MODIFICATION_COUNT, getFileOutOfBlockModificationCount(file) + 1)
+    }
+
     class object {
         private val LOG = Logger.getInstance("#org.jetbrains.jet.asJava.JetCodeBlockModificationListener")
 
+        private val FILE_OUT_OF_BLOCK_MODIFICATION_COUNT = Key.create<Long>("FILE_OUT_OF_BLOCK_MODIFICATION_COUNT")
+
+        /**
+         * Number of out-of-code-block modifications made in [file]. Each of them also increments
+         * [PsiModificationTracker.getOutOfCodeBlockModificationCount], so if both counters grow by the same amount
+         * for a set of files, nothing outside of these files has changed.
+         */
+        public fun getFileOutOfBlockModificationCount(file: JetFile): Long = file.getUserData(FILE_OUT_OF_BLOCK_MODIFICATION_COUNT) ?: 0L
+
         private fun containsClassesInside(element: PsiElement?): Boolean {
             if (element == null) return false
             if (element is PsiClass) return true
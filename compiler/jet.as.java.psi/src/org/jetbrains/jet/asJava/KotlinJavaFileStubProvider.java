@@ -58,6 +58,7 @@ import org.jetbrains.jet.lang.resolve.java.JvmClassName;
 import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.org.objectweb.asm.Type;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -75,6 +76,7 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
         return new KotlinJavaFileStubProvider<KotlinPackageLightClassData>(
                 project,
                 false,
+                true,
                 new StubGenerationStrategy<KotlinPackageLightClassData>() {
                     @NotNull
                     @Override
@@ -135,9 +137,11 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
 
     @NotNull
     public static KotlinJavaFileStubProvider<OutermostKotlinClassLightClassData> createForDeclaredClass(@NotNull final JetClassOrObject classOrObject) {
+        // Light class data for classes holds descriptors which can't be reused after the rest of the project changes
         return new KotlinJavaFileStubProvider<OutermostKotlinClassLightClassData>(
                 classOrObject.getProject(),
                 classOrObject.isLocal(),
+                false,
                 new StubGenerationStrategy<OutermostKotlinClassLightClassData>() {
                     private JetFile getFile() {
                         return classOrObject.getContainingJetFile();
@@ -269,15 +273,22 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
     private final Project project;
     private final StubGenerationStrategy<T> stubGenerationStrategy;
     private final boolean local;
+    private final boolean reuseForSameDeclarations;
+
+    // Data computed last time along with the fingerprint of declarations it was computed from, see LightClassFingerprint
+    @Nullable
+    private volatile ComputedData<T> lastComputedData;
 
     private KotlinJavaFileStubProvider(
             @NotNull Project project,
             boolean local,
+            boolean reuseForSameDeclarations,
             @NotNull StubGenerationStrategy<T> stubGenerationStrategy
     ) {
         this.project = project;
         this.stubGenerationStrategy = stubGenerationStrategy;
         this.local = local;
+        this.reuseForSameDeclarations = reuseForSameDeclarations;
     }
 
     @Nullable
@@ -288,6 +299,22 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
 
         checkForBuiltIns(packageFqName, files);
 
+        Object dependency = local ? PsiModificationTracker.MODIFICATION_COUNT : PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT;
+
+        // Out-of-code-block modification anywhere in the project invalidates the cached value, but regenerating stubs is only needed
+        // if declarations in these files have changed. The fingerprint doesn't include declarations of other files the signatures
+        // refer to, so the stubs are only reused if all out-of-code-block modifications since the last time were made in these files
+        byte[] fingerprint = reuseForSameDeclarations ? LightClassFingerprint.compute(files) : null;
+        long modificationCount = PsiManager.getInstance(project).getModificationTracker().getOutOfCodeBlockModificationCount();
+        long filesModificationCount = getOutOfBlockModificationCount(files);
+        ComputedData<T> previous = lastComputedData;
+        if (fingerprint != null && previous != null && Arrays.equals(fingerprint, previous.fingerprint) &&
+            modificationCount - previous.modificationCount == filesModificationCount - previous.filesModificationCount &&
+            LightClassFingerprint.areOriginsValid(previous.data.getJavaFileStub())) {
+            lastComputedData = new ComputedData<T>(fingerprint, modificationCount, filesModificationCount, previous.data);
+            return Result.create(previous.data, dependency);
+        }
+
         LightClassConstructionContext context = stubGenerationStrategy.getContext(files);
 
         PsiJavaFileStub javaFileStub = createJavaFileStub(packageFqName, getRepresentativeVirtualFile(files));
@@ -333,10 +360,9 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
         }
 
         Diagnostics extraDiagnostics = forExtraDiagnostics.getBindingContext().getDiagnostics();
-        return Result.create(
-                stubGenerationStrategy.createLightClassData(javaFileStub, bindingContext, extraDiagnostics),
-                local ? PsiModificationTracker.MODIFICATION_COUNT : PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT
-        );
+        T data = stubGenerationStrategy.createLightClassData(javaFileStub, bindingContext, extraDiagnostics);
+        lastComputedData = fingerprint != null ? new ComputedData<T>(fingerprint, modificationCount, filesModificationCount, data) : null;
+        return Result.create(data, dependency);
     }
 
     @NotNull
@@ -393,6 +419,28 @@ public class KotlinJavaFileStubProvider<T extends WithFileStubAndExtraDiagnostic
                 cause);
     }
 
+    private static long getOutOfBlockModificationCount(@NotNull Collection<JetFile> files) {
+        long count = 0;
+        for (JetFile file : files) {
+            count += KotlinCodeBlockModificationListener.OBJECT$.getFileOutOfBlockModificationCount(file);
+        }
+        return count;
+    }
+
+    private static class ComputedData<T> {
+        private final byte[] fingerprint;
+        private final long modificationCount;
+        private final long filesModificationCount;
+        private final T data;
+
+        private ComputedData(@NotNull byte[] fingerprint, long modificationCount, long filesModificationCount, @NotNull T data) {
+            this.fingerprint = fingerprint;
+            this.modificationCount = modificationCount;
+            this.filesModificationCount = filesModificationCount;
+            this.data = data;
+        }
+    }
+
     private interface StubGenerationStrategy<T extends WithFileStubAndExtraDiagnostics> {
         @NotNull Collection<JetFile> getFiles();
         @NotNull FqName getPackageFqName();
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.asJava;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.psi.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Fingerprint of the parts of Kotlin files light classes are built from: imports, modifiers, annotations and signatures of declarations.
+ * Bodies of functions and accessors and initializers of properties with explicitly declared types are not taken into account.
+ */
+final class LightClassFingerprint {
+    private LightClassFingerprint() {
+    }
+
+    /**
+     * @return null if light classes of these files can't be identified by their declarations alone,
+     * e.g. when the type of some declaration is inferred from a non-trivial expression
+     */
+    @Nullable
+    public static byte[] compute(@NotNull Collection<JetFile> files) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (JetFile file : files) {
+            VirtualFile virtualFile = file.getVirtualFile();
+            update(digest, virtualFile != null ? virtualFile.getPath() : file.getName());
+            if (!appendStructure(file, digest)) return null;
+        }
+
+        return digest.digest();
+    }
+
+    /**
+     * @return true if all PSI elements stubs were generated from are still valid, so that the stubs can be reused
+     */
+    public static boolean areOriginsValid(@NotNull StubElement<?> stub) {
+        PsiElement origin = ((StubBase<?>) stub).getUserData(ClsWrapperStubPsiFactory.ORIGIN_ELEMENT);
+        if (origin != null && !origin.isValid()) return false;
+
+        for (StubElement child : stub.getChildrenStubs()) {
+            if (!areOriginsValid(child)) return false;
+        }
+        return true;
+    }
+
+    private static boolean appendStructure(@NotNull PsiElement element, @NotNull MessageDigest digest) {
+        if (element instanceof PsiWhiteSpace || element instanceof PsiComment || element instanceof JetClassInitializer) return true;
+
+        PsiElement child = element.getFirstChild();
+        if (child == null) {
+            update(digest, element.getText());
+            return true;
+        }
+
+        for (; child != null; child = child.getNextSibling()) {
+            if (isBody(element, child)) {
+                if (!isTypeIndependentOfBody(element)) {
+                    if (isTrivialExpression(child)) {
+                        update(digest, child.getText());
+                    }
+                    else {
+                        return false;
+                    }
+                }
+                continue;
+            }
+
+            if (!appendStructure(child, digest)) return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isBody(@NotNull PsiElement parent, @NotNull PsiElement child) {
+        if (parent instanceof JetNamedFunction) {
+            return child == ((JetNamedFunction) parent).getBodyExpression();
+        }
+        if (parent instanceof JetPropertyAccessor) {
+            return child == ((JetPropertyAccessor) parent).getBodyExpression();
+        }
+        if (parent instanceof JetProperty) {
+            JetProperty property = (JetProperty) parent;
+            return child == property.getInitializer() || child == property.getDelegate();
+        }
+        return false;
+    }
+
+    private static boolean isTypeIndependentOfBody(@NotNull PsiElement declaration) {
+        if (declaration instanceof JetNamedFunction) {
+            JetNamedFunction function = (JetNamedFunction) declaration;
+            return function.hasBlockBody() || function.hasDeclaredReturnType();
+        }
+        if (declaration instanceof JetPropertyAccessor) {
+            JetPropertyAccessor accessor = (JetPropertyAccessor) declaration;
+            PsiElement property = accessor.getParent();
+            return accessor.hasBlockBody() || (property instanceof JetProperty && ((JetProperty) property).getTypeReference() != null);
+        }
+        return ((JetProperty) declaration).getTypeReference() != null;
+    }
+
+    private static boolean isTrivialExpression(@NotNull PsiElement expression) {
+        if (expression instanceof JetConstantExpression) return true;
+        if (expression instanceof JetStringTemplateExpression) {
+            for (JetStringTemplateEntry entry : ((JetStringTemplateExpression) expression).getEntries()) {
+                if (!(entry instanceof JetLiteralStringTemplateEntry || entry instanceof JetEscapeStringTemplateEntry)) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void update(@NotNull MessageDigest digest, @NotNull String text) {
+        digest.update(text.getBytes(CharsetToolkit.UTF8_CHARSET));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,29 @@
+package test;
+
+import java.util.List;
+import java.util.Map;
+
+public class Generic<T extends CharSequence> {
+    public static final int CONSTANT = 42;
+    public static final boolean FLAG = true;
+
+    protected static <T, R> R foo(T t, List<? extends R> list, int... rest) {
+        return null;
+    }
+
+    public static Map<int[], List<? extends CharSequence>> map() {
+        return null;
+    }
+
+    public class Inner {
+        public Inner(T value) {
+        }
+    }
+
+    public enum Kind {
+        FIRST, SECOND;
+
+        Kind() {
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package library.sample
+
+native("Date")
+class NativeDate
+
+fun pairOf(a: Int, b: String): Pair<Int, String> = Pair(a, b)
+
+val answer = 42
@@ -0,0 +1,26 @@
+import kotlin.test.assertEquals
+
+inline fun <T : Comparable<T>> compareValues(a: T, b: T): Int = a.compareTo(b)
+
+inline fun <T> same(a: T, b: T): Boolean = a == b
+
+fun box() : String {
+    assertEquals(-1, compareValues(1, 2))
+    assertEquals(1, compareValues(Int.MAX_VALUE, Int.MIN_VALUE))
+    assertEquals(0, compareValues(5L, 5L))
+    assertEquals(1, compareValues(Long.MAX_VALUE, Long.MIN_VALUE))
+    assertEquals(-2, compareValues('a', 'c'))
+    assertEquals(3, compareValues(5.toByte(), 2.toByte()))
+    assertEquals(-1, compareValues(-0.0, 0.0))
+    assertEquals(1, compareValues(Double.NaN, Double.POSITIVE_INFINITY))
+    assertEquals(0, compareValues(Float.NaN, Float.NaN))
+
+    assertEquals(true, same(1, 1))
+    assertEquals(false, same(1, 2))
+    assertEquals(true, same(Long.MAX_VALUE, Long.MAX_VALUE))
+    assertEquals(false, same(0L, 1L shl 32))
+    assertEquals(true, same('x', 'x'))
+    assertEquals(false, same(true, false))
+
+    return "OK"
+}
@@ -0,0 +1,67 @@
+fun postfixIncrement(list: List<Int>): String {
+    var x = 0
+    var result = ""
+    list.forEach { result += x++ }
+    return "$result:$x"
+}
+
+fun postfixDecrement(list: List<Int>): String {
+    var x = 0
+    var result = ""
+    list.forEach { result += x-- }
+    return "$result:$x"
+}
+
+fun prefixIncrementAndDecrement(list: List<Int>): String {
+    var x = 0
+    var result = ""
+    list.forEach { result += ++x; result += --x; result += ++x }
+    return "$result:$x"
+}
+
+fun longPostfixIncrement(list: List<Int>): String {
+    var x = 10L
+    var sum = 0L
+    list.forEach { sum += x++ }
+    return "$sum:$x"
+}
+
+fun doublePostfixDecrement(list: List<Int>): String {
+    var x = 1.5
+    var sum = 0.0
+    list.forEach { sum += x-- }
+    return "$sum:$x"
+}
+
+fun compoundAssignments(list: List<Int>): String {
+    var product = 1
+    var shifted = 1L
+    var text = "-"
+    list.forEach {
+        product *= it + 1
+        shifted += product.toLong() shl it
+        text += it
+    }
+    return "$product:$shifted:$text"
+}
+
+fun incrementsInNestedLambdas(lists: List<List<Int>>): String {
+    var x = 0
+    var result = ""
+    lists.forEach { it.forEach { result += x++ + it } }
+    return "$result:$x"
+}
+
+fun box(): String {
+    val list = listOf(1, 2, 3)
+
+    if (postfixIncrement(list) != "012:3") return "Fail postfixIncrement: ${postfixIncrement(list)}"
+    if (postfixDecrement(list) != "0-1-2:-3") return "Fail postfixDecrement: ${postfixDecrement(list)}"
+    if (prefixIncrementAndDecrement(list) != "101212323:3") return "Fail prefix: ${prefixIncrementAndDecrement(list)}"
+    if (longPostfixIncrement(list) != "33:13") return "Fail longPostfixIncrement: ${longPostfixIncrement(list)}"
+    if (doublePostfixDecrement(list) != "1.5:-1.5") return "Fail doublePostfixDecrement: ${doublePostfixDecrement(list)}"
+    if (compoundAssignments(list) != "24:221:-123") return "Fail compoundAssignments: ${compoundAssignments(list)}"
+    if (incrementsInNestedLambdas(listOf(listOf(1, 2), listOf(3))) != "135:3") return "Fail nested: ${incrementsInNestedLambdas(listOf(listOf(1, 2), listOf(3)))}"
+
+    return "OK"
+}
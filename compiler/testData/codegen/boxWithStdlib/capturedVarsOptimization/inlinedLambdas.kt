@@ -0,0 +1,46 @@
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun longSum(list: List<Int>): Long {
+    var sum = 0L
+    list.forEach { sum += it }
+    return sum
+}
+
+fun concat(list: List<Int>): String? {
+    var result: String? = null
+    list.forEach { result = (result ?: "") + it }
+    return result
+}
+
+fun sumsInLoop(lists: List<List<Int>>): String {
+    var result = ""
+    for (list in lists) {
+        var sum = 0
+        list.forEach { sum += it }
+        result += sum
+    }
+    return result
+}
+
+fun escaping(list: List<Int>): Int {
+    var sum = 0
+    val f = { sum++ }
+    list.forEach { sum += it }
+    f()
+    return sum
+}
+
+fun box(): String {
+    if (sum(listOf(1, 2, 3)) != 6) return "Fail sum"
+    if (longSum(listOf(1, 2, 3)) != 6L) return "Fail longSum"
+    if (concat(listOf()) != null) return "Fail concat empty"
+    if (concat(listOf(1, 2)) != "12") return "Fail concat"
+    if (sumsInLoop(listOf(listOf(1, 2), listOf(), listOf(3))) != "303") return "Fail sumsInLoop"
+    if (escaping(listOf(1, 2)) != 4) return "Fail escaping"
+
+    return "OK"
+}
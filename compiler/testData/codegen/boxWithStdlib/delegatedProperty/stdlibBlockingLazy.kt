@@ -0,0 +1,26 @@
+import kotlin.properties.Delegates
+import java.util.concurrent.atomic.AtomicInteger
+
+class A(lock: Any?) {
+    val counter = AtomicInteger()
+    val x: Int by Delegates.blockingLazy(lock) { Thread.sleep(10); counter.incrementAndGet() }
+    val y: String? by Delegates.blockingLazy { counter.incrementAndGet(); null }
+}
+
+fun test(a: A): String? {
+    val results = IntArray(4)
+    val threads = (0..3).map { i -> Thread { results[i] = a.x } }
+    threads.forEach { it.start() }
+    threads.forEach { it.join() }
+
+    for (result in results) {
+        if (result != 1) return "Fail: ${results.toList()}"
+    }
+    if (a.y != null || a.y != null) return "Fail: y should be null"
+    if (a.counter.get() != 2) return "Fail: initializers were called ${a.counter.get()} times"
+    return null
+}
+
+fun box(): String {
+    return test(A(null)) ?: test(A(Any())) ?: "OK"
+}
@@ -0,0 +1,25 @@
+import kotlin.properties.Delegates
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+val bothStarted = CountDownLatch(2)
+
+class A {
+    // The initializer captures nothing, so it's the same object in all instances.
+    // If it were used as the lock, the second initialization would wait until the first one gave up
+    val x: Int by Delegates.blockingLazy {
+        bothStarted.countDown()
+        if (bothStarted.await(10, TimeUnit.SECONDS)) 1 else 0
+    }
+}
+
+fun box(): String {
+    val instances = listOf(A(), A())
+    val results = IntArray(2)
+    val threads = (0..1).map { i -> Thread { results[i] = instances[i].x } }
+    threads.forEach { it.start() }
+    threads.forEach { it.join() }
+
+    if (results[0] != 1 || results[1] != 1) return "Fail: instances share a lock, ${results.toList()}"
+    return "OK"
+}
@@ -0,0 +1,32 @@
+import kotlin.properties.Delegates
+
+class A {
+    var counter = 0
+    val x: Int by Delegates.lazy { ++counter }
+    val nullable: String? by Delegates.lazy { counter += 10; null }
+}
+
+class B {
+    var attempts = 0
+    val x: String by Delegates.lazy { if (++attempts < 2) throw IllegalStateException() else "OK" }
+}
+
+fun box(): String {
+    val a = A()
+    if (a.counter != 0) return "Fail: initializer should not be called before the first access"
+    if (a.x != 1) return "Fail 1: ${a.x}"
+    if (a.x != 1) return "Fail 2: ${a.x}"
+    if (a.nullable != null) return "Fail 3"
+    if (a.nullable != null) return "Fail 4"
+    if (a.counter != 11) return "Fail 5: ${a.counter}"
+
+    val b = B()
+    try {
+        b.x
+        return "Fail: exception expected"
+    }
+    catch (e: IllegalStateException) {
+        // initializer is called again on the next access
+    }
+    return b.x
+}
@@ -0,0 +1,23 @@
+import kotlin.properties.Delegates
+
+class A {
+    var x: Int by Delegates.notNull()
+    var s: String by Delegates.notNull()
+}
+
+fun box(): String {
+    val a = A()
+    try {
+        a.s
+        return "Fail: exception expected"
+    }
+    catch (e: IllegalStateException) {
+        if (e.getMessage() != "Property s should be initialized before get") return "Fail: ${e.getMessage()}"
+    }
+
+    a.x = 42
+    if (a.x != 42) return "Fail: ${a.x}"
+
+    a.s = "OK"
+    return a.s
+}
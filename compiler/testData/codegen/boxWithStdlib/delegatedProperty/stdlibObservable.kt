@@ -0,0 +1,18 @@
+import kotlin.properties.Delegates
+
+class A {
+    var log = ""
+    var x: Int by Delegates.observable(1) {(desc, old, new) -> log += "${desc.name}:$old->$new;" }
+    var s: String? by Delegates.observable<String?>(null) {(desc, old, new) -> log += "${desc.name}:$old->$new;" }
+}
+
+fun box(): String {
+    val a = A()
+    if (a.x != 1) return "Fail 1: ${a.x}"
+    a.x = 2
+    a.x = 3
+    if (a.x != 3) return "Fail 2: ${a.x}"
+    a.s = "OK"
+    if (a.log != "x:1->2;x:2->3;s:null->OK;") return "Fail: ${a.log}"
+    return a.s!!
+}
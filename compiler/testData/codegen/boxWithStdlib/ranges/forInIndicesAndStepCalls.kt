@@ -0,0 +1,51 @@
+import java.util.ArrayList
+
+fun box(): String {
+    val list = arrayListOf("a", "b", "c")
+    var result = ""
+    for (i in list.indices) result += i
+    if (result != "012") return "Fail list.indices: $result"
+
+    result = ""
+    for (i in ArrayList<String>().indices) result += i
+    if (result != "") return "Fail empty list indices: $result"
+
+    result = ""
+    for (i in intArray(1, 2).indices) result += i
+    if (result != "01") return "Fail intArray.indices: $result"
+
+    result = ""
+    for (i in 5 downTo 1) result += i
+    if (result != "54321") return "Fail downTo: $result"
+
+    result = ""
+    for (i in Int.MIN_VALUE + 1 downTo Int.MIN_VALUE) result += if (i == Int.MIN_VALUE) "m" else "n"
+    if (result != "nm") return "Fail downTo MIN_VALUE: $result"
+
+    result = ""
+    val progression = 1..7
+    for (i in progression step 3) result += i
+    if (result != "147") return "Fail progression step: $result"
+
+    result = ""
+    for (i in (10 downTo 1).reversed() step 4) result += i
+    if (result != "159") return "Fail reversed progression step: $result"
+
+    try {
+        for (i in 1..10 step 0) return "Fail: loop body executed"
+        return "Fail: no exception"
+    }
+    catch (e: IllegalArgumentException) {
+        if (e.getMessage() != "Step must be positive, was: 0") return "Fail message: ${e.getMessage()}"
+    }
+
+    try {
+        for (i in 10L downTo 1L step -1L) return "Fail: loop body executed"
+        return "Fail: no exception"
+    }
+    catch (e: IllegalArgumentException) {
+        if (e.getMessage() != "Step must be positive, was: -1") return "Fail message: ${e.getMessage()}"
+    }
+
+    return "OK"
+}
@@ -0,0 +1,57 @@
+fun arrayIndices(x: Any): String {
+    var result = ""
+    if (x is Array<*>) for (i in x.indices) result += i
+    return result
+}
+
+fun intArrayIndices(x: Any): String {
+    var result = ""
+    if (x is IntArray) for (i in x.indices) result += i
+    return result
+}
+
+fun collectionIndices(x: Any): String {
+    var result = ""
+    if (x is Collection<*>) for (i in x.indices) result += i
+    return result
+}
+
+fun nullableArrayIndices(x: Array<String>?): String {
+    var result = ""
+    x!!
+    for (i in x.indices) result += i
+    for (i in x!!.indices) result += i
+    return result
+}
+
+fun nullableCollectionIndices(x: List<String>?): String {
+    var result = ""
+    if (x != null) for (i in x.indices) result += i
+    return result
+}
+
+fun rangeStep(x: Any): String {
+    var result = ""
+    if (x is IntRange) for (i in x step 3) result += i
+    return result
+}
+
+fun progressionStep(x: Any): String {
+    var result = ""
+    if (x is IntProgression) for (i in x step 4) result += i
+    return result
+}
+
+fun box(): String {
+    if (arrayIndices(array("a", "b", "c")) != "012") return "Fail array: ${arrayIndices(array("a", "b", "c"))}"
+    if (arrayIndices(listOf("a")) != "") return "Fail array check"
+    if (intArrayIndices(intArray(1, 2)) != "01") return "Fail intArray: ${intArrayIndices(intArray(1, 2))}"
+    if (collectionIndices(listOf("a", "b")) != "01") return "Fail collection: ${collectionIndices(listOf("a", "b"))}"
+    if (collectionIndices(array("a")) != "") return "Fail collection check"
+    if (nullableArrayIndices(array("a", "b")) != "0101") return "Fail nullable array: ${nullableArrayIndices(array("a", "b"))}"
+    if (nullableCollectionIndices(listOf("a")) != "0") return "Fail nullable collection: ${nullableCollectionIndices(listOf("a"))}"
+    if (nullableCollectionIndices(null) != "") return "Fail null collection"
+    if (rangeStep(1..7) != "147") return "Fail range step: ${rangeStep(1..7)}"
+    if (progressionStep(10 downTo 1) != "1062") return "Fail progression step: ${progressionStep(10 downTo 1)}"
+    return "OK"
+}
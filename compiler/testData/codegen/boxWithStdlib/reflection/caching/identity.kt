@@ -0,0 +1,25 @@
+import kotlin.reflect.jvm.*
+import kotlin.test.assertTrue
+
+val top = 42
+var top2 = -23
+
+val Int.intExt: Int get() = this
+val Char.intExt: Int get() = this.toInt()
+
+class A(var mem: String)
+
+fun box(): String {
+    assertTrue(::top identityEquals ::top)
+    assertTrue(::top2 identityEquals ::top2)
+    assertTrue(Int::intExt identityEquals Int::intExt)
+    assertTrue(Char::intExt identityEquals Char::intExt)
+    assertTrue(A::mem identityEquals A::mem)
+
+    assertTrue(!(Int::intExt identityEquals Char::intExt))
+
+    assertTrue(javaClass<String>().kotlin identityEquals javaClass<String>().kotlin)
+    assertTrue(Class.forName("_DefaultPackage").kotlinPackage identityEquals Class.forName("_DefaultPackage").kotlinPackage)
+
+    return "OK"
+}
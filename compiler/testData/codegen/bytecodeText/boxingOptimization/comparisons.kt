@@ -0,0 +1,15 @@
+inline fun <T : Comparable<T>> maxOf(a: T, b: T): T = if (a.compareTo(b) >= 0) a else b
+
+inline fun <T> same(a: T, b: T): Boolean = a == b
+
+fun foo(x: Int, y: Long, c: Char, d: Double): Boolean {
+    val max = maxOf(x, 42)
+    return same(max, x) && same(maxOf(y, 0L), y) && maxOf(c, 'a') == c && maxOf(d, 0.0) > 1.0
+}
+
+// 0 valueOf
+// 0 Value\s\(\)
+// 1 areEqual
+// 1 compareTo
+// 1 Intrinsics.compare \(II\)I
+// 1 Intrinsics.compare \(JJ\)I
@@ -0,0 +1,22 @@
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun max(list: List<String>): String? {
+    var max: String? = null
+    list.forEach { if (max == null || it > max!!) max = it }
+    return max
+}
+
+fun escaping(list: List<Int>): Int {
+    var sum = 0
+    val f = { sum++ }
+    list.forEach { sum += it }
+    f()
+    return sum
+}
+
+// 1 NEW kotlin/jvm/internal/Ref\$IntRef
+// 0 NEW kotlin/jvm/internal/Ref\$ObjectRef
@@ -0,0 +1,13 @@
+import kotlin.properties.Delegates
+
+class A {
+    val lazy: String by Delegates.lazy { "lazy" }
+    val blockingLazy: Int by Delegates.blockingLazy { 42 }
+    var notNull: String by Delegates.notNull()
+    var observable: Int by Delegates.observable(0) {(desc, old, new) -> }
+}
+
+// 0 kotlin/properties/Delegates
+// 0 kotlin/properties/ReadOnlyProperty
+// 0 kotlin/properties/ReadWriteProperty
+// 1 MONITORENTER
@@ -0,0 +1,17 @@
+fun test(n: Int, array: IntArray, list: List<String>): Int {
+    var result = 0
+    for (i in n downTo 0) result += i
+    for (i in 0..n step 2) result += i
+    for (i in n downTo 0 step 3) result += i
+    for (i in 0L..n.toLong() step 2L) result += i.toInt()
+    for (i in array.indices) result += array[i]
+    for (i in list.indices) result += list[i].length()
+    return result
+}
+
+// 0 iterator
+// 0 INVOKESPECIAL kotlin/IntProgression.<init>
+// 0 INVOKESPECIAL kotlin/LongProgression.<init>
+// 0 getIndices
+// 0 downTo
+// 0 step
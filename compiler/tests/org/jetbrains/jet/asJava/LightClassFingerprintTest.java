@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.asJava;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.jetbrains.jet.lang.psi.PsiPackage.JetPsiFactory;
+
+public class LightClassFingerprintTest extends KotlinTestWithEnvironment {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testFunctionBodies() {
+        assertSameFingerprint("fun foo(): Int { return 1 }", "fun foo(): Int { val x = 2; return x }");
+        assertSameFingerprint("fun foo(): Int = 1", "fun foo(): Int = bar()");
+        assertDifferentFingerprint("fun foo(): Int = 1", "fun foo(): Long = 1");
+        assertDifferentFingerprint("fun foo() {}", "private fun foo() {}");
+    }
+
+    public void testPropertyInitializers() {
+        assertSameFingerprint("val x: String = \"a\"", "val x: String = foo()");
+        assertSameFingerprint("val x: Int get() = 1", "val x: Int get() = 2");
+        assertDifferentFingerprint("val x = 1", "val x = 1L");
+        assertDifferentFingerprint("val x = \"a\"", "val x = \"b\"");
+    }
+
+    public void testAnnotationsAndImports() {
+        assertDifferentFingerprint("fun foo() {}", "deprecated(\"\") fun foo() {}");
+        assertDifferentFingerprint("import a.B\nfun foo(b: B) {}", "import c.B\nfun foo(b: B) {}");
+        assertSameFingerprint("class A { fun foo() {} }", "class A {\n    // comment\n    fun foo() {}\n}");
+        assertSameFingerprint("class A { {} }", "class A { { println() } }");
+    }
+
+    public void testInferredTypes() {
+        assertNull(fingerprint("val x = foo()"));
+        assertNull(fingerprint("fun foo() = bar()"));
+        assertNull(fingerprint("class A { val x get() = foo() }"));
+        assertNotNull(fingerprint("val x: Int by lazy { 1 }"));
+    }
+
+    private void assertSameFingerprint(@NotNull String before, @NotNull String after) {
+        byte[] expected = fingerprint(before);
+        assertNotNull(expected);
+        assertTrue(before + "\n" + after, Arrays.equals(expected, fingerprint(after)));
+    }
+
+    private void assertDifferentFingerprint(@NotNull String before, @NotNull String after) {
+        byte[] expected = fingerprint(before);
+        assertNotNull(expected);
+        assertFalse(before + "\n" + after, Arrays.equals(expected, fingerprint(after)));
+    }
+
+    @Nullable
+    private byte[] fingerprint(@NotNull String text) {
+        return LightClassFingerprint.compute(Collections.singletonList(JetPsiFactory(getProject()).createFile("test.kt", text)));
+    }
+}
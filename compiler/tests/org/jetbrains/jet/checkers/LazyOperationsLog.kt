@@ -22,6 +22,7 @@ import org.jetbrains.jet.lang.descriptors.Named
 import java.util.IdentityHashMap
 import org.jetbrains.jet.lang.resolve.scopes.JetScope
 import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaTypeImpl
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.BinaryJavaType
 import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaClassImpl
 import java.util.ArrayList
 import org.jetbrains.jet.utils.Printer
@@ -174,6 +175,9 @@ class LazyOperationsLog(
             o is JavaTypeImpl<*> -> {
                 o.getPsi().getPresentableText().appendQuoted()
             }
+            o is BinaryJavaType -> {
+                o.getPresentableText().appendQuoted()
+            }
             o is Collection<*> -> {
                 if (o.isEmpty()) {
                     sb.append("[empty]")
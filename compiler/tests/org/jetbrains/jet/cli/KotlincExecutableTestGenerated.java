@@ -168,6 +168,12 @@ public class KotlincExecutableTestGenerated extends AbstractKotlincExecutableTes
             doJsTest(fileName);
         }
 
+        @TestMetadata("metaInfo.args")
+        public void testMetaInfo() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/cli/js/metaInfo.args");
+            doJsTest(fileName);
+        }
+
         @TestMetadata("nativeDeclarations.args")
         public void testNativeDeclarations() throws Exception {
             String fileName = JetTestUtils.navigationMetadata("compiler/testData/cli/js/nativeDeclarations.args");
@@ -17,6 +17,8 @@
 package org.jetbrains.jet.cli.js;
 
 import org.jetbrains.jet.cli.CliBaseTest;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.k2js.serialization.KotlinJavascriptSerializationUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -55,4 +57,16 @@ public class K2JsCliTest extends CliBaseTest {
 
         Assert.assertTrue(new File(tmpdir.getTmpDir(), "out.js").isFile());
     }
+
+    @Test
+    public void metaInfo() throws Exception {
+        executeCompilerCompareOutputJS();
+
+        File metaInfoDir = new File(tmpdir.getTmpDir(), "meta");
+        Assert.assertTrue(new File(metaInfoDir, KotlinJavascriptSerializationUtil.getModuleFilePath()).isFile());
+
+        FqName packageFqName = new FqName("library.sample");
+        Assert.assertTrue(new File(metaInfoDir, KotlinJavascriptSerializationUtil.getPackageFilePath(packageFqName)).isFile());
+        Assert.assertTrue(new File(metaInfoDir, KotlinJavascriptSerializationUtil.getAnnotationsFilePath(packageFqName)).isFile());
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.cli.common.ExitCode;
+import org.jetbrains.jet.cli.jvm.K2JVMCompiler;
+import org.jetbrains.jet.codegen.forTestCompile.ForTestCompileRuntime;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
+public class CompilerSessionTest extends UsefulTestCase {
+    private static final int ROUNDS = 5;
+
+    private File tmpDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tmpDir = JetTestUtils.tmpDirForTest(this);
+    }
+
+    // Mimics JPS building independent module chunks in parallel: both threads compile on the same session at the same time,
+    // so the shared application environment is created, used and released concurrently
+    public void testParallelCompilationsInOneSession() throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        Disposable session = JetCoreEnvironment.startCompilerSession();
+        try {
+            List<Thread> threads = new ArrayList<Thread>();
+            for (final String module : new String[] {"first", "second"}) {
+                final File source = new File(tmpDir, module + "/" + module + ".kt");
+                FileUtil.writeToFile(source, "package " + module + "\n\nfun " + module + "(): Int = " + module.length() + "\n");
+
+                Thread thread = new Thread("Compile " + module) {
+                    @Override
+                    public void run() {
+                        try {
+                            for (int round = 0; round < ROUNDS; round++) {
+                                File output = new File(tmpDir, module + "-out" + round);
+                                barrier.await();
+                                assertEquals("Compilation of " + module + " failed", ExitCode.OK, compile(source, output));
+                                assertTrue(new File(output, module).isDirectory());
+                            }
+                        }
+                        catch (Throwable e) {
+                            errors.add(e);
+                            barrier.reset();
+                        }
+                    }
+                };
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        finally {
+            Disposer.dispose(session);
+        }
+
+        if (!errors.isEmpty()) {
+            throw new AssertionError(errors.get(0));
+        }
+    }
+
+    @NotNull
+    private static ExitCode compile(@NotNull File source, @NotNull File output) {
+        return new K2JVMCompiler().exec(
+                System.out,
+                source.getAbsolutePath(),
+                "-d", output.getAbsolutePath(),
+                "-no-stdlib",
+                "-classpath", ForTestCompileRuntime.runtimeJarForTests().getAbsolutePath(),
+                "-no-jdk-annotations",
+                "-annotations", JetTestUtils.getJdkAnnotationsJar().getAbsolutePath()
+        );
+    }
+}
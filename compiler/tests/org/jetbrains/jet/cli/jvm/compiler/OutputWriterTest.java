@@ -0,0 +1,224 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.OutputFile;
+import org.jetbrains.jet.cli.common.messages.MessageCollector;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+public class OutputWriterTest extends UsefulTestCase {
+    private File tmpDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tmpDir = JetTestUtils.tmpDirForTest(this);
+    }
+
+    public void testDirectoryWriterFinish() {
+        File outputDir = new File(tmpDir, "out");
+        OutputDirectoryWriter writer = new OutputDirectoryWriter(outputDir, MessageCollector.NONE);
+        writer.consume(outputFile("a/A.class", "A"));
+        writer.consume(outputFile("B.class", "B"));
+        writer.finish();
+
+        assertTrue(new File(outputDir, "a/A.class").isFile());
+        assertTrue(new File(outputDir, "B.class").isFile());
+    }
+
+    public void testDirectoryWriterAbortDeletesWrittenFiles() throws Exception {
+        File outputDir = new File(tmpDir, "out");
+        File unrelated = new File(outputDir, "Unrelated.class");
+        FileUtil.writeToFile(unrelated, "unrelated");
+
+        OutputDirectoryWriter writer = new OutputDirectoryWriter(outputDir, MessageCollector.NONE);
+        for (int i = 0; i < 500; i++) {
+            writer.consume(outputFile("p/C" + i + ".class", "C" + i));
+        }
+        writer.abort();
+
+        assertEmpty(listFiles(new File(outputDir, "p")));
+        assertTrue(unrelated.isFile());
+
+        // Aborting an aborted writer is allowed
+        writer.abort();
+    }
+
+    public void testDirectoryWriterAbortAfterFinish() {
+        File outputDir = new File(tmpDir, "out");
+        OutputDirectoryWriter writer = new OutputDirectoryWriter(outputDir, MessageCollector.NONE);
+        writer.consume(outputFile("A.class", "A"));
+        writer.finish();
+        assertTrue(new File(outputDir, "A.class").isFile());
+
+        writer.abort();
+        assertFalse(new File(outputDir, "A.class").exists());
+    }
+
+    public void testDirectoryWriterAbortKeepsOverwrittenFiles() throws Exception {
+        File outputDir = new File(tmpDir, "out");
+        File previous = new File(outputDir, "A.class");
+        FileUtil.writeToFile(previous, "previous");
+
+        OutputDirectoryWriter writer = new OutputDirectoryWriter(outputDir, MessageCollector.NONE);
+        writer.consume(outputFile("A.class", "A"));
+        writer.consume(outputFile("B.class", "B"));
+        writer.abort();
+
+        assertTrue(previous.isFile());
+        assertFalse(new File(outputDir, "B.class").exists());
+    }
+
+    public void testDirectoryWriterFailureDeletesWrittenFiles() throws Exception {
+        File outputDir = new File(tmpDir, "out");
+        // A file where a directory is expected makes writing to this package fail
+        FileUtil.writeToFile(new File(outputDir, "blocked"), "");
+
+        OutputDirectoryWriter writer = new OutputDirectoryWriter(outputDir, MessageCollector.NONE);
+        writer.consume(outputFile("A.class", "A"));
+        try {
+            writer.consume(outputFile("blocked/B.class", "B"));
+            writer.finish();
+            fail("Writing to " + outputDir + "/blocked should fail");
+        }
+        catch (CompileEnvironmentException expected) {
+        }
+
+        assertFalse(new File(outputDir, "A.class").exists());
+    }
+
+    public void testJarWriterFinish() throws Exception {
+        File jar = new File(tmpDir, "out.jar");
+        OutputJarWriter writer = createJarWriter(jar, null);
+        writer.consume(outputFile("b/B.class", "B"));
+        writer.consume(outputFile("A.class", "A"));
+        writer.finish();
+
+        JarFile jarFile = new JarFile(jar);
+        try {
+            assertNotNull(jarFile.getManifest());
+            assertEquals("A", new String(FileUtil.loadBytes(jarFile.getInputStream(jarFile.getEntry("A.class")))));
+            assertEquals("B", new String(FileUtil.loadBytes(jarFile.getInputStream(jarFile.getEntry("b/B.class")))));
+        }
+        finally {
+            jarFile.close();
+        }
+        assertEquals(Collections.singletonList(jar), listFiles(tmpDir));
+    }
+
+    public void testJarWriterFailureDeletesTempFile() {
+        File jar = new File(tmpDir, "out.jar");
+        OutputJarWriter writer = createJarWriter(jar, null);
+        writer.consume(outputFile("A.class", "A"));
+        try {
+            writer.consume(outputFile("A.class", "A"));
+            writer.finish();
+            fail("Duplicate entries should not be written to a jar");
+        }
+        catch (CompileEnvironmentException expected) {
+        }
+
+        assertEmpty(listFiles(tmpDir));
+    }
+
+    public void testJarWriterMissingRuntimeDeletesTempFile() {
+        File jar = new File(tmpDir, "out.jar");
+        OutputJarWriter writer = createJarWriter(jar, new File(tmpDir, "missing-runtime.jar"));
+        writer.consume(outputFile("A.class", "A"));
+        try {
+            writer.finish();
+            fail("Writing a jar with a missing runtime should fail");
+        }
+        catch (CompileEnvironmentException expected) {
+        }
+
+        assertEmpty(listFiles(tmpDir));
+    }
+
+    public void testJarWriterAbort() {
+        File jar = new File(tmpDir, "out.jar");
+        OutputJarWriter writer = createJarWriter(jar, null);
+        writer.consume(outputFile("A.class", "A"));
+        writer.abort();
+
+        assertEmpty(listFiles(tmpDir));
+    }
+
+    public void testJarWriterAbortAfterFinish() {
+        File jar = new File(tmpDir, "out.jar");
+        OutputJarWriter writer = createJarWriter(jar, null);
+        writer.consume(outputFile("A.class", "A"));
+        writer.finish();
+        assertTrue(jar.isFile());
+
+        writer.abort();
+        assertEmpty(listFiles(tmpDir));
+    }
+
+    @NotNull
+    private static OutputJarWriter createJarWriter(@NotNull File jar, @Nullable File runtimeJar) {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        return new OutputJarWriter(jar, manifest, runtimeJar, false);
+    }
+
+    @NotNull
+    private static List<File> listFiles(@NotNull File dir) {
+        File[] files = dir.listFiles();
+        return files == null ? Collections.<File>emptyList() : Arrays.asList(files);
+    }
+
+    @NotNull
+    static OutputFile outputFile(@NotNull final String relativePath, @NotNull final String text) {
+        return new OutputFile() {
+            @NotNull
+            @Override
+            public String getRelativePath() {
+                return relativePath;
+            }
+
+            @NotNull
+            @Override
+            public List<File> getSourceFiles() {
+                return Collections.emptyList();
+            }
+
+            @NotNull
+            @Override
+            public byte[] asByteArray() {
+                return text.getBytes();
+            }
+
+            @NotNull
+            @Override
+            public String asText() {
+                return text;
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.incremental
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.jet.JetTestUtils
+import org.jetbrains.jet.cli.common.ExitCode
+import org.jetbrains.jet.cli.common.arguments.K2JVMCompilerArguments
+import org.jetbrains.jet.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.jet.cli.common.messages.MessageCollector
+import org.jetbrains.jet.cli.common.messages.OutputMessageUtil
+import org.jetbrains.jet.codegen.forTestCompile.ForTestCompileRuntime
+import org.jetbrains.jet.config.IncrementalCompilation
+import java.io.File
+import java.util.TreeSet
+import kotlin.properties.Delegates
+
+public class IncrementalJvmCompilerTest : UsefulTestCase() {
+    private var workDir: File by Delegates.notNull()
+    private var libraryDir: File by Delegates.notNull()
+    private var noCallAssertions = false
+    private var sourceRootOnClasspath = false
+
+    override fun setUp() {
+        super.setUp()
+        workDir = FileUtil.createTempDirectory("incrementalJvmCompiler", null)
+        libraryDir = File(workDir, "lib")
+        libraryDir.mkdirs()
+    }
+
+    override fun tearDown() {
+        FileUtil.delete(workDir)
+        super.tearDown()
+    }
+
+    // The compiler generates package facades differently in the incremental mode, which can only be enabled on startup
+    private fun isEnabled() = IncrementalCompilation.ENABLED
+
+    fun testInitialBuild() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "fun b() = a()")
+
+        assertEquals(setOf("a.kt", "b.kt"), make())
+        assertTrue(File(workDir, "out/_DefaultPackage.class").exists())
+        assertEquals(setOf<String>(), make())
+    }
+
+    fun testBodyChangeRecompilesOnlyChangedFile() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "fun b() = a()")
+        make()
+
+        writeSource("a.kt", "fun a() = 2")
+        assertEquals(setOf("a.kt"), make())
+    }
+
+    fun testDeletedSourceOutputsAreDeleted() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "class B")
+        make()
+        assertTrue(File(workDir, "out/B.class").exists())
+
+        File(workDir, "src/b.kt").delete()
+        val compiler = createCompiler()
+        assertEquals(ExitCode.OK, compiler.compile(getSources(), createArguments(), CollectingMessageCollector()))
+        assertTrue(compiler.getDeletedOutputs().any { it.getName() == "B.class" })
+        assertFalse(File(workDir, "out/B.class").exists())
+    }
+
+    fun testChangedSignatureRecompilesOtherFiles() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a(): Int = 1")
+        writeSource("b.kt", "fun b() = a()")
+        writeSource("c.kt", "class C")
+        make()
+
+        // COMPILE_OTHERS: files which are not compiled yet are compiled in the next round
+        writeSource("a.kt", "fun a(): String = \"\"")
+        assertEquals(setOf("a.kt", "b.kt", "c.kt"), make())
+    }
+
+    fun testChangedInlineFunctionRecompilesAll() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "inline fun a() = 1")
+        writeSource("b.kt", "fun b() = a()")
+        make()
+
+        // RECOMPILE_ALL: the body of a() is inlined into b()
+        writeSource("a.kt", "inline fun a() = 2")
+        assertEquals(setOf("a.kt", "b.kt"), make())
+    }
+
+    fun testClasspathChangeRecompilesAll() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "fun b() = 2")
+        File(libraryDir, "library.txt").writeText("1")
+        make()
+        assertEquals(setOf<String>(), make())
+
+        File(libraryDir, "library.txt").writeText("22")
+        assertEquals(setOf("a.kt", "b.kt"), make())
+        assertEquals(setOf<String>(), make())
+    }
+
+    fun testArgumentsChangeRecompilesAll() {
+        if (!isEnabled()) return
+
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "fun b() = 2")
+        make()
+
+        noCallAssertions = true
+        assertEquals(setOf("a.kt", "b.kt"), make())
+        assertEquals(setOf<String>(), make())
+    }
+
+    fun testSourceRootOnClasspath() {
+        if (!isEnabled()) return
+
+        // Build tools put source roots with Java files on the classpath, and Kotlin files may be in the same roots
+        sourceRootOnClasspath = true
+        writeSource("a.kt", "fun a() = 1")
+        writeSource("b.kt", "fun b() = 2")
+        writeSource("J.java", "class J {}")
+        make()
+
+        writeSource("a.kt", "fun a() = 3")
+        assertEquals(setOf("a.kt"), make())
+
+        writeSource("J.java", "class J { void j() {} }")
+        assertEquals(setOf("a.kt", "b.kt"), make())
+    }
+
+    private fun writeSource(name: String, text: String) {
+        val file = File(workDir, "src/$name")
+        file.getParentFile()!!.mkdirs()
+        file.writeText(text)
+    }
+
+    private fun getSources(): List<File> = File(workDir, "src").listFiles()!!.filter { it.getName().endsWith(".kt") }
+
+    private fun createCompiler() = IncrementalJvmCompiler("test", File(workDir, "cache"), File(workDir, "out"))
+
+    private fun createArguments(): K2JVMCompilerArguments {
+        val arguments = K2JVMCompilerArguments()
+        arguments.noStdlib = true
+        arguments.noJdkAnnotations = true
+        val classpath = arrayListOf(ForTestCompileRuntime.runtimeJarForTests(), libraryDir)
+        if (sourceRootOnClasspath) {
+            classpath.add(File(workDir, "src"))
+        }
+        arguments.classpath = classpath.map { it.getAbsolutePath() }.joinToString(File.pathSeparator)
+        arguments.annotations = JetTestUtils.getJdkAnnotationsJar().getAbsolutePath()
+        arguments.noCallAssertions = noCallAssertions
+        return arguments
+    }
+
+    /**
+     * @return names of the source files compiled by this build
+     */
+    private fun make(): Set<String> {
+        val messageCollector = CollectingMessageCollector()
+        val exitCode = createCompiler().compile(getSources(), createArguments(), messageCollector)
+        assertEquals(messageCollector.errors.joinToString("\n"), ExitCode.OK, exitCode)
+        return messageCollector.compiledSources
+    }
+
+    private class CollectingMessageCollector : MessageCollector {
+        val compiledSources = TreeSet<String>()
+        val errors = arrayListOf<String>()
+
+        override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+            if (severity == CompilerMessageSeverity.OUTPUT) {
+                val output = OutputMessageUtil.parseOutputMessage(message)
+                output?.sourceFiles?.mapTo(compiledSources) { it.getName() }
+            }
+            else if (severity in CompilerMessageSeverity.ERRORS) {
+                errors.add("$message at $location")
+            }
+        }
+    }
+}
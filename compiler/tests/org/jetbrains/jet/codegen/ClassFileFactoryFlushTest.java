@@ -0,0 +1,101 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen;
+
+import com.google.common.base.Predicates;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.OutputFile;
+import org.jetbrains.jet.OutputFileConsumer;
+import org.jetbrains.jet.analyzer.AnalysisResult;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.codegen.state.GenerationState;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.psi.JetPsiFactory;
+import org.jetbrains.jet.lang.resolve.lazy.JvmResolveUtil;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+
+import java.util.*;
+
+import static org.jetbrains.jet.lang.psi.PsiPackage.JetPsiFactory;
+
+public class ClassFileFactoryFlushTest extends KotlinTestWithEnvironment {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testFlushedClassesDontIncludeClassesNeededByInliner() {
+        JetPsiFactory factory = JetPsiFactory(getProject());
+        List<JetFile> files = Arrays.asList(
+                factory.createFile("a.kt", "package a\n" +
+                                           "class Plain { fun foo() = 1 }\n" +
+                                           "inline fun make(): Any = object {}\n" +
+                                           "inline fun <R> run(f: () -> R): R = f()\n"),
+                factory.createFile("b.kt", "package b\n" +
+                                           "fun test1() = a.make()\n" +
+                                           "fun test2() = a.run { object { fun foo() = 1 }.foo() }\n" +
+                                           "fun test3() = { 1 }\n")
+        );
+
+        final Set<String> flushed = new LinkedHashSet<String>();
+        final Map<String, String> texts = new HashMap<String, String>();
+        GenerationState state = compile(files, new OutputFileConsumer() {
+            @Override
+            public void consume(@NotNull OutputFile file) {
+                assertTrue("Flushed twice: " + file.getRelativePath(), flushed.add(file.getRelativePath()));
+                texts.put(file.getRelativePath(), file.asText());
+            }
+        });
+        Set<String> remaining = paths(state.getFactory().asList());
+
+        assertTrue(flushed.toString(), flushed.contains("a/Plain.class"));
+        String plainText = texts.get("a/Plain.class");
+        assertTrue(plainText, plainText.contains("class a/Plain") && plainText.contains("foo()I"));
+        for (String path : flushed) {
+            assertFalse("Class generated in an inline function was flushed: " + path, path.contains("make"));
+            assertFalse("Package facade was flushed: " + path, path.equals("a/APackage.class") || path.equals("b/BPackage.class"));
+            assertFalse("Flushed class is still in the factory: " + path, remaining.contains(path));
+        }
+
+        Set<String> all = new HashSet<String>(flushed);
+        all.addAll(remaining);
+        assertEquals(paths(compile(files, null).getFactory().asList()), all);
+    }
+
+    @NotNull
+    private GenerationState compile(@NotNull List<JetFile> files, @Nullable OutputFileConsumer consumer) {
+        AnalysisResult analysisResult = JvmResolveUtil.analyzeFilesWithJavaIntegrationAndCheckForErrors(
+                getProject(), files, Predicates.<PsiFile>alwaysTrue());
+        GenerationState state = new GenerationState(getProject(), ClassBuilderFactories.TEST, analysisResult.getModuleDescriptor(),
+                                                    analysisResult.getBindingContext(), files);
+        state.getFactory().setOutputFileConsumer(consumer);
+        KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
+        return state;
+    }
+
+    @NotNull
+    private static Set<String> paths(@NotNull List<OutputFile> files) {
+        Set<String> result = new HashSet<String>();
+        for (OutputFile file : files) {
+            result.add(file.getRelativePath());
+        }
+        return result;
+    }
+}
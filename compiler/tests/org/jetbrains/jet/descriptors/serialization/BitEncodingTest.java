@@ -22,27 +22,30 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Random;
 
 import static org.jetbrains.jet.descriptors.serialization.BitEncoding.decodeBytes;
-import static org.jetbrains.jet.descriptors.serialization.BitEncoding.encodeBytes;
 import static org.junit.Assert.assertArrayEquals;
 
 public class BitEncodingTest extends UsefulTestCase {
     private static final int[] BIG_LENGTHS = new int[]
             {1000, 32000, 33000, 65000, 65534, 65535, 65536, 65537, 100000, 131074, 239017, 314159, 1000000};
 
-    private static void doTest(int randSeed, int length) throws Exception {
+    private static String[] encodeBytes(@NotNull byte[] data, boolean use8to8) {
+        return use8to8 ? BitEncoding.encode8to8(data) : BitEncoding.encode8to7(data);
+    }
+
+    private static void doTest(int randSeed, int length, boolean use8to8) throws Exception {
         byte[] a = new byte[length];
         new Random(randSeed).nextBytes(a);
 
-        String[] b = encodeBytes(a);
+        String[] b = encodeBytes(a, use8to8);
         for (String string : b) {
-            assertStringConformsToJVMS(string);
+            assertStringConformsToJVMS(string, use8to8);
         }
 
         byte[] c = decodeBytes(b);
         String message = "Failed randSeed = " + randSeed + ", length = " + length;
         assertArrayEquals(message, a, c);
 
-        String[] d = encodeBytes(c);
+        String[] d = encodeBytes(c, use8to8);
         assertArrayEquals(message, b, d);
 
         byte[] e = decodeBytes(d);
@@ -50,26 +53,53 @@ public class BitEncodingTest extends UsefulTestCase {
 
     }
 
-    private static void assertStringConformsToJVMS(@NotNull String string) {
+    private static void assertStringConformsToJVMS(@NotNull String string, boolean use8to8) {
         int effectiveLength = string.length();
-        for (char c : string.toCharArray()) {
-            if (c == 0x0) effectiveLength++;
+        char[] chars = string.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            // The 8-to-8 encoding starts with a marker character which occupies two bytes as well
+            boolean isMarker = use8to8 && i == 0 && c == 0x100;
+            int maxChar = use8to8 ? 0xff : 0x7f;
+            assertTrue(String.format("Unexpected character: %x", (int) c), isMarker || c <= maxChar);
+            // Such characters occupy two bytes in the Modified UTF-8
+            if (c == 0x0 || c > 0x7f) effectiveLength++;
         }
         assertTrue(String.format("String exceeds maximum allowed length in a class file: %d > 65535", effectiveLength),
                    effectiveLength <= 65535);
     }
 
-    public void testEncodeDecode() throws Exception {
+    private static void doTestEncodeDecode(boolean use8to8) throws Exception {
         for (int length = 0; length <= 100; length++) {
             for (int randSeed = 1; randSeed <= 100; randSeed++) {
-                doTest(randSeed, length);
+                doTest(randSeed, length, use8to8);
             }
         }
 
         for (int length : BIG_LENGTHS) {
             for (int randSeed = 1; randSeed <= 3; randSeed++) {
-                doTest(randSeed, length);
+                doTest(randSeed, length, use8to8);
             }
         }
     }
+
+    public void testEncodeDecode8to7() throws Exception {
+        doTestEncodeDecode(false);
+    }
+
+    public void testEncodeDecode8to8() throws Exception {
+        doTestEncodeDecode(true);
+    }
+
+    public void testDefaultEncodingIs8to8() throws Exception {
+        byte[] data = {0, 1, 2, 3, 0x7f, (byte) 0x80, (byte) 0xff};
+        assertArrayEquals(BitEncoding.encode8to8(data), BitEncoding.encodeBytes(data));
+    }
+
+    public void testDecodeDataWrittenByOldCompiler() throws Exception {
+        // Produced by the 7-bit encoder which was the only one before the 8-to-8 encoding was introduced
+        String[] encoded = {"\u0001\u0003\u0009\u0019\u0071\u0010\u0061\u0000\u002b\u0015\u0079\u0008"};
+        byte[] expected = {0, 1, 2, 3, 0x7f, (byte) 0x80, (byte) 0xff, 42, 10, (byte) 0xfe};
+        assertArrayEquals(expected, decodeBytes(encoded));
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.KotlinTestWithEnvironmentManagement;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.cli.jvm.compiler.CliLightClassGenerationSupport;
+import org.jetbrains.jet.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.di.InjectorForJavaDescriptorResolverUtil;
+import org.jetbrains.jet.lang.resolve.java.JavaClassFinder;
+import org.jetbrains.jet.lang.resolve.java.JavaVisibilities;
+import org.jetbrains.jet.lang.resolve.java.structure.*;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaClassImpl;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaClassifierTypeImpl;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.JavaTypeSubstitutorImpl;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.BinaryJavaClass;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.BinaryJavaField;
+import org.jetbrains.jet.lang.resolve.java.structure.impl.classFiles.BinaryJavaType;
+import org.jetbrains.jet.lang.resolve.name.ClassId;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BinaryJavaClassTest extends KotlinTestWithEnvironmentManagement {
+    private Project project;
+    private JavaClass javaClass;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        File tmpdir = JetTestUtils.tmpDirForTest(this);
+        JetTestUtils.compileJavaFiles(
+                Collections.singletonList(new File("compiler/testData/binaryJavaClass/Generic.java")),
+                Arrays.asList("-g", "-d", tmpdir.getPath())
+        );
+
+        JetCoreEnvironment environment = JetCoreEnvironment.createForTests(
+                getTestRootDisposable(),
+                JetTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK, tmpdir),
+                EnvironmentConfigFiles.JVM_CONFIG_FILES
+        );
+
+        project = environment.getProject();
+        JavaClassFinder finder = InjectorForJavaDescriptorResolverUtil.create(
+                project, new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace(), false
+        ).getJavaClassFinder();
+        javaClass = finder.findClass(ClassId.topLevel(new FqName("test.Generic")));
+        assertInstanceOf(javaClass, BinaryJavaClass.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        javaClass = null;
+        project = null;
+        super.tearDown();
+    }
+
+    public void testClass() {
+        assertEquals("Generic", javaClass.getName().asString());
+        assertEquals(JavaClass.OriginKind.COMPILED, javaClass.getOriginKind());
+
+        List<JavaTypeParameter> typeParameters = javaClass.getTypeParameters();
+        assertEquals(1, typeParameters.size());
+        assertEquals("T", typeParameters.get(0).getName().asString());
+        assertEquals(Collections.singletonList("CharSequence"), presentableTexts(typeParameters.get(0).getUpperBounds()));
+
+        assertEquals(Collections.singletonList("Object"), presentableTexts(javaClass.getSupertypes()));
+        assertEquals(2, javaClass.getInnerClasses().size());
+    }
+
+    public void testMethod() {
+        JavaMethod foo = findMethod(javaClass, "foo");
+        assertTrue(foo.isStatic());
+        assertEquals(JavaVisibilities.PROTECTED_STATIC_VISIBILITY, foo.getVisibility());
+        assertEquals("R", ((BinaryJavaType) foo.getReturnType()).getPresentableText());
+
+        List<JavaValueParameter> parameters = foo.getValueParameters();
+        assertEquals(Arrays.asList("t", "list", "rest"), parameterNames(parameters));
+        assertEquals(Arrays.asList("T", "List<? extends R>", "int[]"), parameterTypes(parameters));
+        assertFalse(parameters.get(0).isVararg());
+        assertTrue(parameters.get(2).isVararg());
+    }
+
+    public void testFields() {
+        assertEquals(42, ((BinaryJavaField) findField(javaClass, "CONSTANT")).getConstantValue());
+        assertEquals(Boolean.TRUE, ((BinaryJavaField) findField(javaClass, "FLAG")).getConstantValue());
+    }
+
+    public void testSyntheticConstructorParameters() {
+        JavaClass inner = findInnerClass("Inner");
+        assertFalse(inner.isStatic());
+        JavaConstructor constructor = inner.getConstructors().iterator().next();
+        assertEquals(Collections.singletonList("value"), parameterNames(constructor.getValueParameters()));
+        assertEquals(Collections.singletonList("T"), parameterTypes(constructor.getValueParameters()));
+
+        JavaClass kind = findInnerClass("Kind");
+        assertTrue(kind.isEnum());
+        assertTrue(findField(kind, "FIRST").isEnumEntry());
+        assertEquals(0, kind.getConstructors().iterator().next().getValueParameters().size());
+    }
+
+    public void testBinaryTypeSubstitutedIntoSourceClass() {
+        PsiClass list = JavaPsiFacade.getInstance(project).findClass("java.util.List", GlobalSearchScope.allScope(project));
+        assertNotNull(list);
+        JavaClass listClass = new JavaClassImpl(list);
+
+        JavaType mapType = findMethod(javaClass, "map").getReturnType();
+        assertInstanceOf(mapType, BinaryJavaType.class);
+
+        JavaType substituted = listClass.createImmediateType(new JavaTypeSubstitutorImpl(
+                Collections.singletonMap(listClass.getTypeParameters().get(0), mapType)
+        ));
+        assertEquals(
+                "java.util.List<java.util.Map<int[],java.util.List<? extends java.lang.CharSequence>>>",
+                ((JavaClassifierTypeImpl) substituted).getPsi().getCanonicalText()
+        );
+    }
+
+    @NotNull
+    private JavaClass findInnerClass(@NotNull String name) {
+        for (JavaClass innerClass : javaClass.getInnerClasses()) {
+            if (innerClass.getName().asString().equals(name)) return innerClass;
+        }
+        throw new AssertionError("No inner class " + name + " in " + javaClass);
+    }
+
+    @NotNull
+    private static JavaMethod findMethod(@NotNull JavaClass javaClass, @NotNull String name) {
+        for (JavaMethod method : javaClass.getMethods()) {
+            if (method.getName().asString().equals(name)) return method;
+        }
+        throw new AssertionError("No method " + name + " in " + javaClass);
+    }
+
+    @NotNull
+    private static JavaField findField(@NotNull JavaClass javaClass, @NotNull String name) {
+        for (JavaField field : javaClass.getFields()) {
+            if (field.getName().asString().equals(name)) return field;
+        }
+        throw new AssertionError("No field " + name + " in " + javaClass);
+    }
+
+    @NotNull
+    private static List<String> parameterNames(@NotNull List<JavaValueParameter> parameters) {
+        List<String> result = new ArrayList<String>();
+        for (JavaValueParameter parameter : parameters) {
+            Name name = parameter.getName();
+            result.add(name == null ? null : name.asString());
+        }
+        return result;
+    }
+
+    @NotNull
+    private static List<String> parameterTypes(@NotNull List<JavaValueParameter> parameters) {
+        List<String> result = new ArrayList<String>();
+        for (JavaValueParameter parameter : parameters) {
+            result.add(((BinaryJavaType) parameter.getType()).getPresentableText());
+        }
+        return result;
+    }
+
+    @NotNull
+    private static List<String> presentableTexts(@NotNull Iterable<? extends JavaType> types) {
+        List<String> result = new ArrayList<String>();
+        for (JavaType type : types) {
+            result.add(((BinaryJavaType) type).getPresentableText());
+        }
+        return result;
+    }
+}
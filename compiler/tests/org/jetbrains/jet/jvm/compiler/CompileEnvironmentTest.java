@@ -30,10 +30,12 @@ import org.junit.Assert;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class CompileEnvironmentTest extends TestCase {
     public void testSmokeWithCompilerJar() throws IOException {
@@ -98,6 +100,53 @@ public class CompileEnvironmentTest extends TestCase {
         }
     }
 
+    public void testUncompressedJarIsDeterministic() throws IOException {
+        File tempDir = FileUtil.createTempDirectory("compilerTest", "compilerTest");
+        try {
+            File first = compileSmokeToJar(new File(tempDir, "first.jar"));
+            File second = compileSmokeToJar(new File(tempDir, "second.jar"));
+            assertTrue(Arrays.equals(FileUtil.loadFileBytes(first), FileUtil.loadFileBytes(second)));
+
+            ZipFile zipFile = new ZipFile(first);
+            try {
+                List<String> names = new ArrayList<String>();
+                for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                    ZipEntry entry = entries.nextElement();
+                    if (!entry.getName().equals(JarFile.MANIFEST_NAME)) {
+                        assertEquals(entry.getName(), ZipEntry.STORED, entry.getMethod());
+                        names.add(entry.getName());
+                    }
+                }
+                List<String> sorted = new ArrayList<String>(names);
+                Collections.sort(sorted);
+                assertEquals(sorted, names);
+                assertEquals(2, names.size());
+            }
+            finally {
+                zipFile.close();
+            }
+            assertEquals(2, tempDir.listFiles().length);
+        }
+        finally {
+            FileUtil.delete(tempDir);
+        }
+    }
+
+    private static File compileSmokeToJar(File resultJar) {
+        ExitCode exitCode = new K2JVMCompiler().exec(
+                System.out,
+                JetTestCaseBuilder.getTestDataPathBase() + "/compiler/smoke/Smoke.kt",
+                "-d", resultJar.getAbsolutePath(),
+                "-no-stdlib",
+                "-classpath", ForTestCompileRuntime.runtimeJarForTests().getAbsolutePath(),
+                "-no-jdk-annotations",
+                "-annotations", JetTestUtils.getJdkAnnotationsJar().getAbsolutePath(),
+                "-Xjar-uncompressed"
+        );
+        Assert.assertEquals(ExitCode.OK, exitCode);
+        return resultJar;
+    }
+
     private static List<String> listEntries(JarInputStream is) throws IOException {
         List<String> entries = new ArrayList<String>();
         while (true) {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiFormatUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.cli.jvm.compiler.CoreExternalAnnotationsManager;
+import org.jetbrains.jet.cli.jvm.compiler.ExternalAnnotationsIndex;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the index of Kotlin JDK annotations gives the same answers as annotations.xml files read by BaseExternalAnnotationsManager
+ */
+public class ExternalAnnotationsIndexAgainstJdkAnnotationsTest extends KotlinTestWithEnvironment {
+    private static final String JDK_ANNOTATIONS_URL = "jar://dependencies/annotations/kotlin-jdk-annotations.jar!/";
+
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return JetTestUtils.createEnvironmentWithJdkAndNullabilityAnnotationsFromIdea(
+                myTestRootDisposable, ConfigurationKind.JDK_ONLY, TestJdkKind.FULL_JDK);
+    }
+
+    public void testIndexAgreesWithAnnotationsManager() {
+        VirtualFile annotationsRoot = VirtualFileManager.getInstance().findFileByUrl(JDK_ANNOTATIONS_URL);
+        assertNotNull(annotationsRoot);
+
+        // Without an index the manager always looks annotations up in annotations.xml files
+        final CoreExternalAnnotationsManager annotationsManager = new CoreExternalAnnotationsManager(PsiManager.getInstance(getProject()));
+        annotationsManager.addExternalAnnotationsRoot(annotationsRoot);
+
+        final ExternalAnnotationsIndex index = ExternalAnnotationsIndex.forRoot(JetTestUtils.getJdkAnnotationsJar());
+        assertNotNull(index);
+
+        JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(getProject());
+        GlobalSearchScope allScope = GlobalSearchScope.allScope(getProject());
+
+        final List<String> mismatches = new ArrayList<String>();
+        int checkedClasses = 0;
+
+        for (FqName classFqName : JdkAnnotationsValidityTest.getAffectedClasses(JDK_ANNOTATIONS_URL)) {
+            PsiClass psiClass = javaPsiFacade.findClass(classFqName.asString(), allScope);
+            // Some annotated classes are specific to other versions of JDK
+            if (psiClass == null) continue;
+            checkedClasses++;
+
+            if (!index.hasAnnotationsForClass(classFqName.asString())) {
+                mismatches.add("No annotations for class " + classFqName);
+            }
+
+            psiClass.accept(new JavaRecursiveElementVisitor() {
+                @Override
+                public void visitMethod(PsiMethod method) {
+                    super.visitMethod(method);
+                    check(method);
+                }
+
+                @Override
+                public void visitField(PsiField field) {
+                    super.visitField(field);
+                    check(field);
+                }
+
+                @Override
+                public void visitParameter(PsiParameter parameter) {
+                    super.visitParameter(parameter);
+                    check(parameter);
+                }
+
+                private void check(@NotNull PsiModifierListOwner owner) {
+                    String externalName = PsiFormatUtil.getExternalName(owner, false, Integer.MAX_VALUE);
+                    if (externalName == null) return;
+
+                    PsiAnnotation[] annotations = annotationsManager.findExternalAnnotations(owner);
+                    boolean hasAnnotations = annotations != null && annotations.length > 0;
+                    if (index.hasAnnotations(externalName) != hasAnnotations) {
+                        mismatches.add("Has annotations: " + hasAnnotations + ", " + externalName);
+                    }
+
+                    if (annotations != null) {
+                        for (PsiAnnotation annotation : annotations) {
+                            String annotationFqName = annotation.getQualifiedName();
+                            if (annotationFqName != null && !index.hasAnnotation(externalName, annotationFqName)) {
+                                mismatches.add("No " + annotationFqName + " in the index, " + externalName);
+                            }
+                        }
+                    }
+
+                    boolean hasNotNull = annotationsManager.findExternalAnnotation(owner, AnnotationUtil.NOT_NULL) != null;
+                    if (index.hasAnnotation(externalName, AnnotationUtil.NOT_NULL) != hasNotNull) {
+                        mismatches.add("Has NotNull: " + hasNotNull + ", " + externalName);
+                    }
+                }
+            });
+        }
+
+        assertTrue("No annotated classes found", checkedClasses > 0);
+        assertTrue("Index differs from annotations.xml files:\n" + StringUtil.join(mismatches, "\n"), mismatches.isEmpty());
+    }
+}
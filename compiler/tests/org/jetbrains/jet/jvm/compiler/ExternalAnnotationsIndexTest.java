@@ -0,0 +1,106 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.cli.jvm.compiler.ExternalAnnotationsIndex;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ExternalAnnotationsIndexTest extends TestCase {
+    private static final String NOT_NULL = "org.jetbrains.annotations.NotNull";
+    private static final String KOTLIN_SIGNATURE = "jet.runtime.typeinfo.KotlinSignature";
+
+    public void testLookup() throws IOException {
+        File root = JetTestUtils.tmpDirForTest(this);
+        writeAnnotations(root, "test",
+                         "<item name='test.A java.lang.String foo(int,  java.util.List&lt;java.lang.String&gt;)'>\n" +
+                         "  <annotation name='" + KOTLIN_SIGNATURE + "'>\n" +
+                         "    <val name=\"value\" val=\"&quot;fun foo(a: Int, b: List&lt;String&gt;): String&quot;\"/>\n" +
+                         "  </annotation>\n" +
+                         "</item>\n" +
+                         "<item name='test.A java.lang.String foo(int, java.util.List&lt;java.lang.String&gt;) 1'>\n" +
+                         "  <annotation name='" + NOT_NULL + "'/>\n" +
+                         "</item>\n" +
+                         "<item name='test.B.Nested field'>\n" +
+                         "  <annotation name='" + NOT_NULL + "'/>\n" +
+                         "</item>\n");
+
+        ExternalAnnotationsIndex index = ExternalAnnotationsIndex.forRoot(root);
+        assertNotNull(index);
+
+        String method = "test.A java.lang.String foo(int, java.util.List<java.lang.String>)";
+        assertTrue(index.hasAnnotations(method));
+        assertTrue(index.hasAnnotation(method, KOTLIN_SIGNATURE));
+        assertFalse(index.hasAnnotation(method, NOT_NULL));
+        assertTrue(index.hasAnnotation(method + " 1", NOT_NULL));
+        assertFalse(index.hasAnnotations(method + " 0"));
+        assertFalse(index.hasAnnotations("test.A void bar()"));
+
+        assertTrue(index.hasAnnotationsForClass("test.A"));
+        assertTrue(index.hasAnnotationsForClass("test.B"));
+        assertFalse(index.hasAnnotationsForClass("test.AB"));
+        assertFalse(index.hasAnnotationsForClass("test.C"));
+        assertTrue(index.hasAnnotationsForClass("test.B.Nested"));
+    }
+
+    public void testRebuiltAfterChange() throws IOException {
+        File root = JetTestUtils.tmpDirForTest(this);
+        File file = writeAnnotations(root, "", "<item name='A'><annotation name='" + NOT_NULL + "'/></item>");
+        file.setLastModified(1000000000000L);
+
+        ExternalAnnotationsIndex index = ExternalAnnotationsIndex.forRoot(root);
+        assertNotNull(index);
+        assertTrue(index.hasAnnotationsForClass("A"));
+        assertSame(index, ExternalAnnotationsIndex.forRoot(root));
+
+        writeAnnotations(root, "", "<item name='B'><annotation name='" + NOT_NULL + "'/></item>");
+        file.setLastModified(2000000000000L);
+
+        index = ExternalAnnotationsIndex.forRoot(root);
+        assertNotNull(index);
+        assertFalse(index.hasAnnotationsForClass("A"));
+        assertTrue(index.hasAnnotationsForClass("B"));
+    }
+
+    public void testNewPackageIsIndexed() throws IOException {
+        File root = JetTestUtils.tmpDirForTest(this);
+        writeAnnotations(root, "", "<item name='A'><annotation name='" + NOT_NULL + "'/></item>");
+        root.setLastModified(1000000000000L);
+
+        ExternalAnnotationsIndex index = ExternalAnnotationsIndex.forRoot(root);
+        assertNotNull(index);
+        assertFalse(index.hasAnnotationsForClass("test.B"));
+
+        writeAnnotations(root, "test", "<item name='test.B'><annotation name='" + NOT_NULL + "'/></item>");
+        root.setLastModified(2000000000000L);
+
+        index = ExternalAnnotationsIndex.forRoot(root);
+        assertNotNull(index);
+        assertTrue(index.hasAnnotationsForClass("A"));
+        assertTrue(index.hasAnnotationsForClass("test.B"));
+    }
+
+    private static File writeAnnotations(File root, String packagePath, String items) throws IOException {
+        File file = new File(new File(root, packagePath), "annotations.xml");
+        FileUtil.writeToFile(file, "<root>\n" + items + "</root>\n");
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler.longTest;
+
+import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+import org.jetbrains.jet.lang.types.lang.PrimitiveType;
+
+/**
+ * Measures the initialization of built-ins and the throughput of the accessors which are called most often
+ * by the type checker and the back-end, and prints nanoseconds per call for several rounds.
+ * Should be run in a fresh JVM, so that built-ins are not initialized by anything else before.
+ */
+public class BuiltInsAccessors {
+    private static final int ROUNDS = 10;
+    private static final int ITERATIONS = 10000000;
+
+    private static final PrimitiveType[] PRIMITIVES = PrimitiveType.values();
+
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        System.out.println("Built-ins initialized in " + (System.nanoTime() - start) / 1000000 + "ms");
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            int hash = 0;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                hash += System.identityHashCode(builtIns.getIntType());
+                hash += System.identityHashCode(builtIns.getAnyType());
+                hash += System.identityHashCode(builtIns.getNullableAnyType());
+                hash += System.identityHashCode(builtIns.getUnitType());
+            }
+            long types = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                PrimitiveType primitive = PRIMITIVES[i % PRIMITIVES.length];
+                hash += System.identityHashCode(builtIns.getPrimitiveClassDescriptor(primitive));
+                hash += System.identityHashCode(builtIns.getPrimitiveArrayClassDescriptor(primitive));
+                hash += System.identityHashCode(builtIns.getFunction(i % KotlinBuiltIns.FUNCTION_TRAIT_COUNT));
+                hash += System.identityHashCode(builtIns.getString());
+            }
+            long classes = System.nanoTime() - start;
+
+            JetType intType = builtIns.getIntType();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (builtIns.isPrimitiveType(intType)) hash++;
+                if (builtIns.isUnit(intType)) hash++;
+                if (builtIns.isNothingOrNullableNothing(intType)) hash++;
+                if (builtIns.isArray(intType)) hash++;
+            }
+            long checks = System.nanoTime() - start;
+
+            System.out.println("Round " + round + ": " +
+                               "types " + nanosPerCall(types) + ", " +
+                               "classes " + nanosPerCall(classes) + ", " +
+                               "checks " + nanosPerCall(checks) + " ns/call (" + hash + ")");
+        }
+    }
+
+    private static String nanosPerCall(long nanos) {
+        return String.format("%.2f", (double) nanos / (ITERATIONS * 4L));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler.longTest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.TimeUtils;
+import org.jetbrains.jet.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.descriptors.DeclarationDescriptor;
+import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
+import org.jetbrains.jet.lang.descriptors.PackageViewDescriptor;
+import org.jetbrains.jet.lang.descriptors.ReceiverParameterDescriptor;
+import org.jetbrains.jet.lang.descriptors.impl.DeclarationDescriptorVisitorEmptyBodies;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.renderer.DescriptorRenderer;
+import org.jetbrains.jet.test.util.RecursiveDescriptorProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders every declaration of the standard library with several renderers, as diagnostics and quick documentation do,
+ * and prints the time spent on each round. The first rounds warm up the JIT, the following ones show the steady state.
+ */
+public class RenderStdlibDescriptors {
+    private static final int ROUNDS = 10;
+
+    private static final DescriptorRenderer[] RENDERERS = {
+            DescriptorRenderer.FQ_NAMES_IN_TYPES,
+            DescriptorRenderer.SHORT_NAMES_IN_TYPES,
+            DescriptorRenderer.COMPACT_WITH_MODIFIERS,
+            DescriptorRenderer.HTML
+    };
+
+    public static void main(String[] args) throws Exception {
+        Disposable disposable = Disposer.newDisposable();
+        try {
+            JetCoreEnvironment environment = JetCoreEnvironment.createForTests(
+                    disposable, JetTestUtils.compilerConfigurationForTests(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK),
+                    EnvironmentConfigFiles.JVM_CONFIG_FILES);
+
+            ModuleDescriptor module =
+                    JetTestUtils.analyzeFile(JetTestUtils.createFile("empty.kt", "", environment.getProject())).getModuleDescriptor();
+            PackageViewDescriptor kotlinPackage = module.getPackage(new FqName("kotlin"));
+            if (kotlinPackage == null) {
+                throw new AssertionError("Package kotlin is not found, make sure the runtime is compiled");
+            }
+
+            List<DeclarationDescriptor> descriptors = collectDescriptors(kotlinPackage);
+            System.out.println(descriptors.size() + " declarations found");
+
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.currentTimeMillis();
+                int length = 0;
+                for (DescriptorRenderer renderer : RENDERERS) {
+                    StringBuilder builder = new StringBuilder();
+                    for (DeclarationDescriptor descriptor : descriptors) {
+                        renderer.appendDescriptor(descriptor, builder);
+                        builder.append('\n');
+                    }
+                    length += builder.length();
+                }
+                System.out.println("Round " + round + ": " + length + " chars rendered in " +
+                                   TimeUtils.millisecondsToSecondsString(System.currentTimeMillis() - start) + "s");
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    @NotNull
+    private static List<DeclarationDescriptor> collectDescriptors(@NotNull PackageViewDescriptor rootPackage) {
+        final List<DeclarationDescriptor> result = new ArrayList<DeclarationDescriptor>();
+        RecursiveDescriptorProcessor.process(rootPackage, null, new DeclarationDescriptorVisitorEmptyBodies<Boolean, Void>() {
+            @Override
+            public Boolean visitDeclarationDescriptor(DeclarationDescriptor descriptor, Void data) {
+                result.add(descriptor);
+                return true;
+            }
+
+            @Override
+            public Boolean visitReceiverParameterDescriptor(ReceiverParameterDescriptor descriptor, Void data) {
+                // receiver parameters can't be rendered
+                return true;
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler.longTest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.TimeUtils;
+import org.jetbrains.jet.cli.jvm.repl.ReplInterpreter;
+
+/**
+ * Evaluates a long REPL session where every line refers to the previous one and prints the time spent on each block of lines.
+ * The time per block is expected to stay roughly the same for the whole session.
+ */
+public class ReplLongSession {
+    private static final int LINES = 10000;
+    private static final int BLOCK = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Disposable disposable = Disposer.newDisposable();
+        try {
+            ReplInterpreter repl = new ReplInterpreter(
+                    disposable, JetTestUtils.compilerConfigurationForTests(ConfigurationKind.ALL, TestJdkKind.FULL_JDK));
+
+            eval(repl, "val x0 = 0");
+
+            long blockStart = System.currentTimeMillis();
+            for (int i = 1; i <= LINES; i++) {
+                eval(repl, "val x" + i + " = x" + (i - 1) + " + 1");
+
+                if (i % BLOCK == 0) {
+                    long now = System.currentTimeMillis();
+                    System.out.println("Lines " + (i - BLOCK + 1) + ".." + i + " done in " +
+                                       TimeUtils.millisecondsToSecondsString(now - blockStart) + "s");
+                    blockStart = now;
+                }
+            }
+
+            Object result = eval(repl, "x" + LINES).getValue();
+            if (!Integer.valueOf(LINES).equals(result)) {
+                throw new AssertionError("Wrong result of the last line: " + result);
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    private static ReplInterpreter.LineResult eval(ReplInterpreter repl, String line) {
+        ReplInterpreter.LineResult result = repl.eval(line);
+        if (result.getType() != ReplInterpreter.LineResultType.SUCCESS) {
+            throw new AssertionError("Line failed: " + line + "\n" + result.getErrorText());
+        }
+        return result;
+    }
+}
@@ -124,7 +124,11 @@ public class DescriptorRendererTest extends JetLiteFixture {
             if (renderedDescriptors.length() != 0) {
                 renderedDescriptors.append("\n");
             }
-            renderedDescriptors.append(DescriptorRenderer.FQ_NAMES_IN_TYPES.render(descriptor));
+            int start = renderedDescriptors.length();
+            DescriptorRenderer.FQ_NAMES_IN_TYPES.appendDescriptor(descriptor, renderedDescriptors);
+
+            // appending into a non-empty builder produces the same text as rendering into a string
+            assertEquals(renderedDescriptors.substring(start), DescriptorRenderer.FQ_NAMES_IN_TYPES.render(descriptor));
         }
 
         Document document = new DocumentImpl(psiFile.getText());
@@ -49,6 +49,12 @@ public class ReplInterpreterTestGenerated extends AbstractReplInterpreterTest {
         doTest(fileName);
     }
 
+    @TestMetadata("earlierLinesAfterErrors.repl")
+    public void testEarlierLinesAfterErrors() throws Exception {
+        String fileName = JetTestUtils.navigationMetadata("compiler/testData/repl/earlierLinesAfterErrors.repl");
+        doTest(fileName);
+    }
+
     @TestMetadata("empty.repl")
     public void testEmpty() throws Exception {
         String fileName = JetTestUtils.navigationMetadata("compiler/testData/repl/empty.repl");
@@ -43,15 +43,19 @@ public class LazyJavaPackageFragmentProvider(
                 else null
             }
 
+    // The same class may be represented by different JavaClass instances (e.g. read from a class file or built from PSI),
+    // so descriptors are cached by the class name to avoid creating several descriptors for one class
     private val topLevelClasses = c.storageManager.createMemoizedFunctionWithNullableValues @lambda {
-        (jClass: JavaClass): LazyJavaClassDescriptor? ->
-        val fqName = jClass.getFqName()
-        if (fqName == null) return@lambda null
-
-        val packageFragment = getPackageFragment(fqName.parent())
+        (key: TopLevelClassKey): LazyJavaClassDescriptor? ->
+        val packageFragment = getPackageFragment(key.fqName.parent())
         if (packageFragment == null) return@lambda null
 
-        LazyJavaClassDescriptor(c, packageFragment, fqName, jClass)
+        LazyJavaClassDescriptor(c, packageFragment, key.fqName, key.javaClass)
+    }
+
+    private class TopLevelClassKey(val fqName: FqName, val javaClass: JavaClass) {
+        override fun equals(other: Any?) = other is TopLevelClassKey && fqName == other.fqName
+        override fun hashCode() = fqName.hashCode()
     }
 
     private fun getPackageFragment(fqName: FqName) = packageFragments(fqName)
@@ -73,7 +77,7 @@ public class LazyJavaPackageFragmentProvider(
             }
             val outerClass = javaClass.getOuterClass()
             if (outerClass == null) {
-                return c.lookupBinaryClass(javaClass) ?: topLevelClasses(javaClass)
+                return c.lookupBinaryClass(javaClass) ?: fqName?.let { topLevelClasses(TopLevelClassKey(it, javaClass)) }
             }
             val outerClassScope = resolveClass(outerClass)?.getUnsubstitutedInnerClassesScope()
             return outerClassScope?.getClassifier(javaClass.getName()) as? ClassDescriptor
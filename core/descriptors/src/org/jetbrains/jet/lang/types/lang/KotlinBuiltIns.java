@@ -48,8 +48,12 @@ public class KotlinBuiltIns {
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    // Only assigned when doInitialize() has completed, so that other threads never see descriptors which are not resolved yet
     private static volatile KotlinBuiltIns instance = null;
 
+    // The instance being initialized, for calls to getInstance() from doInitialize(). Guarded by the lock on KotlinBuiltIns.class
+    private static KotlinBuiltIns initializingInstance = null;
+
     private static volatile boolean initializing;
     private static Throwable initializationFailed;
 
@@ -64,14 +68,17 @@ public class KotlinBuiltIns {
             }
             initializing = true;
             try {
-                instance = new KotlinBuiltIns();
-                instance.doInitialize();
+                KotlinBuiltIns builtIns = new KotlinBuiltIns();
+                initializingInstance = builtIns;
+                builtIns.doInitialize();
+                instance = builtIns;
             }
             catch (Throwable e) {
                 initializationFailed = e;
                 throw new RuntimeException("builtin library initialization failed: " + e, e);
             }
             finally {
+                initializingInstance = null;
                 initializing = false;
             }
         }
@@ -81,8 +88,11 @@ public class KotlinBuiltIns {
     public static KotlinBuiltIns getInstance() {
         if (initializing) {
             synchronized (KotlinBuiltIns.class) {
-                assert instance != null : "Built-ins are not initialized (note: We are under the same lock as initializing and instance)";
-                return instance;
+                // The lock is held by initialize() for the whole initialization, so if there's an instance being initialized,
+                // this is a re-entrant call from doInitialize(). Otherwise the initialization has finished while we were waiting
+                if (initializingInstance != null) {
+                    return initializingInstance;
+                }
             }
         }
         if (instance == null) {
@@ -105,6 +115,67 @@ public class KotlinBuiltIns {
 
     private final FqNames fqNames = new FqNames();
 
+    // Descriptors and types below are resolved once in doInitialize() and never change afterwards.
+    // They can't be computed in the constructor, because resolving them may need the instance of built-ins
+
+    private ClassDescriptor anyClass;
+    private ClassDescriptor nothingClass;
+    private ClassDescriptor arrayClass;
+    private ClassDescriptor numberClass;
+    private ClassDescriptor unitClass;
+    private ClassDescriptor stringClass;
+    private ClassDescriptor charSequenceClass;
+    private ClassDescriptor throwableClass;
+    private ClassDescriptor cloneableClass;
+    private ClassDescriptor comparableClass;
+    private ClassDescriptor enumClass;
+    private ClassDescriptor annotationClass;
+    private ClassDescriptor propertyMetadataClass;
+    private ClassDescriptor propertyMetadataImplClass;
+
+    private ClassDescriptor iteratorClass;
+    private ClassDescriptor iterableClass;
+    private ClassDescriptor collectionClass;
+    private ClassDescriptor listClass;
+    private ClassDescriptor listIteratorClass;
+    private ClassDescriptor setClass;
+    private ClassDescriptor mapClass;
+    private ClassDescriptor mapEntryClass;
+    private ClassDescriptor mutableIteratorClass;
+    private ClassDescriptor mutableIterableClass;
+    private ClassDescriptor mutableCollectionClass;
+    private ClassDescriptor mutableListClass;
+    private ClassDescriptor mutableListIteratorClass;
+    private ClassDescriptor mutableSetClass;
+    private ClassDescriptor mutableMapClass;
+    private ClassDescriptor mutableMapEntryClass;
+
+    private ClassDescriptor dataAnnotationClass;
+    private ClassDescriptor noinlineAnnotationClass;
+    private ClassDescriptor inlineAnnotationClass;
+    private ClassDescriptor inlineOptionsAnnotationClass;
+    private ClassDescriptor tailRecursiveAnnotationClass;
+    private ClassDescriptor deprecatedAnnotationClass;
+
+    private Set<DeclarationDescriptor> integralRanges;
+
+    // Indexed by PrimitiveType.ordinal()
+    private ClassDescriptor[] primitiveClasses;
+    private ClassDescriptor[] primitiveArrayClasses;
+    private JetType[] primitiveTypes;
+
+    // Indexed by the number of parameters
+    private ClassDescriptor[] functionClasses;
+    private ClassDescriptor[] extensionFunctionClasses;
+
+    private JetType anyType;
+    private JetType nullableAnyType;
+    private JetType nothingType;
+    private JetType nullableNothingType;
+    private JetType unitType;
+    private JetType stringType;
+    private JetType annotationType;
+
     private KotlinBuiltIns() {
         builtInsModule = new ModuleDescriptorImpl(
                 Name.special("<built-ins lazy module>"), Collections.<ImportPath>emptyList(), PlatformToKotlinClassMap.EMPTY
@@ -131,6 +202,10 @@ public class KotlinBuiltIns {
     }
 
     private void doInitialize() {
+        // Only look up classes first: they are needed to compute any of the types below
+        initializeClasses();
+        initializeTypes();
+
         for (PrimitiveType primitive : PrimitiveType.values()) {
             makePrimitive(primitive);
         }
@@ -138,9 +213,95 @@ public class KotlinBuiltIns {
         computeNonPhysicalClasses();
     }
 
+    private void initializeClasses() {
+        anyClass = getBuiltInClassByName("Any");
+        nothingClass = getBuiltInClassByName("Nothing");
+        arrayClass = getBuiltInClassByName("Array");
+        numberClass = getBuiltInClassByName("Number");
+        unitClass = getBuiltInClassByName("Unit");
+        stringClass = getBuiltInClassByName("String");
+        charSequenceClass = getBuiltInClassByName("CharSequence");
+        throwableClass = getBuiltInClassByName("Throwable");
+        cloneableClass = getBuiltInClassByName("Cloneable");
+        comparableClass = getBuiltInClassByName("Comparable");
+        enumClass = getBuiltInClassByName("Enum");
+        annotationClass = getBuiltInClassByName("Annotation");
+        propertyMetadataClass = getBuiltInClassByName("PropertyMetadata");
+        propertyMetadataImplClass = getBuiltInClassByName("PropertyMetadataImpl");
+
+        iteratorClass = getBuiltInClassByName("Iterator");
+        iterableClass = getBuiltInClassByName("Iterable");
+        collectionClass = getBuiltInClassByName("Collection");
+        listClass = getBuiltInClassByName("List");
+        listIteratorClass = getBuiltInClassByName("ListIterator");
+        setClass = getBuiltInClassByName("Set");
+        mapClass = getBuiltInClassByName("Map");
+        mapEntryClass = getInnerClassByName(mapClass, "Entry");
+        mutableIteratorClass = getBuiltInClassByName("MutableIterator");
+        mutableIterableClass = getBuiltInClassByName("MutableIterable");
+        mutableCollectionClass = getBuiltInClassByName("MutableCollection");
+        mutableListClass = getBuiltInClassByName("MutableList");
+        mutableListIteratorClass = getBuiltInClassByName("MutableListIterator");
+        mutableSetClass = getBuiltInClassByName("MutableSet");
+        mutableMapClass = getBuiltInClassByName("MutableMap");
+        mutableMapEntryClass = getInnerClassByName(mutableMapClass, "MutableEntry");
+
+        dataAnnotationClass = getBuiltInClassByName("data");
+        noinlineAnnotationClass = getBuiltInClassByName("noinline");
+        inlineAnnotationClass = getBuiltInClassByName("inline");
+        inlineOptionsAnnotationClass = getBuiltInClassByName("inlineOptions");
+        tailRecursiveAnnotationClass = getBuiltInClassByName("tailRecursive");
+        deprecatedAnnotationClass = getBuiltInClassByName("deprecated");
+
+        integralRanges = Collections.unmodifiableSet(KotlinPackage.<DeclarationDescriptor>setOf(
+                getBuiltInClassByName("ByteRange"),
+                getBuiltInClassByName("ShortRange"),
+                getBuiltInClassByName("CharRange"),
+                getBuiltInClassByName("IntRange")
+        ));
+
+        PrimitiveType[] primitives = PrimitiveType.values();
+        primitiveClasses = new ClassDescriptor[primitives.length];
+        primitiveArrayClasses = new ClassDescriptor[primitives.length];
+        for (PrimitiveType primitive : primitives) {
+            primitiveClasses[primitive.ordinal()] = getBuiltInClassByName(primitive.getTypeName());
+            primitiveArrayClasses[primitive.ordinal()] = getBuiltInClassByName(primitive.getArrayTypeName());
+        }
+
+        functionClasses = new ClassDescriptor[FUNCTION_TRAIT_COUNT];
+        extensionFunctionClasses = new ClassDescriptor[FUNCTION_TRAIT_COUNT];
+        for (int i = 0; i < FUNCTION_TRAIT_COUNT; i++) {
+            functionClasses[i] = getBuiltInClassByName("Function" + i);
+            extensionFunctionClasses[i] = getBuiltInClassByName("ExtensionFunction" + i);
+        }
+    }
+
+    private void initializeTypes() {
+        anyType = anyClass.getDefaultType();
+        nullableAnyType = TypeUtils.makeNullable(anyType);
+        nothingType = nothingClass.getDefaultType();
+        nullableNothingType = TypeUtils.makeNullable(nothingType);
+        unitType = unitClass.getDefaultType();
+        stringType = stringClass.getDefaultType();
+        annotationType = annotationClass.getDefaultType();
+
+        PrimitiveType[] primitives = PrimitiveType.values();
+        primitiveTypes = new JetType[primitives.length];
+        for (PrimitiveType primitive : primitives) {
+            primitiveTypes[primitive.ordinal()] = primitiveClasses[primitive.ordinal()].getDefaultType();
+        }
+    }
+
+    @NotNull
+    private static ClassDescriptor getInnerClassByName(@NotNull ClassDescriptor outerClass, @NotNull String name) {
+        ClassDescriptor classDescriptor = DescriptorUtils.getInnerClassByName(outerClass, name);
+        assert classDescriptor != null : "Can't find " + outerClass.getName() + "." + name;
+        return classDescriptor;
+    }
+
     private void makePrimitive(@NotNull PrimitiveType primitiveType) {
-        JetType type = getBuiltInTypeByClassName(primitiveType.getTypeName().asString());
-        JetType arrayType = getBuiltInTypeByClassName(primitiveType.getArrayTypeName().asString());
+        JetType type = getPrimitiveJetType(primitiveType);
+        JetType arrayType = getPrimitiveArrayClassDescriptor(primitiveType).getDefaultType();
 
         primitiveTypeToNullableJetType.put(primitiveType, TypeUtils.makeNullable(type));
         primitiveTypeToArrayJetType.put(primitiveType, arrayType);
@@ -211,19 +372,19 @@ public class KotlinBuiltIns {
 
     @NotNull
     public ClassDescriptor getAny() {
-        return getBuiltInClassByName("Any");
+        return anyClass;
     }
 
     @NotNull
     public ClassDescriptor getNothing() {
-        return getBuiltInClassByName("Nothing");
+        return nothingClass;
     }
 
     // Primitive
 
     @NotNull
     public ClassDescriptor getPrimitiveClassDescriptor(@NotNull PrimitiveType type) {
-        return getBuiltInClassByName(type.getTypeName().asString());
+        return primitiveClasses[type.ordinal()];
     }
 
     @NotNull
@@ -270,191 +431,188 @@ public class KotlinBuiltIns {
 
     @NotNull
     public Set<DeclarationDescriptor> getIntegralRanges() {
-        return KotlinPackage.<DeclarationDescriptor>setOf(
-                getBuiltInClassByName("ByteRange"),
-                getBuiltInClassByName("ShortRange"),
-                getBuiltInClassByName("CharRange"),
-                getBuiltInClassByName("IntRange")
-        );
+        return integralRanges;
     }
 
     @NotNull
     public ClassDescriptor getArray() {
-        return getBuiltInClassByName("Array");
+        return arrayClass;
     }
 
     @NotNull
     public ClassDescriptor getPrimitiveArrayClassDescriptor(@NotNull PrimitiveType type) {
-        return getBuiltInClassByName(type.getArrayTypeName().asString());
+        return primitiveArrayClasses[type.ordinal()];
     }
 
     @NotNull
     public ClassDescriptor getNumber() {
-        return getBuiltInClassByName("Number");
+        return numberClass;
     }
 
     @NotNull
     public ClassDescriptor getUnit() {
-        return getBuiltInClassByName("Unit");
+        return unitClass;
     }
 
     @NotNull
     public ClassDescriptor getFunction(int parameterCount) {
-        return getBuiltInClassByName("Function" + parameterCount);
+        if (parameterCount < 0 || parameterCount >= FUNCTION_TRAIT_COUNT) {
+            return getBuiltInClassByName("Function" + parameterCount);
+        }
+        return functionClasses[parameterCount];
     }
 
     @NotNull
     public ClassDescriptor getExtensionFunction(int parameterCount) {
-        return getBuiltInClassByName("ExtensionFunction" + parameterCount);
+        if (parameterCount < 0 || parameterCount >= FUNCTION_TRAIT_COUNT) {
+            return getBuiltInClassByName("ExtensionFunction" + parameterCount);
+        }
+        return extensionFunctionClasses[parameterCount];
     }
 
     @NotNull
     public ClassDescriptor getThrowable() {
-        return getBuiltInClassByName("Throwable");
+        return throwableClass;
     }
 
     @NotNull
     public ClassDescriptor getCloneable() {
-        return getBuiltInClassByName("Cloneable");
+        return cloneableClass;
     }
 
     @NotNull
     public ClassDescriptor getDataClassAnnotation() {
-        return getBuiltInClassByName("data");
+        return dataAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getNoinlineClassAnnotation() {
-        return getBuiltInClassByName("noinline");
+        return noinlineAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getInlineClassAnnotation() {
-        return getBuiltInClassByName("inline");
+        return inlineAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getInlineOptionsClassAnnotation() {
-        return getBuiltInClassByName("inlineOptions");
+        return inlineOptionsAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getTailRecursiveAnnotationClass() {
-        return getBuiltInClassByName("tailRecursive");
+        return tailRecursiveAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getDeprecatedAnnotation() {
-        return getBuiltInClassByName("deprecated");
+        return deprecatedAnnotationClass;
     }
 
     @NotNull
     public ClassDescriptor getString() {
-        return getBuiltInClassByName("String");
+        return stringClass;
     }
 
     @NotNull
     public ClassDescriptor getCharSequence() {
-        return getBuiltInClassByName("CharSequence");
+        return charSequenceClass;
     }
 
     @NotNull
     public ClassDescriptor getComparable() {
-        return getBuiltInClassByName("Comparable");
+        return comparableClass;
     }
 
     @NotNull
     public ClassDescriptor getEnum() {
-        return getBuiltInClassByName("Enum");
+        return enumClass;
     }
 
     @NotNull
     public ClassDescriptor getAnnotation() {
-        return getBuiltInClassByName("Annotation");
+        return annotationClass;
     }
 
     @NotNull
     public ClassDescriptor getIterator() {
-        return getBuiltInClassByName("Iterator");
+        return iteratorClass;
     }
 
     @NotNull
     public ClassDescriptor getIterable() {
-        return getBuiltInClassByName("Iterable");
+        return iterableClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableIterable() {
-        return getBuiltInClassByName("MutableIterable");
+        return mutableIterableClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableIterator() {
-        return getBuiltInClassByName("MutableIterator");
+        return mutableIteratorClass;
     }
 
     @NotNull
     public ClassDescriptor getCollection() {
-        return getBuiltInClassByName("Collection");
+        return collectionClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableCollection() {
-        return getBuiltInClassByName("MutableCollection");
+        return mutableCollectionClass;
     }
 
     @NotNull
     public ClassDescriptor getList() {
-        return getBuiltInClassByName("List");
+        return listClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableList() {
-        return getBuiltInClassByName("MutableList");
+        return mutableListClass;
     }
 
     @NotNull
     public ClassDescriptor getSet() {
-        return getBuiltInClassByName("Set");
+        return setClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableSet() {
-        return getBuiltInClassByName("MutableSet");
+        return mutableSetClass;
     }
 
     @NotNull
     public ClassDescriptor getMap() {
-        return getBuiltInClassByName("Map");
+        return mapClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableMap() {
-        return getBuiltInClassByName("MutableMap");
+        return mutableMapClass;
     }
 
     @NotNull
     public ClassDescriptor getMapEntry() {
-        ClassDescriptor classDescriptor = DescriptorUtils.getInnerClassByName(getMap(), "Entry");
-        assert classDescriptor != null : "Can't find Map.Entry";
-        return classDescriptor;
+        return mapEntryClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableMapEntry() {
-        ClassDescriptor classDescriptor = DescriptorUtils.getInnerClassByName(getMutableMap(), "MutableEntry");
-        assert classDescriptor != null : "Can't find MutableMap.MutableEntry";
-        return classDescriptor;
+        return mutableMapEntryClass;
     }
 
     @NotNull
     public ClassDescriptor getListIterator() {
-        return getBuiltInClassByName("ListIterator");
+        return listIteratorClass;
     }
 
     @NotNull
     public ClassDescriptor getMutableListIterator() {
-        return getBuiltInClassByName("MutableListIterator");
+        return mutableListIteratorClass;
     }
 
     /**
@@ -514,38 +672,33 @@ public class KotlinBuiltIns {
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    @NotNull
-    private JetType getBuiltInTypeByClassName(@NotNull String classSimpleName) {
-        return getBuiltInClassByName(classSimpleName).getDefaultType();
-    }
-
     // Special
 
     @NotNull
     public JetType getNothingType() {
-        return getNothing().getDefaultType();
+        return nothingType;
     }
 
     @NotNull
     public JetType getNullableNothingType() {
-        return TypeUtils.makeNullable(getNothingType());
+        return nullableNothingType;
     }
 
     @NotNull
     public JetType getAnyType() {
-        return getAny().getDefaultType();
+        return anyType;
     }
 
     @NotNull
     public JetType getNullableAnyType() {
-        return TypeUtils.makeNullable(getAnyType());
+        return nullableAnyType;
     }
 
     // Primitive
 
     @NotNull
     public JetType getPrimitiveJetType(@NotNull PrimitiveType type) {
-        return getPrimitiveClassDescriptor(type).getDefaultType();
+        return primitiveTypes[type.ordinal()];
     }
 
     @NotNull
@@ -597,17 +750,17 @@ public class KotlinBuiltIns {
 
     @NotNull
     public JetType getUnitType() {
-        return getUnit().getDefaultType();
+        return unitType;
     }
 
     @NotNull
     public JetType getStringType() {
-        return getString().getDefaultType();
+        return stringType;
     }
 
     @NotNull
     public JetType getArrayElementType(@NotNull JetType arrayType) {
-        if (arrayType.getConstructor().getDeclarationDescriptor() == getArray()) {
+        if (arrayType.getConstructor().getDeclarationDescriptor() == arrayClass) {
             if (arrayType.getArguments().size() != 1) {
                 throw new IllegalStateException();
             }
@@ -665,17 +818,17 @@ public class KotlinBuiltIns {
 
     @NotNull
     public JetType getAnnotationType() {
-        return getAnnotation().getDefaultType();
+        return annotationType;
     }
 
     @NotNull
     public ClassDescriptor getPropertyMetadata() {
-        return getBuiltInClassByName("PropertyMetadata");
+        return propertyMetadataClass;
     }
 
     @NotNull
     public ClassDescriptor getPropertyMetadataImpl() {
-        return getBuiltInClassByName("PropertyMetadataImpl");
+        return propertyMetadataImplClass;
     }
 
     @NotNull
@@ -721,7 +874,7 @@ public class KotlinBuiltIns {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public boolean isArray(@NotNull JetType type) {
-        return getArray().equals(type.getConstructor().getDeclarationDescriptor());
+        return arrayClass.equals(type.getConstructor().getDeclarationDescriptor());
     }
 
     public boolean isPrimitiveArray(@NotNull JetType type) {
@@ -846,19 +999,19 @@ public class KotlinBuiltIns {
     }
 
     public boolean isNothingOrNullableNothing(@NotNull JetType type) {
-        return type.getConstructor() == getNothing().getTypeConstructor();
+        return type.getConstructor() == nothingClass.getTypeConstructor();
     }
 
     public boolean isAnyOrNullableAny(@NotNull JetType type) {
-        return type.getConstructor() == getAny().getTypeConstructor();
+        return type.getConstructor() == anyClass.getTypeConstructor();
     }
 
     public boolean isUnit(@NotNull JetType type) {
-        return type.equals(getUnitType());
+        return type.equals(unitType);
     }
 
     public boolean isString(@Nullable JetType type) {
-        return getStringType().equals(type);
+        return stringType.equals(type);
     }
 
     public boolean isCloneable(@NotNull ClassDescriptor descriptor) {
@@ -87,6 +87,11 @@ public interface DescriptorRenderer extends Renderer<DeclarationDescriptor> {
     @NotNull
     String renderType(@NotNull JetType type);
 
+    /**
+     * Appends the same text {@link #renderType(JetType)} returns, without creating intermediate strings where possible
+     */
+    void appendType(@NotNull JetType type, @NotNull StringBuilder builder);
+
     @NotNull
     String renderTypeArguments(@NotNull List<TypeProjection> typeArguments);
 
@@ -97,6 +102,11 @@ public interface DescriptorRenderer extends Renderer<DeclarationDescriptor> {
     @Override
     String render(@NotNull DeclarationDescriptor declarationDescriptor);
 
+    /**
+     * Appends the same text {@link #render(DeclarationDescriptor)} returns
+     */
+    void appendDescriptor(@NotNull DeclarationDescriptor declarationDescriptor, @NotNull StringBuilder builder);
+
     @NotNull
     String renderFunctionParameters(@NotNull FunctionDescriptor functionDescriptor);
 
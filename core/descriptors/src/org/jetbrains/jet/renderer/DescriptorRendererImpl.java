@@ -306,57 +306,93 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
         return renderNormalizedType(typeNormalizer.invoke(type));
     }
 
+    @Override
+    public void appendType(@NotNull JetType type, @NotNull StringBuilder builder) {
+        appendNormalizedType(typeNormalizer.invoke(type), builder);
+    }
+
+    private void appendEscapedType(@NotNull JetType type, @NotNull StringBuilder builder) {
+        if (textFormat == TextFormat.PLAIN) {
+            appendType(type, builder);
+        }
+        else {
+            builder.append(escape(renderType(type)));
+        }
+    }
+
     @NotNull
     private String renderNormalizedType(@NotNull JetType type) {
+        StringBuilder builder = new StringBuilder();
+        appendNormalizedType(type, builder);
+        return builder.toString();
+    }
+
+    private void appendNormalizedType(@NotNull JetType type, @NotNull StringBuilder builder) {
         if (type instanceof LazyType && debugMode) {
-            return type.toString();
+            builder.append(type.toString());
         }
-        if (TypesPackage.isDynamic(type)) {
-            return "dynamic";
+        else if (TypesPackage.isDynamic(type)) {
+            builder.append("dynamic");
         }
-        if (TypesPackage.isFlexible(type)) {
+        else if (TypesPackage.isFlexible(type)) {
             if (debugMode) {
-                return renderFlexibleTypeWithBothBounds(TypesPackage.flexibility(type).getLowerBound(),
-                                                        TypesPackage.flexibility(type).getUpperBound());
+                appendFlexibleTypeWithBothBounds(TypesPackage.flexibility(type).getLowerBound(),
+                                                 TypesPackage.flexibility(type).getUpperBound(), builder);
             }
             else if (flexibleTypesForCode) {
-                String prefix = shortNames ? "" : Flexibility.FLEXIBLE_TYPE_CLASSIFIER.getPackageFqName().asString() + ".";
-                return prefix + Flexibility.FLEXIBLE_TYPE_CLASSIFIER.getRelativeClassName()
-                       + lt()
-                       + renderNormalizedType(TypesPackage.flexibility(type).getLowerBound()) + ", "
-                       + renderNormalizedType(TypesPackage.flexibility(type).getUpperBound())
-                       + gt();
+                if (!shortNames) {
+                    builder.append(Flexibility.FLEXIBLE_TYPE_CLASSIFIER.getPackageFqName().asString()).append(".");
+                }
+                builder.append(Flexibility.FLEXIBLE_TYPE_CLASSIFIER.getRelativeClassName()).append(lt());
+                appendNormalizedType(TypesPackage.flexibility(type).getLowerBound(), builder);
+                builder.append(", ");
+                appendNormalizedType(TypesPackage.flexibility(type).getUpperBound(), builder);
+                builder.append(gt());
             }
             else {
-                return renderFlexibleType(type);
+                builder.append(renderFlexibleType(type));
             }
         }
-        return renderInflexibleType(type);
+        else {
+            appendInflexibleType(type, builder);
+        }
     }
 
-    private String renderFlexibleTypeWithBothBounds(@NotNull JetType lower, @NotNull JetType upper) {
-        return "(" + renderNormalizedType(lower) + ".." + renderNormalizedType(upper) + ")";
+    private void appendFlexibleTypeWithBothBounds(@NotNull JetType lower, @NotNull JetType upper, @NotNull StringBuilder builder) {
+        builder.append("(");
+        appendNormalizedType(lower, builder);
+        builder.append("..");
+        appendNormalizedType(upper, builder);
+        builder.append(")");
     }
 
+    @NotNull
     private String renderInflexibleType(@NotNull JetType type) {
+        StringBuilder builder = new StringBuilder();
+        appendInflexibleType(type, builder);
+        return builder.toString();
+    }
+
+    private void appendInflexibleType(@NotNull JetType type, @NotNull StringBuilder builder) {
         assert !TypesPackage.isFlexible(type) : "Flexible types not allowed here: " + renderNormalizedType(type);
 
         if (type == CANT_INFER_LAMBDA_PARAM_TYPE || TypeUtils.isDontCarePlaceholder(type)) {
-            return "???";
+            builder.append("???");
         }
-        if (ErrorUtils.isUninferredParameter(type)) {
+        else if (ErrorUtils.isUninferredParameter(type)) {
             if (uninferredTypeParameterAsName) {
-                return renderError(((UninferredParameterTypeConstructor) type.getConstructor()).getTypeParameterDescriptor().getName().toString());
+                builder.append(renderError(((UninferredParameterTypeConstructor) type.getConstructor()).getTypeParameterDescriptor().getName().toString()));
+            }
+            else {
+                builder.append("???");
             }
-            return "???";
         }
-        if (type.isError()) {
-            return renderDefaultType(type);
+        else if (!type.isError() && shouldRenderAsPrettyFunctionType(type)) {
+            appendFunctionType(type, builder);
         }
-        if (shouldRenderAsPrettyFunctionType(type)) {
-            return renderFunctionType(type);
+        else {
+            appendDefaultType(type, builder);
         }
-        return renderDefaultType(type);
     }
 
     private boolean shouldRenderAsPrettyFunctionType(@NotNull JetType type) {
@@ -399,7 +435,9 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
                 kotlinPrefix + escape("Array<(out) ")
         );
         if (array != null) return array;
-        return renderFlexibleTypeWithBothBounds(lower, upper);
+        StringBuilder builder = new StringBuilder();
+        appendFlexibleTypeWithBothBounds(lower, upper, builder);
+        return builder.toString();
     }
 
     @Nullable
@@ -429,27 +467,28 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
     public String renderTypeArguments(@NotNull List<TypeProjection> typeArguments) {
         if (typeArguments.isEmpty()) return "";
         StringBuilder sb = new StringBuilder();
-        sb.append(lt());
-        appendTypeProjections(typeArguments, sb);
-        sb.append(gt());
+        appendTypeArguments(typeArguments, sb);
         return sb.toString();
     }
 
-    @NotNull
-    private String renderDefaultType(@NotNull JetType type) {
-        StringBuilder sb = new StringBuilder();
+    private void appendTypeArguments(@NotNull List<TypeProjection> typeArguments, @NotNull StringBuilder builder) {
+        if (typeArguments.isEmpty()) return;
+        builder.append(lt());
+        appendTypeProjections(typeArguments, builder);
+        builder.append(gt());
+    }
 
+    private void appendDefaultType(@NotNull JetType type, @NotNull StringBuilder builder) {
         if (type.isError()) {
-            sb.append(type.getConstructor().toString()); // Debug name of an error type is more informative
+            builder.append(type.getConstructor().toString()); // Debug name of an error type is more informative
         }
         else {
-            sb.append(renderTypeName(type.getConstructor()));
+            builder.append(renderTypeName(type.getConstructor()));
         }
-        sb.append(renderTypeArguments(type.getArguments()));
+        appendTypeArguments(type.getArguments(), builder);
         if (type.isNullable()) {
-            sb.append("?");
+            builder.append("?");
         }
-        return sb.toString();
     }
 
     @NotNull
@@ -473,32 +512,32 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
             if (typeProjection.getProjectionKind() != Variance.INVARIANT) {
                 builder.append(typeProjection.getProjectionKind()).append(" ");
             }
-            builder.append(renderNormalizedType(typeProjection.getType()));
+            appendNormalizedType(typeProjection.getType(), builder);
             if (iterator.hasNext()) {
                 builder.append(", ");
             }
         }
     }
 
-    @NotNull
-    private String renderFunctionType(@NotNull JetType type) {
-        StringBuilder sb = new StringBuilder();
+    private void appendFunctionType(@NotNull JetType type, @NotNull StringBuilder builder) {
+        if (type.isNullable()) {
+            builder.append("(");
+        }
 
         JetType receiverType = KotlinBuiltIns.getInstance().getReceiverType(type);
         if (receiverType != null) {
-            sb.append(renderNormalizedType(receiverType));
-            sb.append(".");
+            appendNormalizedType(receiverType, builder);
+            builder.append(".");
         }
 
-        sb.append("(");
-        appendTypeProjections(KotlinBuiltIns.getInstance().getParameterTypeProjectionsFromFunctionType(type), sb);
-        sb.append(") ").append(arrow()).append(" ");
-        sb.append(renderNormalizedType(KotlinBuiltIns.getInstance().getReturnTypeFromFunctionType(type)));
+        builder.append("(");
+        appendTypeProjections(KotlinBuiltIns.getInstance().getParameterTypeProjectionsFromFunctionType(type), builder);
+        builder.append(") ").append(arrow()).append(" ");
+        appendNormalizedType(KotlinBuiltIns.getInstance().getReturnTypeFromFunctionType(type), builder);
 
         if (type.isNullable()) {
-            return "(" + sb + ")?";
+            builder.append(")?");
         }
-        return sb.toString();
     }
 
 
@@ -536,7 +575,7 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
     @NotNull
     public String renderAnnotation(@NotNull AnnotationDescriptor annotation) {
         StringBuilder sb = new StringBuilder();
-        sb.append(renderType(annotation.getType()));
+        appendType(annotation.getType(), sb);
         if (verbose) {
             sb.append("(").append(UtilsPackage.join(renderAndSortAnnotationArguments(annotation), ", ")).append(")");
         }
@@ -652,12 +691,17 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
     @Override
     public String render(@NotNull DeclarationDescriptor declarationDescriptor) {
         StringBuilder stringBuilder = new StringBuilder();
-        declarationDescriptor.accept(new RenderDeclarationDescriptorVisitor(), stringBuilder);
+        appendDescriptor(declarationDescriptor, stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public void appendDescriptor(@NotNull DeclarationDescriptor declarationDescriptor, @NotNull StringBuilder builder) {
+        declarationDescriptor.accept(new RenderDeclarationDescriptorVisitor(), builder);
 
         if (withDefinedIn) {
-            appendDefinedIn(declarationDescriptor, stringBuilder);
+            appendDefinedIn(declarationDescriptor, builder);
         }
-        return stringBuilder.toString();
     }
 
 
@@ -683,7 +727,8 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
         if ((upperBoundsCount > 1 && !topLevel) || upperBoundsCount == 1) {
             JetType upperBound = typeParameter.getUpperBounds().iterator().next();
             if (!KotlinBuiltIns.getInstance().getDefaultBound().equals(upperBound)) {
-                builder.append(" : ").append(renderType(upperBound));
+                builder.append(" : ");
+                appendType(upperBound, builder);
             }
         }
         else if (topLevel) {
@@ -698,7 +743,7 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
                 else {
                     builder.append(" & ");
                 }
-                builder.append(renderType(upperBound));
+                appendType(upperBound, builder);
                 first = false;
             }
         }
@@ -756,7 +801,13 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
 
         JetType returnType = function.getReturnType();
         if (unitReturnType || (returnType == null || !KotlinBuiltIns.getInstance().isUnit(returnType))) {
-            builder.append(": ").append(returnType == null ? "[NULL]" : escape(renderType(returnType)));
+            builder.append(": ");
+            if (returnType == null) {
+                builder.append("[NULL]");
+            }
+            else {
+                appendEscapedType(returnType, builder);
+            }
         }
 
         renderWhereSuffix(function.getTypeParameters(), builder);
@@ -767,7 +818,8 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
 
         ReceiverParameterDescriptor receiver = callableDescriptor.getExtensionReceiverParameter();
         if (receiver != null) {
-            builder.append(" on ").append(escape(renderType(receiver.getType())));
+            builder.append(" on ");
+            appendEscapedType(receiver.getType(), builder);
         }
     }
 
@@ -883,12 +935,14 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
             builder.append(": ");
         }
 
-        builder.append(escape(renderType(typeToRender)));
+        appendEscapedType(typeToRender, builder);
 
         renderInitializer(variable, builder);
 
         if (verbose && varargElementType != null) {
-            builder.append(" /*").append(escape(renderType(realType))).append("*/");
+            builder.append(" /*");
+            appendEscapedType(realType, builder);
+            builder.append("*/");
         }
     }
 
@@ -905,7 +959,8 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
         }
 
         renderName(property, builder);
-        builder.append(": ").append(escape(renderType(property.getType())));
+        builder.append(": ");
+        appendEscapedType(property.getType(), builder);
 
         renderReceiverAfterName(property, builder);
 
@@ -972,7 +1027,7 @@ public class DescriptorRendererImpl implements DescriptorRenderer {
                 builder.append(": ");
                 for (Iterator<JetType> iterator = supertypes.iterator(); iterator.hasNext(); ) {
                     JetType supertype = iterator.next();
-                    builder.append(renderType(supertype));
+                    appendType(supertype, builder);
                     if (iterator.hasNext()) {
                         builder.append(", ");
                     }
@@ -43,21 +43,29 @@ class KClassImpl<T>(val jClass: Class<T>, isKnownToBeKotlin: Boolean) : KClass<T
                 // TODO: built-in classes
             }
 
+    // Properties are cached because their construction involves reflective lookup of the corresponding fields and methods
+    private val properties = MemberCache<String, KMemberProperty<T, *>>()
+    private val mutableProperties = MemberCache<String, KMutableMemberProperty<T, *>>()
+
     fun memberProperty(name: String): KMemberProperty<T, *> =
-            if (origin identityEquals KClassOrigin.KOTLIN) {
-                KMemberPropertyImpl<T, Any>(name, this)
-            }
-            else {
-                KForeignMemberProperty<T, Any>(name, this)
-            }
+            properties[name] ?: properties.put(name,
+                    if (origin identityEquals KClassOrigin.KOTLIN) {
+                        KMemberPropertyImpl<T, Any>(name, this)
+                    }
+                    else {
+                        KForeignMemberProperty<T, Any>(name, this)
+                    }
+            )
 
     fun mutableMemberProperty(name: String): KMutableMemberProperty<T, *> =
-            if (origin identityEquals KClassOrigin.KOTLIN) {
-                KMutableMemberPropertyImpl<T, Any>(name, this)
-            }
-            else {
-                KMutableForeignMemberProperty<T, Any>(name, this)
-            }
+            mutableProperties[name] ?: mutableProperties.put(name,
+                    if (origin identityEquals KClassOrigin.KOTLIN) {
+                        KMutableMemberPropertyImpl<T, Any>(name, this)
+                    }
+                    else {
+                        KMutableForeignMemberProperty<T, Any>(name, this)
+                    }
+            )
 
     override fun equals(other: Any?): Boolean =
             other is KClassImpl<*> && jClass == other.jClass
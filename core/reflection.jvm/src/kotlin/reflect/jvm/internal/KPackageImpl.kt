@@ -22,6 +22,32 @@ import kotlin.jvm.internal.KotlinPackage
 private val KOTLIN_PACKAGE_ANNOTATION_CLASS = javaClassOf<KotlinPackage>()
 
 class KPackageImpl(val jClass: Class<*>) : KPackage {
+    // Properties are cached because their construction involves reflective lookup of the corresponding methods.
+    // Extension properties are additionally grouped by the receiver class, since there may be several of them with the same name.
+    // Groups are cached weakly, so that the package doesn't prevent receiver classes and their class loaders from being unloaded
+    private val variables = MemberCache<String, KTopLevelVariableImpl<Any?>>()
+    private val mutableVariables = MemberCache<String, KMutableTopLevelVariableImpl<Any?>>()
+    private val extensionProperties = ExtensionPropertyGroups<KTopLevelExtensionPropertyImpl<*, Any?>>()
+    private val mutableExtensionProperties = ExtensionPropertyGroups<KMutableTopLevelExtensionPropertyImpl<*, Any?>>()
+
+    fun topLevelVariable(name: String): KTopLevelVariableImpl<Any?> =
+            variables[name] ?: variables.put(name, KTopLevelVariableImpl<Any?>(name, this))
+
+    fun mutableTopLevelVariable(name: String): KMutableTopLevelVariableImpl<Any?> =
+            mutableVariables[name] ?: mutableVariables.put(name, KMutableTopLevelVariableImpl<Any?>(name, this))
+
+    fun <T> topLevelExtensionProperty(name: String, receiver: Class<T>): KTopLevelExtensionPropertyImpl<T, Any?> {
+        val group = extensionProperties.get(receiver)
+        return (group.properties[name] ?: group.properties.put(name, KTopLevelExtensionPropertyImpl<T, Any?>(name, this, receiver, group)))
+                as KTopLevelExtensionPropertyImpl<T, Any?>
+    }
+
+    fun <T> mutableTopLevelExtensionProperty(name: String, receiver: Class<T>): KMutableTopLevelExtensionPropertyImpl<T, Any?> {
+        val group = mutableExtensionProperties.get(receiver)
+        return (group.properties[name] ?: group.properties.put(name, KMutableTopLevelExtensionPropertyImpl<T, Any?>(name, this, receiver, group)))
+                as KMutableTopLevelExtensionPropertyImpl<T, Any?>
+    }
+
     override fun equals(other: Any?): Boolean =
             other is KPackageImpl && jClass == other.jClass
 
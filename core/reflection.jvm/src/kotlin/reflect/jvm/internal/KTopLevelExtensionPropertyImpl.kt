@@ -22,7 +22,10 @@ import kotlin.reflect.*
 open class KTopLevelExtensionPropertyImpl<T, out R>(
         override val name: String,
         protected val owner: KPackageImpl,
-        protected val receiverClass: Class<T>
+        protected val receiverClass: Class<T>,
+        // The group this property is cached in by the owner. The owner references groups only weakly, so this reference is kept
+        // deliberately: the group and the other properties in it stay cached for as long as any of them is in use
+        private val cacheGroup: ExtensionPropertyGroup<*>
 ) : KTopLevelExtensionProperty<T, R>, KPropertyImpl<R> {
     override val field: Field? get() = null
 
@@ -57,8 +60,9 @@ open class KTopLevelExtensionPropertyImpl<T, out R>(
 class KMutableTopLevelExtensionPropertyImpl<T, R>(
         name: String,
         owner: KPackageImpl,
-        receiverClass: Class<T>
-) : KMutableTopLevelExtensionProperty<T, R>, KMutablePropertyImpl<R>, KTopLevelExtensionPropertyImpl<T, R>(name, owner, receiverClass) {
+        receiverClass: Class<T>,
+        cacheGroup: ExtensionPropertyGroup<*>
+) : KMutableTopLevelExtensionProperty<T, R>, KMutablePropertyImpl<R>, KTopLevelExtensionPropertyImpl<T, R>(name, owner, receiverClass, cacheGroup) {
     override val setter: Method = try {
         owner.jClass.getMethod(setterName(name), receiverClass, getter.getReturnType()!!)
     }
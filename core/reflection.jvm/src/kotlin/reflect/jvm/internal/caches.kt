@@ -0,0 +1,149 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kotlin.reflect.jvm.internal
+
+import java.lang.ref.WeakReference
+import kotlin.reflect.jvm.internal.pcollections.HashPMap
+
+// Maximum number of entries in any of the caches below. When this number is exceeded, the cache is simply started over,
+// which also gets rid of the references to the objects that have been collected
+private val MAX_CACHE_SIZE = 4096
+
+// A cache of reflection objects which correspond to Java classes. Class instances themselves are never retained, so the cache
+// does not prevent class loaders from being unloaded.
+// Key of the map is Class.getName(), each value is either a WeakReference<V> or an Array<WeakReference<V>>.
+// Arrays are needed because the same class can be loaded by different class loaders, which results in different Class instances.
+// The map is not volatile intentionally: we don't care if there's a data race on it and some objects will be lost.
+// We do care however about general performance on read access to it, thus no synchronization is done here whatsoever
+internal abstract class ClassCache<V : Any> {
+    private var map = HashPMap.empty<String, Any>()
+
+    protected abstract fun getJClass(value: V): Class<*>
+
+    protected abstract fun create(jClass: Class<*>): V
+
+    fun get(jClass: Class<*>): V {
+        val name = jClass.getName()
+        val cached = map[name]
+        if (cached is WeakReference<*>) {
+            val value = cached.get() as V?
+            if (value != null && getJClass(value) == jClass) {
+                return value
+            }
+            if (value == null) {
+                // The cached object has been collected, so it's safe to just replace it
+                return putSingle(name, jClass)
+            }
+        }
+        else if (cached != null) {
+            // If the cached value is not a weak reference, it's an array of weak references
+            cached as Array<WeakReference<V>>
+            for (ref in cached) {
+                val value = ref.get()
+                if (value != null && getJClass(value) == jClass) {
+                    return value
+                }
+            }
+
+            // This is the most unlikely case: we found a cached array of references of length at least 2 (can't be 1 because
+            // the single element would be cached instead), and none of those objects is the one we're looking for
+            val size = cached.size()
+            // Don't use Array constructor because it creates a lambda
+            val newArray = arrayOfNulls<WeakReference<V>>(size + 1)
+            // Don't use Arrays.copyOf because it works reflectively
+            System.arraycopy(cached, 0, newArray, 0, size)
+            val newValue = create(jClass)
+            newArray[size] = WeakReference(newValue)
+            put(name, newArray)
+            return newValue
+        }
+
+        if (cached == null) {
+            return putSingle(name, jClass)
+        }
+
+        // A single object for a class with the same name, but loaded by a different class loader
+        val newValue = create(jClass)
+        // Don't use arrayOf because it's not available without stdlib
+        val newArray = arrayOfNulls<WeakReference<V>>(2)
+        newArray[0] = cached as WeakReference<V>
+        newArray[1] = WeakReference(newValue)
+        put(name, newArray)
+        return newValue
+    }
+
+    private fun putSingle(name: String, jClass: Class<*>): V {
+        val newValue = create(jClass)
+        put(name, WeakReference(newValue))
+        return newValue
+    }
+
+    private fun put(name: String, value: Any) {
+        val current = map
+        map = (if (current.size() >= MAX_CACHE_SIZE) HashPMap.empty<String, Any>() else current).plus(name, value)
+    }
+}
+
+// A cache of reflection objects for members of a single class or package. The owner of such cache is always referenced
+// from the cached objects, so there's no need in weak references here: all of them are collected together.
+// The same rules regarding data races as in ClassCache apply here
+internal class MemberCache<K, V> {
+    private var map = HashPMap.empty<K, V>()
+
+    fun get(key: K): V? = map[key]
+
+    fun put(key: K, value: V): V {
+        val current = map
+        map = (if (current.size() >= MAX_CACHE_SIZE) HashPMap.empty<K, V>() else current).plus(key, value)
+        return value
+    }
+}
+
+// Extension properties of a package which have the same receiver class
+internal class ExtensionPropertyGroup<P>(val receiverClass: Class<*>) {
+    val properties = MemberCache<String, P>()
+}
+
+// Groups of extension properties of a package by the receiver class. Groups are referenced weakly, so that the package doesn't
+// prevent receiver classes and their class loaders from being unloaded; properties in a group reference it strongly instead
+internal class ExtensionPropertyGroups<P> : ClassCache<ExtensionPropertyGroup<P>>() {
+    override fun getJClass(value: ExtensionPropertyGroup<P>): Class<*> = value.receiverClass
+
+    override fun create(jClass: Class<*>): ExtensionPropertyGroup<P> = ExtensionPropertyGroup<P>(jClass)
+}
+
+private val K_CLASSES = object : ClassCache<KClassImpl<*>>() {
+    override fun getJClass(value: KClassImpl<*>): Class<*> = value.jClass
+
+    override fun create(jClass: Class<*>): KClassImpl<*> = KClassImpl(jClass, false)
+}
+
+private val K_PACKAGES = object : ClassCache<KPackageImpl>() {
+    override fun getJClass(value: KPackageImpl): Class<*> = value.jClass
+
+    override fun create(jClass: Class<*>): KPackageImpl = KPackageImpl(jClass)
+}
+
+fun <T> cachedKClass(jClass: Class<T>): KClassImpl<T> =
+        K_CLASSES.get(jClass) as KClassImpl<T>
+
+fun cachedKPackage(jClass: Class<*>): KPackageImpl =
+        K_PACKAGES.get(jClass)
+
+// This function is invoked on each reflection access to Java classes, properties, etc. Performance is critical here.
+fun <T> foreignKotlinClass(jClass: Class<T>): KClassImpl<T> =
+        cachedKClass(jClass)
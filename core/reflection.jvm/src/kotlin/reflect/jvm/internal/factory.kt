@@ -19,22 +19,22 @@ package kotlin.reflect.jvm.internal
 import kotlin.reflect.*
 
 fun <T> kClass(jClass: Class<T>): KClassImpl<T> =
-        KClassImpl<T>(jClass, false)
+        cachedKClass(jClass)
 
 fun <T> kClassFromKotlin(jClass: Class<T>): KClassImpl<T> =
         KClassImpl<T>(jClass, true)
 
 fun kPackage(jClass: Class<*>): KPackageImpl =
-        KPackageImpl(jClass)
+        cachedKPackage(jClass)
 
 fun topLevelVariable(name: String, owner: KPackageImpl): KTopLevelVariableImpl<Any?> =
-        KTopLevelVariableImpl<Any?>(name, owner)
+        owner.topLevelVariable(name)
 
 fun mutableTopLevelVariable(name: String, owner: KPackageImpl): KMutableTopLevelVariableImpl<Any?> =
-        KMutableTopLevelVariableImpl<Any?>(name, owner)
+        owner.mutableTopLevelVariable(name)
 
 fun <T> topLevelExtensionProperty(name: String, owner: KPackageImpl, receiver: Class<T>): KTopLevelExtensionPropertyImpl<T, Any?> =
-        KTopLevelExtensionPropertyImpl<T, Any?>(name, owner, receiver)
+        owner.topLevelExtensionProperty(name, receiver)
 
 fun <T> mutableTopLevelExtensionProperty(name: String, owner: KPackageImpl, receiver: Class<T>): KMutableTopLevelExtensionPropertyImpl<T, Any?> =
-        KMutableTopLevelExtensionPropertyImpl<T, Any?>(name, owner, receiver)
+        owner.mutableTopLevelExtensionProperty(name, receiver)
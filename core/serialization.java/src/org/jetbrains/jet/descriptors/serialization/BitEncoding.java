@@ -22,6 +22,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class BitEncoding {
+    // The first character of data encoded by encode8to8(). It can't be produced by the 7-bit encoding, so it tells them apart
+    private static final char MODE_8TO8_MARKER = '\u0100';
+
     private BitEncoding() {
     }
 
@@ -34,7 +37,15 @@ public class BitEncoding {
      */
     @NotNull
     public static String[] encodeBytes(@NotNull byte[] data) {
-        byte[] bytes = encode8to7(data);
+        return encode8to8(data);
+    }
+
+    /**
+     * The encoding used before {@link #encode8to8(byte[])}, only kept to decode data written with it
+     */
+    @NotNull
+    /*package*/ static String[] encode8to7(@NotNull byte[] data) {
+        byte[] bytes = encode8to7Bits(data);
         // Since 0x0 byte is encoded as two bytes in the Modified UTF-8 (0xc0 0x80) and zero is rather common to byte arrays, we increment
         // every byte by one modulo max byte value, so that the less common value 0x7f will be represented as two bytes instead.
         addModuloByte(bytes, 1);
@@ -59,7 +70,7 @@ public class BitEncoding {
      *     0123456# 7012345# 6701234# 5670123# 4567####
      */
     @NotNull
-    private static byte[] encode8to7(@NotNull byte[] data) {
+    private static byte[] encode8to7Bits(@NotNull byte[] data) {
         // ceil(data.length * 8 / 7)
         int resultLength = (data.length * 8 + 6) / 7;
         byte[] result = new byte[resultLength];
@@ -152,11 +163,61 @@ public class BitEncoding {
         return result.toArray(new String[result.size()]);
     }
 
+    /**
+     * Stores every byte of the data as one character in the range 0x0..0xff, after {@link #MODE_8TO8_MARKER}. In the Modified UTF-8 used
+     * in the constant pool such a character occupies one byte if it's in the range 0x1..0x7f and two bytes otherwise, and neither of these
+     * bytes is in the range 0xf0..0xff. Serialized data mostly consists of small numbers, so almost all bytes are stored as is,
+     * and decoding is just a copy. As in the 7-bit encoding, every byte is incremented by one modulo 0x100, so that 0x0 is not common.
+     */
+    @NotNull
+    /*package*/ static String[] encode8to8(@NotNull byte[] data) {
+        char[] chars = new char[data.length + 1];
+        chars[0] = MODE_8TO8_MARKER;
+        for (int i = 0, n = data.length; i < n; i++) {
+            chars[i + 1] = (char) ((data[i] + 1) & 0xff);
+        }
+        return splitCharsToStringArray(chars);
+    }
+
+    /**
+     * Converts a big char array into the array of strings, where each string, when written to the constant pool table in bytecode,
+     * produces a byte array of not more than MAX_UTF8_INFO_LENGTH
+     */
+    @NotNull
+    private static String[] splitCharsToStringArray(@NotNull char[] data) {
+        List<String> result = new ArrayList<String>(data.length / MAX_UTF8_INFO_LENGTH + 1);
+
+        // The offset where the currently processed string starts
+        int off = 0;
+
+        // The effective length the bytes of the current string would occupy in the constant pool table
+        int len = 0;
+
+        for (int i = 0, n = data.length; i < n; i++) {
+            int charLength = data[i] == 0 || data[i] > 0x7f ? 2 : 1;
+            if (len + charLength > MAX_UTF8_INFO_LENGTH) {
+                result.add(new String(data, off, i - off));
+                off = i;
+                len = 0;
+            }
+            len += charLength;
+        }
+
+        result.add(new String(data, off, data.length - off));
+
+        return result.toArray(new String[result.size()]);
+    }
+
     /**
      * Converts encoded array of {@code String} obtained by {@link BitEncoding#encodeBytes(byte[])} back to a byte array.
+     * Data written by either encoding is accepted.
      */
     @NotNull
     public static byte[] decodeBytes(@NotNull String[] data) {
+        if (data.length > 0 && !data[0].isEmpty() && data[0].charAt(0) == MODE_8TO8_MARKER) {
+            return decode8to8(data);
+        }
+
         byte[] bytes = combineStringArrayIntoBytes(data);
         // Adding 0x7f modulo max byte value is equivalent to subtracting 1 the same modulo, which is inverse to what happens in encodeBytes
         addModuloByte(bytes, 0x7f);
@@ -164,7 +225,36 @@ public class BitEncoding {
     }
 
     /**
-     * Combines the array of strings resulted from encodeBytes() into one long byte array
+     * Decodes the result of encode8to8() in one pass without any intermediate arrays
+     */
+    @NotNull
+    private static byte[] decode8to8(@NotNull String[] data) {
+        // The marker is not a part of the data
+        int resultLength = -1;
+        for (String s : data) {
+            assert s.length() <= MAX_UTF8_INFO_LENGTH : "Too long string: " + s.length();
+            resultLength += s.length();
+        }
+
+        byte[] result = new byte[resultLength];
+        int p = 0;
+        boolean isMarker = true;
+        for (String s : data) {
+            for (int i = 0, n = s.length(); i < n; i++) {
+                if (isMarker) {
+                    isMarker = false;
+                    continue;
+                }
+                // Subtracting one modulo 0x100 is inverse to what happens in encode8to8
+                result[p++] = (byte) (s.charAt(i) - 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Combines the array of strings resulted from encode8to7() into one long byte array
      */
     @NotNull
     private static byte[] combineStringArrayIntoBytes(@NotNull String[] data) {
@@ -14,10 +14,8 @@
  * limitations under the License.
  */
 
-package org.jetbrains.jet.utils.builtinsSerializer
+package org.jetbrains.jet.descriptors.serialization
 
-import org.jetbrains.jet.descriptors.serialization.DescriptorSerializer
-import org.jetbrains.jet.descriptors.serialization.ProtoBuf
 import org.jetbrains.jet.lang.descriptors.ClassDescriptor
 import org.jetbrains.jet.lang.descriptors.DeclarationDescriptor
 import org.jetbrains.jet.lang.resolve.scopes.JetScope
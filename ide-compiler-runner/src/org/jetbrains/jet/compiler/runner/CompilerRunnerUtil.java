@@ -16,6 +16,7 @@
 
 package org.jetbrains.jet.compiler.runner;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.util.Function;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -57,7 +58,7 @@ public class CompilerRunnerUtil {
     }
 
     @NotNull
-    public static ClassLoader getOrCreatePreloader(
+    public static synchronized ClassLoader getOrCreatePreloader(
             @NotNull KotlinPaths paths,
             @Nullable ClassLoader parentClassLoader,
             @Nullable ClassCondition classToLoadByParent,
@@ -77,7 +78,7 @@ public class CompilerRunnerUtil {
         return answer;
     }
 
-    public static ClassLoader getOrCreateClassLoader(KotlinPaths paths, MessageCollector messageCollector) {
+    public static synchronized ClassLoader getOrCreateClassLoader(KotlinPaths paths, MessageCollector messageCollector) {
         ClassLoader answer = ourClassLoaderRef.get();
         if (answer == null) {
             answer = createClassLoader(paths, messageCollector);
@@ -133,6 +134,36 @@ public class CompilerRunnerUtil {
         return exec.invoke(kompiler.newInstance(), out, environment.getServices(), arguments);
     }
 
+    /**
+     * Keeps the application environment of the compiler loaded by the preloader alive between compilations until the returned
+     * disposable is disposed. The environment (including opened library jars) is shared by all compilations running at the same time,
+     * but is re-created for each compilation which starts when no other compilation is running, unless there's a session.
+     */
+    @NotNull
+    public static Disposable startCompilerSession(
+            @NotNull CompilerEnvironment environment,
+            @NotNull MessageCollector messageCollector
+    ) throws Exception {
+        ClassLoader loader = getOrCreatePreloader(environment.getKotlinPaths(), environment.getParentClassLoader(),
+                                                  environment.getClassesToLoadByParent(), messageCollector);
+
+        Class<?> coreEnvironment = Class.forName("org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment", true, loader);
+        final Object session = coreEnvironment.getMethod("startCompilerSession").invoke(null);
+        final Method dispose = Class.forName("com.intellij.openapi.Disposable", true, loader).getMethod("dispose");
+
+        return new Disposable() {
+            @Override
+            public void dispose() {
+                try {
+                    dispose.invoke(session);
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
     public static void outputCompilerMessagesAndHandleExitCode(@NotNull MessageCollector messageCollector,
             @NotNull OutputItemsCollector outputItemsCollector,
             @NotNull Function<PrintStream, Integer> compilerRun) {
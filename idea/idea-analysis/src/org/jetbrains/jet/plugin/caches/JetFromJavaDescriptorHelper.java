@@ -31,6 +31,7 @@ import org.jetbrains.jet.lang.resolve.kotlin.KotlinBinaryClassCache;
 import org.jetbrains.jet.lang.resolve.kotlin.KotlinJvmBinaryClass;
 import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.jet.plugin.stubindex.JetTopLevelExtensionsByReceiverTypeIndex;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -190,4 +191,59 @@ public class JetFromJavaDescriptorHelper {
         }
         return result;
     }
+
+    /**
+     * Get qualified names of top level extensions whose receiver type is named by one of the given short names.
+     * Extensions on type parameters are checked against the name of the first upper bound, or considered to be applicable to "Any".
+     */
+    @NotNull
+    public static Collection<FqName> getTopLevelExtensionFqNamesByReceiverTypeNames(
+            @NotNull Project project,
+            @NotNull GlobalSearchScope scope,
+            @NotNull Set<String> receiverTypeNames
+    ) {
+        Collection<FqName> result = Sets.newHashSet();
+        Collection<PsiClass> packageClasses = getClassesByAnnotation(KOTLIN_PACKAGE.shortName().asString(), project, scope);
+        for (PsiClass psiClass : packageClasses) {
+            String qualifiedName = psiClass.getQualifiedName();
+            if (qualifiedName == null) {
+                continue;
+            }
+            FqName packageFqName = new FqName(qualifiedName).parent();
+            PackageData data = getPackageData(psiClass);
+            if (data == null) {
+                continue;
+            }
+            NameResolver nameResolver = data.getNameResolver();
+            for (ProtoBuf.Callable callable : data.getPackageProto().getMemberList()) {
+                if (callable.hasReceiverType() &&
+                    receiverTypeNames.contains(getTypeShortName(callable.getReceiverType(), callable, nameResolver))) {
+                    result.add(packageFqName.child(nameResolver.getName(callable.getName())));
+                }
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private static String getTypeShortName(@NotNull ProtoBuf.Type type, @NotNull ProtoBuf.Callable callable, @NotNull NameResolver nameResolver) {
+        ProtoBuf.Type.Constructor constructor = type.getConstructor();
+        if (constructor.getKind() == ProtoBuf.Type.Constructor.Kind.CLASS) {
+            return nameResolver.getClassId(constructor.getId()).getRelativeClassName().shortName().asString();
+        }
+
+        for (ProtoBuf.TypeParameter typeParameter : callable.getTypeParameterList()) {
+            if (typeParameter.getId() != constructor.getId()) continue;
+
+            if (typeParameter.getUpperBoundCount() > 0) {
+                ProtoBuf.Type.Constructor bound = typeParameter.getUpperBound(0).getConstructor();
+                if (bound.getKind() == ProtoBuf.Type.Constructor.Kind.CLASS) {
+                    return nameResolver.getClassId(bound.getId()).getRelativeClassName().shortName().asString();
+                }
+            }
+            break;
+        }
+
+        return JetTopLevelExtensionsByReceiverTypeIndex.ANY_TYPE_NAME;
+    }
 }
@@ -27,7 +27,7 @@ import org.jetbrains.jet.asJava.KotlinLightClassForPackage
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 
-fun PsiElement.getModuleInfo(): IdeaModuleInfo {
+public fun PsiElement.getModuleInfo(): IdeaModuleInfo {
     fun logAndReturnDefault(message: String): IdeaModuleInfo {
         LOG.error("Could not find correct module information.\nReason: $message")
         return NotUnderContentRootModuleInfo
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.plugin.decompiler.stubBuilder
+
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.stubs.StubElement
+import com.intellij.util.ArrayUtil
+import com.intellij.util.io.StringRef
+import org.jetbrains.jet.descriptors.serialization.*
+import org.jetbrains.jet.lang.psi.*
+import org.jetbrains.jet.lang.psi.stubs.KotlinFileStub
+import org.jetbrains.jet.lang.psi.stubs.elements.JetStubElementTypes
+import org.jetbrains.jet.lang.psi.stubs.impl.*
+import org.jetbrains.jet.lang.resolve.kotlin.DeserializedResolverUtils
+import org.jetbrains.jet.lang.resolve.kotlin.KotlinBinaryClassCache
+import org.jetbrains.jet.lang.resolve.kotlin.header.isCompatibleClassKind
+import org.jetbrains.jet.lang.resolve.kotlin.header.isCompatiblePackageFacadeKind
+import org.jetbrains.jet.lang.resolve.name.ClassId
+import org.jetbrains.jet.lang.resolve.name.FqName
+import org.jetbrains.jet.lang.resolve.name.Name
+import org.jetbrains.jet.lang.resolve.name.SpecialNames
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns
+import org.jetbrains.jet.lexer.JetModifierKeywordToken
+import org.jetbrains.jet.lexer.JetTokens
+import org.jetbrains.jet.plugin.decompiler.isKotlinWithCompatibleAbiVersion
+import java.util.ArrayList
+import java.util.HashMap
+
+/**
+ * Builds Kotlin stubs for a compiled Kotlin class or package facade class right from the serialized metadata,
+ * without rendering the declarations to text and parsing it.
+ * The resulting tree contains the same declarations as the decompiled text: top level classes with their nested classes,
+ * class objects and enum entries, and functions and properties with their type parameters, value parameters and types.
+ *
+ * @return null if the file is not a compiled Kotlin class with a compatible ABI version, or it's a nested or synthetic class
+ */
+public fun buildCompiledFileStub(file: VirtualFile): KotlinFileStub? {
+    val kotlinClass = KotlinBinaryClassCache.getKotlinBinaryClass(file) ?: return null
+    val header = kotlinClass.getClassHeader()
+    val annotationData = header.annotationData ?: return null
+    val classId = kotlinClass.getClassId()
+    val packageFqName = classId.getPackageFqName()
+
+    return when {
+        header.isCompatiblePackageFacadeKind() -> {
+            val packageData = JavaProtoBufUtil.readPackageDataFrom(annotationData)
+            val fileStub = createFileStub(packageFqName)
+            val builder = CompiledStubBuilder(packageData.getNameResolver(), SiblingClassDataFinder(file, packageFqName))
+            for (callableProto in packageData.getPackageProto().getMemberList()) {
+                builder.createCallableStub(fileStub, callableProto, packageFqName, isTopLevel = true, outerTypeParameters = mapOf())
+            }
+            fileStub
+        }
+        header.isCompatibleClassKind() && classId.isTopLevelClass() -> {
+            val classData = JavaProtoBufUtil.readClassDataFrom(annotationData)
+            val fileStub = createFileStub(packageFqName)
+            val builder = CompiledStubBuilder(classData.getNameResolver(), SiblingClassDataFinder(file, packageFqName))
+            builder.createClassStub(fileStub, classData.getClassProto(), classId, isTopLevel = true, outerTypeParameters = mapOf())
+            fileStub
+        }
+        else -> null
+    }
+}
+
+private fun createFileStub(packageFqName: FqName): KotlinFileStubImpl {
+    val fileStub = KotlinFileStubImpl(null, packageFqName.asString(), false)
+    val packageDirective = KotlinPlaceHolderStubImpl<JetPackageDirective>(fileStub, JetStubElementTypes.PACKAGE_DIRECTIVE)
+    if (!packageFqName.isRoot()) {
+        createQualifiedExpressionStub(packageDirective, packageFqName.pathSegments())
+    }
+    KotlinPlaceHolderStubImpl<JetImportList>(fileStub, JetStubElementTypes.IMPORT_LIST)
+    return fileStub
+}
+
+private fun createQualifiedExpressionStub(parent: StubElement<*>, segments: List<Name>) {
+    if (segments.size() == 1) {
+        KotlinNameReferenceExpressionStubImpl(parent, StringRef.fromString(segments.first().asString())!!)
+    }
+    else {
+        val qualifiedExpression = KotlinPlaceHolderStubImpl<JetDotQualifiedExpression>(parent, JetStubElementTypes.DOT_QUALIFIED_EXPRESSION)
+        createQualifiedExpressionStub(qualifiedExpression, segments.subList(0, segments.size() - 1))
+        KotlinNameReferenceExpressionStubImpl(qualifiedExpression, StringRef.fromString(segments.last().asString())!!)
+    }
+}
+
+/**
+ * Nested classes and class objects are stored in separate class files in the same directory as their outer class
+ */
+private class SiblingClassDataFinder(private val file: VirtualFile, private val packageFqName: FqName) : ClassDataFinder {
+    override fun findClassData(classId: ClassId): ClassData? {
+        if (classId.getPackageFqName() != packageFqName) return null
+
+        val segments = DeserializedResolverUtils.kotlinFqNameToJavaFqName(classId.getRelativeClassName()).pathSegments()
+        val classFile = file.getParent()?.findChild(segments.joinToString("$", postfix = ".class")) ?: return null
+        if (!isKotlinWithCompatibleAbiVersion(classFile)) return null
+
+        val annotationData = KotlinBinaryClassCache.getKotlinBinaryClass(classFile)?.getClassHeader()?.annotationData ?: return null
+        return JavaProtoBufUtil.readClassDataFrom(annotationData)
+    }
+}
+
+private class CompiledStubBuilder(private val nameResolver: NameResolver, private val classDataFinder: ClassDataFinder) {
+
+    fun createClassStub(
+            parent: StubElement<*>,
+            classProto: ProtoBuf.Class,
+            classId: ClassId,
+            isTopLevel: Boolean,
+            outerTypeParameters: Map<Int, Name>
+    ) {
+        val flags = classProto.getFlags()
+        val kind = Flags.CLASS_KIND.get(flags)
+        val fqNameUnsafe = classId.asSingleFqName()
+        // class objects have special names
+        val fqName = if (fqNameUnsafe.isSafe()) fqNameUnsafe.toSafe() else null
+        val shortName = classId.getRelativeClassName().shortName()
+        val superNames = getSuperNames(classProto)
+
+        val classStub = when (kind) {
+            ProtoBuf.Class.Kind.OBJECT ->
+                KotlinObjectStubImpl(parent, StringRef.fromString(shortName.asString()), fqName, superNames,
+                                     isTopLevel, /* isClassObject = */ false, /* isLocal = */ false, /* isObjectLiteral = */ false)
+            ProtoBuf.Class.Kind.CLASS_OBJECT -> {
+                val classObject = KotlinPlaceHolderStubImpl<JetClassObject>(parent, JetStubElementTypes.CLASS_OBJECT)
+                KotlinObjectStubImpl(classObject, null, null, superNames,
+                                     /* isTopLevel = */ false, /* isClassObject = */ true, /* isLocal = */ false, /* isObjectLiteral = */ false)
+            }
+            else ->
+                KotlinClassStubImpl(JetStubElementTypes.CLASS, parent, StringRef.fromString(fqName?.asString()),
+                                    StringRef.fromString(shortName.asString()), superNames,
+                                    kind == ProtoBuf.Class.Kind.TRAIT, /* isEnumEntry = */ false, /* isLocal = */ false, isTopLevel)
+        }
+
+        val modifiers = getVisibilityAndModalityModifiers(flags, isTrait = kind == ProtoBuf.Class.Kind.TRAIT)
+        when (kind) {
+            ProtoBuf.Class.Kind.ENUM_CLASS -> modifiers.add(JetTokens.ENUM_KEYWORD)
+            ProtoBuf.Class.Kind.ANNOTATION_CLASS -> modifiers.add(JetTokens.ANNOTATION_KEYWORD)
+            else -> {}
+        }
+        if (Flags.INNER.get(flags)) {
+            modifiers.add(JetTokens.INNER_KEYWORD)
+        }
+        createModifierListStub(classStub, modifiers)
+
+        val typeParameters = HashMap<Int, Name>(outerTypeParameters)
+        createTypeParameterListStub(classStub, classProto.getTypeParameterList(), typeParameters)
+
+        if (classProto.hasPrimaryConstructor() && classProto.getPrimaryConstructor().hasData()) {
+            createValueParameterListStub(classStub, classProto.getPrimaryConstructor().getData(), fqName, typeParameters)
+        }
+
+        if (superNames.isNotEmpty()) {
+            val delegationSpecifiers = KotlinPlaceHolderStubImpl<JetDelegationSpecifierList>(
+                    classStub, JetStubElementTypes.DELEGATION_SPECIFIER_LIST)
+            for (supertype in classProto.getSupertypeList()) {
+                val specifier = KotlinPlaceHolderStubImpl<JetDelegatorToSuperClass>(
+                        delegationSpecifiers, JetStubElementTypes.DELEGATOR_SUPER_CLASS)
+                createTypeReferenceStub(specifier, supertype, typeParameters)
+            }
+        }
+
+        val classBody = KotlinPlaceHolderStubImpl<JetClassBody>(classStub, JetStubElementTypes.CLASS_BODY)
+
+        // class objects of objects are not a part of the declaration, see DescriptorUtils.isSyntheticClassObject
+        if (classProto.hasClassObject() && kind != ProtoBuf.Class.Kind.OBJECT) {
+            val classObjectId = classId.createNestedClassId(SpecialNames.getClassObjectName(shortName))
+            val classObjectData = classDataFinder.findClassData(classObjectId)
+            if (classObjectData != null) {
+                CompiledStubBuilder(classObjectData.getNameResolver(), classDataFinder).createClassStub(
+                        classBody, classObjectData.getClassProto(), classObjectId, isTopLevel = false, outerTypeParameters = mapOf())
+            }
+        }
+
+        for (enumEntryName in classProto.getEnumEntryList().map { nameResolver.getName(it) }) {
+            KotlinClassStubImpl(JetStubElementTypes.ENUM_ENTRY, classBody, StringRef.fromString(fqName?.child(enumEntryName)?.asString()),
+                                StringRef.fromString(enumEntryName.asString()), array<StringRef>(),
+                                /* isTrait = */ false, /* isEnumEntry = */ true, /* isLocal = */ false, /* isTopLevel = */ false)
+        }
+
+        for (callableProto in classProto.getMemberList()) {
+            if (isDeclaredInClass(callableProto)) {
+                createCallableStub(classBody, callableProto, fqName, isTopLevel = false, outerTypeParameters = typeParameters)
+            }
+        }
+
+        for (nestedClassName in classProto.getNestedClassNameList().map { nameResolver.getName(it) }) {
+            val nestedClassId = classId.createNestedClassId(nestedClassName)
+            val nestedClassData = classDataFinder.findClassData(nestedClassId) ?: continue
+            val nestedClassProto = nestedClassData.getClassProto()
+            // only inner classes can refer to type parameters of the outer class
+            val nestedOuterTypeParameters = if (Flags.INNER.get(nestedClassProto.getFlags())) typeParameters else mapOf<Int, Name>()
+            CompiledStubBuilder(nestedClassData.getNameResolver(), classDataFinder).createClassStub(
+                    classBody, nestedClassProto, nestedClassId, isTopLevel = false, outerTypeParameters = nestedOuterTypeParameters)
+        }
+    }
+
+    fun createCallableStub(
+            parent: StubElement<*>,
+            callableProto: ProtoBuf.Callable,
+            containerFqName: FqName?,
+            isTopLevel: Boolean,
+            outerTypeParameters: Map<Int, Name>
+    ) {
+        val flags = callableProto.getFlags()
+        val callableKind = Flags.CALLABLE_KIND.get(flags)
+        if (callableKind == ProtoBuf.Callable.CallableKind.CONSTRUCTOR) return
+
+        val name = nameResolver.getName(callableProto.getName())
+        val fqName = containerFqName?.child(name)
+        val hasReceiver = callableProto.hasReceiverType()
+        val isProbablyNothing = isNothing(callableProto.getReturnType())
+        val isAbstract = Flags.MODALITY.get(flags) == ProtoBuf.Modality.ABSTRACT
+
+        val callableStub = if (callableKind == ProtoBuf.Callable.CallableKind.FUN) {
+            KotlinFunctionStubImpl(parent, StringRef.fromString(name.asString()), isTopLevel, fqName, hasReceiver,
+                                   /* hasBlockBody = */ !isAbstract, /* hasBody = */ !isAbstract,
+                                   /* hasTypeParameterListBeforeFunctionName = */ callableProto.getTypeParameterCount() > 0,
+                                   isProbablyNothing)
+        }
+        else {
+            KotlinPropertyStubImpl(parent, StringRef.fromString(name.asString()),
+                                   /* isVar = */ callableKind == ProtoBuf.Callable.CallableKind.VAR, isTopLevel,
+                                   /* hasDelegate = */ false, /* hasDelegateExpression = */ false, /* hasInitializer = */ false,
+                                   hasReceiver, /* hasReturnTypeRef = */ true, isProbablyNothing, fqName)
+        }
+
+        createModifierListStub(callableStub, getVisibilityAndModalityModifiers(flags, isTrait = false))
+
+        val typeParameters = HashMap<Int, Name>(outerTypeParameters)
+        createTypeParameterListStub(callableStub, callableProto.getTypeParameterList(), typeParameters)
+
+        if (hasReceiver) {
+            createTypeReferenceStub(callableStub, callableProto.getReceiverType(), typeParameters)
+        }
+        if (callableKind == ProtoBuf.Callable.CallableKind.FUN) {
+            createValueParameterListStub(callableStub, callableProto, null, typeParameters)
+        }
+        createTypeReferenceStub(callableStub, callableProto.getReturnType(), typeParameters)
+    }
+
+    private fun isDeclaredInClass(callableProto: ProtoBuf.Callable): Boolean {
+        return when (Flags.MEMBER_KIND.get(callableProto.getFlags())) {
+            ProtoBuf.Callable.MemberKind.DECLARATION -> true
+            // decompiled text contains component functions of data classes
+            ProtoBuf.Callable.MemberKind.SYNTHESIZED -> nameResolver.getName(callableProto.getName()).asString().startsWith("component")
+            else -> false
+        }
+    }
+
+    private fun createTypeParameterListStub(
+            parent: StubElement<*>,
+            typeParameterProtos: List<ProtoBuf.TypeParameter>,
+            typeParameters: MutableMap<Int, Name>
+    ) {
+        if (typeParameterProtos.isEmpty()) return
+
+        for (typeParameterProto in typeParameterProtos) {
+            typeParameters[typeParameterProto.getId()] = nameResolver.getName(typeParameterProto.getName())
+        }
+
+        val typeParameterList = KotlinPlaceHolderStubImpl<JetTypeParameterList>(parent, JetStubElementTypes.TYPE_PARAMETER_LIST)
+        for (typeParameterProto in typeParameterProtos) {
+            val variance = typeParameterProto.getVariance()
+            val typeParameter = KotlinTypeParameterStubImpl(
+                    typeParameterList, StringRef.fromString(nameResolver.getName(typeParameterProto.getName()).asString()),
+                    variance == ProtoBuf.TypeParameter.Variance.IN, variance == ProtoBuf.TypeParameter.Variance.OUT)
+
+            if (typeParameterProto.getReified()) {
+                createModifierListStub(typeParameter, listOf(JetTokens.REIFIED_KEYWORD))
+            }
+
+            // several upper bounds are rendered in the "where" clause, and the default "Any?" bound is not rendered at all
+            val upperBounds = typeParameterProto.getUpperBoundList()
+            if (upperBounds.size() == 1 && !isNullableAny(upperBounds.first())) {
+                createTypeReferenceStub(typeParameter, upperBounds.first(), typeParameters)
+            }
+        }
+    }
+
+    private fun createValueParameterListStub(
+            parent: StubElement<*>,
+            callableProto: ProtoBuf.Callable,
+            constructorClassFqName: FqName?,
+            typeParameters: Map<Int, Name>
+    ) {
+        val parameterList = KotlinPlaceHolderStubImpl<JetParameterList>(parent, JetStubElementTypes.VALUE_PARAMETER_LIST)
+        for (parameterProto in callableProto.getValueParameterList()) {
+            val name = nameResolver.getName(parameterProto.getName())
+            val parameter = KotlinParameterStubImpl(
+                    parameterList, StringRef.fromString(constructorClassFqName?.child(name)?.asString()), StringRef.fromString(name.asString()),
+                    /* isMutable = */ false, /* hasValOrValNode = */ false, Flags.DECLARES_DEFAULT_VALUE.get(parameterProto.getFlags()))
+
+            if (parameterProto.hasVarargElementType()) {
+                createModifierListStub(parameter, listOf(JetTokens.VARARG_KEYWORD))
+                createTypeReferenceStub(parameter, parameterProto.getVarargElementType(), typeParameters)
+            }
+            else {
+                createTypeReferenceStub(parameter, parameterProto.getType(), typeParameters)
+            }
+        }
+    }
+
+    private fun createTypeReferenceStub(parent: StubElement<*>, type: ProtoBuf.Type, typeParameters: Map<Int, Name>) {
+        val typeReference = KotlinPlaceHolderStubImpl<JetTypeReference>(parent, JetStubElementTypes.TYPE_REFERENCE)
+        createTypeElementStub(typeReference, type, typeParameters)
+    }
+
+    private fun createTypeElementStub(parent: StubElement<*>, type: ProtoBuf.Type, typeParameters: Map<Int, Name>) {
+        val typeElementParent =
+                if (type.getNullable()) KotlinPlaceHolderStubImpl<JetNullableType>(parent, JetStubElementTypes.NULLABLE_TYPE) else parent
+
+        val constructor = type.getConstructor()
+        if (constructor.getKind() == ProtoBuf.Type.Constructor.Kind.TYPE_PARAMETER) {
+            val name = typeParameters[constructor.getId()] ?: SpecialNames.NO_NAME_PROVIDED
+            createUserTypeStub(typeElementParent, listOf(name), listOf(), typeParameters)
+            return
+        }
+
+        val classId = nameResolver.getClassId(constructor.getId())
+        val arguments = type.getArgumentList()
+        val functionTypeKind = getFunctionTypeKind(classId, arguments.size())
+        if (functionTypeKind != null) {
+            createFunctionTypeStub(typeElementParent, arguments, functionTypeKind == FunctionTypeKind.EXTENSION_FUNCTION, typeParameters)
+            return
+        }
+
+        val segments = classId.getPackageFqName().pathSegments() + classId.getRelativeClassName().pathSegments()
+        createUserTypeStub(typeElementParent, segments, arguments, typeParameters)
+    }
+
+    private fun createUserTypeStub(
+            parent: StubElement<*>,
+            segments: List<Name>,
+            arguments: List<ProtoBuf.Type.Argument>,
+            typeParameters: Map<Int, Name>
+    ) {
+        val userType = KotlinUserTypeStubImpl(parent, /* isAbsoluteInRootPackage = */ false)
+        if (segments.size() > 1) {
+            createUserTypeStub(userType, segments.subList(0, segments.size() - 1), listOf(), typeParameters)
+        }
+        KotlinNameReferenceExpressionStubImpl(userType, StringRef.fromString(segments.last().asString())!!)
+
+        if (arguments.isNotEmpty()) {
+            val argumentList = KotlinPlaceHolderStubImpl<JetTypeArgumentList>(userType, JetStubElementTypes.TYPE_ARGUMENT_LIST)
+            for (argument in arguments) {
+                val projectionKind = when (argument.getProjection()) {
+                    ProtoBuf.Type.Argument.Projection.IN -> JetProjectionKind.IN
+                    ProtoBuf.Type.Argument.Projection.OUT -> JetProjectionKind.OUT
+                    else -> JetProjectionKind.NONE
+                }
+                val projection = KotlinTypeProjectionStubImpl(argumentList, projectionKind.ordinal())
+                createTypeReferenceStub(projection, argument.getType(), typeParameters)
+            }
+        }
+    }
+
+    private fun createFunctionTypeStub(
+            parent: StubElement<*>,
+            arguments: List<ProtoBuf.Type.Argument>,
+            isExtension: Boolean,
+            typeParameters: Map<Int, Name>
+    ) {
+        val functionType = KotlinPlaceHolderStubImpl<JetFunctionType>(parent, JetStubElementTypes.FUNCTION_TYPE)
+        val parameterTypes = arguments.subList(0, arguments.size() - 1).map { it.getType() }
+
+        if (isExtension) {
+            val receiver = KotlinPlaceHolderStubImpl<JetFunctionTypeReceiver>(functionType, JetStubElementTypes.FUNCTION_TYPE_RECEIVER)
+            createTypeReferenceStub(receiver, parameterTypes.first(), typeParameters)
+        }
+
+        val parameterList = KotlinPlaceHolderStubImpl<JetParameterList>(functionType, JetStubElementTypes.VALUE_PARAMETER_LIST)
+        for (parameterType in if (isExtension) parameterTypes.drop(1) else parameterTypes) {
+            val parameter = KotlinParameterStubImpl(parameterList, null, null, /* isMutable = */ false, /* hasValOrValNode = */ false,
+                                                    /* hasDefaultValue = */ false)
+            createTypeReferenceStub(parameter, parameterType, typeParameters)
+        }
+
+        createTypeReferenceStub(functionType, arguments.last().getType(), typeParameters)
+    }
+
+    private fun getSuperNames(classProto: ProtoBuf.Class): Array<StringRef> {
+        val supertypes = classProto.getSupertypeList()
+        // the only "Any" supertype is not rendered
+        if (supertypes.size() == 1 && isAny(supertypes.first())) {
+            return array<StringRef>()
+        }
+
+        val result = ArrayList<String>()
+        for (supertype in supertypes) {
+            val constructor = supertype.getConstructor()
+            if (constructor.getKind() != ProtoBuf.Type.Constructor.Kind.CLASS) continue
+
+            val classId = nameResolver.getClassId(constructor.getId())
+            // function types are not user types in decompiled text
+            if (getFunctionTypeKind(classId, supertype.getArgumentCount()) != null) continue
+
+            result.add(classId.getRelativeClassName().shortName().asString())
+        }
+        return Utils.wrapStrings(result)
+    }
+
+    private fun isNothing(type: ProtoBuf.Type): Boolean = isBuiltInClass(type, "Nothing")
+
+    private fun isAny(type: ProtoBuf.Type): Boolean = isBuiltInClass(type, "Any")
+
+    private fun isNullableAny(type: ProtoBuf.Type): Boolean = type.getNullable() && isAny(type)
+
+    private fun isBuiltInClass(type: ProtoBuf.Type, name: String): Boolean {
+        val constructor = type.getConstructor()
+        if (constructor.getKind() != ProtoBuf.Type.Constructor.Kind.CLASS) return false
+
+        val classId = nameResolver.getClassId(constructor.getId())
+        return classId.getPackageFqName() == KotlinBuiltIns.BUILT_INS_PACKAGE_FQ_NAME && classId.getRelativeClassName().asString() == name
+    }
+
+    private fun getFunctionTypeKind(classId: ClassId, argumentCount: Int): FunctionTypeKind? {
+        if (classId.getPackageFqName() != KotlinBuiltIns.BUILT_INS_PACKAGE_FQ_NAME) return null
+
+        val className = classId.getRelativeClassName().asString()
+        return when {
+            className == "Function${argumentCount - 1}" -> FunctionTypeKind.FUNCTION
+            argumentCount >= 2 && className == "ExtensionFunction${argumentCount - 2}" -> FunctionTypeKind.EXTENSION_FUNCTION
+            else -> null
+        }
+    }
+
+    private fun getVisibilityAndModalityModifiers(flags: Int, isTrait: Boolean): MutableList<JetModifierKeywordToken> {
+        val result = ArrayList<JetModifierKeywordToken>()
+
+        when (Flags.VISIBILITY.get(flags)) {
+            ProtoBuf.Visibility.PRIVATE -> result.add(JetTokens.PRIVATE_KEYWORD)
+            ProtoBuf.Visibility.PROTECTED -> result.add(JetTokens.PROTECTED_KEYWORD)
+            ProtoBuf.Visibility.PUBLIC -> result.add(JetTokens.PUBLIC_KEYWORD)
+            ProtoBuf.Visibility.INTERNAL -> result.add(JetTokens.INTERNAL_KEYWORD)
+            else -> {}
+        }
+
+        when (Flags.MODALITY.get(flags)) {
+            ProtoBuf.Modality.OPEN -> result.add(JetTokens.OPEN_KEYWORD)
+            // traits are abstract by default
+            ProtoBuf.Modality.ABSTRACT -> if (!isTrait) result.add(JetTokens.ABSTRACT_KEYWORD)
+            else -> {}
+        }
+
+        return result
+    }
+
+    private fun createModifierListStub(parent: StubElement<*>, modifiers: List<JetModifierKeywordToken>) {
+        if (modifiers.isEmpty()) return
+
+        var mask = 0
+        for (modifier in modifiers) {
+            mask = mask or (1 shl ArrayUtil.indexOf(JetTokens.MODIFIER_KEYWORDS_ARRAY, modifier))
+        }
+        KotlinModifierListStubImpl(parent, mask, JetStubElementTypes.MODIFIER_LIST)
+    }
+}
+
+private enum class FunctionTypeKind {
+    FUNCTION
+    EXTENSION_FUNCTION
+}
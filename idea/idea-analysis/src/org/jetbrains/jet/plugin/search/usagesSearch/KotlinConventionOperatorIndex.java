@@ -0,0 +1,253 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.plugin.search.usagesSearch;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.lang.resolve.dataClassUtils.DataClassUtilsPackage;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.jet.lexer.JetToken;
+import org.jetbrains.jet.lexer.JetTokens;
+import org.jetbrains.jet.plugin.JetFileType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jetbrains.jet.lang.types.expressions.OperatorConventions.*;
+
+/**
+ * Maps names of convention functions (operators, get/set, invoke, iterator, componentN) to Kotlin files which contain
+ * syntactic constructs that may be resolved to these functions. Property delegates are recorded under get and set as well.
+ * For get, set and invoke the number of arguments passed is also recorded, see {@link #arityKey(String, int)}.
+ */
+public final class KotlinConventionOperatorIndex extends ScalarIndexExtension<String> {
+
+    private static final Logger LOG = Logger.getInstance(KotlinConventionOperatorIndex.class);
+    private static final int VERSION = 2;
+    public static final ID<String, Void> KEY = ID.create(KotlinConventionOperatorIndex.class.getCanonicalName());
+
+    private static final KeyDescriptor<String> KEY_DESCRIPTOR = new EnumeratorStringDescriptor();
+
+    private static final Name GET = Name.identifier("get");
+    private static final Name SET = Name.identifier("set");
+    private static final Name INVOKE = Name.identifier("invoke");
+    private static final Name ITERATOR = Name.identifier("iterator");
+
+    private static final FileBasedIndex.InputFilter INPUT_FILTER = new FileBasedIndex.InputFilter() {
+        @Override
+        public boolean acceptInput(@NotNull VirtualFile file) {
+            return file.getFileType() == JetFileType.INSTANCE;
+        }
+    };
+
+    public static final DataIndexer<String, Void, FileContent> INDEXER = new DataIndexer<String, Void, FileContent>() {
+        @NotNull
+        @Override
+        public Map<String, Void> map(@NotNull FileContent inputData) {
+            try {
+                PsiFile file = inputData.getPsiFile();
+                if (file instanceof JetFile) {
+                    ConventionCollector collector = new ConventionCollector();
+                    file.accept(collector);
+                    return collector.result;
+                }
+            }
+            catch (Throwable e) {
+                LOG.warn("Error while indexing file " + inputData.getFileName(), e);
+            }
+            return Collections.emptyMap();
+        }
+    };
+
+    @NotNull
+    public static String arityKey(@NotNull String conventionName, int argumentCount) {
+        return conventionName + ":" + argumentCount;
+    }
+
+    /**
+     * @param argumentCount number of value arguments the convention function accepts, or -1 if it's not fixed
+     */
+    @NotNull
+    public static Collection<VirtualFile> getFilesWithPossibleUsages(
+            @NotNull String conventionName,
+            int argumentCount,
+            @NotNull GlobalSearchScope scope
+    ) {
+        boolean arityIsIndexed = argumentCount >= 0 &&
+                                 (conventionName.equals(GET.asString()) ||
+                                  conventionName.equals(SET.asString()) ||
+                                  conventionName.equals(INVOKE.asString()));
+        String key = arityIsIndexed ? arityKey(conventionName, argumentCount) : conventionName;
+        return FileBasedIndex.getInstance().getContainingFiles(KEY, key, scope);
+    }
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return INDEXER;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return KEY_DESCRIPTOR;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return INPUT_FILTER;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    private static class ConventionCollector extends JetTreeVisitorVoid {
+        private final Map<String, Void> result = new HashMap<String, Void>();
+
+        private void record(@Nullable Name name) {
+            if (name != null) {
+                result.put(name.asString(), null);
+            }
+        }
+
+        private void record(@NotNull Name name, int argumentCount) {
+            record(name);
+            result.put(arityKey(name.asString(), argumentCount), null);
+        }
+
+        private void recordOperation(@Nullable IElementType token) {
+            if (!(token instanceof JetToken)) return;
+
+            record(getNameForOperationSymbol((JetToken) token));
+
+            JetToken counterpart = ASSIGNMENT_OPERATION_COUNTERPARTS.get(token);
+            if (counterpart != null) {
+                record(BINARY_OPERATION_NAMES.get(counterpart));
+            }
+
+            if (IDENTITY_EQUALS_OPERATIONS.contains(token)) {
+                record(IDENTITY_EQUALS);
+            }
+        }
+
+        @Override
+        public void visitArrayAccessExpression(@NotNull JetArrayAccessExpression expression) {
+            int indexCount = expression.getIndexExpressions().size();
+            record(GET, indexCount);
+            if (isAssigned(expression)) {
+                record(SET, indexCount + 1);
+            }
+            super.visitArrayAccessExpression(expression);
+        }
+
+        @Override
+        public void visitPropertyDelegate(@NotNull JetPropertyDelegate delegate) {
+            // get(thisRef, propertyMetadata) and set(thisRef, propertyMetadata, value)
+            record(GET, 2);
+            PsiElement parent = delegate.getParent();
+            if (parent instanceof JetProperty && ((JetProperty) parent).isVar()) {
+                record(SET, 3);
+            }
+            super.visitPropertyDelegate(delegate);
+        }
+
+        @Override
+        public void visitCallExpression(@NotNull JetCallExpression expression) {
+            record(INVOKE, expression.getValueArguments().size());
+            super.visitCallExpression(expression);
+        }
+
+        @Override
+        public void visitMultiDeclaration(@NotNull JetMultiDeclaration multiDeclaration) {
+            int entryCount = multiDeclaration.getEntries().size();
+            for (int i = 1; i <= entryCount; i++) {
+                record(DataClassUtilsPackage.createComponentName(i));
+            }
+            super.visitMultiDeclaration(multiDeclaration);
+        }
+
+        @Override
+        public void visitForExpression(@NotNull JetForExpression expression) {
+            record(ITERATOR);
+            super.visitForExpression(expression);
+        }
+
+        @Override
+        public void visitBinaryExpression(@NotNull JetBinaryExpression expression) {
+            recordOperation(expression.getOperationToken());
+            super.visitBinaryExpression(expression);
+        }
+
+        @Override
+        public void visitUnaryExpression(@NotNull JetUnaryExpression expression) {
+            recordOperation(expression.getOperationToken());
+            super.visitUnaryExpression(expression);
+        }
+
+        @Override
+        public void visitWhenConditionInRange(@NotNull JetWhenConditionInRange condition) {
+            record(CONTAINS);
+            super.visitWhenConditionInRange(condition);
+        }
+
+        private static boolean isAssigned(@NotNull JetArrayAccessExpression expression) {
+            PsiElement parent = expression.getParent();
+            while (parent instanceof JetParenthesizedExpression) {
+                parent = parent.getParent();
+            }
+
+            if (parent instanceof JetBinaryExpression) {
+                JetBinaryExpression binaryExpression = (JetBinaryExpression) parent;
+                IElementType token = binaryExpression.getOperationToken();
+                return (token == JetTokens.EQ || ASSIGNMENT_OPERATIONS.containsKey(token)) &&
+                       JetPsiUtil.deparenthesize(binaryExpression.getLeft()) == expression;
+            }
+
+            if (parent instanceof JetUnaryExpression) {
+                return INCREMENT_OPERATIONS.contains(((JetUnaryExpression) parent).getOperationToken());
+            }
+
+            return false;
+        }
+    }
+}
@@ -59,7 +59,9 @@ public fun Name.getOperationSymbolsToSearch(): Set<JetToken> {
         IDENTITY_EQUALS -> return IDENTITY_EQUALS_OPERATIONS
         CONTAINS -> return IN_OPERATIONS_TO_SEARCH
         ITERATOR_OPERATION_NAME -> return ImmutableSet.of<JetToken>(JetTokens.IN_KEYWORD)
-        in INDEXING_OPERATION_NAMES -> return ImmutableSet.of<JetToken>(JetTokens.LBRACKET)
+        INVOKE_OPERATION_NAME -> return ImmutableSet.of<JetToken>(JetTokens.LPAR)
+        // get and set are also called by delegated properties
+        in INDEXING_OPERATION_NAMES -> return ImmutableSet.of<JetToken>(JetTokens.LBRACKET, JetTokens.BY_KEYWORD)
     }
 
     if (isComponentLike(this)) return ImmutableSet.of<JetToken>(JetTokens.LPAR)
@@ -50,6 +50,12 @@ import org.jetbrains.jet.plugin.util.application.runReadAction
 import com.intellij.psi.search.TextOccurenceProcessor
 import com.intellij.psi.PsiManager
 import com.intellij.psi.impl.PsiManagerEx
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.PsiNamedElement
+import org.jetbrains.jet.lang.psi.JetNamedFunction
+import org.jetbrains.jet.lang.psi.JetParameter
+import org.jetbrains.jet.lang.resolve.name.Name
+import org.jetbrains.jet.lang.resolve.dataClassUtils.isComponentLike
 
 public data class UsagesSearchLocation(
         val inCode: Boolean = true,
@@ -156,9 +162,35 @@ public class KotlinPsiSearchHelper(private val project: Project): PsiSearchHelpe
     public fun processFilesWithText(item: UsagesSearchRequestItem, consumer: Processor<PsiReference>): Boolean {
         return item.words.all { word ->
             val textProcessor = ResultTextProcessorImpl(item, consumer)
-            processElementsWithWord(textProcessor, item.target.effectiveScope, word, UsageSearchContext.IN_CODE, true)
+            processElementsWithWord(textProcessor, item.getScopeToSearchWord(word), word, UsageSearchContext.IN_CODE, true)
         }
     }
+
+    // Operation symbols like "(" or "[" occur in almost every file, so only files with matching conventions are scanned
+    private fun UsagesSearchRequestItem.getScopeToSearchWord(word: String): SearchScope {
+        val scope = target.effectiveScope
+        if (word !in ALL_SEARCHABLE_OPERATION_PATTERNS || scope !is GlobalSearchScope) return scope
+
+        val element = target.element
+        val conventionName = when (element) {
+            is JetParameter -> words.firstOrNull { Name.isValidIdentifier(it) && isComponentLike(Name.identifier(it)) }
+            is PsiNamedElement -> element.getName()
+            else -> null
+        } ?: return scope
+
+        val files = runReadAction {
+            KotlinConventionOperatorIndex.getFilesWithPossibleUsages(conventionName, element.getConventionArgumentCount(), scope)
+        }
+        return GlobalSearchScope.filesScope(project, files)
+    }
+
+    private fun PsiElement.getConventionArgumentCount(): Int = when (this) {
+        is JetNamedFunction ->
+            if (getValueParameters().any { it.hasDefaultValue() || it.isVarArg() }) -1 else getValueParameters().size()
+        is PsiMethod ->
+            if (isVarArgs()) -1 else getParameterList().getParametersCount()
+        else -> -1
+    }
 }
 
 public object UsagesSearch: QueryFactory<PsiReference, UsagesSearchRequest>() {
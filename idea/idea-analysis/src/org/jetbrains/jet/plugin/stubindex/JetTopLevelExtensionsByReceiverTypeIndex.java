@@ -0,0 +1,63 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.plugin.stubindex;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.psi.JetCallableDeclaration;
+
+import java.util.Collection;
+
+/**
+ * Stores package top level extension functions and properties by the short name of their receiver type.
+ * Receivers of nullable types are indexed by the name of the corresponding not-null type, receivers of function types
+ * by the name of the function class ("Function1", "ExtensionFunction2", ...), and receivers which are type parameters
+ * by the name of the upper bound or "Any" if there's no bound.
+ */
+public class JetTopLevelExtensionsByReceiverTypeIndex extends StringStubIndexExtension<JetCallableDeclaration> {
+    /**
+     * Extensions indexed by this name can be called on a receiver of any type
+     */
+    public static final String ANY_TYPE_NAME = "Any";
+
+    private static final StubIndexKey<String, JetCallableDeclaration> KEY =
+            KotlinIndexUtil.createIndexKey(JetTopLevelExtensionsByReceiverTypeIndex.class);
+
+    private static final JetTopLevelExtensionsByReceiverTypeIndex INSTANCE = new JetTopLevelExtensionsByReceiverTypeIndex();
+
+    @NotNull
+    public static JetTopLevelExtensionsByReceiverTypeIndex getInstance() {
+        return INSTANCE;
+    }
+
+    private JetTopLevelExtensionsByReceiverTypeIndex() {}
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, JetCallableDeclaration> getKey() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public Collection<JetCallableDeclaration> get(String s, Project project, @NotNull GlobalSearchScope scope) {
+        return super.get(s, project, JetSourceFilterScope.kotlinSourcesAndLibraries(scope, project));
+    }
+}
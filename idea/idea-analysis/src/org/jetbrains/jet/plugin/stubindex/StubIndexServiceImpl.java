@@ -16,15 +16,22 @@
 
 package org.jetbrains.jet.plugin.stubindex;
 
+import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.StubElement;
-import org.jetbrains.jet.lang.psi.JetClassOrObject;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.psi.*;
 import org.jetbrains.jet.lang.psi.stubs.*;
+import org.jetbrains.jet.lang.psi.stubs.elements.JetStubElementTypes;
 import org.jetbrains.jet.lang.psi.stubs.elements.StubIndexService;
 import org.jetbrains.jet.lang.resolve.java.JvmAbi;
 import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.lang.resolve.name.Name;
 
+import java.util.List;
+
 public class StubIndexServiceImpl implements StubIndexService {
 
     @Override
@@ -110,6 +117,10 @@ public class StubIndexServiceImpl implements StubIndexService {
                 sink.occurrence(JetTopLevelFunctionFqnNameIndex.getInstance().getKey(), fqName.asString());
                 sink.occurrence(JetTopLevelFunctionByPackageIndex.getInstance().getKey(), fqName.parent().asString());
             }
+
+            if (stub.isExtension()) {
+                indexReceiverTypeName(stub, sink);
+            }
         }
     }
 
@@ -131,7 +142,110 @@ public class StubIndexServiceImpl implements StubIndexService {
                 sink.occurrence(JetTopLevelPropertyFqnNameIndex.getInstance().getKey(), fqName.asString());
                 sink.occurrence(JetTopLevelPropertyByPackageIndex.getInstance().getKey(), fqName.parent().asString());
             }
+
+            if (stub.hasReceiverTypeRef()) {
+                indexReceiverTypeName(stub, sink);
+            }
+        }
+    }
+
+    private static void indexReceiverTypeName(StubElement<? extends JetCallableDeclaration> stub, IndexSink sink) {
+        // receiver type reference always goes first among type references of a callable declaration
+        StubElement<JetTypeReference> receiverTypeReference = stub.findChildStubByType(JetStubElementTypes.TYPE_REFERENCE);
+        if (receiverTypeReference == null) return;
+
+        String receiverTypeName = getTypeShortName(receiverTypeReference, stub);
+        if (receiverTypeName != null) {
+            sink.occurrence(JetTopLevelExtensionsByReceiverTypeIndex.getInstance().getKey(), receiverTypeName);
+        }
+    }
+
+    @Nullable
+    private static String getTypeShortName(@NotNull StubElement<JetTypeReference> typeReference, @NotNull StubElement<?> declaration) {
+        StubElement<?> typeElement = findChildStubByTypes(typeReference, JetStubElementTypes.TYPE_ELEMENT_TYPES);
+        while (typeElement != null && typeElement.getStubType() == JetStubElementTypes.NULLABLE_TYPE) {
+            typeElement = findChildStubByTypes(typeElement, JetStubElementTypes.TYPE_ELEMENT_TYPES);
+        }
+        if (typeElement == null) return null;
+
+        IStubElementType type = typeElement.getStubType();
+        if (type == JetStubElementTypes.DYNAMIC_TYPE) {
+            return JetTopLevelExtensionsByReceiverTypeIndex.ANY_TYPE_NAME;
+        }
+        if (type == JetStubElementTypes.FUNCTION_TYPE) {
+            StubElement<JetParameterList> parameterList = typeElement.findChildStubByType(JetStubElementTypes.VALUE_PARAMETER_LIST);
+            int parameterCount = parameterList != null ? parameterList.getChildrenStubs().size() : 0;
+            boolean isExtension = typeElement.findChildStubByType(JetStubElementTypes.FUNCTION_TYPE_RECEIVER) != null;
+            return (isExtension ? "ExtensionFunction" : "Function") + parameterCount;
+        }
+        if (type == JetStubElementTypes.USER_TYPE) {
+            KotlinNameReferenceExpressionStub reference =
+                    (KotlinNameReferenceExpressionStub) typeElement.findChildStubByType(JetStubElementTypes.REFERENCE_EXPRESSION);
+            if (reference == null) return null;
+            String name = reference.getReferencedName();
+
+            // only simple names may refer to type parameters and import aliases
+            if (typeElement.findChildStubByType(JetStubElementTypes.USER_TYPE) != null) return name;
+
+            KotlinTypeParameterStub typeParameter = findTypeParameter(declaration, name);
+            if (typeParameter != null) {
+                StubElement<JetTypeReference> bound = typeParameter.findChildStubByType(JetStubElementTypes.TYPE_REFERENCE);
+                // type parameter with no bound (or with bounds in "where" clause) can stand for any type
+                String boundName = bound != null ? getTypeShortName(bound, declaration) : null;
+                return boundName != null ? boundName : JetTopLevelExtensionsByReceiverTypeIndex.ANY_TYPE_NAME;
+            }
+
+            String originalName = findAliasedName(declaration, name);
+            return originalName != null ? originalName : name;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static KotlinTypeParameterStub findTypeParameter(@NotNull StubElement<?> declaration, @NotNull String name) {
+        StubElement<JetTypeParameterList> typeParameterList = declaration.findChildStubByType(JetStubElementTypes.TYPE_PARAMETER_LIST);
+        if (typeParameterList == null) return null;
+
+        for (StubElement child : typeParameterList.getChildrenStubs()) {
+            if (child instanceof KotlinTypeParameterStub && name.equals(((KotlinTypeParameterStub) child).getName())) {
+                return (KotlinTypeParameterStub) child;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String findAliasedName(@NotNull StubElement<?> declaration, @NotNull String alias) {
+        StubElement<?> file = declaration.getParentStub();
+        if (file == null) return null;
+
+        StubElement<JetImportList> importList = file.findChildStubByType(JetStubElementTypes.IMPORT_LIST);
+        if (importList == null) return null;
+
+        for (StubElement child : importList.getChildrenStubs()) {
+            if (!(child instanceof KotlinImportDirectiveStub) || !alias.equals(((KotlinImportDirectiveStub) child).getAliasName())) continue;
+
+            StubElement<?> reference = findChildStubByTypes(child, JetStubElementTypes.INSIDE_DIRECTIVE_EXPRESSIONS);
+            // the imported name is the selector of the last qualified expression
+            while (reference != null && reference.getStubType() == JetStubElementTypes.DOT_QUALIFIED_EXPRESSION) {
+                List<StubElement> children = reference.getChildrenStubs();
+                reference = children.isEmpty() ? null : children.get(children.size() - 1);
+            }
+            if (reference instanceof KotlinNameReferenceExpressionStub) {
+                return ((KotlinNameReferenceExpressionStub) reference).getReferencedName();
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static StubElement<?> findChildStubByTypes(@NotNull StubElement<?> stub, @NotNull TokenSet types) {
+        for (StubElement child : stub.getChildrenStubs()) {
+            if (types.contains(child.getStubType())) {
+                return child;
+            }
         }
+        return null;
     }
 
     @Override
@@ -25,6 +25,7 @@ import com.intellij.openapi.vfs.VirtualFile
 import org.jetbrains.jet.j2k.ConverterSettings
 import org.jetbrains.jet.j2k.FilesConversionScope
 import org.jetbrains.jet.j2k.IdeaReferenceSearcher
+import org.jetbrains.jet.j2k.CachingReferenceSearcher
 import org.jetbrains.jet.j2k.JavaToKotlinConverter
 import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiJavaFile
@@ -104,9 +105,10 @@ public class JavaToKotlinAction : AnAction() {
     }
 
     private fun convertFiles(javaFiles: List<PsiJavaFile>, project: Project): List<VirtualFile> {
-        val converter = JavaToKotlinConverter(project, ConverterSettings.defaultSettings, FilesConversionScope(javaFiles), IdeaReferenceSearcher, IdeaResolverForConverter)
+        val converter = JavaToKotlinConverter(project, ConverterSettings.defaultSettings, FilesConversionScope(javaFiles),
+                                              CachingReferenceSearcher(IdeaReferenceSearcher), IdeaResolverForConverter)
 
-        val convertedTexts = converter.elementsToKotlin(javaFiles.map { it to J2kPostProcessor(it) })
+        val convertedTexts = converter.elementsToKotlin(javaFiles.map { it to J2kPostProcessor(it) }, inParallel = true)
 
         val result = ArrayList<VirtualFile>()
         for ((i, psiFile) in javaFiles.withIndices()) {
@@ -32,7 +32,9 @@ import org.jetbrains.jet.lang.resolve.scopes.receivers.ExpressionReceiver
 import org.jetbrains.jet.lang.resolve.bindingContextUtil.getDataFlowInfo
 import org.jetbrains.jet.lang.resolve.QualifiedExpressionResolver.LookupMode
 import org.jetbrains.jet.lang.resolve.scopes.receivers.ReceiverValue
-import org.jetbrains.jet.lang.resolve.calls.smartcasts.DataFlowInfo
+import org.jetbrains.jet.lang.resolve.calls.smartcasts.SmartCastUtils
+import org.jetbrains.jet.lang.types.JetType
+import org.jetbrains.jet.lang.types.TypeUtils
 import com.intellij.psi.stubs.StringStubIndexExtension
 import org.jetbrains.jet.plugin.caches.resolve.ResolutionFacade
 import org.jetbrains.jet.plugin.util.extensionsUtils.isExtensionCallable
@@ -87,84 +89,72 @@ public class KotlinIndicesHelper(
     public fun getCallableExtensions(nameFilter: (String) -> Boolean, expression: JetSimpleNameExpression): Collection<CallableDescriptor> {
         val dataFlowInfo = bindingContext.getDataFlowInfo(expression)
 
-        val functionsIndex = JetTopLevelFunctionFqnNameIndex.getInstance()
-        val propertiesIndex = JetTopLevelPropertyFqnNameIndex.getInstance()
-
-        val sourceFunctionNames = functionsIndex.getAllKeys(project).stream().map { FqName(it) }
-        val sourcePropertyNames = propertiesIndex.getAllKeys(project).stream().map { FqName(it) }
-        val compiledFqNames = JetFromJavaDescriptorHelper.getTopLevelCallableFqNames(project, scope, true).stream()
-
-        val result = HashSet<CallableDescriptor>()
-        result.fqNamesToSuitableExtensions(sourceFunctionNames, nameFilter, functionsIndex, expression, bindingContext, dataFlowInfo)
-        result.fqNamesToSuitableExtensions(sourcePropertyNames, nameFilter, propertiesIndex, expression, bindingContext, dataFlowInfo)
-        result.fqNamesToSuitableExtensions(compiledFqNames, nameFilter, null, expression, bindingContext, dataFlowInfo)
-        return result
-    }
-
-    private fun MutableCollection<CallableDescriptor>.fqNamesToSuitableExtensions(
-            fqNames: Stream<FqName>,
-            nameFilter: (String) -> Boolean,
-            index: StringStubIndexExtension<out JetCallableDeclaration>?,
-            expression: JetSimpleNameExpression,
-            bindingContext: BindingContext,
-            dataFlowInfo: DataFlowInfo) {
-        val matchingNames = fqNames.filter { nameFilter(it.shortName().asString()) }
+        val receiverValues: List<ReceiverValue>
+        val isInfixCall: Boolean
+        val resolutionScope: JetScope
 
         val receiverExpression = expression.getReceiverExpression()
         if (receiverExpression != null) {
-            val isInfixCall = expression.getParent() is JetBinaryExpression
-
             val expressionType = bindingContext[BindingContext.EXPRESSION_TYPE, receiverExpression]
-            if (expressionType == null || expressionType.isError()) return
+            if (expressionType == null || expressionType.isError()) return listOf()
 
-            val resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, receiverExpression] ?: return
-
-            val receiverValue = ExpressionReceiver(receiverExpression, expressionType)
-
-            matchingNames.flatMapTo(this) {
-                findSuitableExtensions(it, index, receiverValue, dataFlowInfo, isInfixCall, resolutionScope, moduleDescriptor, bindingContext).stream()
-            }
+            resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, receiverExpression] ?: return listOf()
+            receiverValues = listOf(ExpressionReceiver(receiverExpression, expressionType))
+            isInfixCall = expression.getParent() is JetBinaryExpression
         }
         else {
-            val resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, expression] ?: return
+            resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, expression] ?: return listOf()
+            receiverValues = resolutionScope.getImplicitReceiversHierarchy().map { it.getValue() }
+            isInfixCall = false
+        }
 
-            for (receiver in resolutionScope.getImplicitReceiversHierarchy()) {
-                matchingNames.flatMapTo(this) {
-                    findSuitableExtensions(it, index, receiver.getValue(), dataFlowInfo, false, resolutionScope, moduleDescriptor, bindingContext).stream()
-                }
+        val receiverTypeNames = HashSet<String>()
+        receiverTypeNames.add(JetTopLevelExtensionsByReceiverTypeIndex.ANY_TYPE_NAME)
+        for (receiverValue in receiverValues) {
+            for (type in SmartCastUtils.getSmartCastVariants(receiverValue, bindingContext, dataFlowInfo)) {
+                receiverTypeNames.addTypeNames(type)
             }
         }
-    }
 
-    /**
-     * Check that function or property with the given qualified name can be resolved in given scope and called on given receiver
-     */
-    private fun findSuitableExtensions(callableFQN: FqName,
-                                       index: StringStubIndexExtension<out JetCallableDeclaration>?,
-                                       receiverValue: ReceiverValue,
-                                       dataFlowInfo: DataFlowInfo,
-                                       isInfixCall: Boolean,
-                                       resolutionScope: JetScope,
-                                       module: ModuleDescriptor,
-                                       bindingContext: BindingContext): Collection<CallableDescriptor> {
-        val fqnString = callableFQN.asString()
-        val descriptors = if (index != null) {
-            index.get(fqnString, project, scope)
-                    .filter { it.getReceiverTypeReference() != null }
-                    .map { resolutionFacade.resolveToDescriptor(it) as CallableDescriptor }
+        val result = HashSet<CallableDescriptor>()
+
+        val index = JetTopLevelExtensionsByReceiverTypeIndex.getInstance()
+        for (typeName in receiverTypeNames) {
+            index.get(typeName, project, scope)
+                    .filter { nameFilter(it.getName() ?: "") }
+                    .mapTo(result) { resolutionFacade.resolveToDescriptor(it) as CallableDescriptor }
         }
-        else {
-            val importDirective = JetPsiFactory(project).createImportDirective(fqnString)
-            analyzeImportReference(importDirective, resolutionScope, BindingTraceContext(), module)
-                    .filterIsInstance<CallableDescriptor>()
-                    .filter { it.getExtensionReceiverParameter() != null }
+
+        JetFromJavaDescriptorHelper.getTopLevelExtensionFqNamesByReceiverTypeNames(project, scope, receiverTypeNames)
+                .filter { nameFilter(it.shortName().asString()) }
+                .flatMapTo(result) { findTopLevelExtensions(it, resolutionScope) }
+
+        return result.filter { descriptor ->
+            visibilityFilter(descriptor) &&
+            receiverValues.any { descriptor.isExtensionCallable(it, isInfixCall, bindingContext, dataFlowInfo) }
         }
+    }
 
-        return descriptors.filter {
-            visibilityFilter(it) && it.isExtensionCallable(receiverValue, isInfixCall, bindingContext, dataFlowInfo)
+    private fun MutableSet<String>.addTypeNames(type: JetType) {
+        val descriptor = type.getConstructor().getDeclarationDescriptor()
+        if (descriptor != null) {
+            add(descriptor.getName().asString())
+        }
+        for (supertype in TypeUtils.getAllSupertypes(type)) {
+            val supertypeDescriptor = supertype.getConstructor().getDeclarationDescriptor()
+            if (supertypeDescriptor != null) {
+                add(supertypeDescriptor.getName().asString())
+            }
         }
     }
 
+    private fun findTopLevelExtensions(fqName: FqName, resolutionScope: JetScope): Collection<CallableDescriptor> {
+        val importDirective = JetPsiFactory(project).createImportDirective(ImportPath(fqName, false))
+        return analyzeImportReference(importDirective, resolutionScope, BindingTraceContext(), moduleDescriptor)
+                .filterIsInstance<CallableDescriptor>()
+                .filter { it.getExtensionReceiverParameter() != null }
+    }
+
     public fun getClassDescriptors(nameFilter: (String) -> Boolean, kindFilter: (ClassKind) -> Boolean): Collection<ClassDescriptor> {
         return JetFullClassNameIndex.getInstance().getAllKeys(project).stream()
                 .map { FqName(it) }
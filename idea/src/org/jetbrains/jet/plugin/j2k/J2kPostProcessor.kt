@@ -20,13 +20,19 @@ import org.jetbrains.jet.j2k.PostProcessor
 import org.jetbrains.jet.lang.psi.*
 import org.jetbrains.jet.lang.resolve.BindingContext
 import org.jetbrains.jet.plugin.intentions.RemoveExplicitTypeArguments
-import org.jetbrains.jet.plugin.caches.resolve.analyzeFullyAndGetResult
+import org.jetbrains.jet.plugin.caches.resolve.KotlinCacheService
+import org.jetbrains.jet.plugin.caches.resolve.getModuleInfo
 import java.util.ArrayList
 import com.intellij.psi.PsiElement
 
 public class J2kPostProcessor(override val contextToAnalyzeIn: PsiElement) : PostProcessor {
-    override fun analyzeFile(file: JetFile): BindingContext {
-        return file.analyzeFullyAndGetResult().bindingContext
+    // synthetic files can be analyzed together only if their contexts are in the same module
+    override val analysisGroupKey: Any
+        get() = contextToAnalyzeIn.getModuleInfo()
+
+    override fun analyzeFiles(files: Collection<JetFile>): BindingContext {
+        val resolutionFacade = KotlinCacheService.getInstance(contextToAnalyzeIn.getProject()).getResolutionFacade(files.toList())
+        return resolutionFacade.analyzeFullyAndGetResult(files).bindingContext
     }
 
     override fun doAdditionalProcessing(file: JetFile) {
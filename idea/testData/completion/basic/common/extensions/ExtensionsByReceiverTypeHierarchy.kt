@@ -0,0 +1,34 @@
+package a.b
+
+import a.b.Base as Aliased
+
+trait Base
+open class Middle : Base
+class Derived : Middle()
+class Other
+
+fun Base.extOnBase() { }
+fun Middle?.extOnNullableMiddle() { }
+fun Aliased.extOnAliased() { }
+fun <T : Middle> T.extOnBoundedParameter() { }
+fun <T> T.extOnParameter() { }
+val Any.extPropOnAny: Int get() = 1
+fun Other.extOnOther() { }
+fun <T : Other> T.extOnOtherBoundedParameter() { }
+fun (() -> Unit).extOnFunction() { }
+
+fun test(d: Any) {
+    if (d is Derived) {
+        d.<caret>
+    }
+}
+
+// EXIST: extOnBase
+// EXIST: extOnNullableMiddle
+// EXIST: extOnAliased
+// EXIST: extOnBoundedParameter
+// EXIST: extOnParameter
+// EXIST: extPropOnAny
+// ABSENT: extOnOther
+// ABSENT: extOnOtherBoundedParameter
+// ABSENT: extOnFunction
@@ -0,0 +1,16 @@
+// PSI_ELEMENT: org.jetbrains.jet.lang.psi.JetNamedFunction
+// OPTIONS: usages
+
+class Delegate {
+    fun <caret>get(thisRef: Any?, desc: PropertyMetadata): Int = 1
+    fun set(thisRef: Any?, desc: PropertyMetadata, value: Int) {}
+}
+
+class A {
+    val x by Delegate()
+    var y: Int by Delegate()
+}
+
+fun test(d: Delegate, metadata: PropertyMetadata) {
+    d.get(null, metadata)
+}
@@ -852,6 +852,12 @@ public class JSBasicCompletionTestGenerated extends AbstractJSBasicCompletionTes
                 doTest(fileName);
             }
 
+            @TestMetadata("ExtensionsByReceiverTypeHierarchy.kt")
+            public void testExtensionsByReceiverTypeHierarchy() throws Exception {
+                String fileName = JetTestUtils.navigationMetadata("idea/testData/completion/basic/common/extensions/ExtensionsByReceiverTypeHierarchy.kt");
+                doTest(fileName);
+            }
+
             @TestMetadata("InvalidTypeParameters.kt")
             public void testInvalidTypeParameters() throws Exception {
                 String fileName = JetTestUtils.navigationMetadata("idea/testData/completion/basic/common/extensions/InvalidTypeParameters.kt");
@@ -72,6 +72,12 @@ public class JetFindUsagesTestGenerated extends AbstractJetFindUsagesTest {
                 doTest(fileName);
             }
 
+            @TestMetadata("delegateGetSet.0.kt")
+            public void testDelegateGetSet() throws Exception {
+                String fileName = JetTestUtils.navigationMetadata("idea/testData/findUsages/kotlin/conventions/delegateGetSet.0.kt");
+                doTest(fileName);
+            }
+
             @TestMetadata("equals.0.kt")
             public void testEquals() throws Exception {
                 String fileName = JetTestUtils.navigationMetadata("idea/testData/findUsages/kotlin/conventions/equals.0.kt");
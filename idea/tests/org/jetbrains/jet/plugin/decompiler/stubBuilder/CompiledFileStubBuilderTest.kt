@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.plugin.decompiler.stubBuilder
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiManager
+import com.intellij.psi.stubs.IStubElementType
+import com.intellij.psi.stubs.IndexSink
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.stubs.StubIndexKey
+import org.jetbrains.jet.lang.psi.JetFile
+import org.jetbrains.jet.lang.psi.stubs.KotlinFileStub
+import org.jetbrains.jet.lang.psi.stubs.elements.JetFileStubBuilder
+import org.jetbrains.jet.lang.psi.stubs.elements.JetStubElementTypes
+import org.jetbrains.jet.lang.resolve.java.PackageClassUtils
+import org.jetbrains.jet.lang.resolve.name.FqName
+import org.jetbrains.jet.plugin.JetLightCodeInsightFixtureTestCase
+import org.jetbrains.jet.plugin.JetWithJdkAndRuntimeLightProjectDescriptor
+import org.jetbrains.jet.plugin.decompiler.JetClsFile
+import org.jetbrains.jet.plugin.stubindex.JetAnnotationsIndex
+import org.junit.Assert
+import java.util.TreeSet
+
+public class CompiledFileStubBuilderTest : JetLightCodeInsightFixtureTestCase() {
+
+    public fun testPackageFacade() {
+        doTest(PackageClassUtils.getPackageClassFqName(FqName("kotlin")))
+    }
+
+    public fun testObject() {
+        doTest(FqName("kotlin.properties.Delegates"))
+    }
+
+    public fun testAbstractClass() {
+        doTest(FqName("kotlin.properties.ChangeSupport"))
+    }
+
+    public fun testClassObjectWithNestedClasses() {
+        doTest(FqName("kotlin.concurrent.FunctionalList"))
+    }
+
+    private fun doTest(classFqName: FqName) {
+        val psiClass = myFixture.getJavaFacade()!!.findClass(classFqName.asString())
+        Assert.assertNotNull("Class not found: $classFqName", psiClass)
+        val classFile = psiClass!!.getContainingFile()!!.getVirtualFile()!!
+
+        val compiledStub = buildCompiledFileStub(classFile)
+        Assert.assertNotNull("Stub wasn't built for $classFile", compiledStub)
+
+        val clsFile = PsiManager.getInstance(getProject()).findFile(classFile) as JetClsFile
+        val decompiledStub = JetFileStubBuilder().buildStubTree(clsFile.getMirror() as JetFile)
+
+        Assert.assertEquals(collectIndexOccurrences(decompiledStub), collectIndexOccurrences(compiledStub!!))
+    }
+
+    private fun collectIndexOccurrences(fileStub: StubElement<*>): String {
+        val sink = RecordingIndexSink()
+        JetStubElementTypes.FILE.indexStub(fileStub as KotlinFileStub, sink)
+        for (child in fileStub.getChildrenStubs()) {
+            indexStubs(child, sink)
+        }
+        return sink.occurrences.joinToString("\n")
+    }
+
+    private fun indexStubs(stub: StubElement<*>, sink: IndexSink) {
+        [suppress("UNCHECKED_CAST")]
+        (stub.getStubType() as IStubElementType<StubElement<*>, *>).indexStub(stub, sink)
+        for (child in stub.getChildrenStubs()) {
+            indexStubs(child, sink)
+        }
+    }
+
+    private class RecordingIndexSink : IndexSink {
+        val occurrences = TreeSet<String>()
+
+        override fun <Psi : PsiElement?, K> occurrence(indexKey: StubIndexKey<K, Psi>, value: K) {
+            // annotations are stored in the class file itself rather than in the metadata, so compiled stubs don't have them
+            if (indexKey != JetAnnotationsIndex.getInstance().getKey()) {
+                occurrences.add("$indexKey: $value")
+            }
+        }
+    }
+
+    override fun getProjectDescriptor() = JetWithJdkAndRuntimeLightProjectDescriptor.INSTANCE
+}
@@ -16,6 +16,8 @@
 
 package org.jetbrains.jet.plugin.javaFacade;
 
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -216,6 +218,39 @@ public class JetJavaFacadeTest extends JetLightCodeInsightFixtureTestCase {
         assertNull(createdByWrapDelegate);
     }
 
+    public void testPackageClassIsRegeneratedAfterChangeInAnotherFile() throws Exception {
+        myFixture.addFileToProject("a/a.kt", "package a\n\nimport c.*\n\nfun foo(b: B) {}\n");
+        myFixture.configureByText("c.kt", "package c\n\nclass B\n");
+        assertEquals("c.B", getParameterTypeOfFoo());
+
+        replaceText(myFixture.getFile(), "package c\n\nclass C\n");
+        assertFalse("Package class should be regenerated when a class its signatures refer to is renamed",
+                    "c.B".equals(getParameterTypeOfFoo()));
+    }
+
+    @NotNull
+    private String getParameterTypeOfFoo() {
+        PsiClass packageClass = JavaPsiFacade.getInstance(getProject()).findClass("a.APackage", GlobalSearchScope.allScope(getProject()));
+        assertNotNull(packageClass);
+
+        PsiMethod[] methods = packageClass.findMethodsByName("foo", false);
+        assertEquals(1, methods.length);
+        return methods[0].getParameterList().getParameters()[0].getType().getCanonicalText();
+    }
+
+    private void replaceText(@NotNull final PsiFile file, @NotNull final String text) {
+        new WriteCommandAction.Simple(getProject(), file) {
+            @Override
+            protected void run() throws Throwable {
+                PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+                Document document = documentManager.getDocument(file);
+                assertNotNull(document);
+                document.setText(text);
+                documentManager.commitDocument(document);
+            }
+        }.execute();
+    }
+
     private void doTestWrapMethod(boolean shouldBeWrapped) {
         JetNamedFunction jetFunction = getPreparedElement(JetNamedFunction.class);
 
@@ -27,12 +27,18 @@ import com.intellij.psi.PsiFile
 import org.jetbrains.jet.lang.resolve.BindingContext
 import com.intellij.psi.PsiElement
 
-class AfterConversionPass(val project: Project, val postProcessor: PostProcessor) {
-    public fun run(kotlinCode: String): String {
-        val kotlinFile = JetPsiFactory(project).createAnalyzableFile(
-                "fileForAfterConversionPass.kt", kotlinCode, postProcessor.contextToAnalyzeIn
-        )
-        val bindingContext = postProcessor.analyzeFile(kotlinFile)
+class AfterConversionPass(val project: Project) {
+    /**
+     * Post-processes results of conversion analyzing all of them together,
+     * so post-processors passed here should have equal [PostProcessor.analysisGroupKey]
+     */
+    public fun run(kotlinCodesAndProcessors: List<Pair<String, PostProcessor>>): List<String> {
+        if (kotlinCodesAndProcessors.isEmpty()) return listOf()
+
+        val kotlinFiles = kotlinCodesAndProcessors.map {
+            JetPsiFactory(project).createAnalyzableFile("fileForAfterConversionPass.kt", it.first, it.second.contextToAnalyzeIn)
+        }
+        val bindingContext = kotlinCodesAndProcessors.first().second.analyzeFiles(kotlinFiles)
 
         val fixes = bindingContext.getDiagnostics().map {
             val fix = fixForProblem(it)
@@ -45,9 +51,11 @@ class AfterConversionPass(val project: Project, val postProcessor: PostProcessor
             }
         }
 
-        postProcessor.doAdditionalProcessing(kotlinFile)
+        for ((i, kotlinFile) in kotlinFiles.withIndices()) {
+            kotlinCodesAndProcessors[i].second.doAdditionalProcessing(kotlinFile)
+        }
 
-        return kotlinFile.getText()!!
+        return kotlinFiles.map { it.getText()!! }
     }
 
     private fun fixForProblem(problem: Diagnostic): (() -> Unit)? {
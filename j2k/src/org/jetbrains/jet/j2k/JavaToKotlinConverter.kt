@@ -26,7 +26,12 @@ import org.jetbrains.jet.lang.resolve.BindingContext
 import com.intellij.openapi.diagnostic.Logger
 import java.util.ArrayList
 import org.jetbrains.jet.j2k.usageProcessing.UsageProcessing
-import java.util.HashMap
+import com.intellij.concurrency.JobLauncher
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.util.Processor
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.AtomicReferenceArray
 
 public trait ConversionScope {
     public fun contains(element: PsiElement): Boolean
@@ -38,7 +43,13 @@ public class FilesConversionScope(val files: Collection<PsiJavaFile>) : Conversi
 
 public trait PostProcessor {
     public val contextToAnalyzeIn: PsiElement
-    public fun analyzeFile(file: JetFile): BindingContext
+
+    /**
+     * Results of post-processors with equal keys are analyzed together by one [analyzeFiles] call, e.g. all files of one module
+     */
+    public val analysisGroupKey: Any
+
+    public fun analyzeFiles(files: Collection<JetFile>): BindingContext
     public fun doAdditionalProcessing(file: JetFile)
 }
 
@@ -49,44 +60,48 @@ public class JavaToKotlinConverter(private val project: Project,
                                    private val resolverForConverter: ResolverForConverter) {
     private val LOG = Logger.getInstance("#org.jetbrains.jet.j2k.JavaToKotlinConverter")
 
-    public fun elementsToKotlin(psiElementsAndProcessors: List<Pair<PsiElement, PostProcessor?>>): List<String> {
+    /**
+     * @param inParallel convert independent elements on several threads, each of them holding a read action
+     */
+    public fun elementsToKotlin(psiElementsAndProcessors: List<Pair<PsiElement, PostProcessor?>>, inParallel: Boolean = false): List<String> {
         try {
-            val intermediateResults = ArrayList<((Map<PsiElement, UsageProcessing>) -> String)?>(psiElementsAndProcessors.size)
-            val usageProcessings = HashMap<PsiElement, UsageProcessing>()
+            val size = psiElementsAndProcessors.size
+            val intermediateResults = AtomicReferenceArray<((Map<PsiElement, UsageProcessing>) -> String)?>(size)
+            val usageProcessings = ConcurrentHashMap<PsiElement, UsageProcessing>()
             val usageProcessingCollector: (UsageProcessing) -> Unit = { usageProcessing ->
-                assert(!usageProcessings.containsKey(usageProcessing.targetElement))
-                    { "Duplicated UsageProcessing for target element ${usageProcessing.targetElement}" }
-                usageProcessings.put(usageProcessing.targetElement, usageProcessing)
+                val previous = usageProcessings.putIfAbsent(usageProcessing.targetElement, usageProcessing)
+                assert(previous == null) { "Duplicated UsageProcessing for target element ${usageProcessing.targetElement}" }
             }
-            for ((psiElement, postProcessor) in psiElementsAndProcessors) {
+            forEachIndex(size, inParallel) { i ->
+                val (psiElement, postProcessor) = psiElementsAndProcessors[i]
                 val converter = Converter.create(psiElement, settings, conversionScope, referenceSearcher, resolverForConverter, postProcessor, usageProcessingCollector)
-                val result = converter.convert()
-                intermediateResults.add(result)
+                intermediateResults.set(i, converter.convert())
             }
 
-            val results = ArrayList<String>(psiElementsAndProcessors.size)
-            for ((i, result) in intermediateResults.withIndices()) {
-                results.add(if (result != null) result(usageProcessings) else "")
-                intermediateResults[i] = null // to not hold unused objects in the heap
+            val results = AtomicReferenceArray<String>(size)
+            forEachIndex(size, inParallel) { i ->
+                val result = intermediateResults.getAndSet(i, null) // to not hold unused objects in the heap
+                results.set(i, if (result != null) result(usageProcessings) else "")
             }
 
-            val finalResults = ArrayList<String>(psiElementsAndProcessors.size)
-            for ((i, result) in results.withIndices()) {
-                val postProcessor = psiElementsAndProcessors[i].second
-                if (postProcessor != null) {
-                    try {
-                        finalResults.add(AfterConversionPass(project, postProcessor).run(result))
-                    }
-                    catch(e: ProcessCanceledException) {
-                        throw e
-                    }
-                    catch(t: Throwable) {
-                        LOG.error(t)
-                        finalResults.add(result)
+            val finalResults = ArrayList<String>(size)
+            for (i in 0..size - 1) {
+                finalResults.add(results.get(i))
+            }
+
+            val indicesToPostProcess = (0..size - 1).filter { psiElementsAndProcessors[it].second != null }
+            for (indices in indicesToPostProcess.groupBy { psiElementsAndProcessors[it].second!!.analysisGroupKey }.values()) {
+                try {
+                    val processed = AfterConversionPass(project).run(indices.map { finalResults[it] to psiElementsAndProcessors[it].second!! })
+                    for ((index, text) in indices.zip(processed)) {
+                        finalResults[index] = text
                     }
                 }
-                else {
-                    finalResults.add(result)
+                catch(e: ProcessCanceledException) {
+                    throw e
+                }
+                catch(t: Throwable) {
+                    LOG.error(t)
                 }
             }
             return finalResults
@@ -95,11 +110,38 @@ public class JavaToKotlinConverter(private val project: Project,
             // if we got this exception then we need to turn element creation stack traces on to get better diagnostic
             Element.saveCreationStacktraces = true
             try {
-                return elementsToKotlin(psiElementsAndProcessors)
+                return elementsToKotlin(psiElementsAndProcessors, inParallel)
             }
             finally {
                 Element.saveCreationStacktraces = false
             }
         }
     }
+
+    private fun forEachIndex(size: Int, inParallel: Boolean, action: (Int) -> Unit) {
+        if (!inParallel || size <= 1) {
+            for (i in 0..size - 1) {
+                action(i)
+            }
+            return
+        }
+
+        // exceptions are rethrown on the calling thread to keep the handling above the same as for sequential conversion
+        val failure = AtomicReference<Throwable>()
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(
+                (0..size - 1).toList(), ProgressManager.getInstance().getProgressIndicator(), true, false,
+                Processor<Int> { i ->
+                    try {
+                        action(i)
+                        true
+                    }
+                    catch(t: Throwable) {
+                        failure.compareAndSet(null, t)
+                        false
+                    }
+                }
+        )
+        val t = failure.get()
+        if (t != null) throw t
+    }
 }
\ No newline at end of file
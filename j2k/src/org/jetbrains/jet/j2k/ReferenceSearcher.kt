@@ -26,6 +26,8 @@ import com.intellij.psi.PsiMethodCallExpression
 import com.intellij.psi.PsiClass
 import com.intellij.psi.search.searches.ClassInheritorsSearch
 import com.intellij.psi.search.searches.OverridingMethodsSearch
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 
 public trait ReferenceSearcher {
     fun findVariableUsages(variable: PsiVariable, scope: PsiElement): Collection<PsiReferenceExpression>
@@ -62,3 +64,25 @@ public object IdeaReferenceSearcher : ReferenceSearcher {
 
     override fun hasOverrides(method: PsiMethod) = OverridingMethodsSearch.search(method, false).any()
 }
+
+/**
+ * Remembers results of the global inheritor and override searches, so that converting a batch of files
+ * searches the index once per class and method. Can be shared between threads converting different files.
+ */
+public class CachingReferenceSearcher(private val searcher: ReferenceSearcher) : ReferenceSearcher by searcher {
+    private val hasInheritorsCache = ConcurrentHashMap<PsiClass, Boolean>()
+    private val hasOverridesCache = ConcurrentHashMap<PsiMethod, Boolean>()
+
+    override fun hasInheritors(`class`: PsiClass) = hasInheritorsCache.getOrSearch(`class`) { searcher.hasInheritors(it) }
+
+    override fun hasOverrides(method: PsiMethod) = hasOverridesCache.getOrSearch(method) { searcher.hasOverrides(it) }
+
+    private fun <K> ConcurrentMap<K, Boolean>.getOrSearch(key: K, search: (K) -> Boolean): Boolean {
+        val cached = get(key)
+        if (cached != null) return cached
+
+        val result = search(key)
+        putIfAbsent(key, result)
+        return result
+    }
+}
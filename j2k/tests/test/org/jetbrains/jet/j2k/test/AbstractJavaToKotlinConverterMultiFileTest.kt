@@ -27,6 +27,7 @@ import org.jetbrains.jet.plugin.j2k.J2kPostProcessor
 import org.jetbrains.jet.plugin.JetWithJdkAndRuntimeLightProjectDescriptor
 import com.intellij.psi.PsiJavaFile
 import org.jetbrains.jet.j2k.IdeaReferenceSearcher
+import org.jetbrains.jet.j2k.CachingReferenceSearcher
 import org.jetbrains.jet.j2k.JavaToKotlinConverter
 import com.intellij.psi.PsiManager
 import java.util.ArrayList
@@ -47,8 +48,9 @@ public abstract class AbstractJavaToKotlinConverterMultiFileTest() : AbstractJav
             psiFiles.add(psiFile)
         }
 
-        val converter = JavaToKotlinConverter(project, ConverterSettings.defaultSettings, FilesConversionScope(psiFiles), IdeaReferenceSearcher, IdeaResolverForConverter)
-        val results: List<String> = converter.elementsToKotlin(psiFiles.map { it to J2kPostProcessor(it) })
+        val converter = JavaToKotlinConverter(project, ConverterSettings.defaultSettings, FilesConversionScope(psiFiles),
+                                              CachingReferenceSearcher(IdeaReferenceSearcher), IdeaResolverForConverter)
+        val results: List<String> = converter.elementsToKotlin(psiFiles.map { it to J2kPostProcessor(it) }, inParallel = true)
                 .map { reformat(it, project) }
 
         fun expectedFile(i: Int) = File(javaFiles[i].getPath().replace(".java", ".kt"))
@@ -30,6 +30,7 @@ import org.jetbrains.jet.config.Services
 import org.jetbrains.jet.config.IncrementalCompilation
 import org.jetbrains.jet.jps.JpsKotlinCompilerSettings
 import org.jetbrains.jet.jps.incremental.*
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl
 import org.jetbrains.jet.lang.resolve.kotlin.incremental.cache.IncrementalCacheProvider
 import org.jetbrains.jet.utils.PathUtil
 import org.jetbrains.jps.ModuleChunk
@@ -60,6 +61,9 @@ import org.jetbrains.jet.compiler.CompilerSettings
 import org.jetbrains.jps.model.JpsProject
 import org.jetbrains.jet.compiler.runner.OutputItemsCollector
 import org.jetbrains.jet.compiler.runner.SimpleOutputItem
+import org.jetbrains.jet.compiler.runner.CompilerRunnerUtil
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.util.Disposer
 
 public class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
     class object {
@@ -68,6 +72,9 @@ public class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR
         private val LOG = Logger.getInstance("#org.jetbrains.jps.cmdline.BuildSession")
     }
 
+    // Keeps the compiler environment with opened library jars between chunks, including chunks compiled in parallel
+    private var compilerSession: Disposable? = null
+
     override fun getPresentableName() = KOTLIN_BUILDER_NAME
 
     override fun getCompilableFileExtensions() = arrayListOf("kt")
@@ -111,6 +118,8 @@ public class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR
             return ABORT
         }
 
+        startCompilerSessionIfNeeded(environment, messageCollector)
+
         val project = context.getProjectDescriptor().getProject()
         val commonArguments = JpsKotlinCompilerSettings.getCommonCompilerArguments(project)
         commonArguments.verbose = true // Make compiler report source to output files mapping
@@ -164,6 +173,30 @@ public class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR
         return OK
     }
 
+    override fun buildFinished(context: CompileContext) {
+        synchronized(this) {
+            val session = compilerSession
+            if (session != null) {
+                Disposer.dispose(session)
+                compilerSession = null
+            }
+        }
+    }
+
+    private fun startCompilerSessionIfNeeded(environment: CompilerEnvironment, messageCollector: MessageCollector) {
+        synchronized(this) {
+            if (compilerSession != null) return
+
+            try {
+                compilerSession = CompilerRunnerUtil.startCompilerSession(environment, messageCollector)
+            }
+            catch (e: Exception) {
+                // Each chunk is compiled in its own environment then
+                LOG.warn("Could not start compiler session", e)
+            }
+        }
+    }
+
     private fun createCompileEnvironment(incrementalCaches: Map<ModuleBuildTarget, IncrementalCacheImpl>): CompilerEnvironment {
         val compilerServices = Services.Builder()
                 .register(javaClass<IncrementalCacheProvider>(), IncrementalCacheProviderImpl(incrementalCaches))
@@ -400,24 +433,29 @@ public class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR
     }
 }
 
+// Containers below are shared by chunks which may be built in parallel
 private val ALL_COMPILED_FILES_KEY = Key.create<MutableSet<File>>("_all_kotlin_compiled_files_")
 private fun getAllCompiledFilesContainer(context: CompileContext): MutableSet<File> {
-    var allCompiledFiles = ALL_COMPILED_FILES_KEY.get(context)
-    if (allCompiledFiles == null) {
-        allCompiledFiles = THashSet(FileUtil.FILE_HASHING_STRATEGY)
-        ALL_COMPILED_FILES_KEY.set(context, allCompiledFiles)
+    synchronized(ALL_COMPILED_FILES_KEY) {
+        var allCompiledFiles = ALL_COMPILED_FILES_KEY.get(context)
+        if (allCompiledFiles == null) {
+            allCompiledFiles = Collections.synchronizedSet(THashSet(FileUtil.FILE_HASHING_STRATEGY))
+            ALL_COMPILED_FILES_KEY.set(context, allCompiledFiles)
+        }
+        return allCompiledFiles!!
     }
-    return allCompiledFiles!!
 }
 
 private val PROCESSED_TARGETS_WITH_REMOVED_FILES = Key.create<MutableSet<ModuleBuildTarget>>("_processed_targets_with_removed_files_")
 private fun getProcessedTargetsWithRemovedFilesContainer(context: CompileContext): MutableSet<ModuleBuildTarget> {
-    var set = PROCESSED_TARGETS_WITH_REMOVED_FILES.get(context)
-    if (set == null) {
-        set = HashSet<ModuleBuildTarget>()
-        PROCESSED_TARGETS_WITH_REMOVED_FILES.set(context, set)
+    synchronized(PROCESSED_TARGETS_WITH_REMOVED_FILES) {
+        var set = PROCESSED_TARGETS_WITH_REMOVED_FILES.get(context)
+        if (set == null) {
+            set = Collections.synchronizedSet(HashSet<ModuleBuildTarget>())
+            PROCESSED_TARGETS_WITH_REMOVED_FILES.set(context, set)
+        }
+        return set!!
     }
-    return set!!
 }
 
 private fun hasKotlinDirtyOrRemovedFiles(
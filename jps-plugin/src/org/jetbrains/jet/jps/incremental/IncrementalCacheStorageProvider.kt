@@ -0,0 +1,30 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jps.incremental
+
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl
+import org.jetbrains.jps.builders.storage.StorageProvider
+import org.jetbrains.jps.incremental.storage.StorageOwner
+import java.io.File
+
+public class JpsIncrementalCacheImpl(baseDir: File): IncrementalCacheImpl(baseDir), StorageOwner
+
+public object IncrementalCacheStorageProvider : StorageProvider<JpsIncrementalCacheImpl>() {
+    override fun createStorage(targetDataDir: File?): JpsIncrementalCacheImpl {
+        return JpsIncrementalCacheImpl(File(targetDataDir, IncrementalCacheImpl.DIRECTORY_NAME))
+    }
+}
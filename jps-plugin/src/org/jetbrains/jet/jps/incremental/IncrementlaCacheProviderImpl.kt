@@ -19,6 +19,7 @@ package org.jetbrains.jet.jps.incremental
 import org.jetbrains.jet.lang.resolve.kotlin.incremental.cache.IncrementalCacheProvider
 import org.jetbrains.jps.incremental.ModuleBuildTarget
 import org.jetbrains.jet.lang.resolve.kotlin.incremental.cache.IncrementalCache
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl
 import kotlin.properties.Delegates
 
 public class IncrementalCacheProviderImpl(caches: Map<ModuleBuildTarget, IncrementalCacheImpl>): IncrementalCacheProvider {
@@ -19,7 +19,7 @@ package org.jetbrains.jet.jps.build
 import org.jetbrains.jps.builders.impl.BuildDataPathsImpl
 import java.io.File
 import org.jetbrains.jps.builders.java.JavaModuleBuildTargetType
-import org.jetbrains.jet.jps.incremental.IncrementalCacheImpl
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.IncrementalCacheImpl
 import kotlin.test.assertTrue
 
 public class IncrementalCacheVersionChangedTest : AbstractIncrementalJpsTest() {
@@ -28,6 +28,7 @@ import org.jetbrains.jet.jps.JpsKotlinCompilerSettings;
 import org.jetbrains.jet.lang.resolve.kotlin.PackagePartClassUtils;
 import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jps.builders.BuildResult;
+import org.jetbrains.jps.cmdline.BuildRunner;
 import org.jetbrains.jps.model.java.JpsJavaDependencyScope;
 import org.jetbrains.jps.model.java.JpsJavaExtensionService;
 import org.jetbrains.jps.model.module.JpsModule;
@@ -302,6 +303,24 @@ public class KotlinJpsBuildTest extends AbstractKotlinJpsBuildTestCase {
         makeAll().assertSuccessful();
     }
 
+    public void testParallelBuildOfIndependentModules() {
+        boolean parallelBuildEnabled = BuildRunner.PARALLEL_BUILD_ENABLED;
+        BuildRunner.PARALLEL_BUILD_ENABLED = true;
+        try {
+            doTest();
+
+            for (int i = 1; i <= 4; i++) {
+                assertFilesExistInOutput(findModule("module" + i), "m" + i + "/A" + i + ".class");
+            }
+
+            checkWhen(new Action[]{ touch("module1/src/a1.kt"), touch("module2/src/a2.kt") }, null,
+                      new String[] {klass("module1", "m1.A1"), klass("module2", "m2.A2")});
+        }
+        finally {
+            BuildRunner.PARALLEL_BUILD_ENABLED = parallelBuildEnabled;
+        }
+    }
+
     @NotNull
     private JpsModule findModule(@NotNull String name) {
         for (JpsModule module : myProject.getModules()) {
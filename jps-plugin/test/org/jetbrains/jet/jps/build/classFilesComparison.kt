@@ -35,7 +35,7 @@ import com.google.protobuf.ExtensionRegistry
 import java.io.ByteArrayInputStream
 import org.jetbrains.jet.descriptors.serialization.DebugProtoBuf
 import java.util.Arrays
-import org.jetbrains.jet.jps.incremental.LocalFileKotlinClass
+import org.jetbrains.jet.lang.resolve.kotlin.incremental.LocalFileKotlinClass
 import org.jetbrains.jet.lang.resolve.kotlin.header.isCompatibleClassKind
 import org.jetbrains.jet.lang.resolve.kotlin.header.isCompatiblePackageFacadeKind
 
@@ -0,0 +1,5 @@
+package m1
+
+class A1 {
+    fun foo(): Int = 1
+}
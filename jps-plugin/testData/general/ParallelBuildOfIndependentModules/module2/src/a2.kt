@@ -0,0 +1,5 @@
+package m2
+
+class A2 {
+    fun foo(): Int = 2
+}
@@ -0,0 +1,5 @@
+package m3
+
+class A3 {
+    fun foo(): Int = 3
+}
@@ -0,0 +1,5 @@
+package m4
+
+class A4 {
+    fun foo(): Int = 4
+}
@@ -0,0 +1,8 @@
+import m1.A1
+import m2.A2
+import m3.A3
+import m4.A4
+
+fun main() {
+    A1().foo() + A2().foo() + A3().foo() + A4().foo()
+}
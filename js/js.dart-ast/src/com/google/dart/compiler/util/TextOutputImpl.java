@@ -4,15 +4,19 @@
 
 package com.google.dart.compiler.util;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Arrays;
 
 public class TextOutputImpl implements TextOutput {
     private final boolean compact;
     private int identLevel = 0;
     private final static int indentGranularity = 2;
+    private final static int FLUSH_THRESHOLD = 8192;
     private char[][] indents = new char[][] {new char[0]};
     private boolean justNewlined;
     private final StringBuilder out;
+    private final Writer writer;
     private int position = 0;
     private int line = 0;
     private int column = 0;
@@ -28,12 +32,45 @@ public class TextOutputImpl implements TextOutput {
     }
 
     public TextOutputImpl(boolean compact) {
+        this(compact, null);
+    }
+
+    /**
+     * Creates an output which passes the text to {@code writer} in chunks of about {@link #FLUSH_THRESHOLD} chars,
+     * so that only a bounded part of the generated code is kept in memory. Call {@link #flush()} after the last print.
+     */
+    public TextOutputImpl(boolean compact, Writer writer) {
         this.compact = compact;
-        out = new StringBuilder();
+        this.writer = writer;
+        out = new StringBuilder(writer == null ? 16 : FLUSH_THRESHOLD + FLUSH_THRESHOLD / 4);
+    }
+
+    /**
+     * Writes the buffered text to the writer, if any.
+     */
+    public void flush() throws IOException {
+        if (writer != null && out.length() > 0) {
+            writer.append(out);
+            out.setLength(0);
+        }
+    }
+
+    private void flushIfNeeded() {
+        if (writer != null && out.length() >= FLUSH_THRESHOLD) {
+            try {
+                flush();
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
     public String toString() {
+        if (writer != null) {
+            throw new IllegalStateException("Text is written to the writer and is not kept in memory");
+        }
         return out.toString();
     }
 
@@ -78,6 +115,7 @@ public class TextOutputImpl implements TextOutput {
         line++;
         column = 0;
         justNewlined = true;
+        flushIfNeeded();
         if (outListener != null) {
             outListener.newLined();
         }
@@ -161,12 +199,14 @@ public class TextOutputImpl implements TextOutput {
         position += charSequence.length();
         column += charSequence.length();
         out.append(charSequence);
+        flushIfNeeded();
     }
 
     private void printAndCount(char[] chars) {
         position += chars.length;
         column += chars.length;
         out.append(chars);
+        flushIfNeeded();
     }
 
     @Override
@@ -107,8 +107,11 @@ public final class TopDownAnalyzerFacadeForJS {
                 project, topDownAnalysisParameters, trace, module,
                 new FileBasedDeclarationProviderFactory(topDownAnalysisParameters.getStorageManager(), allFiles));
         try {
-            injector.getLazyTopDownAnalyzer().analyzeFiles(topDownAnalysisParameters, allFiles, 
-                                                           Collections.<PackageFragmentProvider>emptyList());
+            List<PackageFragmentProvider> libraryProviders = config.getLibraryModule() != null ?
+                                                             Collections.<PackageFragmentProvider>emptyList() :
+                                                             config.createLibraryPackageFragmentProviders(
+                                                                     module, topDownAnalysisParameters.getStorageManager());
+            injector.getLazyTopDownAnalyzer().analyzeFiles(topDownAnalysisParameters, allFiles, libraryProviders);
             return AnalysisResult.success(trace.getBindingContext(), module);
         }
         finally {
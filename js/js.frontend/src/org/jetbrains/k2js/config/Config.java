@@ -21,10 +21,13 @@ import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
+import org.jetbrains.jet.lang.descriptors.PackageFragmentProvider;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.storage.StorageManager;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -93,6 +96,17 @@ public abstract class Config {
         return libFiles;
     }
 
+    /**
+     * Providers of descriptors for libraries shipped with serialized metadata instead of sources
+     */
+    @NotNull
+    public List<PackageFragmentProvider> createLibraryPackageFragmentProviders(
+            @NotNull ModuleDescriptor module,
+            @NotNull StorageManager storageManager
+    ) {
+        return Collections.emptyList();
+    }
+
     @Nullable
     public BindingContext getLibraryContext() {
         return null;
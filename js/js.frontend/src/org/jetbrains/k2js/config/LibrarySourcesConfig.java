@@ -24,14 +24,22 @@ import com.intellij.openapi.vfs.*;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.util.io.URLUtil;
+import kotlin.Function1;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
+import org.jetbrains.jet.lang.descriptors.PackageFragmentProvider;
 import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.plugin.JetFileType;
+import org.jetbrains.jet.storage.StorageManager;
+import org.jetbrains.jet.utils.UtilsPackage;
+import org.jetbrains.k2js.serialization.KotlinJavascriptPackageFragmentProvider;
+import org.jetbrains.k2js.serialization.KotlinJavascriptSerializationUtil;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
 
 import static org.jetbrains.jet.utils.LibraryUtils.isJsRuntimeLibrary;
 
@@ -51,6 +59,9 @@ public class LibrarySourcesConfig extends Config {
     @NotNull
     private final List<String> files;
 
+    @NotNull
+    private final Map<VirtualFile, Set<FqName>> metadataRoots = new LinkedHashMap<VirtualFile, Set<FqName>>();
+
     public LibrarySourcesConfig(
             @NotNull Project project,
             @NotNull String moduleId,
@@ -100,6 +111,10 @@ public class LibrarySourcesConfig extends Config {
             if (file == null) {
                 LOG.error("File '" + path + "' not found.'");
             }
+            else if (file.findFileByRelativePath(KotlinJavascriptSerializationUtil.getModuleFilePath()) != null) {
+                // serialized descriptors are loaded instead of analyzing sources, see createLibraryPackageFragmentProviders
+                metadataRoots.put(file, collectPackagesWithInlineFunctions(file, jetFiles, psiManager));
+            }
             else {
                 JetFileCollector jetFileCollector = new JetFileCollector(jetFiles, actualModuleName, psiManager);
                 VfsUtilCore.visitChildrenRecursively(file, jetFileCollector);
@@ -109,6 +124,85 @@ public class LibrarySourcesConfig extends Config {
         return jetFiles;
     }
 
+    /**
+     * Bodies of inline functions are not serialized, so packages declaring them are analyzed from sources of the library.
+     * Returns the packages whose sources were found; the rest are loaded from descriptors, and calls to their inline functions
+     * are translated as ordinary calls.
+     */
+    @NotNull
+    private Set<FqName> collectPackagesWithInlineFunctions(
+            @NotNull VirtualFile root,
+            @NotNull List<JetFile> jetFiles,
+            @NotNull PsiManager psiManager
+    ) {
+        KotlinJavascriptSerializationUtil.ModuleMetadata metadata = readModuleMetadata(root);
+        Set<FqName> packages = metadata.getPackagesWithInlineFunctions();
+        if (packages.isEmpty()) return Collections.emptySet();
+
+        List<JetFile> rootFiles = new ArrayList<JetFile>();
+        VfsUtilCore.visitChildrenRecursively(root, new JetFileCollector(rootFiles, metadata.getModuleName(), psiManager));
+
+        Set<FqName> found = new HashSet<FqName>();
+        for (JetFile file : rootFiles) {
+            FqName packageFqName = file.getPackageFqName();
+            if (packages.contains(packageFqName)) {
+                jetFiles.add(file);
+                found.add(packageFqName);
+            }
+        }
+
+        if (found.size() < packages.size()) {
+            Set<FqName> missing = new LinkedHashSet<FqName>(packages);
+            missing.removeAll(found);
+            LOG.warn("Sources of packages with inline functions are not found in " + root.getPath() + ": " + missing +
+                     ", their inline functions will not be inlined");
+        }
+
+        return found;
+    }
+
+    @NotNull
+    private static KotlinJavascriptSerializationUtil.ModuleMetadata readModuleMetadata(@NotNull VirtualFile root) {
+        VirtualFile moduleFile = root.findFileByRelativePath(KotlinJavascriptSerializationUtil.getModuleFilePath());
+        assert moduleFile != null : "Module file not found in " + root.getPath();
+        try {
+            return KotlinJavascriptSerializationUtil.readModuleMetadata(moduleFile.getInputStream());
+        }
+        catch (IOException e) {
+            throw UtilsPackage.rethrow(e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public List<PackageFragmentProvider> createLibraryPackageFragmentProviders(
+            @NotNull ModuleDescriptor module,
+            @NotNull StorageManager storageManager
+    ) {
+        // metadata roots are collected along with library files
+        getLibFiles();
+
+        List<PackageFragmentProvider> providers = new ArrayList<PackageFragmentProvider>(metadataRoots.size());
+        for (Map.Entry<VirtualFile, Set<FqName>> entry : metadataRoots.entrySet()) {
+            final VirtualFile root = entry.getKey();
+            providers.add(new KotlinJavascriptPackageFragmentProvider(storageManager, module, new Function1<String, InputStream>() {
+                @Override
+                public InputStream invoke(String path) {
+                    VirtualFile file = root.findFileByRelativePath(path);
+                    if (file == null) return null;
+
+                    try {
+                        return file.getInputStream();
+                    }
+                    catch (IOException e) {
+                        throw UtilsPackage.rethrow(e);
+                    }
+                }
+            }, entry.getValue()));
+        }
+        return providers;
+    }
+
     protected JetFile getJetFileByVirtualFile(VirtualFile file, String moduleName, PsiManager psiManager) {
         PsiFile psiFile = psiManager.findFile(file);
         assert psiFile != null;
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.serialization
+
+import org.jetbrains.jet.descriptors.serialization.*
+import org.jetbrains.jet.descriptors.serialization.context.DeserializationComponents
+import org.jetbrains.jet.descriptors.serialization.descriptors.AnnotatedCallableKind
+import org.jetbrains.jet.descriptors.serialization.descriptors.AnnotationAndConstantLoader
+import org.jetbrains.jet.descriptors.serialization.descriptors.DeserializedPackageMemberScope
+import org.jetbrains.jet.descriptors.serialization.descriptors.ProtoContainer
+import org.jetbrains.jet.lang.descriptors.ModuleDescriptor
+import org.jetbrains.jet.lang.descriptors.PackageFragmentDescriptor
+import org.jetbrains.jet.lang.descriptors.PackageFragmentProvider
+import org.jetbrains.jet.lang.descriptors.ValueParameterDescriptor
+import org.jetbrains.jet.lang.descriptors.annotations.AnnotationDescriptor
+import org.jetbrains.jet.lang.descriptors.annotations.AnnotationDescriptorImpl
+import org.jetbrains.jet.lang.descriptors.impl.PackageFragmentDescriptorImpl
+import org.jetbrains.jet.lang.resolve.constants.CompileTimeConstant
+import org.jetbrains.jet.lang.resolve.constants.ErrorValue
+import org.jetbrains.jet.lang.resolve.constants.createCompileTimeConstant
+import org.jetbrains.jet.lang.resolve.name.ClassId
+import org.jetbrains.jet.lang.resolve.name.FqName
+import org.jetbrains.jet.lang.resolve.name.Name
+import org.jetbrains.jet.lang.types.ErrorUtils
+import org.jetbrains.jet.storage.StorageManager
+import org.jetbrains.jet.storage.get
+import java.io.DataInputStream
+import java.io.InputStream
+import java.util.ArrayList
+import java.util.HashMap
+
+/**
+ * Provides descriptors of a Kotlin/JavaScript library deserialized from the metadata written by
+ * [KotlinJavascriptSerializationUtil.serializeModule]. [loadResource] loads a file by its path relative to the library root.
+ * Packages from [packagesLoadedFromSources] are skipped, since they are analyzed from the library sources
+ * (see [KotlinJavascriptSerializationUtil.ModuleMetadata.packagesWithInlineFunctions]).
+ */
+public class KotlinJavascriptPackageFragmentProvider(
+        storageManager: StorageManager,
+        private val module: ModuleDescriptor,
+        private val loadResource: (path: String) -> InputStream?,
+        packagesLoadedFromSources: Set<FqName>
+) : PackageFragmentProvider {
+
+    private val moduleMetadata = KotlinJavascriptSerializationUtil.readModuleMetadata(getStream(KotlinJavascriptSerializationUtil.getModuleFilePath()))
+
+    public val moduleName: String = moduleMetadata.moduleName
+
+    private val fragments: Map<FqName, KotlinJavascriptPackageFragment> =
+            moduleMetadata.packages
+                    .filter { it !in packagesLoadedFromSources }
+                    .map { KotlinJavascriptPackageFragment(it, storageManager) }
+                    .toMap { it.fqName }
+
+    private val components = DeserializationComponents(
+            storageManager, module, KotlinJavascriptClassDataFinder(), KotlinJavascriptAnnotationAndConstantLoader(storageManager),
+            this, FlexibleTypeCapabilitiesDeserializer.ThrowException
+    )
+
+    override fun getPackageFragments(fqName: FqName): List<PackageFragmentDescriptor> = listOf(fragments[fqName]).filterNotNull()
+
+    override fun getSubPackagesOf(fqName: FqName, nameFilter: (Name) -> Boolean): Collection<FqName> =
+            fragments.keySet().filter { !it.isRoot() && it.parent() == fqName && nameFilter(it.shortName()) }
+
+    private fun getStream(path: String): InputStream =
+            loadResource(path) ?: throw IllegalStateException("Kotlin/JavaScript metadata file not found: $path")
+
+    public inner class KotlinJavascriptPackageFragment(
+            fqName: FqName,
+            storageManager: StorageManager
+    ) : PackageFragmentDescriptorImpl(module, fqName) {
+
+        val nameResolver by storageManager.createLazyValue {
+            NameSerializationUtil.deserializeNameResolver(getStream(KotlinJavascriptSerializationUtil.getNameTableFilePath(fqName)))
+        }
+
+        val annotationsTable by storageManager.createLazyValue {
+            KotlinJavascriptSerializationUtil.readAnnotationsTable(getStream(KotlinJavascriptSerializationUtil.getAnnotationsFilePath(fqName)))
+        }
+
+        val constantsTable by storageManager.createLazyValue {
+            KotlinJavascriptSerializationUtil.readConstantsTable(getStream(KotlinJavascriptSerializationUtil.getConstantsFilePath(fqName)))
+        }
+
+        private val members by storageManager.createLazyValue {
+            DeserializedPackageMemberScope(
+                    this,
+                    ProtoBuf.Package.parseFrom(getStream(KotlinJavascriptSerializationUtil.getPackageFilePath(fqName))),
+                    nameResolver,
+                    components,
+                    { readClassNames() }
+            )
+        }
+
+        public val moduleName: String
+            get() = this@KotlinJavascriptPackageFragmentProvider.moduleName
+
+        private fun readClassNames(): List<Name> {
+            val stream = getStream(KotlinJavascriptSerializationUtil.getClassNamesFilePath(fqName))
+            return DataInputStream(stream).use { data ->
+                val size = data.readInt()
+                val result = ArrayList<Name>(size)
+                size.times {
+                    result.add(nameResolver.getName(data.readInt()))
+                }
+                result
+            }
+        }
+
+        override fun getMemberScope() = members
+    }
+
+    private inner class KotlinJavascriptClassDataFinder : ClassDataFinder {
+        override fun findClassData(classId: ClassId): ClassData? {
+            val fragment = fragments[classId.getPackageFqName()] ?: return null
+            val metadataPath = KotlinJavascriptSerializationUtil.getClassMetadataPath(classId) ?: return null
+            val stream = loadResource(metadataPath) ?: return null
+
+            val classProto = ProtoBuf.Class.parseFrom(stream)
+
+            val expectedShortName = classId.getRelativeClassName().shortName()
+            val actualShortName = fragment.nameResolver.getClassId(classProto.getFqName()).getRelativeClassName().shortName()
+            if (!actualShortName.isSpecial() && actualShortName != expectedShortName) {
+                // Workaround for case-insensitive file systems, see BuiltinsPackageFragment
+                return null
+            }
+
+            return ClassData(fragment.nameResolver, classProto)
+        }
+    }
+
+    private inner class KotlinJavascriptAnnotationAndConstantLoader(
+            storageManager: StorageManager
+    ) : AnnotationAndConstantLoader<AnnotationDescriptor, CompileTimeConstant<*>> {
+        private val annotationDescriptors: (KotlinJavascriptSerializationUtil.AnnotationData) -> AnnotationDescriptor =
+                storageManager.createMemoizedFunction { data -> createAnnotationDescriptor(data) }
+
+        override fun loadClassAnnotations(classProto: ProtoBuf.Class, nameResolver: NameResolver): List<AnnotationDescriptor> {
+            val classId = nameResolver.getClassId(classProto.getFqName())
+            return loadAnnotations(classId.getPackageFqName(), KotlinJavascriptSerializationUtil.classKey(classProto, nameResolver))
+        }
+
+        override fun loadCallableAnnotations(
+                container: ProtoContainer,
+                proto: ProtoBuf.Callable,
+                nameResolver: NameResolver,
+                kind: AnnotatedCallableKind
+        ): List<AnnotationDescriptor> {
+            return loadAnnotations(getPackageFqName(container, nameResolver), KotlinJavascriptSerializationUtil.callableKey(container, proto, nameResolver, kind))
+        }
+
+        override fun loadValueParameterAnnotations(
+                container: ProtoContainer,
+                callable: ProtoBuf.Callable,
+                nameResolver: NameResolver,
+                kind: AnnotatedCallableKind,
+                proto: ProtoBuf.Callable.ValueParameter
+        ): List<AnnotationDescriptor> {
+            // Annotations on value parameters are not used by the translator and are not serialized
+            return listOf()
+        }
+
+        override fun loadPropertyConstant(
+                container: ProtoContainer,
+                proto: ProtoBuf.Callable,
+                nameResolver: NameResolver,
+                kind: AnnotatedCallableKind
+        ): CompileTimeConstant<*>? {
+            val fragment = fragments[getPackageFqName(container, nameResolver)] ?: return null
+            val key = KotlinJavascriptSerializationUtil.callableKey(container, proto, nameResolver, kind)
+            if (!fragment.constantsTable.containsKey(key)) return null
+
+            return createCompileTimeConstant(
+                    fragment.constantsTable[key], canBeUsedInAnnotation = true, isPureIntConstant = true,
+                    usesVariableAsConstant = true, expectedType = null
+            )
+        }
+
+        private fun getPackageFqName(container: ProtoContainer, nameResolver: NameResolver): FqName =
+                container.packageFqName ?: nameResolver.getClassId(container.classProto!!.getFqName()).getPackageFqName()
+
+        private fun loadAnnotations(packageFqName: FqName, key: String): List<AnnotationDescriptor> {
+            val fragment = fragments[packageFqName] ?: return listOf()
+            return fragment.annotationsTable[key]?.map { annotationDescriptors(it) } ?: listOf()
+        }
+
+        private fun createAnnotationDescriptor(data: KotlinJavascriptSerializationUtil.AnnotationData): AnnotationDescriptor {
+            val annotationClass = module.findClassAcrossModuleDependencies(data.classId)
+                                  ?: ErrorUtils.createErrorClass(data.classId.asSingleFqName().asString())
+            val parameters = annotationClass.getConstructors().firstOrNull()?.getValueParameters() ?: listOf()
+
+            val arguments = HashMap<ValueParameterDescriptor, CompileTimeConstant<*>>()
+            for ((name, value) in data.arguments) {
+                val parameter = parameters.firstOrNull { it.getName() == name } ?: continue
+                arguments[parameter] = createCompileTimeConstant(value, canBeUsedInAnnotation = true, isPureIntConstant = false)
+                                       ?: ErrorValue.create("Unsupported annotation argument: $name")
+            }
+
+            return AnnotationDescriptorImpl(annotationClass.getDefaultType(), arguments)
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.serialization
+
+import org.jetbrains.jet.descriptors.serialization.*
+import org.jetbrains.jet.descriptors.serialization.descriptors.AnnotatedCallableKind
+import org.jetbrains.jet.descriptors.serialization.descriptors.ProtoContainer
+import org.jetbrains.jet.lang.descriptors.*
+import org.jetbrains.jet.lang.descriptors.annotations.Annotated
+import org.jetbrains.jet.lang.resolve.DescriptorUtils
+import org.jetbrains.jet.lang.resolve.constants.BooleanValue
+import org.jetbrains.jet.lang.resolve.constants.CompileTimeConstant
+import org.jetbrains.jet.lang.resolve.constants.IntValue
+import org.jetbrains.jet.lang.resolve.constants.NullValue
+import org.jetbrains.jet.lang.resolve.constants.StringValue
+import org.jetbrains.jet.lang.resolve.name.ClassId
+import org.jetbrains.jet.lang.resolve.name.FqName
+import org.jetbrains.jet.lang.resolve.name.Name
+import org.jetbrains.jet.lang.resolve.scopes.DescriptorKindFilter
+import org.jetbrains.jet.lang.types.JetType
+import org.jetbrains.jet.lang.types.Variance
+import org.jetbrains.jet.lang.types.lang.BuiltInsSerializationUtil
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.InputStream
+import java.util.ArrayList
+import java.util.HashSet
+import java.util.LinkedHashMap
+import kotlin.platform.platformStatic
+
+/**
+ * Serialized descriptors of a Kotlin/JavaScript library are stored under [METADATA_DIR] of the library root
+ * (a directory or a jar). Packages use the same layout as built-ins (see [BuiltInsSerializationUtil]),
+ * plus a file with annotations of declarations, since those are needed by the translator and are not stored in ProtoBuf,
+ * and a file with compile-time initializers of properties.
+ *
+ * Bodies of inline functions can't be restored from descriptors, so packages declaring inline functions are marked
+ * in the module file and should be analyzed from the library sources instead.
+ */
+public object KotlinJavascriptSerializationUtil {
+    public val METADATA_DIR: String = "META-INF/kotlin-js-meta"
+
+    private val MODULE_FILE_NAME = ".kotlin_module"
+    private val ANNOTATIONS_FILE_NAME = ".kotlin_annotations"
+    private val CONSTANTS_FILE_NAME = ".kotlin_constants"
+
+    private val STRING_VALUE = 'S'.toInt()
+    private val BOOLEAN_VALUE = 'Z'.toInt()
+    private val INT_VALUE = 'I'.toInt()
+    private val LONG_VALUE = 'J'.toInt()
+    private val SHORT_VALUE = 'H'.toInt()
+    private val BYTE_VALUE = 'B'.toInt()
+    private val CHAR_VALUE = 'C'.toInt()
+    private val FLOAT_VALUE = 'F'.toInt()
+    private val DOUBLE_VALUE = 'D'.toInt()
+    private val NULL_VALUE = 'N'.toInt()
+
+    platformStatic public fun getModuleFilePath(): String = "$METADATA_DIR/$MODULE_FILE_NAME"
+
+    platformStatic public fun getPackageFilePath(fqName: FqName): String =
+            "$METADATA_DIR/${BuiltInsSerializationUtil.getPackageFilePath(fqName)}"
+
+    platformStatic public fun getNameTableFilePath(fqName: FqName): String =
+            "$METADATA_DIR/${BuiltInsSerializationUtil.getNameTableFilePath(fqName)}"
+
+    platformStatic public fun getClassNamesFilePath(fqName: FqName): String =
+            "$METADATA_DIR/${BuiltInsSerializationUtil.getClassNamesFilePath(fqName)}"
+
+    platformStatic public fun getClassMetadataPath(classId: ClassId): String? =
+            BuiltInsSerializationUtil.getClassMetadataPath(classId)?.let { "$METADATA_DIR/$it" }
+
+    platformStatic public fun getAnnotationsFilePath(fqName: FqName): String =
+            "$METADATA_DIR/${fqName.asString().replace('.', '/')}/$ANNOTATIONS_FILE_NAME"
+
+    platformStatic public fun getConstantsFilePath(fqName: FqName): String =
+            "$METADATA_DIR/${fqName.asString().replace('.', '/')}/$CONSTANTS_FILE_NAME"
+
+    public class ModuleMetadata(
+            public val moduleName: String,
+            public val packages: List<FqName>,
+            public val packagesWithInlineFunctions: Set<FqName>
+    )
+
+    platformStatic public fun readModuleMetadata(stream: InputStream): ModuleMetadata {
+        return DataInputStream(stream).use { data ->
+            val moduleName = data.readString()
+            val size = data.readInt()
+            val packages = ArrayList<FqName>(size)
+            val packagesWithInlineFunctions = HashSet<FqName>()
+            size.times {
+                val fqName = FqName(data.readString())
+                packages.add(fqName)
+                if (data.readBoolean()) {
+                    packagesWithInlineFunctions.add(fqName)
+                }
+            }
+            ModuleMetadata(moduleName, packages, packagesWithInlineFunctions)
+        }
+    }
+
+    /**
+     * Serializes declarations of [packages] which come from [fragments] (i.e. skipping fragments of libraries
+     * the module depends on) and passes the contents of every metadata file to [write]
+     */
+    platformStatic public fun serializeModule(
+            moduleName: String,
+            fragments: Collection<PackageFragmentDescriptor>,
+            write: (path: String, bytes: ByteArray) -> Unit
+    ) {
+        val packages = fragments.map { it.fqName }.toSet().sortBy { it.asString() }
+
+        for (fqName in packages) {
+            serializePackage(fqName, fragments.filter { it.fqName == fqName }, write)
+        }
+
+        val moduleStream = ByteArrayOutputStream()
+        DataOutputStream(moduleStream).use { output ->
+            output.writeString(moduleName)
+            output.writeInt(packages.size())
+            for (fqName in packages) {
+                output.writeString(fqName.asString())
+                output.writeBoolean(hasInlineFunctions(fragments.filter { it.fqName == fqName }))
+            }
+        }
+        write(getModuleFilePath(), moduleStream.toByteArray())
+    }
+
+    private fun serializePackage(
+            fqName: FqName,
+            fragments: List<PackageFragmentDescriptor>,
+            write: (path: String, bytes: ByteArray) -> Unit
+    ) {
+        val serializer = DescriptorSerializer.createTopLevel(SerializerExtension.DEFAULT)
+        val annotations = AnnotationsTableBuilder()
+        val constants = ConstantsTableBuilder()
+
+        val classNames = ArrayList<Name>()
+        val classifierDescriptors = DescriptorSerializer.sort(fragments.flatMap {
+            it.getMemberScope().getDescriptors(DescriptorKindFilter.CLASSIFIERS)
+        })
+
+        ClassSerializationUtil.serializeClasses(classifierDescriptors, serializer, object : ClassSerializationUtil.Sink {
+            override fun writeClass(classDescriptor: ClassDescriptor, classProto: ProtoBuf.Class) {
+                val stream = ByteArrayOutputStream()
+                classProto.writeTo(stream)
+                write(getClassMetadataPath(getClassId(classDescriptor))!!, stream.toByteArray())
+
+                annotations.addClass(classDescriptor)
+                constants.addClass(classDescriptor)
+
+                if (DescriptorUtils.isTopLevelDeclaration(classDescriptor)) {
+                    classNames.add(classDescriptor.getName())
+                }
+            }
+        })
+
+        for (fragment in fragments) {
+            for (descriptor in fragment.getMemberScope().getAllDescriptors()) {
+                if (descriptor is CallableMemberDescriptor) {
+                    annotations.addCallable(descriptor)
+                }
+                if (descriptor is PropertyDescriptor) {
+                    constants.addProperty(descriptor)
+                }
+            }
+        }
+
+        val classNamesStream = ByteArrayOutputStream()
+        DataOutputStream(classNamesStream).use { output ->
+            output.writeInt(classNames.size())
+            for (className in classNames) {
+                output.writeInt(serializer.getNameTable().getSimpleNameIndex(className))
+            }
+        }
+        write(getClassNamesFilePath(fqName), classNamesStream.toByteArray())
+
+        val packageStream = ByteArrayOutputStream()
+        serializer.packageProto(fragments).build().writeTo(packageStream)
+        write(getPackageFilePath(fqName), packageStream.toByteArray())
+
+        val nameStream = ByteArrayOutputStream()
+        NameSerializationUtil.serializeNameTable(nameStream, serializer.getNameTable())
+        write(getNameTableFilePath(fqName), nameStream.toByteArray())
+
+        write(getAnnotationsFilePath(fqName), annotations.toByteArray())
+        write(getConstantsFilePath(fqName), constants.toByteArray())
+    }
+
+    private fun hasInlineFunctions(fragments: List<PackageFragmentDescriptor>): Boolean =
+            fragments.any { hasInlineFunctions(it.getMemberScope().getAllDescriptors()) }
+
+    private fun hasInlineFunctions(descriptors: Collection<DeclarationDescriptor>): Boolean =
+            descriptors.any { descriptor ->
+                when (descriptor) {
+                    is SimpleFunctionDescriptor -> descriptor.getInlineStrategy().isInline()
+                    is ClassDescriptor -> hasInlineFunctions(descriptor)
+                    else -> false
+                }
+            }
+
+    private fun hasInlineFunctions(descriptor: ClassDescriptor): Boolean {
+        val members = descriptor.getDefaultType().getMemberScope().getAllDescriptors().filter {
+            it !is CallableMemberDescriptor || it.getKind() != CallableMemberDescriptor.Kind.FAKE_OVERRIDE
+        }
+        val classObject = descriptor.getClassObjectDescriptor()
+        return hasInlineFunctions(members) ||
+               hasInlineFunctions(descriptor.getUnsubstitutedInnerClassesScope().getAllDescriptors()) ||
+               (classObject != null && hasInlineFunctions(classObject))
+    }
+
+    platformStatic public fun getClassId(descriptor: ClassDescriptor): ClassId {
+        val owner = descriptor.getContainingDeclaration()
+        if (owner is PackageFragmentDescriptor) {
+            return ClassId(owner.fqName, descriptor.getName())
+        }
+        return getClassId(owner as ClassDescriptor).createNestedClassId(descriptor.getName())
+    }
+
+    // Annotations are looked up by keys, which can be computed both from descriptors being serialized and from ProtoBuf messages
+
+    fun classKey(classProto: ProtoBuf.Class, nameResolver: NameResolver): String =
+            nameResolver.getClassId(classProto.getFqName()).asSingleFqName().asString()
+
+    private fun classKey(descriptor: ClassDescriptor): String =
+            getClassId(descriptor).asSingleFqName().asString()
+
+    fun callableKey(
+            container: ProtoContainer,
+            proto: ProtoBuf.Callable,
+            nameResolver: NameResolver,
+            kind: AnnotatedCallableKind
+    ): String {
+        val typeParameters = (container.classProto?.getTypeParameterList() ?: listOf<ProtoBuf.TypeParameter>()) + proto.getTypeParameterList()
+        val typeParameterNames = typeParameters.map { it.getId() to nameResolver.getName(it.getName()).asString() }.toMap()
+
+        val receiver = if (proto.hasReceiverType()) typeKey(proto.getReceiverType(), nameResolver, typeParameterNames) else ""
+        val parameters = proto.getValueParameterList().map { typeKey(it.getType(), nameResolver, typeParameterNames) }
+        return callableKey(container.getFqName(nameResolver).asString(), kind, receiver, nameResolver.getName(proto.getName()), parameters)
+    }
+
+    private fun callableKey(descriptor: CallableMemberDescriptor, kind: AnnotatedCallableKind): String {
+        val owner = descriptor.getContainingDeclaration()
+        val container = when (owner) {
+            is PackageFragmentDescriptor -> owner.fqName.asString()
+            is ClassDescriptor -> classKey(owner)
+            else -> throw IllegalStateException("Unexpected container of $descriptor: $owner")
+        }
+        val receiver = descriptor.getExtensionReceiverParameter()?.let { typeKey(it.getType(), descriptor) } ?: ""
+        val parameters = descriptor.getValueParameters().map { typeKey(it.getType(), descriptor) }
+        return callableKey(container, kind, receiver, descriptor.getName(), parameters)
+    }
+
+    private fun callableKey(container: String, kind: AnnotatedCallableKind, receiver: String, name: Name, parameters: List<String>) =
+            "$container/$kind/$receiver.${name.asString()}(${parameters.joinToString(",")})"
+
+    // Types are keyed by FQ names of classes or names of type parameters with all arguments, so that overloads with the same
+    // erasure get different keys. Only type parameters of the callable and its class are available in ProtoBuf messages,
+    // the rest (type parameters of outer classes) are keyed as "?" on both sides
+    private fun typeKey(type: ProtoBuf.Type, nameResolver: NameResolver, typeParameterNames: Map<Int, String>): String {
+        val constructor = type.getConstructor()
+        val classifier = when (constructor.getKind()) {
+            ProtoBuf.Type.Constructor.Kind.CLASS -> nameResolver.getClassId(constructor.getId()).asSingleFqName().asString()
+            else -> typeParameterNames[constructor.getId()] ?: "?"
+        }
+        val arguments = type.getArgumentList().map { argument ->
+            val projection = when (argument.getProjection()) {
+                ProtoBuf.Type.Argument.Projection.IN -> Variance.IN_VARIANCE
+                ProtoBuf.Type.Argument.Projection.OUT -> Variance.OUT_VARIANCE
+                else -> Variance.INVARIANT
+            }
+            typeArgumentKey(projection, typeKey(argument.getType(), nameResolver, typeParameterNames))
+        }
+        return typeKey(classifier, arguments, type.getNullable())
+    }
+
+    private fun typeKey(type: JetType, callable: CallableMemberDescriptor): String {
+        val classifier = type.getConstructor().getDeclarationDescriptor()
+        val classifierKey = when {
+            classifier is ClassDescriptor -> classKey(classifier)
+            classifier is TypeParameterDescriptor && (classifier.getContainingDeclaration() == callable ||
+                                                      classifier.getContainingDeclaration() == callable.getContainingDeclaration()) ->
+                classifier.getName().asString()
+            else -> "?"
+        }
+        val arguments = type.getArguments().map { typeArgumentKey(it.getProjectionKind(), typeKey(it.getType(), callable)) }
+        return typeKey(classifierKey, arguments, type.isNullable())
+    }
+
+    private fun typeArgumentKey(projection: Variance, typeKey: String): String =
+            if (projection == Variance.INVARIANT) typeKey else "$projection $typeKey"
+
+    private fun typeKey(classifier: String, arguments: List<String>, nullable: Boolean): String =
+            classifier + (if (arguments.isEmpty()) "" else arguments.joinToString(",", "<", ">")) + (if (nullable) "?" else "")
+
+    platformStatic public fun readAnnotationsTable(stream: InputStream): Map<String, List<AnnotationData>> {
+        return DataInputStream(stream).use { data ->
+            val result = LinkedHashMap<String, List<AnnotationData>>()
+            data.readInt().times {
+                val key = data.readString()
+                val annotations = ArrayList<AnnotationData>()
+                data.readInt().times {
+                    val classId = ClassId(FqName(data.readString()), FqName(data.readString()).toUnsafe())
+                    val arguments = LinkedHashMap<Name, Any>()
+                    data.readInt().times {
+                        val name = Name.identifier(data.readString())
+                        arguments[name] = readValue(data) ?: throw IllegalStateException("Null annotation argument for $key")
+                    }
+                    annotations.add(AnnotationData(classId, arguments))
+                }
+                result[key] = annotations
+            }
+            result
+        }
+    }
+
+    public class AnnotationData(public val classId: ClassId, public val arguments: Map<Name, Any>)
+
+    private class AnnotationsTableBuilder {
+        private val table = LinkedHashMap<String, Annotated>()
+
+        fun addClass(descriptor: ClassDescriptor) {
+            add(classKey(descriptor), descriptor)
+
+            descriptor.getUnsubstitutedPrimaryConstructor()?.let { addCallable(it) }
+
+            for (member in descriptor.getDefaultType().getMemberScope().getAllDescriptors()) {
+                if (member is CallableMemberDescriptor && member.getKind() != CallableMemberDescriptor.Kind.FAKE_OVERRIDE) {
+                    addCallable(member)
+                }
+            }
+        }
+
+        fun addCallable(descriptor: CallableMemberDescriptor) {
+            if (descriptor is PropertyDescriptor) {
+                add(callableKey(descriptor, AnnotatedCallableKind.PROPERTY), descriptor)
+                descriptor.getGetter()?.let { add(callableKey(descriptor, AnnotatedCallableKind.PROPERTY_GETTER), it) }
+                descriptor.getSetter()?.let { add(callableKey(descriptor, AnnotatedCallableKind.PROPERTY_SETTER), it) }
+            }
+            else {
+                add(callableKey(descriptor, AnnotatedCallableKind.FUNCTION), descriptor)
+            }
+        }
+
+        private fun add(key: String, annotated: Annotated) {
+            if (!annotated.getAnnotations().isEmpty()) {
+                table[key] = annotated
+            }
+        }
+
+        fun toByteArray(): ByteArray {
+            val stream = ByteArrayOutputStream()
+            DataOutputStream(stream).use { output ->
+                output.writeInt(table.size())
+                for ((key, annotated) in table) {
+                    output.writeString(key)
+
+                    val annotations = annotated.getAnnotations().toList()
+                    output.writeInt(annotations.size())
+                    for (annotation in annotations) {
+                        val annotationClass = annotation.getType().getConstructor().getDeclarationDescriptor() as ClassDescriptor
+                        val classId = getClassId(annotationClass)
+                        output.writeString(classId.getPackageFqName().asString())
+                        output.writeString(classId.getRelativeClassName().asString())
+
+                        // Only primitive arguments are needed for annotations used by the translator
+                        val arguments = annotation.getAllValueArguments().filter {
+                            val value = it.value
+                            value is StringValue || value is BooleanValue || value is IntValue
+                        }
+                        output.writeInt(arguments.size())
+                        for ((parameter, value) in arguments) {
+                            output.writeString(parameter.getName().asString())
+                            writeValue(output, value.getValue())
+                        }
+                    }
+                }
+            }
+            return stream.toByteArray()
+        }
+    }
+
+    platformStatic public fun readConstantsTable(stream: InputStream): Map<String, Any?> {
+        return DataInputStream(stream).use { data ->
+            val result = LinkedHashMap<String, Any?>()
+            data.readInt().times {
+                val key = data.readString()
+                result[key] = readValue(data)
+            }
+            result
+        }
+    }
+
+    private class ConstantsTableBuilder {
+        private val table = LinkedHashMap<String, Any?>()
+
+        fun addClass(descriptor: ClassDescriptor) {
+            for (member in descriptor.getDefaultType().getMemberScope().getAllDescriptors()) {
+                if (member is PropertyDescriptor && member.getKind() != CallableMemberDescriptor.Kind.FAKE_OVERRIDE) {
+                    addProperty(member)
+                }
+            }
+        }
+
+        fun addProperty(descriptor: PropertyDescriptor) {
+            val constant = descriptor.getCompileTimeInitializer() ?: return
+            if (isSupportedValue(constant)) {
+                table[callableKey(descriptor, AnnotatedCallableKind.PROPERTY)] = constant.getValue()
+            }
+        }
+
+        fun toByteArray(): ByteArray {
+            val stream = ByteArrayOutputStream()
+            DataOutputStream(stream).use { output ->
+                output.writeInt(table.size())
+                for ((key, value) in table) {
+                    output.writeString(key)
+                    writeValue(output, value)
+                }
+            }
+            return stream.toByteArray()
+        }
+    }
+
+    private fun isSupportedValue(constant: CompileTimeConstant<*>): Boolean =
+            constant is NullValue || when (constant.getValue()) {
+                is String, is Boolean, is Int, is Long, is Short, is Byte, is Char, is Float, is Double -> true
+                else -> false
+            }
+
+    private fun writeValue(output: DataOutputStream, value: Any?) {
+        when (value) {
+            null -> output.writeByte(NULL_VALUE)
+            is String -> {
+                output.writeByte(STRING_VALUE)
+                output.writeString(value)
+            }
+            is Boolean -> {
+                output.writeByte(BOOLEAN_VALUE)
+                output.writeBoolean(value)
+            }
+            is Int -> {
+                output.writeByte(INT_VALUE)
+                output.writeInt(value)
+            }
+            is Long -> {
+                output.writeByte(LONG_VALUE)
+                output.writeLong(value)
+            }
+            is Short -> {
+                output.writeByte(SHORT_VALUE)
+                output.writeShort(value.toInt())
+            }
+            is Byte -> {
+                output.writeByte(BYTE_VALUE)
+                output.writeByte(value.toInt())
+            }
+            is Char -> {
+                output.writeByte(CHAR_VALUE)
+                output.writeChar(value.toInt())
+            }
+            is Float -> {
+                output.writeByte(FLOAT_VALUE)
+                output.writeFloat(value)
+            }
+            is Double -> {
+                output.writeByte(DOUBLE_VALUE)
+                output.writeDouble(value)
+            }
+            else -> throw IllegalArgumentException("Unsupported constant value: $value")
+        }
+    }
+
+    // DataOutput.writeUTF() can't write strings longer than 64K bytes, so strings are written as length-prefixed UTF-8 bytes
+
+    private fun DataOutputStream.writeString(value: String) {
+        val bytes = value.toByteArray("UTF-8")
+        writeInt(bytes.size())
+        write(bytes)
+    }
+
+    private fun DataInputStream.readString(): String {
+        val bytes = ByteArray(readInt())
+        readFully(bytes)
+        return bytes.toString("UTF-8")
+    }
+
+    private fun readValue(data: DataInputStream): Any? =
+            when (data.readByte().toInt()) {
+                NULL_VALUE -> null
+                STRING_VALUE -> data.readString()
+                BOOLEAN_VALUE -> data.readBoolean()
+                INT_VALUE -> data.readInt()
+                LONG_VALUE -> data.readLong()
+                SHORT_VALUE -> data.readShort()
+                BYTE_VALUE -> data.readByte()
+                CHAR_VALUE -> data.readChar()
+                FLOAT_VALUE -> data.readFloat()
+                DOUBLE_VALUE -> data.readDouble()
+                else -> throw IllegalStateException("Unknown constant value kind")
+            }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.facade;
+
+import com.google.dart.compiler.backend.js.ast.JsProgram;
+import com.google.dart.compiler.util.TextOutputImpl;
+import com.intellij.openapi.project.Project;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.config.CompilerConfiguration;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.js.compiler.JsSourceGenerationVisitor;
+import org.jetbrains.js.compiler.sourcemap.SourceMap3Builder;
+import org.jetbrains.k2js.config.EcmaVersion;
+import org.jetbrains.k2js.config.LibrarySourcesConfigWithCaching;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Collections;
+
+public class K2JSTranslatorStreamingTest extends UsefulTestCase {
+    private static final int LINES_BEFORE_CODE = 2;
+
+    public void testStreamedOutputIsSameAsInMemory() throws Exception {
+        JetCoreEnvironment environment = JetCoreEnvironment.createForTests(
+                getTestRootDisposable(), new CompilerConfiguration(), EnvironmentConfigFiles.JS_CONFIG_FILES);
+        Project project = environment.getProject();
+
+        JetFile file = JetTestUtils.createFile("streaming.kt", generateSource(), project);
+        K2JSTranslator translator = new K2JSTranslator(
+                new LibrarySourcesConfigWithCaching(project, "streaming", EcmaVersion.defaultVersion(), true, false, false));
+        JsProgram program = translator.generateProgram(Collections.singletonList(file), MainCallParameters.noCall());
+
+        File outputFile = new File("streaming.js");
+
+        TextOutputImpl output = new TextOutputImpl();
+        SourceMap3Builder sourceMapBuilder = new SourceMap3Builder(outputFile, output, new SourceMapBuilderConsumer());
+        sourceMapBuilder.skipLinesAtBeginning(LINES_BEFORE_CODE);
+        program.accept(new JsSourceGenerationVisitor(output, sourceMapBuilder));
+        String expectedCode = output.toString();
+        String expectedSourceMap = sourceMapBuilder.build();
+
+        StringWriter jsWriter = new StringWriter();
+        StringWriter sourceMapWriter = new StringWriter();
+        K2JSTranslator.writeProgramCode(program, jsWriter, sourceMapWriter, outputFile, LINES_BEFORE_CODE);
+
+        // the output should be flushed several times to check that chunks are joined correctly
+        assertTrue("Generated code is too small: " + expectedCode.length(), expectedCode.length() > 4 * 8192);
+        assertEquals(expectedCode, jsWriter.toString());
+        assertEquals(expectedSourceMap, sourceMapWriter.toString());
+
+        assertEquals(expectedCode, translator.generateProgramCode(file, MainCallParameters.noCall()));
+    }
+
+    private static String generateSource() {
+        StringBuilder sb = new StringBuilder("package streaming\n\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append("fun function").append(i).append("(x: Int): String {\n")
+              .append("    val y = x * ").append(i).append(" + 1\n")
+              .append("    return \"result of ").append(i).append(": \" + y\n")
+              .append("}\n\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.test.serialization
+
+import com.google.common.base.Predicates
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.psi.PsiFile
+import org.jetbrains.jet.JetTestUtils
+import org.jetbrains.jet.analyzer.AnalysisResult
+import org.jetbrains.jet.cli.jvm.compiler.EnvironmentConfigFiles
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment
+import org.jetbrains.jet.config.CompilerConfiguration
+import org.jetbrains.jet.lang.descriptors.impl.ModuleDescriptorImpl
+import org.jetbrains.jet.lang.psi.JetFile
+import org.jetbrains.jet.lang.resolve.AnalyzingUtils
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns
+import org.jetbrains.jet.storage.LockBasedStorageManager
+import org.jetbrains.jet.test.TestCaseWithTmpdir
+import org.jetbrains.jet.test.util.RecursiveDescriptorComparator
+import org.jetbrains.k2js.analyze.TopDownAnalyzerFacadeForJS
+import org.jetbrains.k2js.config.Config
+import org.jetbrains.k2js.config.EcmaVersion
+import org.jetbrains.k2js.config.LibrarySourcesConfigWithCaching
+import org.jetbrains.k2js.serialization.KotlinJavascriptPackageFragmentProvider
+import org.jetbrains.k2js.serialization.KotlinJavascriptSerializationUtil
+import java.io.File
+import java.io.FileInputStream
+
+public class KotlinJavascriptSerializerTest : TestCaseWithTmpdir() {
+    private val MODULE_NAME = "library"
+
+    private fun analyze(fileName: String, config: Config): Pair<JetFile, AnalysisResult> {
+        val file = JetTestUtils.loadJetFile(config.getProject(), File("js/js.translator/testData/serialization/$fileName"))
+        val result = TopDownAnalyzerFacadeForJS.analyzeFiles(listOf(file), Predicates.alwaysTrue<PsiFile>(), config)
+        AnalyzingUtils.throwExceptionOnErrors(result.getBindingContext())
+        return Pair(file, result)
+    }
+
+    private fun createConfig(): Config {
+        val environment = JetCoreEnvironment.createForTests(
+                getTestRootDisposable()!!, CompilerConfiguration(), EnvironmentConfigFiles.JS_CONFIG_FILES
+        )
+        return LibrarySourcesConfigWithCaching(environment.getProject(), MODULE_NAME, EcmaVersion.defaultVersion(), false, false, false)
+    }
+
+    private fun serialize(file: JetFile, result: AnalysisResult, moduleName: String = MODULE_NAME) {
+        val fragments = result.getModuleDescriptor().getPackageFragmentProvider().getPackageFragments(file.getPackageFqName())
+        KotlinJavascriptSerializationUtil.serializeModule(moduleName, fragments) {
+            path, bytes -> FileUtil.writeToFile(File(tmpdir, path), bytes)
+        }
+    }
+
+    fun testLibrary() {
+        val config = createConfig()
+        val (file, result) = analyze("library.kt", config)
+        serialize(file, result)
+
+        val module = TopDownAnalyzerFacadeForJS.createJsModule("<deserialized>")
+        val provider = KotlinJavascriptPackageFragmentProvider(LockBasedStorageManager(), module, {
+            path -> File(tmpdir, path).let { if (it.exists()) FileInputStream(it) else null }
+        }, setOf())
+        module.initialize(provider)
+        module.addDependencyOnModule(module)
+        module.addDependencyOnModule(KotlinBuiltIns.getInstance().getBuiltInsModule())
+        module.addDependencyOnModule(config.getLibraryModule() as ModuleDescriptorImpl)
+        module.seal()
+
+        val fqName = file.getPackageFqName()
+        RecursiveDescriptorComparator.validateAndCompareDescriptors(
+                result.getModuleDescriptor().getPackage(fqName)!!,
+                module.getPackage(fqName)!!,
+                RecursiveDescriptorComparator.DONT_INCLUDE_METHODS_OF_OBJECT,
+                null
+        )
+    }
+
+    fun testPackagesWithInlineFunctionsAreMarked() {
+        val (file, result) = analyze("inlineFunctions.kt", createConfig())
+        serialize(file, result)
+
+        val metadata = KotlinJavascriptSerializationUtil.readModuleMetadata(
+                FileInputStream(File(tmpdir, KotlinJavascriptSerializationUtil.getModuleFilePath()))
+        )
+        assertEquals(setOf(file.getPackageFqName()), metadata.packagesWithInlineFunctions)
+    }
+
+    fun testStringsLongerThan64K() {
+        val (file, result) = analyze("inlineFunctions.kt", createConfig())
+        val moduleName = StringUtil.repeat("\u0444", 40000)
+        serialize(file, result, moduleName)
+
+        val metadata = KotlinJavascriptSerializationUtil.readModuleMetadata(
+                FileInputStream(File(tmpdir, KotlinJavascriptSerializationUtil.getModuleFilePath()))
+        )
+        assertEquals(moduleName, metadata.moduleName)
+    }
+}
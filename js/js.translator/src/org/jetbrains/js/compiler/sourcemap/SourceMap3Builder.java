@@ -21,17 +21,27 @@ import com.google.dart.compiler.util.TextOutput;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.PairConsumer;
 import gnu.trove.TObjectIntHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
 public class SourceMap3Builder implements SourceMapBuilder {
-    private final StringBuilder out = new StringBuilder(8192);
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final StringBuilder out = new StringBuilder(FLUSH_THRESHOLD);
     private final File generatedFile;
     private final TextOutput textOutput;
     private final PairConsumer<SourceMapBuilder, Object> sourceInfoConsumer;
 
+    @Nullable
+    private final Writer writer;
+    private boolean headerWritten;
+
     private String lastSource;
     private int lastSourceIndex;
 
@@ -51,28 +61,76 @@ public class SourceMap3Builder implements SourceMapBuilder {
     private int previousSourceColumn;
 
     public SourceMap3Builder(File generatedFile, TextOutput textOutput, PairConsumer<SourceMapBuilder, Object> sourceInfoConsumer) {
+        this(generatedFile, textOutput, sourceInfoConsumer, null);
+    }
+
+    /**
+     * If {@code writer} is not null, mappings are written to it as soon as they are generated, and the source map is completed
+     * by {@link #finish()} instead of {@link #build()}. Both produce the same text.
+     */
+    public SourceMap3Builder(
+            File generatedFile,
+            TextOutput textOutput,
+            PairConsumer<SourceMapBuilder, Object> sourceInfoConsumer,
+            @Nullable Writer writer
+    ) {
         this.generatedFile = generatedFile;
         this.textOutput = textOutput;
         this.sourceInfoConsumer = sourceInfoConsumer;
+        this.writer = writer;
+    }
+
+    @NotNull
+    public static File getSourceMapFile(@NotNull File generatedFile) {
+        return new File(generatedFile.getParentFile(), generatedFile.getName() + ".map");
     }
 
     @Override
     public File getOutFile() {
-        return new File(generatedFile.getParentFile(), generatedFile.getName() + ".map");
+        return getSourceMapFile(generatedFile);
     }
 
     @Override
     public String build() {
+        assert writer == null : "Source map is written to the writer, use finish()";
         StringBuilder sb = new StringBuilder(out.length() + (128 * orderedSources.size()));
-        sb.append("{\"version\":3,\"file\":\"").append(generatedFile.getName()).append('"').append(',');
-        appendSources(sb);
-        sb.append(",\"names\":[");
-        sb.append("],\"mappings\":\"");
+        appendHeader(sb);
         sb.append(out);
-        sb.append("\"}");
+        appendFooter(sb);
         return sb.toString();
     }
 
+    public void finish() throws IOException {
+        assert writer != null : "Source map is built in memory, use build()";
+        flush();
+        StringBuilder sb = new StringBuilder(128 * orderedSources.size());
+        appendFooter(sb);
+        writer.append(sb);
+    }
+
+    private void flush() throws IOException {
+        assert writer != null;
+        if (!headerWritten) {
+            StringBuilder sb = new StringBuilder();
+            appendHeader(sb);
+            writer.append(sb);
+            headerWritten = true;
+        }
+        writer.append(out);
+        out.setLength(0);
+    }
+
+    // Sources are only known after all mappings are generated, so they follow the mappings
+    private void appendHeader(StringBuilder sb) {
+        sb.append("{\"version\":3,\"file\":\"").append(generatedFile.getName()).append("\",\"mappings\":\"");
+    }
+
+    private void appendFooter(StringBuilder sb) {
+        sb.append("\",");
+        appendSources(sb);
+        sb.append(",\"names\":[]}");
+    }
+
     private void appendSources(StringBuilder sb) {
         boolean isNotFirst = false;
         sb.append('"').append("sources").append("\":[");
@@ -92,10 +150,19 @@ public class SourceMap3Builder implements SourceMapBuilder {
     public void newLine() {
         out.append(';');
         previousGeneratedColumn = -1;
+        if (writer != null && out.length() >= FLUSH_THRESHOLD) {
+            try {
+                flush();
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
     public void skipLinesAtBeginning(int count) {
+        assert !headerWritten : "Lines can't be skipped after mappings were written";
         out.insert(0, StringUtil.repeatSymbol(';', count));
     }
 
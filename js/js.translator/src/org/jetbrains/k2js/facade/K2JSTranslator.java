@@ -38,10 +38,10 @@ import org.jetbrains.jet.analyzer.AnalysisResult;
 import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.utils.UtilsPackage;
 import org.jetbrains.jet.utils.fileUtils.FileUtilsPackage;
 import org.jetbrains.js.compiler.JsSourceGenerationVisitor;
 import org.jetbrains.js.compiler.sourcemap.SourceMap3Builder;
-import org.jetbrains.js.compiler.sourcemap.SourceMapBuilder;
 import org.jetbrains.k2js.analyze.TopDownAnalyzerFacadeForJS;
 import org.jetbrains.k2js.config.Config;
 import org.jetbrains.k2js.facade.exceptions.TranslationException;
@@ -49,6 +49,8 @@ import org.jetbrains.k2js.translate.general.Translation;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
 
@@ -71,19 +73,83 @@ public final class K2JSTranslator {
             @Nullable File outputPostfixFile,
             @NotNull Config config,
             @NotNull Consumer<JsNode> astConsumer // hack for tests
+    ) throws TranslationException, IOException {
+        StringWriter jsWriter = new StringWriter();
+        StringWriter sourceMapWriter = config.isSourcemap() ? new StringWriter() : null;
+        translateWithMainCallParameters(mainCall, files, outputFile, outputPrefixFile, outputPostfixFile, config,
+                                        jsWriter, sourceMapWriter, astConsumer);
+
+        List<File> sourceFiles = getSourceIoFiles(files);
+
+        SimpleOutputFile jsFile = new SimpleOutputFile(sourceFiles, outputFile.getName(), jsWriter.toString());
+        List<SimpleOutputFile> outputFiles = new SmartList<SimpleOutputFile>(jsFile);
+
+        if (sourceMapWriter != null) {
+            String sourceMapFileName = SourceMap3Builder.getSourceMapFile(outputFile).getName();
+            outputFiles.add(new SimpleOutputFile(sourceFiles, sourceMapFileName, sourceMapWriter.toString()));
+        }
+
+        return new SimpleOutputFileCollection(outputFiles);
+    }
+
+    /**
+     * Writes the generated code to {@code jsWriter} and the source map to {@code sourceMapWriter} (if it's not null) as the code is
+     * being generated, so that neither of them is kept in memory entirely. Writers are not closed by this method.
+     */
+    public static void translateWithMainCallParameters(
+            @NotNull MainCallParameters mainCall,
+            @NotNull List<JetFile> files,
+            @NotNull File outputFile,
+            @Nullable File outputPrefixFile,
+            @Nullable File outputPostfixFile,
+            @NotNull Config config,
+            @NotNull Writer jsWriter,
+            @Nullable Writer sourceMapWriter,
+            @NotNull Consumer<JsNode> astConsumer
     ) throws TranslationException, IOException {
         K2JSTranslator translator = new K2JSTranslator(config);
-        TextOutputImpl output = new TextOutputImpl();
-        SourceMapBuilder sourceMapBuilder = config.isSourcemap() ? new SourceMap3Builder(outputFile, output, new SourceMapBuilderConsumer()) : null;
-        String programCode = translator.generateProgramCode(files, mainCall, output, sourceMapBuilder, astConsumer);
+        JsProgram program = translator.generateProgram(files, mainCall);
 
         String prefix = FileUtilsPackage.readTextOrEmpty(outputPrefixFile);
-        String postfix = FileUtilsPackage.readTextOrEmpty(outputPostfixFile);
+        jsWriter.write(prefix);
+
+        writeProgramCode(program, jsWriter, sourceMapWriter, outputFile, StringUtil.getLineBreakCount(prefix));
+        astConsumer.consume(program);
+
+        jsWriter.write(FileUtilsPackage.readTextOrEmpty(outputPostfixFile));
+    }
+
+    /**
+     * Writes the code of {@code program} to {@code jsWriter} and, if {@code sourceMapWriter} is not null, the source map
+     * of {@code outputFile} to {@code sourceMapWriter}. {@code linesBeforeCode} is the number of lines already written
+     * to {@code jsWriter}, the source map skips them.
+     */
+    public static void writeProgramCode(
+            @NotNull JsProgram program,
+            @NotNull Writer jsWriter,
+            @Nullable Writer sourceMapWriter,
+            @Nullable File outputFile,
+            int linesBeforeCode
+    ) throws IOException {
+        TextOutputImpl output = new TextOutputImpl(false, jsWriter);
+        SourceMap3Builder sourceMapBuilder = null;
+        if (sourceMapWriter != null) {
+            assert outputFile != null : "Output file is needed to write a source map";
+            sourceMapBuilder = new SourceMap3Builder(outputFile, output, new SourceMapBuilderConsumer(), sourceMapWriter);
+            sourceMapBuilder.skipLinesAtBeginning(linesBeforeCode);
+        }
 
-        StringBuilder outBuilder = new StringBuilder(programCode.length() + prefix.length() + postfix.length());
-        outBuilder.append(prefix).append(programCode).append(postfix);
+        program.accept(new JsSourceGenerationVisitor(output, sourceMapBuilder));
+        output.flush();
 
-        List<File> sourceFiles = ContainerUtil.map(files, new Function<JetFile, File>() {
+        if (sourceMapBuilder != null) {
+            sourceMapBuilder.finish();
+        }
+    }
+
+    @NotNull
+    public static List<File> getSourceIoFiles(@NotNull List<JetFile> files) {
+        return ContainerUtil.map(files, new Function<JetFile, File>() {
             @Override
             public File fun(JetFile file) {
                 VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
@@ -91,17 +157,6 @@ public final class K2JSTranslator {
                 return VfsUtilCore.virtualToIoFile(virtualFile);
             }
         });
-
-        SimpleOutputFile jsFile = new SimpleOutputFile(sourceFiles, outputFile.getName(), outBuilder.toString());
-        List<SimpleOutputFile> outputFiles = new SmartList<SimpleOutputFile>(jsFile);
-
-        if (sourceMapBuilder != null) {
-            sourceMapBuilder.skipLinesAtBeginning(StringUtil.getLineBreakCount(prefix));
-            SimpleOutputFile sourcemapFile = new SimpleOutputFile(sourceFiles, sourceMapBuilder.getOutFile().getName(), sourceMapBuilder.build());
-            outputFiles.add(sourcemapFile);
-        }
-
-        return new SimpleOutputFileCollection(outputFiles);
     }
 
     @NotNull
@@ -128,26 +183,16 @@ public final class K2JSTranslator {
     @NotNull
     public String generateProgramCode(@NotNull List<JetFile> files, @NotNull MainCallParameters mainCallParameters)
             throws TranslationException {
-        //noinspection unchecked
-        return generateProgramCode(files, mainCallParameters, new TextOutputImpl(), null, Consumer.EMPTY_CONSUMER);
-    }
-
-    @NotNull
-    public String generateProgramCode(
-            @NotNull List<JetFile> files,
-            @NotNull MainCallParameters mainCallParameters,
-            @NotNull TextOutputImpl output,
-            @Nullable SourceMapBuilder sourceMapBuilder,
-            @NotNull Consumer<JsNode> astConsumer
-    ) throws TranslationException {
         JsProgram program = generateProgram(files, mainCallParameters);
 
-        JsSourceGenerationVisitor sourceGenerator = new JsSourceGenerationVisitor(output, sourceMapBuilder);
-        program.accept(sourceGenerator);
-
-        astConsumer.consume(program);
-
-        return output.toString();
+        StringWriter writer = new StringWriter();
+        try {
+            writeProgramCode(program, writer, null, null, 0);
+        }
+        catch (IOException e) {
+            throw UtilsPackage.rethrow(e);
+        }
+        return writer.toString();
     }
 
     @NotNull
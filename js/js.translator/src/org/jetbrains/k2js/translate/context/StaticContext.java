@@ -31,6 +31,7 @@ import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.k2js.config.Config;
 import org.jetbrains.k2js.config.EcmaVersion;
 import org.jetbrains.k2js.config.LibrarySourcesConfig;
+import org.jetbrains.k2js.serialization.KotlinJavascriptPackageFragmentProvider;
 import org.jetbrains.k2js.translate.context.generator.Generator;
 import org.jetbrains.k2js.translate.context.generator.Rule;
 import org.jetbrains.k2js.translate.intrinsic.Intrinsics;
@@ -478,6 +479,10 @@ public final class StaticContext {
                     }
 
                     if (element == null) {
+                        PackageFragmentDescriptor packageFragment = DescriptorUtils.getParentOfType(descriptor, PackageFragmentDescriptor.class, false);
+                        if (packageFragment instanceof KotlinJavascriptPackageFragmentProvider.KotlinJavascriptPackageFragment) {
+                            return ((KotlinJavascriptPackageFragmentProvider.KotlinJavascriptPackageFragment) packageFragment).getModuleName();
+                        }
                         return null;
                     }
                     return element.getContainingFile().getUserData(LibrarySourcesConfig.EXTERNAL_MODULE_NAME);
@@ -0,0 +1,5 @@
+package library.inline
+
+public inline fun run<T>(f: () -> T): T = f()
+
+public fun notInline(): Int = 0
@@ -0,0 +1,40 @@
+package library.sample
+
+native("Date")
+public class NativeDate {
+    native public fun getTime(): Double = noImpl
+}
+
+library("mapOf")
+public fun emptyMap(): Map<String, Int> = noImpl
+
+public fun overloaded(a: Int): Int = a
+public fun overloaded(a: String): String = a
+public fun overloaded(a: Int, b: String): String = b
+native("overloadedNative") public fun overloaded(a: Double): Double = noImpl
+
+public fun Int.overloaded(): Int = this
+public fun String.overloaded(): String = this
+
+native("genericOfStrings") public fun generic(a: List<String>): String = noImpl
+native("genericOfInts") public fun generic(a: List<Int>): Int = noImpl
+native("genericOfNullableInts") public fun generic(a: List<Int?>): Int? = noImpl
+native("genericOfT") public fun <T> generic(a: List<out T>): T = noImpl
+native("genericOfMutableT") public fun <T> generic(a: MutableList<T>): T = noImpl
+
+public val intConstant: Int = 42
+public val longConstant: Long = 42L
+public val stringConstant: String = "constant"
+public val booleanConstant: Boolean = true
+public val charConstant: Char = 'c'
+public val doubleConstant: Double = 4.2
+public val nullConstant: String? = null
+public var notConstant: Int = 0
+
+public class Holder {
+    public val memberConstant: String = "member"
+
+    class object {
+        public val classObjectConstant: Int = 1
+    }
+}
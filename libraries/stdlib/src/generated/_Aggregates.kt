@@ -323,63 +323,63 @@ public inline fun String.any(predicate: (Char) -> Boolean): Boolean {
  * Returns the number of elements
  */
 public fun <T> Array<out T>.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun BooleanArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun ByteArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun CharArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun DoubleArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun FloatArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun IntArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun LongArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
  * Returns the number of elements
  */
 public fun ShortArray.count(): Int {
-    return size
+    return size()
 }
 
 /**
@@ -543,7 +543,9 @@ public inline fun String.count(predicate: (Char) -> Boolean): Int {
  */
 public inline fun <T, R> Array<out T>.fold(initial: R, operation: (R, T) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -552,7 +554,9 @@ public inline fun <T, R> Array<out T>.fold(initial: R, operation: (R, T) -> R):
  */
 public inline fun <R> BooleanArray.fold(initial: R, operation: (R, Boolean) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -561,7 +565,9 @@ public inline fun <R> BooleanArray.fold(initial: R, operation: (R, Boolean) -> R
  */
 public inline fun <R> ByteArray.fold(initial: R, operation: (R, Byte) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -570,7 +576,9 @@ public inline fun <R> ByteArray.fold(initial: R, operation: (R, Byte) -> R): R {
  */
 public inline fun <R> CharArray.fold(initial: R, operation: (R, Char) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -579,7 +587,9 @@ public inline fun <R> CharArray.fold(initial: R, operation: (R, Char) -> R): R {
  */
 public inline fun <R> DoubleArray.fold(initial: R, operation: (R, Double) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -588,7 +598,9 @@ public inline fun <R> DoubleArray.fold(initial: R, operation: (R, Double) -> R):
  */
 public inline fun <R> FloatArray.fold(initial: R, operation: (R, Float) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -597,7 +609,9 @@ public inline fun <R> FloatArray.fold(initial: R, operation: (R, Float) -> R): R
  */
 public inline fun <R> IntArray.fold(initial: R, operation: (R, Int) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -606,7 +620,9 @@ public inline fun <R> IntArray.fold(initial: R, operation: (R, Int) -> R): R {
  */
 public inline fun <R> LongArray.fold(initial: R, operation: (R, Long) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -615,7 +631,9 @@ public inline fun <R> LongArray.fold(initial: R, operation: (R, Long) -> R): R {
  */
 public inline fun <R> ShortArray.fold(initial: R, operation: (R, Short) -> R): R {
     var accumulator = initial
-    for (element in this) accumulator = operation(accumulator, element)
+    for (index in indices) {
+        accumulator = operation(accumulator, this[index])
+    }
     return accumulator
 }
 
@@ -650,10 +668,9 @@ public inline fun <R> String.fold(initial: R, operation: (R, Char) -> R): R {
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <T, R> Array<out T>.foldRight(initial: R, operation: (T, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -662,10 +679,9 @@ public inline fun <T, R> Array<out T>.foldRight(initial: R, operation: (T, R) ->
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> BooleanArray.foldRight(initial: R, operation: (Boolean, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -674,10 +690,9 @@ public inline fun <R> BooleanArray.foldRight(initial: R, operation: (Boolean, R)
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> ByteArray.foldRight(initial: R, operation: (Byte, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -686,10 +701,9 @@ public inline fun <R> ByteArray.foldRight(initial: R, operation: (Byte, R) -> R)
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> CharArray.foldRight(initial: R, operation: (Char, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -698,10 +712,9 @@ public inline fun <R> CharArray.foldRight(initial: R, operation: (Char, R) -> R)
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> DoubleArray.foldRight(initial: R, operation: (Double, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -710,10 +723,9 @@ public inline fun <R> DoubleArray.foldRight(initial: R, operation: (Double, R) -
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> FloatArray.foldRight(initial: R, operation: (Float, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -722,10 +734,9 @@ public inline fun <R> FloatArray.foldRight(initial: R, operation: (Float, R) ->
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> IntArray.foldRight(initial: R, operation: (Int, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -734,10 +745,9 @@ public inline fun <R> IntArray.foldRight(initial: R, operation: (Int, R) -> R):
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> LongArray.foldRight(initial: R, operation: (Long, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -746,10 +756,9 @@ public inline fun <R> LongArray.foldRight(initial: R, operation: (Long, R) -> R)
  * Accumulates value starting with *initial* value and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <R> ShortArray.foldRight(initial: R, operation: (Short, R) -> R): R {
-    var index = size - 1
     var accumulator = initial
-    while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+    for (index in lastIndex downTo 0) {
+        accumulator = operation(this[index], accumulator)
     }
     return accumulator
 }
@@ -1403,7 +1412,7 @@ public fun String.min(): Char? {
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>, T : Any> Array<out T>.minBy(f: (T) -> R): T? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1421,7 +1430,7 @@ public inline fun <R : Comparable<R>, T : Any> Array<out T>.minBy(f: (T) -> R):
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> BooleanArray.minBy(f: (Boolean) -> R): Boolean? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1439,7 +1448,7 @@ public inline fun <R : Comparable<R>> BooleanArray.minBy(f: (Boolean) -> R): Boo
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> ByteArray.minBy(f: (Byte) -> R): Byte? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1457,7 +1466,7 @@ public inline fun <R : Comparable<R>> ByteArray.minBy(f: (Byte) -> R): Byte? {
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> CharArray.minBy(f: (Char) -> R): Char? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1475,7 +1484,7 @@ public inline fun <R : Comparable<R>> CharArray.minBy(f: (Char) -> R): Char? {
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> DoubleArray.minBy(f: (Double) -> R): Double? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1493,7 +1502,7 @@ public inline fun <R : Comparable<R>> DoubleArray.minBy(f: (Double) -> R): Doubl
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> FloatArray.minBy(f: (Float) -> R): Float? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1511,7 +1520,7 @@ public inline fun <R : Comparable<R>> FloatArray.minBy(f: (Float) -> R): Float?
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> IntArray.minBy(f: (Int) -> R): Int? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1529,7 +1538,7 @@ public inline fun <R : Comparable<R>> IntArray.minBy(f: (Int) -> R): Int? {
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> LongArray.minBy(f: (Long) -> R): Long? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1547,7 +1556,7 @@ public inline fun <R : Comparable<R>> LongArray.minBy(f: (Long) -> R): Long? {
  * Returns the first element yielding the smallest value of the given function or null if there are no elements
  */
 public inline fun <R : Comparable<R>> ShortArray.minBy(f: (Short) -> R): Short? {
-    if (size == 0) return null
+    if (isEmpty()) return null
     var minElem = this[0]
     var minValue = f(minElem)
     for (i in 1..lastIndex) {
@@ -1849,11 +1858,10 @@ public inline fun String.none(predicate: (Char) -> Boolean): Boolean {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun <T> Array<out T>.reduce(operation: (T, T) -> T): T {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1862,11 +1870,10 @@ public inline fun <T> Array<out T>.reduce(operation: (T, T) -> T): T {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun BooleanArray.reduce(operation: (Boolean, Boolean) -> Boolean): Boolean {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1875,11 +1882,10 @@ public inline fun BooleanArray.reduce(operation: (Boolean, Boolean) -> Boolean):
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun ByteArray.reduce(operation: (Byte, Byte) -> Byte): Byte {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1888,11 +1894,10 @@ public inline fun ByteArray.reduce(operation: (Byte, Byte) -> Byte): Byte {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun CharArray.reduce(operation: (Char, Char) -> Char): Char {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1901,11 +1906,10 @@ public inline fun CharArray.reduce(operation: (Char, Char) -> Char): Char {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun DoubleArray.reduce(operation: (Double, Double) -> Double): Double {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1914,11 +1918,10 @@ public inline fun DoubleArray.reduce(operation: (Double, Double) -> Double): Dou
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun FloatArray.reduce(operation: (Float, Float) -> Float): Float {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1927,11 +1930,10 @@ public inline fun FloatArray.reduce(operation: (Float, Float) -> Float): Float {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun IntArray.reduce(operation: (Int, Int) -> Int): Int {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1940,11 +1942,10 @@ public inline fun IntArray.reduce(operation: (Int, Int) -> Int): Int {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun LongArray.reduce(operation: (Long, Long) -> Long): Long {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -1953,11 +1954,10 @@ public inline fun LongArray.reduce(operation: (Long, Long) -> Long): Long {
  * Accumulates value starting with the first element and applying *operation* from left to right to current accumulator value and each element
  */
 public inline fun ShortArray.reduce(operation: (Short, Short) -> Short): Short {
-    val iterator = this.iterator()
-    if (!iterator.hasNext()) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = iterator.next()
-    while (iterator.hasNext()) {
-        accumulator = operation(accumulator, iterator.next())
+    if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+    var accumulator = this[0]
+    for (index in 1..lastIndex) {
+        accumulator = operation(accumulator, this[index])
     }
     return accumulator
 }
@@ -2005,11 +2005,11 @@ public inline fun String.reduce(operation: (Char, Char) -> Char): Char {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun <T> Array<out T>.reduceRight(operation: (T, T) -> T): T {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2018,11 +2018,11 @@ public inline fun <T> Array<out T>.reduceRight(operation: (T, T) -> T): T {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun BooleanArray.reduceRight(operation: (Boolean, Boolean) -> Boolean): Boolean {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2031,11 +2031,11 @@ public inline fun BooleanArray.reduceRight(operation: (Boolean, Boolean) -> Bool
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun ByteArray.reduceRight(operation: (Byte, Byte) -> Byte): Byte {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2044,11 +2044,11 @@ public inline fun ByteArray.reduceRight(operation: (Byte, Byte) -> Byte): Byte {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun CharArray.reduceRight(operation: (Char, Char) -> Char): Char {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2057,11 +2057,11 @@ public inline fun CharArray.reduceRight(operation: (Char, Char) -> Char): Char {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun DoubleArray.reduceRight(operation: (Double, Double) -> Double): Double {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2070,11 +2070,11 @@ public inline fun DoubleArray.reduceRight(operation: (Double, Double) -> Double)
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun FloatArray.reduceRight(operation: (Float, Float) -> Float): Float {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2083,11 +2083,11 @@ public inline fun FloatArray.reduceRight(operation: (Float, Float) -> Float): Fl
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun IntArray.reduceRight(operation: (Int, Int) -> Int): Int {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2096,11 +2096,11 @@ public inline fun IntArray.reduceRight(operation: (Int, Int) -> Int): Int {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun LongArray.reduceRight(operation: (Long, Long) -> Long): Long {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -2109,11 +2109,11 @@ public inline fun LongArray.reduceRight(operation: (Long, Long) -> Long): Long {
  * Accumulates value starting with last element and applying *operation* from right to left to each element and current accumulator value
  */
 public inline fun ShortArray.reduceRight(operation: (Short, Short) -> Short): Short {
-    var index = size - 1
+    var index = lastIndex
     if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
-    var accumulator = get(index--)
+    var accumulator = this[index--]
     while (index >= 0) {
-        accumulator = operation(get(index--), accumulator)
+        accumulator = operation(this[index--], accumulator)
     }
     return accumulator
 }
@@ -59,10 +59,9 @@ public fun Iterable<Float>.sum(): Float {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Int>.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -71,10 +70,9 @@ public fun Array<out Int>.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun IntArray.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -83,10 +81,9 @@ public fun IntArray.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Long>.sum(): Long {
-    val iterator = iterator()
     var sum: Long = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -95,10 +92,9 @@ public fun Array<out Long>.sum(): Long {
  * Returns the sum of all elements in the collection
  */
 public fun LongArray.sum(): Long {
-    val iterator = iterator()
     var sum: Long = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -107,10 +103,9 @@ public fun LongArray.sum(): Long {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Byte>.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -119,10 +114,9 @@ public fun Array<out Byte>.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun ByteArray.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -131,10 +125,9 @@ public fun ByteArray.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Short>.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -143,10 +136,9 @@ public fun Array<out Short>.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun ShortArray.sum(): Int {
-    val iterator = iterator()
     var sum: Int = 0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -155,10 +147,9 @@ public fun ShortArray.sum(): Int {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Double>.sum(): Double {
-    val iterator = iterator()
     var sum: Double = 0.0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -167,10 +158,9 @@ public fun Array<out Double>.sum(): Double {
  * Returns the sum of all elements in the collection
  */
 public fun DoubleArray.sum(): Double {
-    val iterator = iterator()
     var sum: Double = 0.0
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -179,10 +169,9 @@ public fun DoubleArray.sum(): Double {
  * Returns the sum of all elements in the collection
  */
 public fun Array<out Float>.sum(): Float {
-    val iterator = iterator()
     var sum: Float = 0.0f
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
@@ -191,10 +180,9 @@ public fun Array<out Float>.sum(): Float {
  * Returns the sum of all elements in the collection
  */
 public fun FloatArray.sum(): Float {
-    val iterator = iterator()
     var sum: Float = 0.0f
-    while (iterator.hasNext()) {
-        sum += iterator.next()
+    for (element in this) {
+        sum += element
     }
     return sum
 }
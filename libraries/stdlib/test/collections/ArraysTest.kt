@@ -157,6 +157,22 @@ class ArraysTest {
         expect(3.0.toFloat()) { array<Float>(1.0.toFloat(), 2.0.toFloat()).sum() }
     }
 
+    test fun sumOfPrimitiveArrays() {
+        expect(0) { intArray().sum() }
+        expect(14) { intArray(2, 3, 9).sum() }
+        expect(3.0) { doubleArray(1.0, 2.0).sum() }
+        expect(200) { byteArray(100, 100).sum() }
+        expect(50000) { shortArray(20000, 30000).sum() }
+        expect(3000000000000) { longArray(1000000000000, 2000000000000).sum() }
+        expect(3.0.toFloat()) { floatArray(1.0.toFloat(), 2.0.toFloat()).sum() }
+    }
+
+    test fun mapPrimitiveArrays() {
+        assertEquals(listOf(2, 4, 6), intArray(1, 2, 3).map { it * 2 })
+        assertEquals(listOf("1", "2"), longArray(1, 2).map { it.toString() })
+        assertTrue(doubleArray().map { it }.isEmpty())
+    }
+
     test fun indexOf() {
         expect(-1) { array("cat", "dog", "bird").indexOf("mouse") }
         expect(0) { array("cat", "dog", "bird").indexOf("cat") }
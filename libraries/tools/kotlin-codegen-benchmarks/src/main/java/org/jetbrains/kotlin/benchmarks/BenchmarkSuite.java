@@ -0,0 +1,170 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks;
+
+import org.jetbrains.kotlin.benchmarks.workloads.Workload;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Runs {@link GeneratedCodeBenchmark} for all workloads, measures the number of bytes each workload allocates per run
+ * and prints both, optionally comparing them with a baseline saved by an earlier run.
+ *
+ * Usage: {@code BenchmarkSuite [-baseline <file to compare with>] [-save <file to save results to>]}
+ */
+public class BenchmarkSuite {
+    private static final String THROUGHPUT = ".throughput";
+    private static final String ALLOCATION = ".allocation";
+
+    private static final int ALLOCATION_WARMUP_RUNS = 10000;
+    private static final int ALLOCATION_MEASUREMENT_RUNS = 100000;
+
+    // results of workloads are written here, so that the JIT can't eliminate them
+    @SuppressWarnings("UnusedDeclaration")
+    private static volatile int sink;
+
+    public static void main(String[] args) throws Exception {
+        File baselineFile = null;
+        File saveTo = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-baseline") && i + 1 < args.length) {
+                baselineFile = new File(args[++i]);
+            }
+            else if (args[i].equals("-save") && i + 1 < args.length) {
+                saveTo = new File(args[++i]);
+            }
+            else {
+                System.err.println("Usage: BenchmarkSuite [-baseline <file to compare with>] [-save <file to save results to>]");
+                System.exit(1);
+            }
+        }
+
+        Properties baseline = baselineFile != null ? load(baselineFile) : null;
+
+        Properties results = new Properties();
+        String throughputUnit = "";
+        Collection<RunResult> runResults = new Runner(new OptionsBuilder().include(GeneratedCodeBenchmark.class.getName()).build()).run();
+        for (RunResult runResult : runResults) {
+            String workload = runResult.getParams().getParam("workload");
+            results.setProperty(workload + THROUGHPUT, String.valueOf(runResult.getPrimaryResult().getScore()));
+            throughputUnit = runResult.getPrimaryResult().getScoreUnit();
+        }
+
+        for (String workload : getWorkloadNames()) {
+            results.setProperty(workload + ALLOCATION, String.valueOf(measureAllocatedBytesPerRun(workload)));
+        }
+
+        printReport(results, baseline, throughputUnit);
+
+        if (saveTo != null) {
+            save(results, saveTo);
+            System.out.println("Results saved to " + saveTo);
+        }
+    }
+
+    static Workload createWorkload(String name) throws Exception {
+        return (Workload) Class.forName(Workload.class.getPackage().getName() + "." + name).newInstance();
+    }
+
+    private static String[] getWorkloadNames() throws NoSuchFieldException {
+        return GeneratedCodeBenchmark.class.getField("workload").getAnnotation(Param.class).value();
+    }
+
+    /**
+     * Allocations are measured outside of JMH with the HotSpot specific per-thread allocation counter.
+     * Allocations the JIT eliminates with escape analysis are not counted, just as in the benchmark itself.
+     */
+    private static long measureAllocatedBytesPerRun(String name) throws Exception {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        Workload workload = createWorkload(name);
+        int result = 0;
+        for (int i = 0; i < ALLOCATION_WARMUP_RUNS; i++) {
+            result += workload.run();
+        }
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ALLOCATION_MEASUREMENT_RUNS; i++) {
+            result += workload.run();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        sink = result;
+        return allocated / ALLOCATION_MEASUREMENT_RUNS;
+    }
+
+    private static void printReport(Properties results, Properties baseline, String throughputUnit) throws NoSuchFieldException {
+        System.out.println();
+        System.out.println(String.format("%-22s %16s %10s %14s %10s", "Workload", throughputUnit, "change", "bytes/op", "change"));
+        for (String workload : getWorkloadNames()) {
+            String throughput = results.getProperty(workload + THROUGHPUT);
+            String allocation = results.getProperty(workload + ALLOCATION);
+            System.out.println(String.format(
+                    "%-22s %16s %10s %14s %10s",
+                    workload,
+                    throughput != null ? String.format("%.3f", Double.parseDouble(throughput)) : "-",
+                    change(throughput, baseline != null ? baseline.getProperty(workload + THROUGHPUT) : null),
+                    allocation != null ? allocation : "-",
+                    change(allocation, baseline != null ? baseline.getProperty(workload + ALLOCATION) : null)
+            ));
+        }
+    }
+
+    private static String change(String value, String baselineValue) {
+        if (value == null || baselineValue == null) return "";
+
+        double base = Double.parseDouble(baselineValue);
+        double current = Double.parseDouble(value);
+        if (base == 0) return current == 0 ? "0%" : "new";
+        return String.format("%+.1f%%", (current - base) * 100 / base);
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        InputStream stream = new FileInputStream(file);
+        try {
+            properties.load(stream);
+        }
+        finally {
+            stream.close();
+        }
+        return properties;
+    }
+
+    private static void save(Properties results, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+
+        OutputStream stream = new FileOutputStream(file);
+        try {
+            results.store(stream, "Results of Kotlin codegen benchmarks");
+        }
+        finally {
+            stream.close();
+        }
+    }
+}
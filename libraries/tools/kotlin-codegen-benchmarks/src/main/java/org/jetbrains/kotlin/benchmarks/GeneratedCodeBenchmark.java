@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks;
+
+import org.jetbrains.kotlin.benchmarks.workloads.Workload;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every workload from {@link org.jetbrains.kotlin.benchmarks.workloads} in a separate fork,
+ * so that the JIT doesn't mix up profiles of different workloads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GeneratedCodeBenchmark {
+    @Param({
+            "RangeLoops", "RangeContains", "CollectionPipeline", "CollectionIteration", "StringTemplates",
+            "WhenOnStrings", "WhenOnEnums", "DataClasses", "DelegatedProperties", "Lambdas"
+    })
+    public String workload;
+
+    private Workload instance;
+
+    @Setup
+    public void setUp() throws Exception {
+        instance = BenchmarkSuite.createWorkload(workload);
+    }
+
+    @Benchmark
+    public int run() {
+        return instance.run();
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+/**
+ * Code whose performance depends on the bytecode generated for some language constructs.
+ * Workloads are created by class name, so every implementation should have a public constructor without parameters.
+ */
+public trait Workload {
+    /**
+     * @return a value depending on the whole computation, so that it can't be eliminated by the JIT
+     */
+    public fun run(): Int
+}
+
+val WORKLOAD_SIZE = 1000
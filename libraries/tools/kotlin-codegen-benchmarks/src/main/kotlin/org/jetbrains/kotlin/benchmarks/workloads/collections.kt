@@ -0,0 +1,40 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+public class CollectionPipeline : Workload {
+    private val numbers = (0..WORKLOAD_SIZE - 1).toList()
+
+    override fun run(): Int {
+        return numbers.filter { it % 3 != 0 }.map { it * 2 }.fold(0) { sum, x -> sum + x }
+    }
+}
+
+public class CollectionIteration : Workload {
+    private val words = (0..WORKLOAD_SIZE - 1).map { "word$it" }
+
+    override fun run(): Int {
+        var result = 0
+        words.forEach { result += it.length() }
+        result += words.count { it.endsWith("7") }
+        if (words.any { it == "word500" }) result++
+        for ((index, word) in words.withIndices()) {
+            if (index % 100 == 0) result += word.hashCode()
+        }
+        return result
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+data class Point(val x: Int, val y: Int)
+
+public class DataClasses : Workload {
+    private val points = (0..99).map { Point(it, it * 2) }
+
+    override fun run(): Int {
+        var result = 0
+        for (point in points) {
+            val moved = point.copy(x = point.x + 1)
+            val (x, y) = moved
+            result += x + y + moved.hashCode()
+            if (moved == point) result++
+        }
+        return result
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+import kotlin.properties.Delegates
+
+class Counter {
+    var changes = 0
+
+    val lazyValue: Int by Delegates.lazy { 42 }
+
+    var observed: Int by Delegates.observable(0) { desc, old, new -> changes += 1 }
+
+    var notNull: String by Delegates.notNull()
+}
+
+public class DelegatedProperties : Workload {
+    override fun run(): Int {
+        val counter = Counter()
+        counter.notNull = "value"
+        var result = 0
+        for (i in 0..99) {
+            counter.observed = i
+            result += counter.observed + counter.lazyValue + counter.notNull.length()
+        }
+        return result + counter.changes
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+fun applyTwice(x: Int, f: (Int) -> Int): Int = f(f(x))
+
+inline fun applyTwiceInline(x: Int, f: (Int) -> Int): Int = f(f(x))
+
+public class Lambdas : Workload {
+    override fun run(): Int {
+        var result = 0
+        for (i in 0..WORKLOAD_SIZE - 1) {
+            // non-capturing, capturing and inlined lambdas are compiled differently
+            result += applyTwice(i) { it + 1 }
+            result += applyTwice(i) { it + result % 7 }
+            result += applyTwiceInline(i) { it * 2 + result % 3 }
+        }
+        val function = { (x: Int) -> x * 3 }
+        return result + function(result)
+    }
+}
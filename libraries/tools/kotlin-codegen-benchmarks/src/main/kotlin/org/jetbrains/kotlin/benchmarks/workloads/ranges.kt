@@ -0,0 +1,54 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+public class RangeLoops : Workload {
+    override fun run(): Int {
+        var sum = 0
+        for (i in 0..WORKLOAD_SIZE - 1) {
+            sum += i
+        }
+        for (i in WORKLOAD_SIZE downTo 0 step 3) {
+            sum -= i
+        }
+        for (c in 'a'..'z') {
+            sum += c.toInt()
+        }
+        return sum
+    }
+}
+
+public class RangeContains : Workload {
+    private val values = createValues()
+
+    private fun createValues(): IntArray {
+        val result = IntArray(WORKLOAD_SIZE)
+        for (i in result.indices) {
+            result[i] = i * 37 % 500
+        }
+        return result
+    }
+
+    override fun run(): Int {
+        var count = 0
+        for (value in values) {
+            if (value in 100..200) count++
+            if (value !in 0..400) count += 2
+        }
+        return count
+    }
+}
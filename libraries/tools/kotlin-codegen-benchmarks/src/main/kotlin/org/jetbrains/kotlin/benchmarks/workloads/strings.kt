@@ -0,0 +1,30 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+public class StringTemplates : Workload {
+    private val names = array("first", "second", "third")
+
+    override fun run(): Int {
+        var length = 0
+        for (i in 0..99) {
+            val name = names[i % names.size]
+            length += "Item #$i: $name (${name.length()} chars, ${i * 0.5})".length()
+        }
+        return length
+    }
+}
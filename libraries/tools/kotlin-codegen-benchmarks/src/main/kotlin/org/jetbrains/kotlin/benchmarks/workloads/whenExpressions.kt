@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.benchmarks.workloads
+
+enum class Direction {
+    NORTH
+    EAST
+    SOUTH
+    WEST
+}
+
+public class WhenOnStrings : Workload {
+    private val commands = array("start", "stop", "pause", "resume", "restart", "status", "unknown")
+
+    override fun run(): Int {
+        var result = 0
+        for (i in 0..WORKLOAD_SIZE - 1) {
+            result += when (commands[i % commands.size]) {
+                "start" -> 1
+                "stop" -> 2
+                "pause" -> 3
+                "resume" -> 4
+                "restart" -> 5
+                "status" -> 6
+                else -> 7
+            }
+        }
+        return result
+    }
+}
+
+public class WhenOnEnums : Workload {
+    private val directions = Direction.values()
+
+    override fun run(): Int {
+        var x = 0
+        var y = 0
+        for (i in 0..WORKLOAD_SIZE - 1) {
+            when (directions[i * 7 % directions.size]) {
+                Direction.NORTH -> y++
+                Direction.EAST -> x++
+                Direction.SOUTH -> y--
+                Direction.WEST -> x--
+            }
+        }
+        return x * 31 + y
+    }
+}
@@ -0,0 +1,74 @@
+package org.jetbrains.kotlin.gradle.plugin
+
+import org.gradle.BuildAdapter
+import org.gradle.BuildResult
+import org.gradle.api.invocation.Gradle
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.util.Disposer
+import java.io.File
+import java.util.HashMap
+
+/**
+ * State shared by Kotlin plugins and tasks of all projects of a build: the compiler session, which keeps the compiler environment and
+ * the jars it has opened between compile tasks, and dependencies of the plugin resolved once per build (e.g. default annotations).
+ * Everything is released when the build finishes, because plugin classes outlive builds in the Gradle daemon
+ */
+object KotlinBuildSession {
+    private var gradle: Gradle? = null
+    private var compilerSession: Disposable? = null
+    private val resolvedDependencies = HashMap<String, Collection<File>>()
+    private val compilerLock = Any()
+
+    public fun startCompilerSession(gradle: Gradle) {
+        synchronized(this) {
+            attachTo(gradle)
+            if (compilerSession == null) {
+                compilerSession = JetCoreEnvironment.startCompilerSession()
+            }
+        }
+    }
+
+    /**
+     * Projects of a build share the class loader of the plugin, so with `gradle --parallel` their tasks may run the compiler
+     * concurrently. The compiler keeps static state (the session above, caches of opened jars), so runs are serialized
+     */
+    public fun <T> runCompiler(compile: () -> T): T {
+        synchronized(compilerLock) {
+            return compile()
+        }
+    }
+
+    public fun resolveDependency(gradle: Gradle, coordinates: String, resolve: (String) -> Collection<File>): Collection<File> {
+        synchronized(this) {
+            attachTo(gradle)
+            return resolvedDependencies.getOrPut(coordinates) { resolve(coordinates) }
+        }
+    }
+
+    private fun attachTo(gradle: Gradle) {
+        if (this.gradle == gradle) return
+
+        finish()
+        this.gradle = gradle
+        gradle.addBuildListener(object : BuildAdapter() {
+            override fun buildFinished(result: BuildResult) {
+                synchronized(this@KotlinBuildSession) {
+                    if (this@KotlinBuildSession.gradle == gradle) {
+                        finish()
+                    }
+                }
+            }
+        })
+    }
+
+    private fun finish() {
+        val session = compilerSession
+        if (session != null) {
+            Disposer.dispose(session)
+            compilerSession = null
+        }
+        resolvedDependencies.clear()
+        gradle = null
+    }
+}
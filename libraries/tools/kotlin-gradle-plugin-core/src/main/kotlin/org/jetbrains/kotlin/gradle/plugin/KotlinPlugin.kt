@@ -50,7 +50,7 @@ open class KotlinPlugin [Inject] (val scriptHandler: ScriptHandler): Plugin<Proj
         configureKDoc(project, javaPluginConvention)
 
         val version = project.getProperties()["kotlin.gradle.plugin.version"] as String
-        project.getExtensions().add(DEFAULT_ANNOTATIONS, GradleUtils(scriptHandler).resolveDependencies("org.jetbrains.kotlin:kotlin-jdk-annotations:$version"))
+        project.getExtensions().add(DEFAULT_ANNOTATIONS, GradleUtils(scriptHandler).resolveDependencyOncePerBuild(project, "org.jetbrains.kotlin:kotlin-jdk-annotations:$version"))
     }
 
 
@@ -162,7 +162,7 @@ open class KotlinAndroidPlugin [Inject] (val scriptHandler: ScriptHandler): Plug
         }
 
         val version = project.getProperties()["kotlin.gradle.plugin.version"] as String
-        project.getExtensions().add(DEFAULT_ANNOTATIONS, GradleUtils(scriptHandler!!).resolveDependencies("org.jetbrains.kotlin:kotlin-android-sdk-annotations:$version"))
+        project.getExtensions().add(DEFAULT_ANNOTATIONS, GradleUtils(scriptHandler!!).resolveDependencyOncePerBuild(project, "org.jetbrains.kotlin:kotlin-android-sdk-annotations:$version"))
     }
 
     private fun processVariants(variants: DefaultDomainObjectSet<out BaseVariant>, project: Project, androidExt: BaseExtension): Unit {
@@ -284,5 +284,9 @@ open class GradleUtils(val scriptHandler: ScriptHandler) {
 
         return configuration.getResolvedConfiguration().getFiles({true})
     }
+
+    public fun resolveDependencyOncePerBuild(project: Project, coordinates: String): Collection<File> {
+        return KotlinBuildSession.resolveDependency(project.getGradle(), coordinates) { resolveDependencies(it) }
+    }
 }
 
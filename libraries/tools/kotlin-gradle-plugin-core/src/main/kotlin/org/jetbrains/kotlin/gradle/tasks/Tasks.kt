@@ -24,6 +24,9 @@ import org.apache.commons.io.FileUtils
 import org.jetbrains.kotlin.gradle.plugin.*
 import org.gradle.api.Project
 import org.jetbrains.jet.config.Services
+import org.jetbrains.jet.config.IncrementalCompilation
+import org.jetbrains.jet.cli.jvm.incremental.IncrementalJvmCompiler
+import com.intellij.openapi.util.io.FileUtil
 
 public open class KotlinCompile(): AbstractCompile() {
 
@@ -122,9 +125,19 @@ public open class KotlinCompile(): AbstractCompile() {
         args.noCallAssertions = kotlinOptions.noCallAssertions
         args.noParamAssertions = kotlinOptions.noParamAssertions
 
+        // Keep the compiler environment between Kotlin tasks of all projects of this build
+        KotlinBuildSession.startCompilerSession(getProject().getGradle())
+
         val messageCollector = GradleMessageCollector(getLogger())
         getLogger().debug("Calling compiler")
-        val exitCode = compiler.exec(messageCollector, Services.EMPTY, args)
+        val exitCode = KotlinBuildSession.runCompiler {
+            if (IncrementalCompilation.ENABLED) {
+                compileIncrementally(sources, args, messageCollector)
+            }
+            else {
+                compiler.exec(messageCollector, Services.EMPTY, args)
+            }
+        }
 
         when (exitCode) {
             ExitCode.COMPILATION_ERROR -> throw GradleException("Compilation error. See log for more details")
@@ -139,6 +152,27 @@ public open class KotlinCompile(): AbstractCompile() {
             FileUtils.copyDirectory(outputDirFile, getDestinationDir())
         }
     }
+
+    private fun compileIncrementally(sources: List<File>, args: K2JVMCompilerArguments, messageCollector: MessageCollector): ExitCode {
+        val outputDir = File(args.destination!!)
+        val cacheDir = File(getProject().getBuildDir(), "kotlin/${getName()}")
+        getLogger().debug("Using incremental compilation cache in ${cacheDir}")
+
+        val incrementalCompiler = IncrementalJvmCompiler(getName(), cacheDir, outputDir)
+        val exitCode = incrementalCompiler.compile(sources, args, messageCollector)
+
+        // Class files of changed and removed sources were copied to the destination directory by previous builds
+        val destinationDir = getDestinationDir()
+        if (destinationDir != outputDir) {
+            for (deletedOutput in incrementalCompiler.getDeletedOutputs()) {
+                val relativePath = FileUtil.getRelativePath(outputDir, deletedOutput)
+                if (relativePath != null) {
+                    File(destinationDir, relativePath).delete()
+                }
+            }
+        }
+        return exitCode
+    }
 }
 
 public open class KDoc(): SourceTask() {
@@ -190,7 +224,7 @@ public open class KDoc(): SourceTask() {
         val compiler = KDocCompiler()
 
         val messageCollector = GradleMessageCollector(getLogger())
-        val exitCode = compiler.exec(messageCollector, Services.EMPTY, args)
+        val exitCode = KotlinBuildSession.runCompiler { compiler.exec(messageCollector, Services.EMPTY, args) }
 
         when (exitCode) {
             ExitCode.COMPILATION_ERROR -> throw GradleException("Failed to generate kdoc. See log for more details")
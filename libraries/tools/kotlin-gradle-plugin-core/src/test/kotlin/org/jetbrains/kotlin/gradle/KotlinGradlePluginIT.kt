@@ -3,6 +3,7 @@ package org.jetbrains.kotlin.gradle
 import org.junit.Test
 import org.jetbrains.kotlin.gradle.BaseGradleIT.Project
 import org.gradle.api.logging.LogLevel
+import java.io.File
 
 class BasicKotlinGradleIT : BaseGradleIT() {
 
@@ -78,4 +79,30 @@ class BasicKotlinGradleIT : BaseGradleIT() {
             assertSuccessful()
         }
     }
-}
\ No newline at end of file
+
+    Test fun testIncrementalCompilationWithMixedSourceRoot() {
+        val project = Project("incrementalMixedSrc", "1.6")
+        val options = array("build", "-Dkotlin.incremental.compilation=true", "-Pkotlin.gradle.plugin.version=0.1-SNAPSHOT")
+
+        project.build(*options) {
+            assertSuccessful()
+            assertContains("Compiling 2 of 2 Kotlin source files")
+        }
+
+        // The source root is on the classpath of the Kotlin compiler because of the Java sources in it
+        val names = File(project.projectDir(), "src/main/java/demo/names.kt")
+        names.writeText(names.readText().replace("World", "Gradle"))
+        project.build(*options) {
+            assertSuccessful()
+            assertContains("Compiling 1 of 2 Kotlin source files")
+            assertNotContains("all Kotlin sources will be recompiled")
+        }
+
+        val greeter = File(project.projectDir(), "src/main/java/demo/Greeter.java")
+        greeter.writeText(greeter.readText().replace("Hello", "Hi"))
+        project.build(*options) {
+            assertSuccessful()
+            assertContains("all Kotlin sources will be recompiled", "Compiling 2 of 2 Kotlin source files")
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package demo;
+
+public class HelloWorld {
+    public static void main(String[] args) {
+        System.out.println(DemoPackage.greet(new Greeter(), DemoPackage.defaultName()));
+    }
+}
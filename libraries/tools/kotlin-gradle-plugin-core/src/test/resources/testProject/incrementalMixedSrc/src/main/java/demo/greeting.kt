@@ -0,0 +1,3 @@
+package demo
+
+fun greet(greeter: Greeter, name: String): String = "${greeter.getGreeting()}, $name"
@@ -0,0 +1,3 @@
+package demo
+
+fun defaultName(): String = "World"
@@ -29,10 +29,17 @@ open class BaseGradleIT(resourcesRoot: String = "src/test/resources") {
 
     class CompiledProject(val project: Project, val output: String, val resultCode: Int)
 
+    /**
+     * The copy of the project the builds run in. Changes made to it are seen by the following builds of the same test
+     */
+    fun Project.projectDir(): File = File(workingDir, projectName)
+
     fun Project.build(vararg tasks: String, check: CompiledProject.() -> Unit) {
-        copyRecursively(File(resourcesRootFile, "testProject/$projectName"), workingDir)
-        val projectDir = File(workingDir, projectName)
-        copyDirRecursively(File(resourcesRootFile, "GradleWrapper-$wrapperVersion"), projectDir)
+        val projectDir = projectDir()
+        if (!projectDir.exists()) {
+            copyRecursively(File(resourcesRootFile, "testProject/$projectName"), workingDir)
+            copyDirRecursively(File(resourcesRootFile, "GradleWrapper-$wrapperVersion"), projectDir)
+        }
         val cmd = createCommand(tasks)
         val process = createProcess(cmd, projectDir)
 
@@ -33,7 +33,13 @@ abstract class KotlinBasePluginWrapper: Plugin<Project> {
         val kotlinPluginVersion = loadKotlinVersionFromResource()
         project.getExtensions().getExtraProperties()?.set("kotlin.gradle.plugin.version", kotlinPluginVersion)
 
-        val cls = pluginVersionsMap.getOrElse("$kotlinPluginVersion:${getPluginClassName()}", { loadPluginInIsolatedClassloader(kotlinPluginVersion, sourceBuildScript) })
+        // Plugin classes (and so the compiler with its caches) are loaded once and shared by all projects of the build,
+        // compilations of parallel projects are serialized by KotlinBuildSession in this class loader
+        val cls = synchronized(pluginVersionsMap) {
+            pluginVersionsMap.getOrPut("$kotlinPluginVersion:${getPluginClassName()}") {
+                loadPluginInIsolatedClassloader(kotlinPluginVersion, sourceBuildScript)
+            }
+        }
 
         val constructor = cls.getConstructor(javaClass<ScriptHandler>())
         val method = cls.getMethod("apply", javaClass<Project>())
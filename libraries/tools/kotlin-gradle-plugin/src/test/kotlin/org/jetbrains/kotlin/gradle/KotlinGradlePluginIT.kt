@@ -60,4 +60,12 @@ class BasicKotlinGradleIT: BaseGradleIT() {
             assertContains(":subproject:compileKotlin", ":subproject:compileTestKotlin")
         }
     }
-}
\ No newline at end of file
+
+    Test fun testMultiprojectParallelBuild() {
+        // Projects share the class loader of the plugin, so their compile tasks may run the same compiler concurrently
+        Project("multiprojectParallel", "1.6").build("build", "--parallel") {
+            assertSuccessful()
+            assertContains(":first:compileKotlin", ":second:compileKotlin", ":third:compileKotlin")
+        }
+    }
+}
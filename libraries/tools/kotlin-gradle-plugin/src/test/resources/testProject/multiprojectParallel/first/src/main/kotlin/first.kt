@@ -0,0 +1,23 @@
+package first
+
+import java.util.ArrayList
+
+class Node(val name: String, val children: List<Node>)
+
+fun tree(depth: Int): Node {
+    val children = ArrayList<Node>()
+    if (depth > 0) {
+        for (i in 1..3) {
+            children.add(tree(depth - 1))
+        }
+    }
+    return Node("first$depth", children)
+}
+
+fun count(node: Node): Int {
+    var result = 1
+    for (child in node.children) {
+        result += count(child)
+    }
+    return result
+}
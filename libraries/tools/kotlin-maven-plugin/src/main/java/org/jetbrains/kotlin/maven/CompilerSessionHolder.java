@@ -0,0 +1,60 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.maven;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+
+/**
+ * Keeps the compiler environment and the jars opened by it between executions of Kotlin mojos in all projects of one Maven build.
+ * The session is released at the end of the build by {@link CompilerSessionLifecycleParticipant}. Maven runs it only when the plugin
+ * is declared with {@code <extensions>true</extensions>}, otherwise the session is released when a mojo is executed in another build
+ * (which may happen when Maven is embedded and the plugin class loader is reused) or when the JVM exits.
+ */
+final class CompilerSessionHolder {
+    private static MavenExecutionRequest currentBuild;
+    private static Disposable compilerSession;
+
+    private CompilerSessionHolder() {
+    }
+
+    public static synchronized void startFor(@NotNull MavenSession session) {
+        // Sessions are cloned for each project in parallel builds, but the request is shared by all of them
+        MavenExecutionRequest build = session.getRequest();
+        if (currentBuild == build) return;
+
+        if (compilerSession != null) {
+            Disposer.dispose(compilerSession);
+        }
+        currentBuild = build;
+        compilerSession = JetCoreEnvironment.startCompilerSession();
+    }
+
+    public static synchronized void endFor(@NotNull MavenSession session) {
+        if (currentBuild != session.getRequest()) return;
+
+        if (compilerSession != null) {
+            Disposer.dispose(compilerSession);
+            compilerSession = null;
+        }
+        currentBuild = null;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2010-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.maven;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Releases the compiler session held by {@link CompilerSessionHolder} when the build is finished.
+ * Registered in META-INF/plexus/components.xml
+ */
+public class CompilerSessionLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+    @Override
+    public void afterSessionEnd(MavenSession session) throws MavenExecutionException {
+        CompilerSessionHolder.endFor(session);
+    }
+}
@@ -23,8 +23,14 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.cli.common.CLICompiler;
+import org.jetbrains.jet.cli.common.ExitCode;
 import org.jetbrains.jet.cli.common.arguments.K2JVMCompilerArguments;
+import org.jetbrains.jet.cli.common.messages.MessageCollector;
 import org.jetbrains.jet.cli.jvm.K2JVMCompiler;
+import org.jetbrains.jet.cli.jvm.incremental.IncrementalJvmCompiler;
+import org.jetbrains.jet.config.IncrementalCompilation;
+import org.jetbrains.jet.plugin.JetFileType;
 
 import java.io.File;
 import java.io.IOException;
@@ -140,6 +146,52 @@ public class K2JVMCompileMojo extends KotlinCompileMojoBase<K2JVMCompilerArgumen
         }
     }
 
+    @NotNull
+    @Override
+    protected ExitCode executeCompiler(
+            @NotNull CLICompiler<K2JVMCompilerArguments> compiler,
+            @NotNull K2JVMCompilerArguments arguments,
+            @NotNull MessageCollector messageCollector
+    ) {
+        if (!IncrementalCompilation.ENABLED || arguments.module != null) {
+            return super.executeCompiler(compiler, arguments, messageCollector);
+        }
+
+        File cacheDir = getIncrementalCacheDir();
+        LOG.info("Compiling Kotlin sources incrementally, caches are stored in " + cacheDir);
+
+        IncrementalJvmCompiler incrementalCompiler = new IncrementalJvmCompiler(project.getArtifactId(), cacheDir, new File(output));
+        return incrementalCompiler.compile(collectKotlinSourceFiles(), arguments, messageCollector);
+    }
+
+    @NotNull
+    protected File getIncrementalCacheDir() {
+        return new File(project.getBuild().getDirectory(), "kotlin-incremental/main");
+    }
+
+    @NotNull
+    private List<File> collectKotlinSourceFiles() {
+        List<File> result = new ArrayList<File>();
+        for (String source : getSources()) {
+            collectKotlinSourceFiles(new File(source), result);
+        }
+        return result;
+    }
+
+    private static void collectKotlinSourceFiles(@NotNull File file, @NotNull List<File> result) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    collectKotlinSourceFiles(child, result);
+                }
+            }
+        }
+        else if (file.getName().endsWith("." + JetFileType.EXTENSION)) {
+            result.add(file);
+        }
+    }
+
     protected String getFullAnnotationsPath(Log log, List<String> annotations) {
         String jdkAnnotation = getJdkAnnotations().getPath();
 
@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.maven;
 
 import com.intellij.util.ArrayUtil;
 import com.sampullara.cli.Args;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -81,6 +82,13 @@ public abstract class KotlinCompileMojoBase<A extends CommonCompilerArguments> e
      */
     public MavenProject project;
 
+    /**
+     * @parameter default-value="${session}"
+     * @required
+     * @readonly
+     */
+    public MavenSession session;
+
     /**
      * The directory for compiled classes.
      *
@@ -171,6 +179,7 @@ public abstract class KotlinCompileMojoBase<A extends CommonCompilerArguments> e
             }
         };
 
+        CompilerSessionHolder.startFor(session);
         ExitCode exitCode = executeCompiler(compiler, arguments, messageCollector);
 
         switch (exitCode) {
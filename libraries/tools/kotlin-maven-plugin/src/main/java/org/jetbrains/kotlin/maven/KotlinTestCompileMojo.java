@@ -22,6 +22,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.cli.common.arguments.K2JVMCompilerArguments;
 import org.jetbrains.jet.cli.jvm.K2JVMCompiler;
 
+import java.io.File;
 import java.util.List;
 
 /**
@@ -94,4 +95,10 @@ public class KotlinTestCompileMojo extends K2JVMCompileMojo {
 
         super.configureSpecificCompilerArguments(arguments);
     }
+
+    @NotNull
+    @Override
+    protected File getIncrementalCacheDir() {
+        return new File(project.getBuild().getDirectory(), "kotlin-incremental/test");
+    }
 }
@@ -95,9 +95,12 @@ fun aggregates(): List<GenericFunction> {
             return count
             """
         }
-        body(Strings, Maps, Collections, ArraysOfObjects, ArraysOfPrimitives) {
+        body(Strings, Maps, Collections) {
             "return size"
         }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            "return size()"
+        }
     }
 
     templates add f("min()") {
@@ -158,7 +161,7 @@ fun aggregates(): List<GenericFunction> {
         }
         body(ArraysOfObjects, ArraysOfPrimitives) {
             """
-            if (size == 0) return null
+            if (isEmpty()) return null
 
             var minElem = this[0]
             var minValue = f(minElem)
@@ -319,6 +322,15 @@ fun aggregates(): List<GenericFunction> {
             return accumulator
             """
         }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            """
+            var accumulator = initial
+            for (index in indices) {
+                accumulator = operation(accumulator, this[index])
+            }
+            return accumulator
+            """
+        }
     }
 
     templates add f("foldRight(initial: R, operation: (T, R) -> R)") {
@@ -338,6 +350,15 @@ fun aggregates(): List<GenericFunction> {
             return accumulator
             """
         }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            """
+            var accumulator = initial
+            for (index in lastIndex downTo 0) {
+                accumulator = operation(this[index], accumulator)
+            }
+            return accumulator
+            """
+        }
     }
 
 
@@ -358,6 +379,17 @@ fun aggregates(): List<GenericFunction> {
             return accumulator
             """
         }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            """
+            if (isEmpty()) throw UnsupportedOperationException("Empty iterable can't be reduced")
+
+            var accumulator = this[0]
+            for (index in 1..lastIndex) {
+                accumulator = operation(accumulator, this[index])
+            }
+            return accumulator
+            """
+        }
     }
 
     templates add f("reduceRight(operation: (T, T) -> T)") {
@@ -376,6 +408,19 @@ fun aggregates(): List<GenericFunction> {
                 accumulator = operation(get(index--), accumulator)
             }
 
+            return accumulator
+            """
+        }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            """
+            var index = lastIndex
+            if (index < 0) throw UnsupportedOperationException("Empty iterable can't be reduced")
+
+            var accumulator = this[index--]
+            while (index >= 0) {
+                accumulator = operation(this[index--], accumulator)
+            }
+
             return accumulator
             """
         }
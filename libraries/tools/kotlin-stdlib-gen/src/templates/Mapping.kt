@@ -34,6 +34,12 @@ fun mapping(): List<GenericFunction> {
         body {
             "return mapTo(ArrayList<R>(), transform)"
         }
+        body(ArraysOfObjects, ArraysOfPrimitives, Maps) {
+            "return mapTo(ArrayList<R>(size()), transform)"
+        }
+        body(Strings) {
+            "return mapTo(ArrayList<R>(length()), transform)"
+        }
 
         inline(false, Streams)
         returns(Streams) { "Stream<R>" }
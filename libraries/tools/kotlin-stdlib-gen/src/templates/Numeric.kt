@@ -18,6 +18,15 @@ fun numeric(): List<GenericFunction> {
             return sum
             """
         }
+        body(ArraysOfObjects, ArraysOfPrimitives) {
+            """
+            var sum: SUM = ZERO
+            for (element in this) {
+                sum += element
+            }
+            return sum
+            """
+        }
     }
 
     return templates